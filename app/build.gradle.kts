@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.google.gms.google.services)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -15,6 +16,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Load testing and macrobenchmarks: -Piwatts.dbEmulator=10.0.2.2:9000 points the app
+        // at the Realtime Database emulator, -Piwatts.syntheticDays=3650 fills it at startup
+        val dbEmulator = (project.findProperty("iwatts.dbEmulator") as String?) ?: ""
+        val syntheticDays = (project.findProperty("iwatts.syntheticDays") as String?) ?: "0"
+        buildConfigField("String", "DB_EMULATOR", "\"$dbEmulator\"")
+        buildConfigField("int", "SYNTHETIC_DAYS", syntheticDays)
     }
 
     buildTypes {
@@ -32,10 +40,16 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+    testOptions {
+        // Local unit tests touch android.util.Log through the data layer
+        unitTests.isReturnDefaultValues = true
     }
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
     implementation("com.github.bumptech.glide:glide:4.16.0")
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
@@ -47,6 +61,10 @@ dependencies {
     implementation(libs.firebase.database)
     implementation(libs.navigation.fragment)
     implementation(libs.navigation.ui)
+    implementation(libs.lifecycle.livedata)
+    implementation(libs.lifecycle.viewmodel)
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
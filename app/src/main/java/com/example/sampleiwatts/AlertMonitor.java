@@ -0,0 +1,263 @@
+package com.example.sampleiwatts;
+
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Observer;
+
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.core.RangeTotals;
+import com.example.sampleiwatts.core.ThresholdEvaluator;
+import com.example.sampleiwatts.data.EnergyRepository;
+import com.example.sampleiwatts.data.LatestReadingStore;
+import com.example.sampleiwatts.data.ListenerRegistration;
+import com.example.sampleiwatts.data.LogReading;
+import com.example.sampleiwatts.data.RollupStore;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process-wide owner of the voltage and threshold alert listeners.
+ *
+ * Alerts keep coming after AlertActivity is left, so the listeners cannot be fields of
+ * the activity: a recreated screen would attach a second set, notify and write every
+ * alert twice, and keep the old activity alive. Here each listener is attached at most
+ * once per process and notifications go through the application context.
+ */
+public class AlertMonitor {
+    private static final String TAG = "AlertMonitor";
+    static final String CHANNEL_ID = "alerts_channel";
+
+    private static AlertMonitor instance;
+
+    private final Context context;
+    private final DatabaseReference db;
+    private final EnergyRepository repository;
+    private final RollupStore rollupStore;
+    private final ThresholdEvaluator thresholdEvaluator = new ThresholdEvaluator();
+    private int thresholdSeedGeneration = 0;
+    private boolean pushEnabled = false;
+
+    private ValueEventListener thresholdRefListener;
+    private ListenerRegistration costFilterRegistration;
+    private ListenerRegistration latestHourlyRegistration;
+    private Observer<LogReading> voltageObserver;
+    private String lastVoltageKeyNotified = null;
+
+    private AlertMonitor(Context context) {
+        this.context = context;
+        this.db = FirebaseDatabase.getInstance().getReference();
+        this.repository = EnergyRepository.getInstance();
+        this.rollupStore = RollupStore.getInstance(context);
+    }
+
+    public static synchronized AlertMonitor getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlertMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Whether alerts are also posted as system notifications (the Push switch)
+     */
+    public void setPushEnabled(boolean pushEnabled) {
+        this.pushEnabled = pushEnabled;
+    }
+
+    public boolean hasNotificationPermission() {
+        if (android.os.Build.VERSION.SDK_INT < 33) return true;
+        return ContextCompat.checkSelfPermission(context, android.Manifest.permission.POST_NOTIFICATIONS) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /**
+     * Write the alert to the alerts node and, when push is on, post a notification
+     */
+    public void notifyNow(String title, String message) {
+        // Always send to database
+        logAlertToDatabase(title, message);
+
+        // Send push notification if enabled and permission granted
+        if (pushEnabled && hasNotificationPermission()) {
+            NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+            if (manager != null) {
+                NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                        .setSmallIcon(R.drawable.ic_notification)
+                        .setContentTitle(title)
+                        .setContentText(message)
+                        .setPriority(NotificationCompat.PRIORITY_HIGH)
+                        .setAutoCancel(true);
+                int id = (int) System.currentTimeMillis();
+                manager.notify(id, builder.build());
+            }
+        }
+    }
+
+    /**
+     * Notify on every new reading with a Fluct flag; a no-op when already running
+     */
+    public void startVoltageMonitoring() {
+        if (voltageObserver != null) return;
+        voltageObserver = latestEntry -> {
+            // Only the newest entry is held, so there are no bulk notifications
+            String key = latestEntry.pushKey;
+            if (key != null && key.equals(lastVoltageKeyNotified)) return; // already notified for this entry
+
+            boolean a1 = (latestEntry.fluct1 == 1);
+            boolean a2 = (latestEntry.fluct2 == 1);
+            boolean a3 = (latestEntry.fluct3 == 1);
+            if (a1 || a2 || a3) {
+                StringBuilder msg = new StringBuilder("Voltage fluctuation detected in ");
+                if (a1) msg.append("Area 1 ");
+                if (a2) msg.append("Area 2 ");
+                if (a3) msg.append("Area 3 ");
+                lastVoltageKeyNotified = key;
+                notifyNow("Voltage Fluctuation", msg.toString().trim());
+            }
+        };
+        // Not tied to any screen's lifecycle: alerts keep coming after leaving AlertActivity, as before
+        LatestReadingStore.getInstance().getReading().observeForever(voltageObserver);
+    }
+
+    /**
+     * Follow the threshold, the cost filter range and the newest hourly rows; each
+     * listener is attached once, so calling this again never stacks another one
+     */
+    public void startThresholdMonitoring() {
+        if (thresholdRefListener == null) {
+            thresholdRefListener = new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot tSnap) {
+                    Double kwhLimit = parseDouble(tSnap.child("kwh_value").getValue());
+                    Double costLimit = parseDouble(tSnap.child("cost_value").getValue());
+                    Boolean finalNotified = tSnap.child("final_notified").getValue(Boolean.class);
+                    thresholdEvaluator.setLimits(kwhLimit, costLimit, finalNotified != null && finalNotified);
+                    evaluateThresholds();
+                }
+                @Override public void onCancelled(@NonNull DatabaseError error) { }
+            };
+            db.child("threshold").addValueEventListener(thresholdRefListener);
+        }
+
+        if (costFilterRegistration == null) {
+            costFilterRegistration = repository.observeCostFilterRange(new EnergyRepository.RangeCallback() {
+                @Override
+                public void onRangeLoaded(DateRange range) {
+                    seedThresholdEvaluator(range);
+                }
+                @Override public void onError(String error) { }
+            });
+        }
+
+        if (latestHourlyRegistration == null) {
+            // Only the newest date can still change; its hours update the running totals
+            latestHourlyRegistration = repository.observeLatestHourlyDay(new EnergyRepository.HourlySummariesCallback() {
+                @Override
+                public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                    for (HourlySummary h : summaries) {
+                        thresholdEvaluator.applyHour(h);
+                    }
+                    evaluateThresholds();
+                }
+                @Override public void onError(String error) { }
+            });
+        }
+    }
+
+    /**
+     * Seed the running totals once per range: prefix-sum totals plus the stored hours
+     * of yesterday and today, which the live listener may still update
+     */
+    private void seedThresholdEvaluator(DateRange range) {
+        int generation = ++thresholdSeedGeneration;
+        rollupStore.loadRangeTotals(range, new RollupStore.TotalsCallback() {
+            @Override
+            public void onTotalsLoaded(RangeTotals totals) {
+                if (generation != thresholdSeedGeneration) return;
+                String from = changingDaysStart();
+                if (from.compareTo(range.startDate) < 0) from = range.startDate;
+                if (from.compareTo(range.endDate) > 0) {
+                    thresholdEvaluator.seed(range, totals, Collections.emptyList());
+                    evaluateThresholds();
+                    return;
+                }
+                rollupStore.loadHourlySummaries(new DateRange(from, range.endDate), new EnergyRepository.HourlySummariesCallback() {
+                    @Override
+                    public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                        if (generation != thresholdSeedGeneration) return;
+                        thresholdEvaluator.seed(range, totals, summaries);
+                        evaluateThresholds();
+                    }
+                    @Override public void onError(String error) { }
+                });
+            }
+            @Override public void onError(String error) { }
+        });
+    }
+
+    private void evaluateThresholds() {
+        if (!thresholdEvaluator.isSeeded() || !thresholdEvaluator.hasLimits()) return;
+
+        Log.d(TAG, "totalCost=" + String.format(Locale.getDefault(), "%.2f", thresholdEvaluator.getTotalCost()) +
+                " totalKwh=" + String.format(Locale.getDefault(), "%.3f", thresholdEvaluator.getTotalKwh()));
+
+        for (ThresholdEvaluator.Alert alert : thresholdEvaluator.evaluate()) {
+            notifyNow(alert.title, alert.message);
+            if (alert.isFinal) {
+                // persist so we don't re-notify if restarted
+                db.child("threshold").child("final_notified").setValue(true);
+            }
+        }
+    }
+
+    private void logAlertToDatabase(String title, String message) {
+        String type = inferAlertType(title);
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(new Date());
+        DatabaseReference alertsRef = db.child("alerts");
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", type);
+        data.put("title", title);
+        data.put("message", message);
+        data.put("time", timestamp);
+        data.put("read", false);
+        data.put("delete", false);
+        alertsRef.push().setValue(data);
+    }
+
+    private static String inferAlertType(String title) {
+        String t = title == null ? "" : title.toLowerCase(Locale.getDefault());
+        if (t.contains("voltage")) return "fluctuation";
+        if (t.contains("system")) return "systemUpdates";
+        if (t.contains("kwh")) return "power";
+        if (t.contains("cost")) return "budget";
+        return "general";
+    }
+
+    private static String changingDaysStart() {
+        return DateKeys.dayKey(DateKeys.todayOrdinal() - 1);
+    }
+
+    private static Double parseDouble(Object v) {
+        if (v == null) return null;
+        if (v instanceof Number) return ((Number) v).doubleValue();
+        try { return Double.parseDouble(String.valueOf(v)); } catch (Exception e) { return null; }
+    }
+}
@@ -34,8 +34,16 @@ public class ButtonNavigator {
 
     // Method to navigate and emphasize the selected button
     private static void navigateToActivity(Context context, Class<?> activityClass, ImageView selectedButton, ImageView... otherButtons) {
-        // Start the activity
+        // Already on this screen; nothing to start
+        if (context.getClass() == activityClass) {
+            emphasizeButton(selectedButton, otherButtons);
+            return;
+        }
+
+        // Bring an existing instance forward instead of stacking a new one, so each tab
+        // keeps its loaded data and listeners and at most one copy of each screen exists
         Intent intent = new Intent(context, activityClass);
+        intent.addFlags(Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
         context.startActivity(intent);
 
         // Emphasize the selected button and reset others
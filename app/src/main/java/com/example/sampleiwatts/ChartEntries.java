@@ -0,0 +1,51 @@
+package com.example.sampleiwatts;
+
+import android.view.View;
+
+import com.example.sampleiwatts.core.Downsampler;
+import com.github.mikephil.charting.data.Entry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line chart entries capped at the chart's pixel width.
+ *
+ * Long ranges are reduced with Downsampler.lttb(); each kept entry keeps its original
+ * index as x, so an IndexAxisValueFormatter over the full label list still lines up.
+ */
+final class ChartEntries {
+    // One drawn point per this many horizontal pixels
+    private static final int PIXELS_PER_POINT = 4;
+    private static final int MIN_POINTS = 32;
+
+    private ChartEntries() { }
+
+    static List<Entry> downsampled(double[] values, View chart) {
+        int[] kept = Downsampler.lttb(values, maxPoints(chart));
+        List<Entry> entries = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            entries.add(new Entry(index, (float) values[index]));
+        }
+        return entries;
+    }
+
+    static List<Entry> downsampled(List<Double> values, View chart) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return downsampled(array, chart);
+    }
+
+    /**
+     * Points the chart can show; before layout the screen width stands in for the chart's
+     */
+    static int maxPoints(View chart) {
+        int width = chart.getWidth();
+        if (width == 0) {
+            width = chart.getResources().getDisplayMetrics().widthPixels;
+        }
+        return Math.max(MIN_POINTS, width / PIXELS_PER_POINT);
+    }
+}
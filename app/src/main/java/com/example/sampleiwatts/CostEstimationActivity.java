@@ -31,6 +31,15 @@ import com.github.mikephil.charting.data.BarDataSet;
 import com.github.mikephil.charting.data.BarEntry;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
 import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.data.EnergyRepository;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.data.ListenerRegistration;
+import com.example.sampleiwatts.core.RangeTotals;
+import com.example.sampleiwatts.data.RollupStore;
+import com.example.sampleiwatts.data.SubscriptionRegistry;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
@@ -45,9 +54,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
 
 public class CostEstimationActivity extends AppCompatActivity {
     EditText etStartingDate, etEndingDate, etBatelecRate;
@@ -58,6 +64,14 @@ public class CostEstimationActivity extends AppCompatActivity {
     CardView daily_card, area_card;
     ImageView closeDaily, closeArea;
     private DatabaseReference db;
+    private EnergyRepository repository;
+    private RollupStore rollupStore;
+    // Every live listener of this screen; removed together in onDestroy
+    private SubscriptionRegistry subscriptions;
+    private int summaryGeneration = 0;
+    private RangeTotals currentTotals;
+    private Double areaRatePerKwh;
+    private String[] areaNames = new String[3];
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -114,6 +128,9 @@ public class CostEstimationActivity extends AppCompatActivity {
 
         tvElectricityRate = findViewById(R.id.tvBatelecRate);
         db = FirebaseDatabase.getInstance().getReference();
+        repository = EnergyRepository.getInstance();
+        rollupStore = RollupStore.getInstance(this);
+        subscriptions = SubscriptionRegistry.of(this);
         ButtonNavigator.setupButtons(this, buttonLayout);
         etStartingDate = findViewById(R.id.etStartingDate);
         etStartingDate.setOnClickListener(v -> {
@@ -127,17 +144,14 @@ public class CostEstimationActivity extends AppCompatActivity {
     }
     private  void method(){
         fetchFilterDates();
-        fetchTotalCost();
-        fetchTotalKwh();
+        observeEnergySummary();
+        fetchCostSettings();
         fetchElectricityRate();
         fetchTotalCostForDay();
-        calculateCostForAllAreas();
-        calculateProjectedMonthlyCost();
         fetchArea1Name();
         fetchArea2Name();
         fetchArea3Name();
         loadDailyCostChart();
-        loadAreaCostChart();
 
     }
     private void startingDate() {
@@ -193,40 +207,33 @@ public class CostEstimationActivity extends AppCompatActivity {
     private void validateEndingDate(String startingDateStr) {
         String endingDateStr = etEndingDate.getText().toString().trim();
         if (!startingDateStr.isEmpty()) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Date startingDate = sdf.parse(startingDateStr);
-                Date endingDate = endingDateStr.isEmpty() ? null : sdf.parse(endingDateStr);
+            int startingDate = DateKeys.dayOrdinal(startingDateStr);
+            int endingDate = endingDateStr.isEmpty() ? DateKeys.INVALID : DateKeys.dayOrdinal(endingDateStr);
+            if (startingDate == DateKeys.INVALID || (!endingDateStr.isEmpty() && endingDate == DateKeys.INVALID)) {
+                return;
+            }
 
-                if (startingDate != null) {
-                    Calendar calendar = Calendar.getInstance();
-                    calendar.setTime(startingDate);
-                    calendar.add(Calendar.DAY_OF_MONTH, 30);  // start + 30 days = 31-day inclusive window
-                    Date validEndingDate = calendar.getTime();
-
-                    // Case 1: No ending date yet → set to start+30 (inclusive 31 days)
-                    if (endingDate == null) {
-                        String newEnd = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(validEndingDate);
-                        etEndingDate.setText(newEnd);
-                        DatabaseReference costFilterRef = db.child("cost_filter_date");
-                        costFilterRef.child("ending_date").setValue(newEnd)
-                                .addOnSuccessListener(aVoid -> Toast.makeText(CostEstimationActivity.this, "Ending date set to 31-day window", Toast.LENGTH_SHORT).show())
-                                .addOnFailureListener(e -> Toast.makeText(CostEstimationActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-                        return;
-                    }
+            int validEndingDate = startingDate + 30;  // start + 30 days = 31-day inclusive window
+
+            // Case 1: No ending date yet → set to start+30 (inclusive 31 days)
+            if (endingDate == DateKeys.INVALID) {
+                String newEnd = DateKeys.dayKey(validEndingDate);
+                etEndingDate.setText(newEnd);
+                DatabaseReference costFilterRef = db.child("cost_filter_date");
+                costFilterRef.child("ending_date").setValue(newEnd)
+                        .addOnSuccessListener(aVoid -> Toast.makeText(CostEstimationActivity.this, "Ending date set to 31-day window", Toast.LENGTH_SHORT).show())
+                        .addOnFailureListener(e -> Toast.makeText(CostEstimationActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                return;
+            }
 
-                    // Case 2: Ending date exists but exceeds 31-day window → clamp to start+30
-                    if (endingDate.after(validEndingDate)) {
-                        String newEnd = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(validEndingDate);
-                        etEndingDate.setText(newEnd);
-                        DatabaseReference costFilterRef = db.child("cost_filter_date");
-                        costFilterRef.child("ending_date").setValue(newEnd)
-                                .addOnSuccessListener(aVoid -> Toast.makeText(CostEstimationActivity.this, "Ending date adjusted to 31 days from the new starting date", Toast.LENGTH_SHORT).show())
-                                .addOnFailureListener(e -> Toast.makeText(CostEstimationActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-                    }
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
+            // Case 2: Ending date exists but exceeds 31-day window → clamp to start+30
+            if (endingDate > validEndingDate) {
+                String newEnd = DateKeys.dayKey(validEndingDate);
+                etEndingDate.setText(newEnd);
+                DatabaseReference costFilterRef = db.child("cost_filter_date");
+                costFilterRef.child("ending_date").setValue(newEnd)
+                        .addOnSuccessListener(aVoid -> Toast.makeText(CostEstimationActivity.this, "Ending date adjusted to 31 days from the new starting date", Toast.LENGTH_SHORT).show())
+                        .addOnFailureListener(e -> Toast.makeText(CostEstimationActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
         }
     }
@@ -246,17 +253,12 @@ public class CostEstimationActivity extends AppCompatActivity {
                     // Validate against starting date
                     String startingDateStr = etStartingDate.getText().toString().trim();
                     if (!startingDateStr.isEmpty()) {
-                        try {
-                            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                            Date startingDate = sdf.parse(startingDateStr);
-                            Date pickedDate = sdf.parse(date);
-
-                            if (startingDate != null && pickedDate != null && pickedDate.before(startingDate)) {
-                                Toast.makeText(CostEstimationActivity.this, "Ending date cannot be earlier than starting date", Toast.LENGTH_SHORT).show();
-                                return; // invalid → don’t save
-                            }
-                        } catch (ParseException e) {
-                            e.printStackTrace();
+                        int startingDate = DateKeys.dayOrdinal(startingDateStr);
+                        int pickedDate = DateKeys.dayOrdinal(date);
+
+                        if (startingDate != DateKeys.INVALID && pickedDate != DateKeys.INVALID && pickedDate < startingDate) {
+                            Toast.makeText(CostEstimationActivity.this, "Ending date cannot be earlier than starting date", Toast.LENGTH_SHORT).show();
+                            return; // invalid → don’t save
                         }
                     }
 
@@ -306,7 +308,7 @@ public class CostEstimationActivity extends AppCompatActivity {
         // Reference to the "cost_filter_date" node
         DatabaseReference filterDateRef = db.child("cost_filter_date");
 
-        filterDateRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(filterDateRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 // Get starting_date
@@ -331,182 +333,140 @@ public class CostEstimationActivity extends AppCompatActivity {
             public void onCancelled(DatabaseError databaseError) {
                 Toast.makeText(CostEstimationActivity.this, "Error fetching dates", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
-    private void fetchTotalCost() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
+    /**
+     * Outer listeners swap their inner ones, so the count stays fixed however often the
+     * filter changes (SubscriptionRegistryTest pins this down)
+     */
+    private void logListenerCount() {
+        Log.d("CostEstimation", "Live listeners: " + subscriptions.liveCount());
+    }
+    // Totals, projection and area costs all render from the prefix-sum totals of the selected range
+    private void observeEnergySummary() {
+        subscriptions.add(repository.observeCostFilterRange(new EnergyRepository.RangeCallback() {
             @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                if (startingDateString == null || endingDateString == null) {
-                    tvCostView.setText("₱ 0.00");
-                    return;
-                }
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    // Normalize dates to midnight to avoid timezone issues
-                    java.util.Calendar calStart = java.util.Calendar.getInstance();
-                    calStart.setTime(startingDate);
-                    calStart.set(java.util.Calendar.HOUR_OF_DAY, 0);
-                    calStart.set(java.util.Calendar.MINUTE, 0);
-                    calStart.set(java.util.Calendar.SECOND, 0);
-                    calStart.set(java.util.Calendar.MILLISECOND, 0);
-
-                    java.util.Calendar calEnd = java.util.Calendar.getInstance();
-                    calEnd.setTime(endingDate);
-                    calEnd.set(java.util.Calendar.HOUR_OF_DAY, 0);
-                    calEnd.set(java.util.Calendar.MINUTE, 0);
-                    calEnd.set(java.util.Calendar.SECOND, 0);
-                    calEnd.set(java.util.Calendar.MILLISECOND, 0);
-
-                    Date finalStartDate = new Date(calStart.getTimeInMillis());
-                    Date finalEndDate = new Date(calEnd.getTimeInMillis());
-
-                    // Fetch hourly summaries and calculate total cost
-                    DatabaseReference hourlySummariesRef = db.child("hourly_summaries");
-                    hourlySummariesRef.orderByKey().addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double totalCost = 0.0;
-
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    continue; // Skip invalid dates
-                                }
+            public void onRangeLoaded(DateRange range) {
+                Log.d("CostEstimation", "Cost filter range: " + range);
+
+                // Render the stored rollup right away; the live listener below replaces it
+                int storedGeneration = ++summaryGeneration;
+                rollupStore.loadRangeTotals(range, new RollupStore.TotalsCallback() {
+                    @Override
+                    public void onTotalsLoaded(RangeTotals totals) {
+                        if (storedGeneration == summaryGeneration) {
+                            showEnergySummary(totals, range);
+                        }
+                    }
 
-                                // Check if date is within range (inclusive)
-                                if (currentDate != null && !currentDate.before(finalStartDate) && !currentDate.after(finalEndDate)) {
-                                    // Sum all hourly costs for this date
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double hourlyCost = hourSnapshot.child("total_cost").getValue(Double.class);
-                                        if (hourlyCost != null) {
-                                            totalCost += hourlyCost;
-                                        }
-                                    }
+                    @Override
+                    public void onError(String error) {
+                        Log.w("CostEstimation", "No stored summaries: " + error);
+                    }
+                });
+
+                subscriptions.replace("energy_summary_hourly", repository.observeHourlySummaries(range, new EnergyRepository.HourlySummariesCallback() {
+                    @Override
+                    public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                        // Only the newest update may render, whichever store finishes last
+                        int generation = ++summaryGeneration;
+                        rollupStore.saveHourlySummaries(range, summaries, new RollupStore.TotalsCallback() {
+                            @Override
+                            public void onTotalsLoaded(RangeTotals totals) {
+                                if (generation == summaryGeneration) {
+                                    showEnergySummary(totals, range);
                                 }
                             }
 
-                            // Display the total cost
-                            String formattedCost = String.format("%.2f", totalCost);
-                            tvCostView.setText("₱ " + formattedCost);
-                        }
+                            @Override
+                            public void onError(String error) {
+                                Log.e("CostEstimation", "Failed to total " + range + ": " + error);
+                            }
+                        });
+                    }
 
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Toast.makeText(CostEstimationActivity.this, "Error fetching hourly summaries", Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    tvCostView.setText("₱ 0.00");
-                }
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(CostEstimationActivity.this, "Error fetching hourly summaries", Toast.LENGTH_SHORT).show();
+                    }
+                }));
+                logListenerCount();
             }
 
             @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Toast.makeText(CostEstimationActivity.this, "Error fetching date filter", Toast.LENGTH_SHORT).show();
+            public void onError(String error) {
+                tvCostView.setText("₱ 0.00");
             }
-        });
+        }));
+    }
+    private void showEnergySummary(RangeTotals totals, DateRange range) {
+        currentTotals = totals;
+        showTotals(currentTotals);
+        showProjectedMonthlyCost(currentTotals, range.dayCount());
+        showAreaCosts();
+        showAreaCostChart();
     }
-    private void fetchTotalKwh() {
-        // Reference to the cost_filter_date to get the starting and ending dates
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
 
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
+    private void fetchCostSettings() {
+        // Rate and area names used by the per-area cost card and chart
+        subscriptions.add(ListenerRegistration.observe(db.child("system_settings"), new ValueEventListener() {
             @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                // Fetch the starting and ending dates from Firebase
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                // Log the fetched data for debugging
-                Log.d("CostEstimation", "Starting Date: " + startingDateString);
-                Log.d("CostEstimation", "Ending Date: " + endingDateString);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());  // Adjust as per your Firebase format
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    Log.d("CostEstimation", "Parsed Starting Date: " + startingDate);
-                    Log.d("CostEstimation", "Parsed Ending Date: " + endingDate);
-
-                    // Now, fetch the hourly summaries within the date range
-                    db.child("hourly_summaries").orderByKey().addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double cumulativeKwh = 0;
-
-                            // Loop through the hourly summaries to accumulate the total kWh
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                Log.d("CostEstimation", "Processing Date: " + dateKey);
-                                Log.d("CostEstimation", "Current Date: " + currentDate);
-
-                                // Check if the current date is within the range of starting and ending dates
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                    // Loop through the hourly data for the current date
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double hourlyKwh = hourSnapshot.child("total_kwh").getValue(Double.class);
-
-                                        if (hourlyKwh != null) {
-                                            Log.d("CostEstimation", "Hourly KWh for " + dateKey + ": " + hourlyKwh);
-                                            cumulativeKwh += hourlyKwh;
-                                        } else {
-                                            Log.d("CostEstimation", "No hourly kWh for " + dateKey);
-                                        }
-                                    }
-                                }
-                            }
-
-                            // Format and display the total kWh value
-                            String formattedKwh = String.format("%.3f", cumulativeKwh);
-                            Log.d("KwhTotal", "Total KWh: " + formattedKwh);
-                            tvKwhView.setText(formattedKwh + " kwh");
-                            tvTotalUsage.setText(formattedKwh);
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
+            public void onDataChange(DataSnapshot settingsSnapshot) {
+                areaRatePerKwh = settingsSnapshot.child("electricity_rate_per_kwh").getValue(Double.class);
+                areaNames = new String[]{
+                        settingsSnapshot.child("area1_name").getValue(String.class),
+                        settingsSnapshot.child("area2_name").getValue(String.class),
+                        settingsSnapshot.child("area3_name").getValue(String.class)
+                };
+
+                if (areaRatePerKwh == null) {
+                    Toast.makeText(CostEstimationActivity.this, "Electricity rate is not available", Toast.LENGTH_SHORT).show();
+                    return;
                 }
+                showAreaCosts();
+                showAreaCostChart();
             }
 
             @Override
             public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
+                Toast.makeText(CostEstimationActivity.this, "Error fetching settings", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
+    }
+    private void showTotals(RangeTotals totals) {
+        // Display the total cost
+        String formattedCost = String.format("%.2f", totals.totalCost);
+        tvCostView.setText("₱ " + formattedCost);
+
+        // Format and display the total kWh value
+        String formattedKwh = String.format("%.3f", totals.totalKwh);
+        Log.d("KwhTotal", "Total KWh: " + formattedKwh);
+        tvKwhView.setText(formattedKwh + " kwh");
+        tvTotalUsage.setText(formattedKwh);
+    }
+    private void showProjectedMonthlyCost(RangeTotals totals, long daysBetween) {
+        double dailyAverageCost = totals.totalCost / (double) daysBetween;
+        // Project to the selected window length (e.g., 31 days)
+        double projectedMonthlyCost = dailyAverageCost * (double) daysBetween;
+
+        String formattedCost = String.format("%.2f", projectedMonthlyCost);
+        tvProjectedCost.setText("₱ " + formattedCost);
+        tvProjectedText.setText("Based on the current " + daysBetween + "-day consumption pattern");
+    }
+    private void showAreaCosts() {
+        if (currentTotals == null || areaRatePerKwh == null) return;
+
+        double totalCostArea1 = currentTotals.areaKwh(1) * areaRatePerKwh;
+        double totalCostArea2 = currentTotals.areaKwh(2) * areaRatePerKwh;
+        double totalCostArea3 = currentTotals.areaKwh(3) * areaRatePerKwh;
+
+        tvArea1.setText("₱ " + String.format("%.2f", totalCostArea1) + " (" + String.format("%.2f", currentTotals.areaPercent(1)) + "%)");
+        tvArea2.setText("₱ " + String.format("%.2f", totalCostArea2) + " (" + String.format("%.2f", currentTotals.areaPercent(2)) + "%)");
+        tvArea3.setText("₱ " + String.format("%.2f", totalCostArea3) + " (" + String.format("%.2f", currentTotals.areaPercent(3)) + "%)");
     }
     private void fetchElectricityRate() {
         DatabaseReference electricityRateRef = db.child("system_settings").child("electricity_rate_per_kwh");
-        electricityRateRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(electricityRateRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 // Get the value from the database
@@ -535,7 +495,7 @@ public class CostEstimationActivity extends AppCompatActivity {
                 // Handle database error
                 Toast.makeText(CostEstimationActivity.this, "Error fetching electricity rate", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
     private void updateElectricityRate() {
         String updateElectricityRate = etBatelecRate.getText().toString().trim();
@@ -569,10 +529,9 @@ public class CostEstimationActivity extends AppCompatActivity {
         }
     }
     private void fetchTotalCostForDay() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        String currentDate = dateFormat.format(new Date());
+        String currentDate = DateKeys.todayKey();
         DatabaseReference hourlySummariesRef = db.child("hourly_summaries").child(currentDate);
-        hourlySummariesRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(hourlySummariesRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 double totalCost = 0.0;
@@ -588,213 +547,12 @@ public class CostEstimationActivity extends AppCompatActivity {
             public void onCancelled(DatabaseError databaseError) {
                 Toast.makeText(CostEstimationActivity.this, "Error fetching data", Toast.LENGTH_SHORT).show();
             }
-        });
-    }
-    private void calculateCostForAllAreas() {
-        DatabaseReference systemSettingsRef = db.child("system_settings");
-        DatabaseReference hourlySummariesRef = db.child("hourly_summaries");
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        // First, fetch the date filter (starting & ending)
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    // Fetch the electricity rate from system_settings
-                    systemSettingsRef.child("electricity_rate_per_kwh").addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            Double electricityRatePerKwh = dataSnapshot.getValue(Double.class);
-
-                            if (electricityRatePerKwh == null) {
-                                Toast.makeText(CostEstimationActivity.this, "Electricity rate is not available", Toast.LENGTH_SHORT).show();
-                                return;
-                            }
-
-                            final double[] totalArea1Kwh = {0};
-                            final double[] totalArea2Kwh = {0};
-                            final double[] totalArea3Kwh = {0};
-
-                            hourlySummariesRef.addValueEventListener(new ValueEventListener() {
-                                @Override
-                                public void onDataChange(DataSnapshot dataSnapshot) {
-                                    for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                        String dateKey = dateSnapshot.getKey();
-                                        Date currentDate = null;
-                                        try {
-                                            currentDate = dateFormatter.parse(dateKey);
-                                        } catch (ParseException e) {
-                                            Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                        }
-
-                                        // ✅ Only process if within starting & ending range
-                                        if (currentDate != null &&
-                                                (currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                                (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                            for (DataSnapshot hourlySnapshot : dateSnapshot.getChildren()) {
-                                                Double area1Kwh = hourlySnapshot.child("area1_kwh").getValue(Double.class);
-                                                Double area2Kwh = hourlySnapshot.child("area2_kwh").getValue(Double.class);
-                                                Double area3Kwh = hourlySnapshot.child("area3_kwh").getValue(Double.class);
-
-                                                area1Kwh = (area1Kwh == null) ? 0 : area1Kwh;
-                                                area2Kwh = (area2Kwh == null) ? 0 : area2Kwh;
-                                                area3Kwh = (area3Kwh == null) ? 0 : area3Kwh;
-
-                                                totalArea1Kwh[0] += area1Kwh;
-                                                totalArea2Kwh[0] += area2Kwh;
-                                                totalArea3Kwh[0] += area3Kwh;
-                                            }
-                                        }
-                                    }
-
-                                    double totalConsumption = totalArea1Kwh[0] + totalArea2Kwh[0] + totalArea3Kwh[0];
-
-                                    double percentageArea1 = (totalConsumption == 0) ? 0 : (totalArea1Kwh[0] / totalConsumption) * 100;
-                                    double percentageArea2 = (totalConsumption == 0) ? 0 : (totalArea2Kwh[0] / totalConsumption) * 100;
-                                    double percentageArea3 = (totalConsumption == 0) ? 0 : (totalArea3Kwh[0] / totalConsumption) * 100;
-
-                                    double totalCostArea1 = totalArea1Kwh[0] * electricityRatePerKwh;
-                                    double totalCostArea2 = totalArea2Kwh[0] * electricityRatePerKwh;
-                                    double totalCostArea3 = totalArea3Kwh[0] * electricityRatePerKwh;
-
-                                    tvArea1.setText("₱ " + String.format("%.2f", totalCostArea1) + " (" + String.format("%.2f", percentageArea1) + "%)");
-                                    tvArea2.setText("₱ " + String.format("%.2f", totalCostArea2) + " (" + String.format("%.2f", percentageArea2) + "%)");
-                                    tvArea3.setText("₱ " + String.format("%.2f", totalCostArea3) + " (" + String.format("%.2f", percentageArea3) + "%)");
-                                }
-
-                                @Override
-                                public void onCancelled(DatabaseError databaseError) {
-                                    Toast.makeText(CostEstimationActivity.this, "Error fetching hourly data", Toast.LENGTH_SHORT).show();
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Toast.makeText(CostEstimationActivity.this, "Error fetching electricity rate", Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                } catch (ParseException e) {
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
-    private void calculateProjectedMonthlyCost() {
-        // Reference to the cost_filter_date in Firebase to get the starting and ending dates
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString   = dataSnapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate   = endingDateString != null ? dateFormatter.parse(endingDateString) : null;
-
-                    if (startingDate == null) return;
-                    if (endingDate == null) endingDate = new Date();
-
-                    // Normalize both dates to midnight to avoid timezone/hour offsets
-                    java.util.Calendar calStart = java.util.Calendar.getInstance();
-                    calStart.setTime(startingDate);
-                    calStart.set(java.util.Calendar.HOUR_OF_DAY, 0);
-                    calStart.set(java.util.Calendar.MINUTE, 0);
-                    calStart.set(java.util.Calendar.SECOND, 0);
-                    calStart.set(java.util.Calendar.MILLISECOND, 0);
-
-                    java.util.Calendar calEnd = java.util.Calendar.getInstance();
-                    calEnd.setTime(endingDate);
-                    calEnd.set(java.util.Calendar.HOUR_OF_DAY, 0);
-                    calEnd.set(java.util.Calendar.MINUTE, 0);
-                    calEnd.set(java.util.Calendar.SECOND, 0);
-                    calEnd.set(java.util.Calendar.MILLISECOND, 0);
-
-                    long startMs = calStart.getTimeInMillis();
-                    long endMs   = calEnd.getTimeInMillis();
-                    if (endMs < startMs) {
-                        long t = startMs; startMs = endMs; endMs = t;
-                    }
-
-                    long daysBetween = TimeUnit.MILLISECONDS.toDays(endMs - startMs) + 1; // inclusive
-                    if (daysBetween <= 0) daysBetween = 1;
-
-                    Date finalStartDate = new Date(startMs);
-                    Date finalEndDate = new Date(endMs);
-
-                    // Fetch the hourly cost data within [start, end]
-                    DatabaseReference hourlySummariesRef = db.child("hourly_summaries");
-                    final double[] cumulativeCost = {0};
-
-                    long finalDaysBetween = daysBetween;
-                    hourlySummariesRef.orderByKey().addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            cumulativeCost[0] = 0;
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    e.printStackTrace();
-                                }
-
-                                if (currentDate != null && !currentDate.before(finalStartDate) && !currentDate.after(finalEndDate)) {
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double hourlyCost = hourSnapshot.child("total_cost").getValue(Double.class);
-                                        if (hourlyCost != null) cumulativeCost[0] += hourlyCost;
-                                    }
-                                }
-                            }
-
-                            double dailyAverageCost = cumulativeCost[0] / (double) finalDaysBetween;
-                            // Project to the selected window length (e.g., 31 days)
-                            double projectedMonthlyCost = dailyAverageCost * (double) finalDaysBetween;
-
-                            String formattedCost = String.format("%.2f", projectedMonthlyCost);
-                            tvProjectedCost.setText("₱ " + formattedCost);
-                            tvProjectedText.setText("Based on the current " + finalDaysBetween + "-day consumption pattern");
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Toast.makeText(CostEstimationActivity.this, "Error fetching hourly summaries", Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Toast.makeText(CostEstimationActivity.this, "Error parsing dates", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Toast.makeText(CostEstimationActivity.this, "Error fetching cost filter data", Toast.LENGTH_SHORT).show();
-            }
-        });
+        }));
     }
     private void fetchArea1Name() {
         DatabaseReference systemSettingsRef = db.child("system_settings");
 
-        systemSettingsRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(systemSettingsRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 String area1Name = dataSnapshot.child("area1_name").getValue(String.class);
@@ -808,12 +566,12 @@ public class CostEstimationActivity extends AppCompatActivity {
             public void onCancelled(DatabaseError databaseError) {
                 Toast.makeText(CostEstimationActivity.this, "Error fetching area1 name", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
     private void fetchArea2Name() {
         DatabaseReference systemSettingsRef = db.child("system_settings");
 
-        systemSettingsRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(systemSettingsRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 String area1Name = dataSnapshot.child("area2_name").getValue(String.class);
@@ -827,12 +585,12 @@ public class CostEstimationActivity extends AppCompatActivity {
             public void onCancelled(DatabaseError databaseError) {
                 Toast.makeText(CostEstimationActivity.this, "Error fetching area2 name", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
     private void fetchArea3Name() {
         DatabaseReference systemSettingsRef = db.child("system_settings");
 
-        systemSettingsRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(ListenerRegistration.observe(systemSettingsRef, new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
                 String area1Name = dataSnapshot.child("area3_name").getValue(String.class);
@@ -846,286 +604,165 @@ public class CostEstimationActivity extends AppCompatActivity {
             public void onCancelled(DatabaseError databaseError) {
                 Toast.makeText(CostEstimationActivity.this, "Error fetching area3 name", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
     private void loadDailyCostChart() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-        DatabaseReference dailySummariesRef = db.child("daily_summaries");
         DatabaseReference systemSettingsRef = db.child("system_settings"); // Reference to system_settings
 
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
+        subscriptions.add(repository.observeCostFilterRange(new EnergyRepository.RangeCallback() {
             @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                String startingDateString = snapshot.child("starting_date").getValue(String.class);
-                String endingDateString   = snapshot.child("ending_date").getValue(String.class);
-
-                final SimpleDateFormat keyFormatter   = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                final SimpleDateFormat labelFormatter = new SimpleDateFormat("MM-dd", Locale.getDefault());
-
-                try {
-                    final Date startingDate = keyFormatter.parse(startingDateString);
-                    final Date endingDate   = keyFormatter.parse(endingDateString);
-
-                    systemSettingsRef.addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot settingsSnapshot) {
-
-                            final String area1Name = settingsSnapshot.child("area1_name").getValue(String.class);
-                            final String area2Name = settingsSnapshot.child("area2_name").getValue(String.class);
-                            final String area3Name = settingsSnapshot.child("area3_name").getValue(String.class);
-
-                            final String finalArea1Name = (area1Name != null) ? area1Name : "Area 1";
-                            final String finalArea2Name = (area2Name != null) ? area2Name : "Area 2";
-                            final String finalArea3Name = (area3Name != null) ? area3Name : "Area 3";
-
-                            dailySummariesRef.addValueEventListener(new ValueEventListener() {
-                                @Override
-                                public void onDataChange(DataSnapshot dataSnapshot) {
-                                    TreeMap<Long, float[]> perDayCosts = new TreeMap<>();
-
-                                    for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                        String dateKey = dateSnapshot.getKey();
-                                        Date currentDate;
-                                        try {
-                                            currentDate = keyFormatter.parse(dateKey);
-                                        } catch (ParseException e) { continue; }
-                                        if (currentDate == null) continue;
-
-                                        boolean inRange =
-                                                (currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                                        (currentDate.equals(endingDate)   || currentDate.before(endingDate));
-                                        if (!inRange) continue;
-
-                                        Double c1 = dateSnapshot.child("area_breakdown/area1/cost").getValue(Double.class);
-                                        Double c2 = dateSnapshot.child("area_breakdown/area2/cost").getValue(Double.class);
-                                        Double c3 = dateSnapshot.child("area_breakdown/area3/cost").getValue(Double.class);
-
-                                        float cost1 = c1 != null ? c1.floatValue() : 0f;
-                                        float cost2 = c2 != null ? c2.floatValue() : 0f;
-                                        float cost3 = c3 != null ? c3.floatValue() : 0f;
-                                        perDayCosts.put(currentDate.getTime(), new float[]{cost1, cost2, cost3});
-
-                                    }
-
-                                    List<BarEntry> entries = new ArrayList<>();
-                                    List<String> xLabels = new ArrayList<>();
-                                    int i = 0;
-                                    for (Map.Entry<Long, float[]> e : perDayCosts.entrySet()) {
-                                        entries.add(new BarEntry(i, e.getValue()));
-                                        xLabels.add(labelFormatter.format(new Date(e.getKey())));
-                                        i++;
-                                    }
+            public void onRangeLoaded(DateRange range) {
+                subscriptions.replace("daily_chart_settings", ListenerRegistration.observe(systemSettingsRef, new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot settingsSnapshot) {
+
+                        final String area1Name = settingsSnapshot.child("area1_name").getValue(String.class);
+                        final String area2Name = settingsSnapshot.child("area2_name").getValue(String.class);
+                        final String area3Name = settingsSnapshot.child("area3_name").getValue(String.class);
+
+                        final String finalArea1Name = (area1Name != null) ? area1Name : "Area 1";
+                        final String finalArea2Name = (area2Name != null) ? area2Name : "Area 2";
+                        final String finalArea3Name = (area3Name != null) ? area3Name : "Area 3";
+
+                        subscriptions.replace("daily_chart_summaries", repository.observeDailySummaries(range, new EnergyRepository.DailySummariesCallback() {
+                            @Override
+                            public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                                rollupStore.saveDailySummaries(range, summaries);
+
+                                List<BarEntry> entries = new ArrayList<>();
+                                List<String> xLabels = new ArrayList<>();
+
+                                // Summaries arrive in key order, so no extra sorting is needed
+                                for (DailySummary summary : summaries) {
+                                    float cost1 = (float) summary.area1Cost;
+                                    float cost2 = (float) summary.area2Cost;
+                                    float cost3 = (float) summary.area3Cost;
+                                    entries.add(new BarEntry(entries.size(), new float[]{cost1, cost2, cost3}));
+                                    xLabels.add(summary.date.substring(5));
+                                }
 
-                                    BarDataSet dataSet = new BarDataSet(entries, "");
-                                    dataSet.setColors(new int[]{
-                                            Color.YELLOW,
-                                            Color.RED,
-                                            Color.rgb(255, 215, 0)
-                                    });
-                                    dataSet.setStackLabels(new String[]{finalArea1Name, finalArea2Name, finalArea3Name});
-
-                                    dataSet.setDrawValues(true);
-                                    dataSet.setValueTextSize(10f);
-                                    dataSet.setValueTextColor(getResources().getColor(R.color.brown));
-
-                                    dataSet.setValueFormatter(new ValueFormatter() {
-                                        @Override
-                                        public String getBarLabel(BarEntry barEntry) {
-                                            float total = 0;
-                                            if (barEntry.getYVals() != null) {
-                                                for (float v : barEntry.getYVals()) {
-                                                    total += v;
-                                                }
-                                            } else {
-                                                total = barEntry.getY();
+                                BarDataSet dataSet = new BarDataSet(entries, "");
+                                dataSet.setColors(new int[]{
+                                        Color.YELLOW,
+                                        Color.RED,
+                                        Color.rgb(255, 215, 0)
+                                });
+                                dataSet.setStackLabels(new String[]{finalArea1Name, finalArea2Name, finalArea3Name});
+
+                                dataSet.setDrawValues(true);
+                                dataSet.setValueTextSize(10f);
+                                dataSet.setValueTextColor(getResources().getColor(R.color.brown));
+
+                                dataSet.setValueFormatter(new ValueFormatter() {
+                                    @Override
+                                    public String getBarLabel(BarEntry barEntry) {
+                                        float total = 0;
+                                        if (barEntry.getYVals() != null) {
+                                            for (float v : barEntry.getYVals()) {
+                                                total += v;
                                             }
-                                            return total < 5f ? "" : String.format("%.0f", total);
+                                        } else {
+                                            total = barEntry.getY();
                                         }
-                                    });
-
-                                    BarData barData = new BarData(dataSet);
-                                    barData.setBarWidth(0.5f);
-
-                                    barChart.setData(barData);
-
-                                    XAxis xAxis = barChart.getXAxis();
-                                    xAxis.setValueFormatter(new IndexAxisValueFormatter(xLabels));
-                                    xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                                    xAxis.setGranularity(1f);
-                                    xAxis.setLabelRotationAngle(0f);
-
-                                    xAxis.setDrawGridLines(true);
-                                    barChart.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
-                                    xAxis.setTextColor(getResources().getColor(R.color.brown));
-                                    barChart.getAxisRight().setEnabled(false);
-                                    barChart.getAxisRight().setTextColor(getResources().getColor(R.color.brown));
-                                    barChart.getAxisLeft().setDrawGridLines(true);
-
-                                    barChart.getAxisLeft().setAxisMinimum(0f);
-                                    barChart.getDescription().setEnabled(false);
-                                    barChart.getAxisRight().setEnabled(false);
-                                    barChart.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
-                                    barChart.getXAxis().setGridColor(getResources().getColor(R.color.brown));
-                                    barChart.setExtraOffsets(10, 10, 10, 20);
-
-                                    Legend legend = barChart.getLegend();
-                                    legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
-                                    legend.setForm(Legend.LegendForm.SQUARE);
-                                    legend.setTextColor(getResources().getColor(R.color.brown));
-
-                                    barChart.setExtraBottomOffset(10f);
-
-                                    barChart.animateY(800);
-                                    barChart.invalidate();
-                                }
+                                        return total < 5f ? "" : String.format("%.0f", total);
+                                    }
+                                });
+
+                                BarData barData = new BarData(dataSet);
+                                barData.setBarWidth(0.5f);
+
+                                barChart.setData(barData);
+
+                                XAxis xAxis = barChart.getXAxis();
+                                xAxis.setValueFormatter(new IndexAxisValueFormatter(xLabels));
+                                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+                                xAxis.setGranularity(1f);
+                                xAxis.setLabelRotationAngle(0f);
+
+                                xAxis.setDrawGridLines(true);
+                                barChart.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
+                                xAxis.setTextColor(getResources().getColor(R.color.brown));
+                                barChart.getAxisRight().setEnabled(false);
+                                barChart.getAxisRight().setTextColor(getResources().getColor(R.color.brown));
+                                barChart.getAxisLeft().setDrawGridLines(true);
+
+                                barChart.getAxisLeft().setAxisMinimum(0f);
+                                barChart.getDescription().setEnabled(false);
+                                barChart.getAxisRight().setEnabled(false);
+                                barChart.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
+                                barChart.getXAxis().setGridColor(getResources().getColor(R.color.brown));
+                                barChart.setExtraOffsets(10, 10, 10, 20);
+
+                                Legend legend = barChart.getLegend();
+                                legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
+                                legend.setForm(Legend.LegendForm.SQUARE);
+                                legend.setTextColor(getResources().getColor(R.color.brown));
+
+                                barChart.setExtraBottomOffset(10f);
+
+                                barChart.animateY(800);
+                                barChart.invalidate();
+                            }
 
-                                @Override public void onCancelled(DatabaseError error) { }
-                            });
-                        }
+                            @Override public void onError(String error) { }
+                        }));
+                        logListenerCount();
+                    }
 
-                        @Override public void onCancelled(DatabaseError error) { }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+                    @Override public void onCancelled(DatabaseError error) { }
+                }));
             }
 
-            @Override public void onCancelled(DatabaseError error) { }
-        });
+            @Override public void onError(String error) { }
+        }));
     }
-    private void loadAreaCostChart() {
-        DatabaseReference systemSettingsRef = db.child("system_settings");
-        DatabaseReference hourlySummariesRef = db.child("hourly_summaries");
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                String startingDateString = snapshot.child("starting_date").getValue(String.class);
-                String endingDateString = snapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    // Fetch settings (rate + names)
-                    systemSettingsRef.addValueEventListener(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot settingsSnapshot) {
-                            Double electricityRatePerKwh = settingsSnapshot.child("electricity_rate_per_kwh").getValue(Double.class);
-                            String area1Name = settingsSnapshot.child("area1_name").getValue(String.class);
-                            String area2Name = settingsSnapshot.child("area2_name").getValue(String.class);
-                            String area3Name = settingsSnapshot.child("area3_name").getValue(String.class);
-
-                            if (electricityRatePerKwh == null) {
-                                Toast.makeText(CostEstimationActivity.this, "Electricity rate not available", Toast.LENGTH_SHORT).show();
-                                return;
-                            }
-
-                            final double[] totalArea1Kwh = {0};
-                            final double[] totalArea2Kwh = {0};
-                            final double[] totalArea3Kwh = {0};
-
-                            hourlySummariesRef.addValueEventListener(new ValueEventListener() {
-                                @Override
-                                public void onDataChange(DataSnapshot dataSnapshot) {
-                                    for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                        String dateKey = dateSnapshot.getKey();
-                                        Date currentDate = null;
-                                        try {
-                                            currentDate = dateFormatter.parse(dateKey);
-                                        } catch (ParseException e) {
-                                            Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                        }
-
-                                        if (currentDate != null &&
-                                                (currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                                (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                            for (DataSnapshot hourlySnapshot : dateSnapshot.getChildren()) {
-                                                Double area1Kwh = hourlySnapshot.child("area1_kwh").getValue(Double.class);
-                                                Double area2Kwh = hourlySnapshot.child("area2_kwh").getValue(Double.class);
-                                                Double area3Kwh = hourlySnapshot.child("area3_kwh").getValue(Double.class);
+    private void showAreaCostChart() {
+        if (currentTotals == null || areaRatePerKwh == null) return;
+
+        // Convert to cost
+        double totalCostArea1 = currentTotals.areaKwh(1) * areaRatePerKwh;
+        double totalCostArea2 = currentTotals.areaKwh(2) * areaRatePerKwh;
+        double totalCostArea3 = currentTotals.areaKwh(3) * areaRatePerKwh;
+
+        // ✅ Prepare Bar Entries (each cost as separate entry)
+        ArrayList<BarEntry> entries = new ArrayList<>();
+        entries.add(new BarEntry(0, (float) totalCostArea1));
+        entries.add(new BarEntry(1, (float) totalCostArea2));
+        entries.add(new BarEntry(2, (float) totalCostArea3));
+
+        BarDataSet dataSet = new BarDataSet(entries, "Total Cost (₱)");
+        dataSet.setColors(new int[]{
+                Color.YELLOW,   // area1
+                Color.RED,      // area2
+                0xFFFFD700      // gold (hex color)
+        });
+        dataSet.setValueTextSize(14f);
 
-                                                totalArea1Kwh[0] += (area1Kwh == null ? 0 : area1Kwh);
-                                                totalArea2Kwh[0] += (area2Kwh == null ? 0 : area2Kwh);
-                                                totalArea3Kwh[0] += (area3Kwh == null ? 0 : area3Kwh);
-                                            }
-                                        }
-                                    }
+        BarData barData = new BarData(dataSet);
+        barData.setBarWidth(0.6f);
 
-                                    // Convert to cost
-                                    double totalCostArea1 = totalArea1Kwh[0] * electricityRatePerKwh;
-                                    double totalCostArea2 = totalArea2Kwh[0] * electricityRatePerKwh;
-                                    double totalCostArea3 = totalArea3Kwh[0] * electricityRatePerKwh;
-
-                                    // ✅ Prepare Bar Entries (each cost as separate entry)
-                                    ArrayList<BarEntry> entries = new ArrayList<>();
-                                    entries.add(new BarEntry(0, (float) totalCostArea1));
-                                    entries.add(new BarEntry(1, (float) totalCostArea2));
-                                    entries.add(new BarEntry(2, (float) totalCostArea3));
-
-                                    BarDataSet dataSet = new BarDataSet(entries, "Total Cost (₱)");
-                                    dataSet.setColors(new int[]{
-                                            Color.YELLOW,   // area1
-                                            Color.RED,      // area2
-                                            0xFFFFD700      // gold (hex color)
-                                    });
-                                    dataSet.setValueTextSize(14f);
-
-                                    BarData barData = new BarData(dataSet);
-                                    barData.setBarWidth(0.6f);
-
-                                    // ✅ Setup Horizontal Chart
-                                    areaChart.setData(barData);
-                                    areaChart.getDescription().setEnabled(false);
-
-                                    // Y-axis = area names
-                                    XAxis xAxis = areaChart.getXAxis();
-                                    xAxis.setGranularity(1f);
-                                    xAxis.setLabelRotationAngle(90f);
-                                    xAxis.setValueFormatter(new IndexAxisValueFormatter(
-                                            new String[]{area1Name, area2Name, area3Name}
-                                    ));
-                                    xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                                    xAxis.setDrawGridLines(false);
-
-                                    // Left axis = cost values
-                                    YAxis leftAxis = areaChart.getAxisLeft();
-                                    leftAxis.setDrawGridLines(true);
-                                    leftAxis.setAxisMinimum(0f);
-
-                                    // Hide right axis
-                                    areaChart.getAxisRight().setEnabled(false);
-
-                                    areaChart.animateY(1500);
-                                    areaChart.invalidate();
-                                }
+        // ✅ Setup Horizontal Chart
+        areaChart.setData(barData);
+        areaChart.getDescription().setEnabled(false);
 
-                                @Override
-                                public void onCancelled(DatabaseError error) {
-                                    Toast.makeText(CostEstimationActivity.this, "Error fetching hourly data", Toast.LENGTH_SHORT).show();
-                                }
-                            });
-                        }
+        // Y-axis = area names
+        XAxis xAxis = areaChart.getXAxis();
+        xAxis.setGranularity(1f);
+        xAxis.setLabelRotationAngle(90f);
+        xAxis.setValueFormatter(new IndexAxisValueFormatter(areaNames));
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setDrawGridLines(false);
 
-                        @Override
-                        public void onCancelled(DatabaseError error) {
-                            Toast.makeText(CostEstimationActivity.this, "Error fetching settings", Toast.LENGTH_SHORT).show();
-                        }
-                    });
+        // Left axis = cost values
+        YAxis leftAxis = areaChart.getAxisLeft();
+        leftAxis.setDrawGridLines(true);
+        leftAxis.setAxisMinimum(0f);
 
-                } catch (ParseException e) {
-                    Log.e("CostEstimation", "Date parse error: " + e.getMessage());
-                }
-            }
+        // Hide right axis
+        areaChart.getAxisRight().setEnabled(false);
 
-            @Override
-            public void onCancelled(DatabaseError error) {
-                Toast.makeText(CostEstimationActivity.this, "Error fetching cost filter date", Toast.LENGTH_SHORT).show();
-            }
-        });
+        areaChart.animateY(1500);
+        areaChart.invalidate();
     }
 
 
@@ -3,11 +3,13 @@ package com.example.sampleiwatts;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.StrictMode;
 import android.text.Editable;
 import android.text.SpannableString;
 import android.text.Spanned;
 import android.text.TextWatcher;
 import android.util.Log;
+import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.EditText;
@@ -22,6 +24,7 @@ import androidx.cardview.widget.CardView;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.lifecycle.ViewModelProvider;
 
 
 import com.github.mikephil.charting.charts.LineChart;
@@ -31,17 +34,29 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+import com.example.sampleiwatts.data.AppExecutors;
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DashboardSnapshot;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.EnergyAggregate;
+import com.example.sampleiwatts.core.EnergyAggregator;
+import com.example.sampleiwatts.data.DashboardSnapshotCache;
+import com.example.sampleiwatts.data.EnergyRepository;
+import com.example.sampleiwatts.data.FrameBudgetMonitor;
+import com.example.sampleiwatts.data.ListenerRegistration;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.data.RollupStore;
+import com.example.sampleiwatts.data.RollupSync;
+import com.example.sampleiwatts.data.LatestReadingStore;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 
 public class DashboardActivity extends AppCompatActivity {
@@ -52,28 +67,33 @@ public class DashboardActivity extends AppCompatActivity {
     private TextView tvPercentageChange,  area1_icon, area2_icon, area3_icon;
 
     private ImageView ivBatteryImage,tvTrendIcon;
+    // Layout text size of tvBatteryLife, restored when it stops showing "Charging"
+    private float batteryTextSizePx;
     private LineChart lineChart1, lineChart2, lineChart3;
 
     private DatabaseReference db;
+    private EnergyRepository repository;
+    private RollupStore rollupStore;
+    private DashboardViewModel viewModel;
+    private DashboardSnapshotCache snapshotCache;
+    // What the dashboard shows now, saved for the next start
+    private DashboardSnapshot snapshot;
+    // Rebuild the summary only when a delta sync touched the dates it shows
+    private final RollupSync.Listener rollupListener = changed -> {
+        if (changed.overlaps(viewModel.summaryRange)) {
+            viewModel.aggregate = null;
+            loadEnergySummary(viewModel.summaryRange);
+        }
+    };
+    // cost_filter_date, followed so a range picked in CostEstimationActivity shows on return
+    private ListenerRegistration costFilterRegistration;
+    private FrameBudgetMonitor loadFrameMonitor;
+    private boolean fullyDrawnReported = false;
     private EditText etArea1, etArea2, etArea3;
     LinearLayout popArea1, popArea2, popArea3, percentageChangeContainer;
     CardView area1_card, area2_card, area3_card;
     ImageView ic_close, close2, close3;
 
-    private long lastLogsUpdateAtMs = 0L;
-    private String lastActivationSeenKey = null; // latest inner push key we've seen for activation heartbeats
-    private final long logsStaleAfterMs = 120_000L; // 2 minutes with no updates => inactive
-    private final android.os.Handler activationHandler = new android.os.Handler(android.os.Looper.getMainLooper());
-    private final Runnable activationChecker = new Runnable() {
-        @Override public void run() {
-            long now = System.currentTimeMillis();
-            boolean active = (now - lastLogsUpdateAtMs) <= logsStaleAfterMs;
-            updateActivationText(active);
-            activationHandler.postDelayed(this, 30_000L); // check every 30s
-        }
-    };
-
-
     private boolean isArea1Editable = false;
     private boolean isArea2Editable = false;
     private boolean isArea3Editable = false;
@@ -224,6 +244,10 @@ public class DashboardActivity extends AppCompatActivity {
         lineChart2 = findViewById(R.id.area2_chart);
         lineChart3 = findViewById(R.id.area3_chart);
         db = FirebaseDatabase.getInstance().getReference();
+        repository = EnergyRepository.getInstance();
+        rollupStore = RollupStore.getInstance(this);
+        viewModel = new ViewModelProvider(this).get(DashboardViewModel.class);
+        RollupSync.getInstance(this).addListener(rollupListener);
         tvArea1Kwh = findViewById(R.id.tvArea1Kwh);
         tvArea2Kwh = findViewById(R.id.tvArea2Kwh);
         tvArea3Kwh = findViewById(R.id.tvArea3Kwh);
@@ -306,19 +330,20 @@ public class DashboardActivity extends AppCompatActivity {
         tvTotalConsumption = findViewById(R.id.tvTotalConsumption);
         ivBatteryImage = findViewById(R.id.ivBatteryImage);
         tvBatteryLife = findViewById(R.id.tvBatteryLife);
+        batteryTextSizePx = tvBatteryLife.getTextSize();
         tvElectricityRate = findViewById(R.id.tvTotalKwh);
         tvTotalCost = findViewById(R.id.tvTotalCost);
-        fetchTotalCost();
+        if (BuildConfig.DEBUG) {
+            loadFrameMonitor = new FrameBudgetMonitor("Dashboard load");
+            loadFrameMonitor.start();
+        }
+        snapshotCache = DashboardSnapshotCache.getInstance(this);
+        showCachedSnapshot();
+        fetchEnergySummary();
         fetchElectricityRate();
         fetchBatteryLife();
         startActivationWatcher();
-        fetchTotalKwh();
         fetchAreaNames();
-        fetchAreaKwh();
-        fetchPeakWatts();
-        fetchArea1();
-        fetchArea2();
-        fetchArea3();
         fetchUsageTrend();
         LinearLayout buttonLayout = findViewById(R.id.button);
 
@@ -333,261 +358,347 @@ public class DashboardActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        RollupSync.getInstance(this).syncIfStale();
+    }
 
-        // Kick off activation checker loop
-        activationHandler.removeCallbacks(activationChecker);
-        activationHandler.post(activationChecker);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        RollupSync.getInstance(this).removeListener(rollupListener);
+        if (costFilterRegistration != null) {
+            costFilterRegistration.remove();
+            costFilterRegistration = null;
+        }
+        if (loadFrameMonitor != null) {
+            loadFrameMonitor.stop();
+            loadFrameMonitor = null;
+        }
     }
-    private void fetchTotalCost() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
 
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
+    // One range read feeds every summary card and area chart on the dashboard
+    private void fetchEnergySummary() {
+        // Tabs bring this activity back without onCreate, so follow the filter rather than read it once
+        costFilterRegistration = repository.observeCostFilterRange(new EnergyRepository.RangeCallback() {
             @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                // Log the raw data fetched
-                Log.d("CostEstimation", "Raw Starting Date: " + startingDateString);
-                Log.d("CostEstimation", "Raw Ending Date: " + endingDateString);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    Log.d("CostEstimation", "Parsed Starting Date: " + startingDate);
-                    Log.d("CostEstimation", "Parsed Ending Date: " + endingDate);
-
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double cumulativeCost = 0;
-
-                            // Loop through each date in the hourly summaries
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                Log.d("CostEstimation", "Processing Date: " + dateKey);
-                                Log.d("CostEstimation", "Current Date: " + currentDate);
-
-                                // Check if the current date is within the range of starting and ending dates
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                    // Loop through hourly data for the current date
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double hourlyCost = hourSnapshot.child("total_cost").getValue(Double.class);
-
-                                        if (hourlyCost != null) {
-                                            Log.d("CostEstimation", "Hourly Cost for " + dateKey + ": ₱" + hourlyCost);
-                                            cumulativeCost += hourlyCost;
-                                        } else {
-                                            Log.d("CostEstimation", "No hourly cost for " + dateKey);
-                                        }
-                                    }
-                                }
-                            }
-
-                            // Format the total cost
-                            String formattedCost = String.format("%.2f", cumulativeCost);
-                            tvTotalCost.setText("₱ " + formattedCost);
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
+            public void onRangeLoaded(DateRange range) {
+                Log.d("CostEstimation", "Cost filter range: " + range);
+                // Rotation: render what was already computed for this range
+                if (range.equals(viewModel.summaryRange) && viewModel.aggregate != null) {
+                    showEnergySummary(viewModel.aggregate);
+                    return;
                 }
+                viewModel.summaryRange = range;
+                viewModel.aggregate = null;
+                loadEnergySummary(range);
             }
 
             @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
+            public void onError(String error) {
+                Log.e("FirebaseError", "Error fetching cost filter data: " + error);
             }
         });
     }
-    private void fetchElectricityRate() {
-        DatabaseReference electricityRateRef = db.child("system_settings").child("electricity_rate_per_kwh");
-        electricityRateRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Object value = dataSnapshot.getValue();
 
-                if (value instanceof Number) {
-                    Double electricityRatePerKwh = ((Number) value).doubleValue();
-
-                    String formattedRate = String.format("%.2f", electricityRatePerKwh);
+    private void loadEnergySummary(DateRange range) {
+        rollupStore.loadHourlySummaries(range, new EnergyRepository.HourlySummariesCallback() {
+            @Override
+            public void onHourlySummariesLoaded(List<HourlySummary> hourly) {
+                rollupStore.loadDailySummaries(range, new EnergyRepository.DailySummariesCallback() {
+                    @Override
+                    public void onDailySummariesLoaded(List<DailySummary> daily) {
+                        AppExecutors.getInstance().computeOnBackground(
+                                () -> EnergyAggregator.aggregate(hourly, daily),
+                                aggregate -> showEnergySummary(range, aggregate));
+                    }
 
-                    // Update the UI
-                    tvElectricityRate.setText("₱ " + formattedRate + " / kwh");
-                } else {
-                    tvElectricityRate.setText("Electricity rate not available");
-                }
+                    @Override
+                    public void onError(String error) {
+                        Log.e("FirebaseError", "Error fetching daily summaries: " + error);
+                        AppExecutors.getInstance().computeOnBackground(
+                                () -> EnergyAggregator.aggregate(hourly),
+                                aggregate -> showEnergySummary(range, aggregate));
+                    }
+                });
             }
 
             @Override
-            public void onCancelled(DatabaseError databaseError) {
-                // Handle database error
-                Toast.makeText(DashboardActivity.this, "Error fetching electricity rate", Toast.LENGTH_SHORT).show();
+            public void onError(String error) {
+                Log.e("FirebaseError", "Error fetching hourly summaries: " + error);
             }
         });
     }
-    private void fetchBatteryLife() {
-        // Reference to the "logs" node to get the most recent battery percentage across ALL dates
-        DatabaseReference logsRef = db.child("logs");
 
-        logsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                int batteryPercentage = 0;
-                boolean isCharging = false;
-
-                // Prefer the entry with the largest numeric timestamp (timestamp/created_at/ts).
-                // If no numeric timestamp is present anywhere, fall back to the newest push key globally.
-                String selectedDateKey = null;
-                String selectedPushKey = null;
-                DataSnapshot selectedSnapshot = null;
-                long bestTimestamp = Long.MIN_VALUE;
-                boolean usedTimestamp = false;
-
-                for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                    for (DataSnapshot logSnapshot : dateSnapshot.getChildren()) {
-                        String pushKey = logSnapshot.getKey();
-                        if (pushKey == null) continue;
-
-                        // Try to read a timestamp from common field names
-                        Long ts = extractTimestamp(logSnapshot);
-                        if (ts != null) {
-                            if (!usedTimestamp || ts > bestTimestamp) {
-                                bestTimestamp = ts;
-                                selectedSnapshot = logSnapshot;
-                                selectedDateKey = dateSnapshot.getKey();
-                                selectedPushKey = pushKey;
-                                usedTimestamp = true;
-                            }
-                        } else if (!usedTimestamp) {
-                            // Only use push key ordering if we haven't found any timestamps yet
-                            if (selectedPushKey == null || pushKey.compareTo(selectedPushKey) > 0) {
-                                selectedPushKey = pushKey;
-                                selectedSnapshot = logSnapshot;
-                                selectedDateKey = dateSnapshot.getKey();
-                            }
-                        }
-                    }
-                }
+    // Drop a load that finished after the filter moved to another range
+    private void showEnergySummary(DateRange range, EnergyAggregate aggregate) {
+        if (!range.equals(viewModel.summaryRange)) return;
+        showEnergySummary(aggregate);
+    }
 
-                if (selectedSnapshot != null) {
-                    Object vbatPercentObj = selectedSnapshot.child("Vbat_percent").getValue();
-                    Object chargingObj = selectedSnapshot.child("Charging").getValue();
+    // Last session's dashboard, shown in the first frame and replaced part by part as fresh data arrives
+    private void showCachedSnapshot() {
+        // The snapshot is a few KB, read once per process, and has to be drawn in the first
+        // frame; reading it in the background would show the empty layout first
+        StrictMode.ThreadPolicy policy = StrictMode.allowThreadDiskReads();
+        DashboardSnapshot cached;
+        try {
+            cached = snapshotCache.read();
+        } finally {
+            StrictMode.setThreadPolicy(policy);
+        }
+        snapshot = cached != null ? cached : new DashboardSnapshot();
+        if (cached == null) return;
 
-                    if (vbatPercentObj instanceof Number) {
-                        batteryPercentage = ((Number) vbatPercentObj).intValue();
-                    } else if (vbatPercentObj instanceof String) {
-                        try { batteryPercentage = Integer.parseInt((String) vbatPercentObj); } catch (NumberFormatException ignored) { }
-                    }
+        Log.d(TAG, "Showing dashboard snapshot from " + (System.currentTimeMillis() - cached.savedAtMs) / 1000 + " s ago");
+        if (cached.aggregate != null && viewModel.aggregate == null) {
+            renderEnergySummary(cached.aggregate);
+        }
+        if (!Double.isNaN(cached.electricityRate)) {
+            showElectricityRate(cached.electricityRate);
+        }
+        if (!Double.isNaN(cached.trendPercent)) {
+            showTrend(cached.trendPercent);
+        }
+        if (cached.batteryPercent >= 0) {
+            showBattery(cached.batteryPercent, cached.charging);
+        }
+    }
 
-                    if (chargingObj instanceof Boolean) {
-                        isCharging = (Boolean) chargingObj;
-                    } else if (chargingObj instanceof String) {
-                        isCharging = Boolean.parseBoolean((String) chargingObj);
-                    }
+    private void saveSnapshot() {
+        snapshot.savedAtMs = System.currentTimeMillis();
+        snapshotCache.save(snapshot);
+    }
 
-                    Log.d("BatteryLifeSelected", "date=" + selectedDateKey + ", key=" + selectedPushKey + ", pct=" + batteryPercentage + ", charging=" + isCharging + ", usedTimestamp=" + usedTimestamp + (usedTimestamp ? (", ts=" + bestTimestamp) : ""));
-                }
+    private void showEnergySummary(EnergyAggregate aggregate) {
+        viewModel.aggregate = aggregate;
+        renderEnergySummary(aggregate);
+        if (loadFrameMonitor != null) {
+            loadFrameMonitor.stop();
+            loadFrameMonitor = null;
+        }
+        if (snapshot.aggregate != aggregate) {
+            snapshot.aggregate = aggregate;
+            saveSnapshot();
+        }
+    }
 
-                if (selectedSnapshot != null) {
-                    String displayText = isCharging ? "Charging" : (batteryPercentage + "%");
-
-                    if (isCharging) {
-                        tvBatteryLife.setText(displayText);
-                        tvBatteryLife.setTextSize(17); // Set text size to 17sp for "Charging"
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery10);
-                    } else if (batteryPercentage >= 95) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery1);
-                    } else if (batteryPercentage >= 70) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery2);
-                    } else if (batteryPercentage >= 55) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery3);
-                    } else if (batteryPercentage >= 40) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery4);
-                    } else if (batteryPercentage >= 25) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery5);
-                    } else if (batteryPercentage >= 10) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery6);
-                    } else if (batteryPercentage >= 5) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery7);
-                    } else {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery8);
-                    }
+    private void renderEnergySummary(EnergyAggregate aggregate) {
+        showTotalCost(aggregate);
+        showTotalKwh(aggregate);
+        showAreaKwh(aggregate);
+        showPeakWatts(aggregate);
+        showAreaChart(aggregate, 1, lineChart1);
+        showAreaChart(aggregate, 2, lineChart2);
+        showAreaChart(aggregate, 3, lineChart3);
+        // Numbers and charts are on screen, cached or fresh; macrobenchmark reads this as time to full display
+        if (!fullyDrawnReported) {
+            fullyDrawnReported = true;
+            reportFullyDrawn();
+        }
+    }
+
+    private void showTotalCost(EnergyAggregate aggregate) {
+        // Format the total cost
+        String formattedCost = String.format("%.2f", aggregate.totalCost);
+        tvTotalCost.setText("₱ " + formattedCost);
+    }
+
+    private void showTotalKwh(EnergyAggregate aggregate) {
+        String formattedKwh = String.format("%.3f", aggregate.totalKwh);
+        Log.d("KwhTotal", "Total KWh: " + formattedKwh);
+
+        String totalKwhText = formattedKwh +" kwh";
+        tvTotalConsumption.setText(totalKwhText);
+    }
+
+    private void showAreaKwh(EnergyAggregate aggregate) {
+        // Format and display the total kWh value for each area
+        String formattedArea1Kwh = String.format("%.3f", aggregate.areaKwh(1));
+        String formattedArea2Kwh = String.format("%.3f", aggregate.areaKwh(2));
+        String formattedArea3Kwh = String.format("%.3f", aggregate.areaKwh(3));
+
+        String formattedArea1Percentage = String.format("%.2f", aggregate.areaPercent(1));
+        String formattedArea2Percentage = String.format("%.2f", aggregate.areaPercent(2));
+        String formattedArea3Percentage = String.format("%.2f", aggregate.areaPercent(3));
+
+        Log.d("AreaKwhTotal", "Area 1 Total kWh: " + formattedArea1Kwh + " (" + formattedArea1Percentage + "%)");
+        Log.d("AreaKwhTotal", "Area 2 Total kWh: " + formattedArea2Kwh + " (" + formattedArea2Percentage + "%)");
+        Log.d("AreaKwhTotal", "Area 3 Total kWh: " + formattedArea3Kwh + " (" + formattedArea3Percentage + "%)");
+
+        // Set the total kWh for each area
+        tvArea1Kwh.setText(formattedArea1Kwh);
+        tvArea2Kwh.setText(formattedArea2Kwh);
+        tvArea3Kwh.setText(formattedArea3Kwh);
+
+        // Set the corresponding percentages for each area in separate TextViews
+        tvArea1Percentage.setText(formattedArea1Percentage );
+        tvArea2Percentage.setText(formattedArea2Percentage );
+        tvArea3Percentage.setText(formattedArea3Percentage );
+    }
+
+    private void showPeakWatts(EnergyAggregate aggregate) {
+        if (!aggregate.hasDailyPeak) {
+            Log.d("CostEstimation", "No peak watts or peak time in the selected date range.");
+            return;
+        }
+
+        // Peak time is stored as HH:mm:ss; show it with AM/PM
+        int peakSecond = DateKeys.secondOfDay(aggregate.dailyPeakTime);
+        if (peakSecond == DateKeys.INVALID) {
+            Log.e("CostEstimation", "Error parsing peak time: " + aggregate.dailyPeakTime);
+            return;
+        }
+        String formattedPeakTime = DateKeys.clockLabel(peakSecond);
+
+        // Display the highest peak_watts value along with the date and time
+        String formattedPeakWatts = String.format("%.0f", aggregate.dailyPeakWatts);
+        Log.d("PeakWatts", "Highest Peak Watts: " + formattedPeakWatts + " on " + aggregate.dailyPeakDate + " at " + formattedPeakTime);
+
+        // Update UI with peak watt value in tvPeakValue and formatted time in tvPeakTime
+        tvPeakValue.setText(formattedPeakWatts + " W ");
+        tvPeakTime.setText(aggregate.dailyPeakDate + " " + formattedPeakTime);  // Display formatted time (AM/PM) in tvPeakTime
+    }
+
+    // Daily kWh chart for one area over the cost filter range
+    private void showAreaChart(EnergyAggregate aggregate, int area, LineChart lineChart) {
+        double[] dailyKwh = new double[aggregate.dayCount()];
+        ArrayList<String> dateLabels = new ArrayList<>();
+        for (int i = 0; i < dailyKwh.length; i++) {
+            dailyKwh[i] = aggregate.dailyAreaKwh(area, i);
+            dateLabels.add(aggregate.dayKey(i).substring(5));
+        }
+        List<Entry> entries = ChartEntries.downsampled(dailyKwh, lineChart);
+
+        if (!entries.isEmpty()) {
+            LineDataSet dataSet = new LineDataSet(entries, "Area " + area + " Consumption (kWh)");
+            LineData lineData = new LineData(dataSet);
+
+            dataSet.setColor(getResources().getColor(R.color.brown));
+            dataSet.setValueTextColor(getResources().getColor(R.color.brown));
+            dataSet.setDrawFilled(true);
+            dataSet.setLineWidth(2f);
+            dataSet.setDrawCircles(true);
+
+            lineChart.setData(lineData);
+            lineChart.getAxisRight().setEnabled(false);
+            lineChart.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
+            lineChart.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
+            lineChart.getXAxis().setGridColor(getResources().getColor(R.color.brown));
+            lineChart.getAxisRight().setGridColor(getResources().getColor(R.color.brown));
+            lineChart.getLegend().setTextColor(getResources().getColor(R.color.brown));
+
+
+            XAxis xAxis = lineChart.getXAxis();
+            xAxis.setValueFormatter(new IndexAxisValueFormatter(dateLabels));
+            xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+            xAxis.setGranularity(1f);
+            xAxis.setTextColor(getResources().getColor(R.color.brown));
+            lineChart.getDescription().setEnabled(false);
+            lineChart.setExtraBottomOffset(10f);
+            xAxis.setDrawLabels(true);
+
+
+            Legend legend = lineChart.getLegend();
+            legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
+            legend.setForm(Legend.LegendForm.SQUARE);
+            legend.setTextColor(getResources().getColor(R.color.brown));
+
+            lineChart.invalidate();
+        } else {
+            Log.d("CostEstimation", "No data available for the selected date range.");
+        }
+    }
+    private void fetchElectricityRate() {
+        DatabaseReference electricityRateRef = db.child("system_settings").child("electricity_rate_per_kwh");
+        electricityRateRef.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot) {
+                Object value = dataSnapshot.getValue();
+
+                if (value instanceof Number) {
+                    double electricityRatePerKwh = ((Number) value).doubleValue();
+                    showElectricityRate(electricityRatePerKwh);
+                    snapshot.electricityRate = electricityRatePerKwh;
                 } else {
-                    tvBatteryLife.setText("Battery Life not available");
-                    ivBatteryImage.setImageResource(R.drawable.ic_battery9);
+                    tvElectricityRate.setText("Electricity rate not available");
+                    snapshot.electricityRate = Double.NaN;
                 }
+                saveSnapshot();
             }
 
             @Override
             public void onCancelled(DatabaseError databaseError) {
-                Toast.makeText(DashboardActivity.this, "Error fetching battery life", Toast.LENGTH_SHORT).show();
+                // Handle database error
+                Toast.makeText(DashboardActivity.this, "Error fetching electricity rate", Toast.LENGTH_SHORT).show();
             }
         });
     }
+    private void showElectricityRate(double electricityRatePerKwh) {
+        String formattedRate = String.format("%.2f", electricityRatePerKwh);
+        tvElectricityRate.setText("₱ " + formattedRate + " / kwh");
+    }
 
-    // Dedicated activation watcher: listens to any change under logs and marks device active by heartbeat
-    private void startActivationWatcher() {
-        DatabaseReference logsRef = db.child("logs");
-        logsRef.addValueEventListener(new ValueEventListener() {
-            @Override public void onDataChange(DataSnapshot snapshot) {
-                // Find the newest inner push key across all date buckets
-                String latestKey = null;
-                for (DataSnapshot dateSnap : snapshot.getChildren()) {
-                    for (DataSnapshot logSnap : dateSnap.getChildren()) {
-                        String k = logSnap.getKey();
-                        if (k == null) continue;
-                        if (latestKey == null || k.compareTo(latestKey) > 0) latestKey = k;
-                    }
-                }
+    private void fetchBatteryLife() {
+        // Newest reading is kept by the shared store, so reopening the dashboard shows it at once.
+        // Without a cached battery state say so until a reading arrives; an empty log never sends one
+        if (snapshot.batteryPercent < 0) {
+            showBatteryUnavailable();
+        }
+        LatestReadingStore.getInstance().getReading().observe(this, reading -> {
+            Log.d("BatteryLifeSelected", "bucket=" + reading.bucketKey + ", key=" + reading.pushKey + ", pct=" + reading.batteryPercent + ", charging=" + reading.charging);
+            showBattery(reading.batteryPercent, reading.charging);
+            // Readings arrive every few seconds; only a changed battery state is worth a write
+            if (snapshot.batteryPercent != reading.batteryPercent || snapshot.charging != reading.charging) {
+                snapshot.batteryPercent = reading.batteryPercent;
+                snapshot.charging = reading.charging;
+                saveSnapshot();
+            }
+        });
+    }
 
-                if (latestKey == null) {
-                    // No logs at all
-                    updateActivationText(false);
-                    return;
-                }
+    private void showBatteryUnavailable() {
+        tvBatteryLife.setTextSize(TypedValue.COMPLEX_UNIT_PX, batteryTextSizePx);
+        tvBatteryLife.setText("Battery Life not available");
+        ivBatteryImage.setImageResource(R.drawable.ic_battery9);
+    }
 
-                if (lastActivationSeenKey == null) {
-                    // Initialize without marking active yet; wait for a newer key
-                    lastActivationSeenKey = latestKey;
-                    updateActivationText(false);
-                    return;
-                }
+    private void showBattery(int batteryPercentage, boolean isCharging) {
+        String displayText = isCharging ? "Charging" : (batteryPercentage + "%");
+        tvBatteryLife.setTextSize(TypedValue.COMPLEX_UNIT_PX, batteryTextSizePx);
+
+        if (isCharging) {
+            tvBatteryLife.setText(displayText);
+            tvBatteryLife.setTextSize(17); // Set text size to 17sp for "Charging"
+            ivBatteryImage.setImageResource(R.drawable.ic_battery10);
+        } else if (batteryPercentage >= 95) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery1);
+        } else if (batteryPercentage >= 70) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery2);
+        } else if (batteryPercentage >= 55) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery3);
+        } else if (batteryPercentage >= 40) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery4);
+        } else if (batteryPercentage >= 25) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery5);
+        } else if (batteryPercentage >= 10) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery6);
+        } else if (batteryPercentage >= 5) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery7);
+        } else {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery8);
+        }
+    }
 
-                if (!latestKey.equals(lastActivationSeenKey)) {
-                    // Newer log arrived → mark active and remember key/time
-                    lastActivationSeenKey = latestKey;
-                    lastLogsUpdateAtMs = System.currentTimeMillis();
-                    updateActivationText(true);
-                }
-            }
-            @Override public void onCancelled(DatabaseError error) { }
-        });
+    // Activation heartbeat: connected while new readings keep arriving (see LatestReadingStore)
+    private void startActivationWatcher() {
+        LatestReadingStore.getInstance().getConnected().observe(this, this::updateActivationText);
     }
 
     private void updateActivationText(boolean active) {
@@ -598,91 +709,6 @@ public class DashboardActivity extends AppCompatActivity {
             activated.setTextColor(color);
         } catch (Exception ignored) { }
     }
-    private void fetchTotalKwh() {
-        // Reference to the cost_filter_date to get the starting and ending dates
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                // Fetch the starting and ending dates from Firebase
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                // Log the fetched data for debugging
-                Log.d("CostEstimation", "Starting Date: " + startingDateString);
-                Log.d("CostEstimation", "Ending Date: " + endingDateString);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());  // Adjust as per your Firebase format
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    Log.d("CostEstimation", "Parsed Starting Date: " + startingDate);
-                    Log.d("CostEstimation", "Parsed Ending Date: " + endingDate);
-
-                    // Now, fetch the hourly summaries within the date range
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double cumulativeKwh = 0;
-
-                            // Loop through the hourly summaries to accumulate the total kWh
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                Log.d("CostEstimation", "Processing Date: " + dateKey);
-                                Log.d("CostEstimation", "Current Date: " + currentDate);
-
-                                // Check if the current date is within the range of starting and ending dates
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                    // Loop through the hourly data for the current date
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double hourlyKwh = hourSnapshot.child("total_kwh").getValue(Double.class);
-
-                                        if (hourlyKwh != null) {
-                                            Log.d("CostEstimation", "Hourly KWh for " + dateKey + ": " + hourlyKwh);
-                                            cumulativeKwh += hourlyKwh;
-                                        } else {
-                                            Log.d("CostEstimation", "No hourly kWh for " + dateKey);
-                                        }
-                                    }
-                                }
-                            }
-
-                            String formattedKwh = String.format("%.3f", cumulativeKwh);
-                            Log.d("KwhTotal", "Total KWh: " + formattedKwh);
-
-                            String totalKwhText = formattedKwh +" kwh";
-                            tvTotalConsumption.setText(totalKwhText);
-
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
     private void updateArea1Name() {
         String area1Name = etArea1.getText().toString().trim();
         if (area1Name.isEmpty()) {
@@ -943,241 +969,12 @@ public class DashboardActivity extends AppCompatActivity {
             }
         });
     }
-    private void fetchAreaKwh() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                // Fetch the starting and ending dates from Firebase
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                // Log the fetched data for debugging
-                Log.d("CostEstimation", "Starting Date: " + startingDateString);
-                Log.d("CostEstimation", "Ending Date: " + endingDateString);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());  // Adjust as per your Firebase format
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    Log.d("CostEstimation", "Parsed Starting Date: " + startingDate);
-                    Log.d("CostEstimation", "Parsed Ending Date: " + endingDate);
-
-                    // Now, fetch the hourly summaries within the date range
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double cumulativeArea1Kwh = 0;
-                            double cumulativeArea2Kwh = 0;
-                            double cumulativeArea3Kwh = 0;
-
-                            // Loop through the hourly summaries to accumulate the total kWh for each area
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                Log.d("CostEstimation", "Processing Date: " + dateKey);
-                                Log.d("CostEstimation", "Current Date: " + currentDate);
-
-                                // Check if the current date is within the range of starting and ending dates
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                    // Loop through the hourly data for the current date
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        // Fetch kWh for each area (assuming your data has area1_kwh, area2_kwh, and area3_kwh)
-                                        Double area1Kwh = hourSnapshot.child("area1_kwh").getValue(Double.class);
-                                        Double area2Kwh = hourSnapshot.child("area2_kwh").getValue(Double.class);
-                                        Double area3Kwh = hourSnapshot.child("area3_kwh").getValue(Double.class);
-
-                                        if (area1Kwh != null) {
-                                            Log.d("CostEstimation", "Area 1 Hourly kWh for " + dateKey + ": " + area1Kwh);
-                                            cumulativeArea1Kwh += area1Kwh;
-                                        }
-
-                                        if (area2Kwh != null) {
-                                            Log.d("CostEstimation", "Area 2 Hourly kWh for " + dateKey + ": " + area2Kwh);
-                                            cumulativeArea2Kwh += area2Kwh;
-                                        }
-
-                                        if (area3Kwh != null) {
-                                            Log.d("CostEstimation", "Area 3 Hourly kWh for " + dateKey + ": " + area3Kwh);
-                                            cumulativeArea3Kwh += area3Kwh;
-                                        }
-                                    }
-                                }
-                            }
-
-                            // Calculate total kWh from all areas
-                            double totalKwh = cumulativeArea1Kwh + cumulativeArea2Kwh + cumulativeArea3Kwh;
-
-                            // Calculate percentage for each area
-                            double area1Percentage = (cumulativeArea1Kwh / totalKwh) * 100;
-                            double area2Percentage = (cumulativeArea2Kwh / totalKwh) * 100;
-                            double area3Percentage = (cumulativeArea3Kwh / totalKwh) * 100;
-
-                            // Format and display the total kWh value for each area
-                            String formattedArea1Kwh = String.format("%.3f", cumulativeArea1Kwh);
-                            String formattedArea2Kwh = String.format("%.3f", cumulativeArea2Kwh);
-                            String formattedArea3Kwh = String.format("%.3f", cumulativeArea3Kwh);
-
-                            String formattedArea1Percentage = String.format("%.2f", area1Percentage);
-                            String formattedArea2Percentage = String.format("%.2f", area2Percentage);
-                            String formattedArea3Percentage = String.format("%.2f", area3Percentage);
-
-                            Log.d("AreaKwhTotal", "Area 1 Total kWh: " + formattedArea1Kwh + " (" + formattedArea1Percentage + "%)");
-                            Log.d("AreaKwhTotal", "Area 2 Total kWh: " + formattedArea2Kwh + " (" + formattedArea2Percentage + "%)");
-                            Log.d("AreaKwhTotal", "Area 3 Total kWh: " + formattedArea3Kwh + " (" + formattedArea3Percentage + "%)");
-
-                            // Set the total kWh for each area
-                            tvArea1Kwh.setText(formattedArea1Kwh);
-                            tvArea2Kwh.setText(formattedArea2Kwh);
-                            tvArea3Kwh.setText(formattedArea3Kwh);
-
-                            // Set the corresponding percentages for each area in separate TextViews
-                            tvArea1Percentage.setText(formattedArea1Percentage );
-                            tvArea2Percentage.setText(formattedArea2Percentage );
-                            tvArea3Percentage.setText(formattedArea3Percentage );
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
-    private void fetchPeakWatts() {
-        // Reference to the cost_filter_date to get the starting and ending dates
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                // Fetch the starting and ending dates from Firebase
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                // Log the fetched data for debugging
-                Log.d("CostEstimation", "Starting Date: " + startingDateString);
-                Log.d("CostEstimation", "Ending Date: " + endingDateString);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());  // Adjust as per your Firebase format
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    Log.d("CostEstimation", "Parsed Starting Date: " + startingDate);
-                    Log.d("CostEstimation", "Parsed Ending Date: " + endingDate);
-
-                    // Now, fetch the daily summaries within the date range
-                    db.child("daily_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            double highestPeakWatts = 0;
-                            String peakDate = "";
-                            String peakTime = "";
-
-                            // Loop through the daily summaries to find the highest peak_watts
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                Log.d("CostEstimation", "Processing Date: " + dateKey);
-                                Log.d("CostEstimation", "Current Date: " + currentDate);
-
-                                // Check if the current date is within the range of starting and ending dates
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-
-                                    // Get the peak_watts and peak_time for the current date
-                                    Double peakWatts = dateSnapshot.child("peak_watts").getValue(Double.class);
-                                    String peakTimeString = dateSnapshot.child("peak_time").getValue(String.class);
-
-                                    if (peakWatts != null && peakTimeString != null) {
-                                        Log.d("CostEstimation", "Peak Watts for " + dateKey + ": " + peakWatts + " at " + peakTimeString);
-
-                                        // Update the highest peak_watts if the current one is higher
-                                        if (peakWatts > highestPeakWatts) {
-                                            highestPeakWatts = peakWatts;
-                                            peakDate = dateKey;  // Store the date of the highest peak
-                                            peakTime = peakTimeString;  // Store the time of the highest peak
-                                        }
-                                    } else {
-                                        Log.d("CostEstimation", "No peak watts or peak time for " + dateKey);
-                                    }
-                                }
-                            }
-
-                            // Format the peak time to display with AM/PM
-                            try {
-                                // Parse the peak time (assuming it is in 24-hour format "HH:mm:ss")
-                                SimpleDateFormat time24Format = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
-                                Date peakTimeDate = time24Format.parse(peakTime);
-
-                                // Convert to 12-hour format with AM/PM
-                                SimpleDateFormat time12Format = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                                String formattedPeakTime = time12Format.format(peakTimeDate);
-
-                                // Display the highest peak_watts value along with the date and time
-                                String formattedPeakWatts = String.format("%.0f", highestPeakWatts);
-                                Log.d("PeakWatts", "Highest Peak Watts: " + formattedPeakWatts + " on " + peakDate + " at " + formattedPeakTime);
-
-                                // Update UI with peak watt value in tvPeakValue and formatted time in tvPeakTime
-                                tvPeakValue.setText(formattedPeakWatts + " W ");
-                                tvPeakTime.setText(peakDate + " " + formattedPeakTime);  // Display formatted time (AM/PM) in tvPeakTime
-                            } catch (ParseException e) {
-                                Log.e("CostEstimation", "Error parsing or formatting peak time: " + e.getMessage());
-                            }
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching daily summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
 
     // Computes usage trend: yesterday (from daily_summaries) vs today-so-far (sum of hourly_summaries for current date)
     private void fetchUsageTrend() {
-        final SimpleDateFormat ymd = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        final Calendar cal = Calendar.getInstance();
-        final String todayKey = ymd.format(cal.getTime());
-        cal.add(Calendar.DAY_OF_YEAR, -1);
-        final String yesterdayKey = ymd.format(cal.getTime());
+        final int today = DateKeys.todayOrdinal();
+        final String todayKey = DateKeys.dayKey(today);
+        final String yesterdayKey = DateKeys.dayKey(today - 1);
 
         // Step 1: read yesterday total_kwh from daily_summaries
         db.child("daily_summaries").child(yesterdayKey).addListenerForSingleValueEvent(new ValueEventListener() {
@@ -1204,26 +1001,9 @@ public class DashboardActivity extends AppCompatActivity {
                             pctChange = ((todaySoFar - finalYesterdayTotal) / finalYesterdayTotal) * 100.0;
                         }
 
-                        // Update UI
-                        String sign = pctChange > 0 ? "+" : "";
-                        String pctText = String.format(Locale.getDefault(), "%s%.1f%%", sign, pctChange);
-                        tvPercentageChange.setText(pctText);
-                        
-                        if (pctChange == 0.0) {
-                            // Hide trend icon when percentage change is exactly 0.0
-                            tvTrendIcon.setVisibility(View.GONE);
-                        } else {
-                            // Show trend icon for any non-zero change
-                            tvTrendIcon.setVisibility(View.VISIBLE);
-                            if (pctChange > 0) {
-                                tvTrendIcon.setImageResource(R.drawable.ic_up);
-                                percentageChangeContainer.setBackgroundResource(R.drawable.bg_percentage);
-                            } else {
-                                tvTrendIcon.setImageResource(R.drawable.ic_down);
-                                percentageChangeContainer.setBackgroundResource(R.drawable.bg_percentage_change);
-                            }
-                        }
-
+                        showTrend(pctChange);
+                        snapshot.trendPercent = pctChange;
+                        saveSnapshot();
                     }
 
                     @Override public void onCancelled(DatabaseError error) { }
@@ -1233,363 +1013,29 @@ public class DashboardActivity extends AppCompatActivity {
             @Override public void onCancelled(DatabaseError error) { }
         });
     }
-    private void fetchArea1() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            ArrayList<Entry> entries = new ArrayList<>();
-                            ArrayList<String> dateLabels = new ArrayList<>();
-                            int index = 0;
-
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-                                    double totalArea1Kwh = 0.0;
-
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double area1Kwh = hourSnapshot.child("area1_kwh").getValue(Double.class);
-
-                                        if (area1Kwh != null) {
-                                            totalArea1Kwh += area1Kwh;
-                                        }
-                                    }
-
-                                    entries.add(new Entry(index, (float) totalArea1Kwh));
-                                    dateLabels.add(new SimpleDateFormat("MM-dd", Locale.getDefault()).format(currentDate));
-                                    index++;
-                                }
-                            }
-
-                            if (!entries.isEmpty()) {
-                                LineDataSet dataSet = new LineDataSet(entries, "Area 1 Consumption (kWh)");
-                                LineData lineData = new LineData(dataSet);
-
-                                dataSet.setColor(getResources().getColor(R.color.brown));
-                                dataSet.setValueTextColor(getResources().getColor(R.color.brown));
-                                dataSet.setDrawFilled(true);
-                                dataSet.setLineWidth(2f);
-                                dataSet.setDrawCircles(true);
-
-                                lineChart1.setData(lineData);
-                                lineChart1.getAxisRight().setEnabled(false);
-                                lineChart1.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart1.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
-                                lineChart1.getXAxis().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart1.getAxisRight().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart1.getLegend().setTextColor(getResources().getColor(R.color.brown));
-
-
-                                XAxis xAxis = lineChart1.getXAxis();
-                                xAxis.setValueFormatter(new IndexAxisValueFormatter(dateLabels));
-                                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                                xAxis.setGranularity(1f);
-                                xAxis.setTextColor(getResources().getColor(R.color.brown));
-                                lineChart1.getDescription().setEnabled(false);
-                                lineChart1.setExtraBottomOffset(10f);
-                                xAxis.setDrawLabels(true);
-
-
-                                Legend legend = lineChart1.getLegend();
-                                legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
-                                legend.setForm(Legend.LegendForm.SQUARE);
-                                legend.setTextColor(getResources().getColor(R.color.brown));
-
-                                lineChart1.invalidate();
-                            } else {
-                                Log.d("CostEstimation", "No data available for the selected date range.");
-                            }
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
-    private void fetchArea2() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            ArrayList<Entry> entries = new ArrayList<>();
-                            ArrayList<String> dateLabels = new ArrayList<>();
-                            int index = 0;
-
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-                                    double totalArea2Kwh = 0.0;
-
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double area2Kwh = hourSnapshot.child("area2_kwh").getValue(Double.class);
-
-                                        if (area2Kwh != null) {
-                                            totalArea2Kwh += area2Kwh;
-                                        }
-                                    }
-
-                                    entries.add(new Entry(index, (float) totalArea2Kwh));
-                                    dateLabels.add(new SimpleDateFormat("MM-dd", Locale.getDefault()).format(currentDate));
-                                    index++;
-                                }
-                            }
-
-                            if (!entries.isEmpty()) {
-                                LineDataSet dataSet = new LineDataSet(entries, "Area 2 Consumption (kWh)");
-                                LineData lineData = new LineData(dataSet);
-
-                                dataSet.setColor(getResources().getColor(R.color.brown));
-                                dataSet.setValueTextColor(getResources().getColor(R.color.brown));
-                                dataSet.setDrawFilled(true);
-                                dataSet.setLineWidth(2f);
-                                dataSet.setDrawCircles(true);
-
-                                lineChart2.setData(lineData);
-                                lineChart2.getAxisRight().setEnabled(false);
-                                lineChart2.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart2.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
-                                lineChart2.getXAxis().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart2.getAxisRight().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart2.getLegend().setTextColor(getResources().getColor(R.color.brown));
-
-
-                                XAxis xAxis = lineChart2.getXAxis();
-                                xAxis.setValueFormatter(new IndexAxisValueFormatter(dateLabels));
-                                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                                xAxis.setGranularity(1f);
-                                xAxis.setTextColor(getResources().getColor(R.color.brown));
-                                lineChart2.getDescription().setEnabled(false);
-                                lineChart2.setExtraBottomOffset(10f);
-                                xAxis.setDrawLabels(true);
-
-
-                                Legend legend = lineChart2.getLegend();
-                                legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
-                                legend.setForm(Legend.LegendForm.SQUARE);
-                                legend.setTextColor(getResources().getColor(R.color.brown));
-
-                                lineChart2.invalidate();
-                            } else {
-                                Log.d("CostEstimation", "No data available for the selected date range.");
-                            }
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
-    private void fetchArea3() {
-        DatabaseReference costFilterDateRef = db.child("cost_filter_date");
-
-        costFilterDateRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                String startingDateString = dataSnapshot.child("starting_date").getValue(String.class);
-                String endingDateString = dataSnapshot.child("ending_date").getValue(String.class);
-
-                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                try {
-                    Date startingDate = dateFormatter.parse(startingDateString);
-                    Date endingDate = dateFormatter.parse(endingDateString);
-
-                    db.child("hourly_summaries").orderByKey().addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot dataSnapshot) {
-                            ArrayList<Entry> entries = new ArrayList<>();
-                            ArrayList<String> dateLabels = new ArrayList<>();
-                            int index = 0;
-
-                            for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                                String dateKey = dateSnapshot.getKey();
-                                Date currentDate = null;
-                                try {
-                                    currentDate = dateFormatter.parse(dateKey);
-                                } catch (ParseException e) {
-                                    Log.e("CostEstimation", "Error parsing date: " + dateKey);
-                                }
-
-                                if ((currentDate.equals(startingDate) || currentDate.after(startingDate)) &&
-                                        (currentDate.equals(endingDate) || currentDate.before(endingDate))) {
-                                    double totalArea3Kwh = 0.0;
-
-                                    for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
-                                        Double area3Kwh = hourSnapshot.child("area3_kwh").getValue(Double.class);
-
-                                        if (area3Kwh != null) {
-                                            totalArea3Kwh += area3Kwh;
-                                        }
-                                    }
-
-                                    entries.add(new Entry(index, (float) totalArea3Kwh));
-                                    dateLabels.add(new SimpleDateFormat("MM-dd", Locale.getDefault()).format(currentDate));
-                                    index++;
-                                }
-                            }
-
-                            if (!entries.isEmpty()) {
-                                LineDataSet dataSet = new LineDataSet(entries, "Area 3 Consumption (kWh)");
-                                LineData lineData = new LineData(dataSet);
-
-                                dataSet.setColor(getResources().getColor(R.color.brown));
-                                dataSet.setValueTextColor(getResources().getColor(R.color.brown));
-                                dataSet.setDrawFilled(true);
-                                dataSet.setLineWidth(2f);
-                                dataSet.setDrawCircles(true);
-
-                                lineChart3.setData(lineData);
-                                lineChart3.getAxisRight().setEnabled(false);
-                                lineChart3.getAxisLeft().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart3.getAxisLeft().setTextColor(getResources().getColor(R.color.brown));
-                                lineChart3.getXAxis().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart3.getAxisRight().setGridColor(getResources().getColor(R.color.brown));
-                                lineChart3.getLegend().setTextColor(getResources().getColor(R.color.brown));
-
-
-                                XAxis xAxis = lineChart3.getXAxis();
-                                xAxis.setValueFormatter(new IndexAxisValueFormatter(dateLabels));
-                                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                                xAxis.setGranularity(1f);
-                                xAxis.setTextColor(getResources().getColor(R.color.brown));
-                                lineChart3.getDescription().setEnabled(false);
-                                lineChart3.setExtraBottomOffset(10f);
-                                xAxis.setDrawLabels(true);
-
-
-                                Legend legend = lineChart3.getLegend();
-                                legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
-                                legend.setForm(Legend.LegendForm.SQUARE);
-                                legend.setTextColor(getResources().getColor(R.color.brown));
-
-                                lineChart3.invalidate();
-                            } else {
-                                Log.d("CostEstimation", "No data available for the selected date range.");
-                            }
-                        }
-
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e("FirebaseError", "Error fetching hourly summaries: " + databaseError.getMessage());
-                        }
-                    });
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    Log.e("CostEstimation", "Error parsing dates: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e("FirebaseError", "Error fetching cost filter data: " + databaseError.getMessage());
-            }
-        });
-    }
 
-    private Long extractTimestamp(DataSnapshot logSnapshot) {
-        // Try common field names for timestamps and coerce to long
-        Object v;
-        String[] keys = new String[] { "timestamp", "created_at", "createdAt", "ts", "time" };
-        for (String k : keys) {
-            v = logSnapshot.child(k).getValue();
-            if (v instanceof Number) return ((Number) v).longValue();
-            if (v instanceof String) {
-                try {
-                    return Long.parseLong((String) v);
-                } catch (NumberFormatException ignored) { }
+    private void showTrend(double pctChange) {
+        String sign = pctChange > 0 ? "+" : "";
+        String pctText = String.format(Locale.getDefault(), "%s%.1f%%", sign, pctChange);
+        tvPercentageChange.setText(pctText);
+
+        if (pctChange == 0.0) {
+            // Hide trend icon when percentage change is exactly 0.0
+            tvTrendIcon.setVisibility(View.GONE);
+        } else {
+            // Show trend icon for any non-zero change
+            tvTrendIcon.setVisibility(View.VISIBLE);
+            if (pctChange > 0) {
+                tvTrendIcon.setImageResource(R.drawable.ic_up);
+                percentageChangeContainer.setBackgroundResource(R.drawable.bg_percentage);
+            } else {
+                tvTrendIcon.setImageResource(R.drawable.ic_down);
+                percentageChangeContainer.setBackgroundResource(R.drawable.bg_percentage_change);
             }
         }
-        return null;
     }
-    // Heuristic score for ordering date buckets with mixed formats
-    private long computeDateBucketScore(String key) {
-        if (key == null) return Long.MIN_VALUE;
-        try {
-            if (key.startsWith("UPTIME-")) {
-                // UPTIME-HH:MM:SS → convert to seconds
-                String t = key.substring("UPTIME-".length());
-                String[] parts = t.split(":");
-                if (parts.length == 3) {
-                    int h = Integer.parseInt(parts[0]);
-                    int m = Integer.parseInt(parts[1]);
-                    int s = Integer.parseInt(parts[2]);
-                    return 1_000_000_000L + h * 3600L + m * 60L + s; // add bias to prefer uptime over plain dates
-                }
-            }
-        } catch (Exception ignored) { }
 
-        try {
-            // Try ISO-like 2025-09-18T17:48:06Z
-            SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-            Date d = iso.parse(key);
-            if (d != null) return d.getTime();
-        } catch (Exception ignored) { }
 
-        return key.hashCode();
-    }
 
 
 
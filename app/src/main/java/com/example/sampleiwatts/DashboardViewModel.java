@@ -0,0 +1,14 @@
+package com.example.sampleiwatts;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.EnergyAggregate;
+
+/**
+ * Dashboard data that survives rotation and returning to the tab
+ */
+public class DashboardViewModel extends ViewModel {
+    DateRange summaryRange;
+    EnergyAggregate aggregate;
+}
@@ -6,6 +6,7 @@ import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
+import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
@@ -21,6 +22,8 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.sampleiwatts.data.LatestReadingStore;
+import com.example.sampleiwatts.data.LogReading;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
@@ -32,6 +35,8 @@ public class DeviceSettingsActivity extends AppCompatActivity {
     private EditText deviceNameEditText;
     ImageView ivBatteryImage;
     private TextView activationTimeTextView, tvBatteryLife;
+    // Layout text size of tvBatteryLife, restored when it stops showing "Charging"
+    private float batteryTextSizePx;
     private Button btnDisconnect;
     private boolean isDeviceNameEditable = false;
     private String originalDeviceName = "";
@@ -45,6 +50,7 @@ public class DeviceSettingsActivity extends AppCompatActivity {
         deviceNameEditText = findViewById(R.id.deviceName);
         activationTimeTextView = findViewById(R.id.activationTime);
         tvBatteryLife = findViewById(R.id.tvBatteryLife);
+        batteryTextSizePx = tvBatteryLife.getTextSize();
         btnDisconnect = findViewById(R.id.btnDisconnect);
         
         // Set up click listeners
@@ -159,126 +165,56 @@ public class DeviceSettingsActivity extends AppCompatActivity {
         // You might want to navigate back to a setup screen or clear the app data
     }
     private void fetchBatteryLife() {
-        // Reference to the "logs" node to get the most recent battery percentage across ALL dates
-        DatabaseReference logsRef = db.child("logs");
-
-        logsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                int batteryPercentage = 0;
-                boolean isCharging = false;
-
-                // Prefer the entry with the largest numeric timestamp (timestamp/created_at/ts).
-                // If no numeric timestamp is present anywhere, fall back to the newest push key globally.
-                String selectedDateKey = null;
-                String selectedPushKey = null;
-                DataSnapshot selectedSnapshot = null;
-                long bestTimestamp = Long.MIN_VALUE;
-                boolean usedTimestamp = false;
-
-                for (DataSnapshot dateSnapshot : dataSnapshot.getChildren()) {
-                    for (DataSnapshot logSnapshot : dateSnapshot.getChildren()) {
-                        String pushKey = logSnapshot.getKey();
-                        if (pushKey == null) continue;
-
-                        // Try to read a timestamp from common field names
-                        Long ts = extractTimestamp(logSnapshot);
-                        if (ts != null) {
-                            if (!usedTimestamp || ts > bestTimestamp) {
-                                bestTimestamp = ts;
-                                selectedSnapshot = logSnapshot;
-                                selectedDateKey = dateSnapshot.getKey();
-                                selectedPushKey = pushKey;
-                                usedTimestamp = true;
-                            }
-                        } else if (!usedTimestamp) {
-                            // Only use push key ordering if we haven't found any timestamps yet
-                            if (selectedPushKey == null || pushKey.compareTo(selectedPushKey) > 0) {
-                                selectedPushKey = pushKey;
-                                selectedSnapshot = logSnapshot;
-                                selectedDateKey = dateSnapshot.getKey();
-                            }
-                        }
-                    }
-                }
-
-                if (selectedSnapshot != null) {
-                    Object vbatPercentObj = selectedSnapshot.child("Vbat_percent").getValue();
-                    Object chargingObj = selectedSnapshot.child("Charging").getValue();
-
-                    if (vbatPercentObj instanceof Number) {
-                        batteryPercentage = ((Number) vbatPercentObj).intValue();
-                    } else if (vbatPercentObj instanceof String) {
-                        try { batteryPercentage = Integer.parseInt((String) vbatPercentObj); } catch (NumberFormatException ignored) { }
-                    }
-
-                    if (chargingObj instanceof Boolean) {
-                        isCharging = (Boolean) chargingObj;
-                    } else if (chargingObj instanceof String) {
-                        isCharging = Boolean.parseBoolean((String) chargingObj);
-                    }
-
-                    Log.d("BatteryLifeSelected", "date=" + selectedDateKey + ", key=" + selectedPushKey + ", pct=" + batteryPercentage + ", charging=" + isCharging + ", usedTimestamp=" + usedTimestamp + (usedTimestamp ? (", ts=" + bestTimestamp) : ""));
-                }
+        // Same store as the dashboard, so the battery state is already known when this screen opens.
+        // Until it has a reading (none at all with an empty log) the screen says so
+        showBatteryUnavailable();
+        LatestReadingStore.getInstance().getReading().observe(this, reading -> {
+            Log.d("BatteryLifeSelected", "bucket=" + reading.bucketKey + ", key=" + reading.pushKey + ", pct=" + reading.batteryPercent + ", charging=" + reading.charging);
+            showBattery(reading);
+        });
+    }
 
-                if (selectedSnapshot != null) {
-                    String displayText = isCharging ? "Charging" : (batteryPercentage + "%");
+    private void showBatteryUnavailable() {
+        tvBatteryLife.setTextSize(TypedValue.COMPLEX_UNIT_PX, batteryTextSizePx);
+        tvBatteryLife.setText("Battery Life not available");
+        ivBatteryImage.setImageResource(R.drawable.ic_battery9);
+    }
 
-                    if (isCharging) {
-                        tvBatteryLife.setText(displayText);
-                        tvBatteryLife.setTextSize(17); // Set text size to 17sp for "Charging"
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery10);
-                    } else if (batteryPercentage >= 95) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery1);
-                    } else if (batteryPercentage >= 70) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery2);
-                    } else if (batteryPercentage >= 55) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery3);
-                    } else if (batteryPercentage >= 40) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery4);
-                    } else if (batteryPercentage >= 25) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery5);
-                    } else if (batteryPercentage >= 10) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery6);
-                    } else if (batteryPercentage >= 5) {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery7);
-                    } else {
-                        tvBatteryLife.setText(displayText);
-                        ivBatteryImage.setImageResource(R.drawable.ic_battery8);
-                    }
-                } else {
-                    tvBatteryLife.setText("Battery Life not available");
-                    ivBatteryImage.setImageResource(R.drawable.ic_battery9);
-                }
-            }
+    private void showBattery(LogReading reading) {
+        int batteryPercentage = reading.batteryPercent;
+        boolean isCharging = reading.charging;
+        String displayText = isCharging ? "Charging" : (batteryPercentage + "%");
+        tvBatteryLife.setTextSize(TypedValue.COMPLEX_UNIT_PX, batteryTextSizePx);
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Toast.makeText(DeviceSettingsActivity.this, "Error fetching battery life", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-    private Long extractTimestamp(DataSnapshot logSnapshot) {
-        // Try common field names for timestamps and coerce to long
-        Object v;
-        String[] keys = new String[] { "timestamp", "created_at", "createdAt", "ts", "time" };
-        for (String k : keys) {
-            v = logSnapshot.child(k).getValue();
-            if (v instanceof Number) return ((Number) v).longValue();
-            if (v instanceof String) {
-                try {
-                    return Long.parseLong((String) v);
-                } catch (NumberFormatException ignored) { }
-            }
+        if (isCharging) {
+            tvBatteryLife.setText(displayText);
+            tvBatteryLife.setTextSize(17); // Set text size to 17sp for "Charging"
+            ivBatteryImage.setImageResource(R.drawable.ic_battery10);
+        } else if (batteryPercentage >= 95) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery1);
+        } else if (batteryPercentage >= 70) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery2);
+        } else if (batteryPercentage >= 55) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery3);
+        } else if (batteryPercentage >= 40) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery4);
+        } else if (batteryPercentage >= 25) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery5);
+        } else if (batteryPercentage >= 10) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery6);
+        } else if (batteryPercentage >= 5) {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery7);
+        } else {
+            tvBatteryLife.setText(displayText);
+            ivBatteryImage.setImageResource(R.drawable.ic_battery8);
         }
-        return null;
     }
     private void fetchDeviceName() {
         // Reference to the "device_name" field under the "system_settings" node
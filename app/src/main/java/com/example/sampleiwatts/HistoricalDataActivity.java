@@ -15,9 +15,9 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.components.XAxis;
@@ -26,16 +26,16 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.data.EnergyRepository;
+import com.example.sampleiwatts.core.RangeTotals;
+import com.example.sampleiwatts.data.RollupStore;
+import com.example.sampleiwatts.data.RollupSync;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -55,10 +55,6 @@ public class HistoricalDataActivity extends AppCompatActivity {
     private Calendar startDate;
     private Calendar endDate;
 
-    // Date formatters with Philippine timezone
-    private SimpleDateFormat displayFormat;
-    private SimpleDateFormat firebaseFormat;
-
     // Summary components
     private TextView selectedTotalConsumption;
     private TextView selectedDailyAverage;
@@ -107,19 +103,32 @@ public class HistoricalDataActivity extends AppCompatActivity {
     // Data storage
     private Map<String, List<Map<String, Object>>> historicalData; // key "days" -> list of per-day maps
     private double electricityRate = 9.85; // Default BATELEC II rate
+    private RollupStore rollupStore;
+    private DateRange selectedRange;
+    private DateRange previousRange;
+    private HistoricalViewModel viewModel;
+    // Reload only when a delta sync changed a day of the selected or comparison period
+    private final RollupSync.Listener rollupListener = changed -> {
+        if (changed.overlaps(selectedRange) || changed.overlaps(previousRange)) {
+            viewModel.invalidate();
+            loadHistoricalData();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         setContentView(R.layout.activity_historical_data);
+        rollupStore = RollupStore.getInstance(this);
+        viewModel = new ViewModelProvider(this).get(HistoricalViewModel.class);
+        RollupSync.getInstance(this).addListener(rollupListener);
 
         // Set up bottom navigation
         LinearLayout buttonLayout = findViewById(R.id.button);
         ButtonNavigator.setupButtons(this, buttonLayout);
 
         initializeViews();
-        initializeDateFormatters();
         initializeDates();
         setupDatePickers();
         setupChartContainers();
@@ -212,36 +221,30 @@ public class HistoricalDataActivity extends AppCompatActivity {
         Log.d(TAG, "Views initialized successfully");
     }
 
-    /**
-     * Initialize date formatters with Philippine timezone
-     */
-    private void initializeDateFormatters() {
-        // Display format for UI (MM/dd/yyyy)
-        displayFormat = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-        displayFormat.setTimeZone(PHILIPPINE_TIMEZONE);
-
-        // Firebase format for database queries (yyyy-MM-dd)
-        firebaseFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        firebaseFormat.setTimeZone(PHILIPPINE_TIMEZONE);
-
-        Log.d(TAG, "Date formatters initialized with Philippine timezone: " + PHILIPPINE_TIMEZONE.getDisplayName());
-    }
-
     /**
      * Initialize default date range (last 7 days) using Philippine timezone
      */
     private void initializeDates() {
-        // Initialize calendars with Philippine timezone
-        startDate = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        endDate = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-
-        // Set default range to last 7 days
-        startDate.add(Calendar.DAY_OF_MONTH, -7);
+        // The picker edits these calendars in place, so keeping them in the ViewModel
+        // also keeps the user's selection across rotation
+        if (viewModel.startDate != null && viewModel.endDate != null) {
+            startDate = viewModel.startDate;
+            endDate = viewModel.endDate;
+        } else {
+            // Initialize calendars with Philippine timezone
+            startDate = Calendar.getInstance(PHILIPPINE_TIMEZONE);
+            endDate = Calendar.getInstance(PHILIPPINE_TIMEZONE);
+
+            // Set default range to last 7 days
+            startDate.add(Calendar.DAY_OF_MONTH, -7);
+            viewModel.startDate = startDate;
+            viewModel.endDate = endDate;
+        }
 
         updateDateDisplays();
 
-        Log.d(TAG, "Dates initialized - Start: " + firebaseFormat.format(startDate.getTime()) +
-                ", End: " + firebaseFormat.format(endDate.getTime()));
+        Log.d(TAG, "Dates initialized - Start: " + DateKeys.dayKey(dayOf(startDate)) +
+                ", End: " + DateKeys.dayKey(dayOf(endDate)));
     }
 
     /**
@@ -281,7 +284,7 @@ public class HistoricalDataActivity extends AppCompatActivity {
                     loadHistoricalData();
 
                     Log.d(TAG, "Date selected - " + (isStartDate ? "Start" : "End") +
-                            ": " + firebaseFormat.format(calendar.getTime()));
+                            ": " + DateKeys.dayKey(dayOf(calendar)));
                 },
                 calendar.get(Calendar.YEAR),
                 calendar.get(Calendar.MONTH),
@@ -295,29 +298,31 @@ public class HistoricalDataActivity extends AppCompatActivity {
      * Update date display fields using Philippine timezone
      */
     private void updateDateDisplays() {
-        startDateEdit.setText(displayFormat.format(startDate.getTime()));
-        endDateEdit.setText(displayFormat.format(endDate.getTime()));
+        int start = dayOf(startDate);
+        int end = dayOf(endDate);
+        startDateEdit.setText(DateKeys.displayDate(start));
+        endDateEdit.setText(DateKeys.displayDate(end));
 
         // Update comparison date ranges
-        String selectedRange = displayFormat.format(startDate.getTime()) + " - " + displayFormat.format(endDate.getTime());
+        String selectedRange = DateKeys.displayDate(start) + " - " + DateKeys.displayDate(end);
         selectedDateRange.setText(selectedRange);
 
-        // Calculate previous period using Philippine timezone
-        long daysDiff = (endDate.getTimeInMillis() - startDate.getTimeInMillis()) / (1000 * 60 * 60 * 24);
-        Calendar prevStart = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        Calendar prevEnd = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-
-        prevStart.setTime(startDate.getTime());
-        prevEnd.setTime(endDate.getTime());
-        prevStart.add(Calendar.DAY_OF_MONTH, -(int)daysDiff - 1);
-        prevEnd.add(Calendar.DAY_OF_MONTH, -(int)daysDiff - 1);
+        // Previous period: the same number of days right before the selection
+        int span = end - start + 1;
 
-        String previousRange = displayFormat.format(prevStart.getTime()) + " - " + displayFormat.format(prevEnd.getTime());
+        String previousRange = DateKeys.displayDate(start - span) + " - " + DateKeys.displayDate(end - span);
         previousDateRange.setText(previousRange);
 
         Log.d(TAG, "Date displays updated - Selected: " + selectedRange + ", Previous: " + previousRange);
     }
 
+    /**
+     * Day ordinal, in Philippine time, of a picker calendar
+     */
+    private static int dayOf(Calendar calendar) {
+        return DateKeys.dayOrdinalAt(calendar.getTimeInMillis());
+    }
+
     /**
      * Setup LineChart instances in FrameLayout containers
      */
@@ -355,29 +360,47 @@ public class HistoricalDataActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        RollupSync.getInstance(this).syncIfStale();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        RollupSync.getInstance(this).removeListener(rollupListener);
+    }
+
     /**
      * FIXED: Load historical data using correct query method
      */
     private void loadHistoricalData() {
         try {
-            DatabaseReference summariesRef = FirebaseDatabase.getInstance().getReference("daily_summaries");
-
             // Format dates for Firebase query using Philippine timezone
-            String startDateStr = firebaseFormat.format(startDate.getTime());
-            String endDateStr = firebaseFormat.format(endDate.getTime());
+            String startDateStr = DateKeys.dayKey(dayOf(startDate));
+            String endDateStr = DateKeys.dayKey(dayOf(endDate));
 
             Log.d(TAG, "Loading historical data from " + startDateStr + " to " + endDateStr);
 
-            // FIXED: Query all daily summaries, then filter by date range
-            summariesRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            // Answered from the local rollup; only days not stored yet are downloaded
+            selectedRange = new DateRange(startDateStr, endDateStr);
+            if (viewModel.summaries != null && selectedRange.equals(viewModel.loadedRange)) {
+                processHistoricalData(viewModel.summaries);
+                return;
+            }
+            DateRange requested = selectedRange;
+            rollupStore.loadDailySummaries(requested, new EnergyRepository.DailySummariesCallback() {
                 @Override
-                public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                    processHistoricalData(dataSnapshot, startDateStr, endDateStr);
+                public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                    viewModel.loadedRange = requested;
+                    viewModel.summaries = summaries;
+                    processHistoricalData(summaries);
                 }
 
                 @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.e(TAG, "Failed to load historical data: " + error.getMessage());
+                public void onError(String error) {
+                    Log.e(TAG, "Failed to load historical data: " + error);
                     Toast.makeText(HistoricalDataActivity.this,
                             "Failed to load historical data", Toast.LENGTH_SHORT).show();
                 }
@@ -391,7 +414,7 @@ public class HistoricalDataActivity extends AppCompatActivity {
     /**
      * FIXED: Process historical data with correct field names and date filtering
      */
-    private void processHistoricalData(DataSnapshot dataSnapshot, String startDateStr, String endDateStr) {
+    private void processHistoricalData(List<DailySummary> summaries) {
         try {
             historicalData.clear();
 
@@ -417,93 +440,68 @@ public class HistoricalDataActivity extends AppCompatActivity {
             // Prepare container for day-by-day report
             List<Map<String, Object>> daysList = new ArrayList<>();
 
-            for (DataSnapshot daySnapshot : dataSnapshot.getChildren()) {
-                try {
-                    String dateKey = daySnapshot.getKey();
-
-                    // FIXED: Filter by date range using string comparison
-                    if (dateKey != null && dateKey.compareTo(startDateStr) >= 0 && dateKey.compareTo(endDateStr) <= 0) {
-
-                        Map<String, Object> dayData = (Map<String, Object>) daySnapshot.getValue();
-                        if (dayData == null) continue;
-
-                        // FIXED: Use correct field names from your database structure
-                        Double dayConsumption = getDoubleValue(dayData.get("total_kwh"));     // NOT total_energy_kwh
-                        Double dayCost = getDoubleValue(dayData.get("total_cost"));          // NOT total_cost_php
-                        Double dayPeak = getDoubleValue(dayData.get("peak_watts"));
-
-                        if (dayConsumption != null) {
-                            totalConsumption += dayConsumption;
-                            dailyConsumption.add(dayConsumption);
-                            dateLabels.add(dateKey);
-                            dayCount++;
-
-                            // Track peak day by consumption
-                            if (dayConsumption > peakConsumption) {
-                                peakConsumption = dayConsumption;
-                                peakDay = dateKey;
-                            }
-                        }
-
-                        if (dayCost != null) {
-                            totalCost += dayCost;
-                        }
-
-                        // Track highest daily peak watts
-                        if (dayPeak != null && dayPeak > maxDailyPeak) {
-                            maxDailyPeak = dayPeak;
-                        }
-
-                        // FIXED: Process area data from area_breakdown (not area_data)
-                        Map<String, Object> areaBreakdown = (Map<String, Object>) dayData.get("area_breakdown");
-                        if (areaBreakdown != null) {
-                            // Get area consumption values
-                            double area1Kwh = getAreaConsumption(areaBreakdown, "area1");
-                            double area2Kwh = getAreaConsumption(areaBreakdown, "area2");
-                            double area3Kwh = getAreaConsumption(areaBreakdown, "area3");
-
-                            area1Total += area1Kwh;
-                            area2Total += area2Kwh;
-                            area3Total += area3Kwh;
-
-                            // FIXED: Calculate proportional peaks for this day
-                            if (dayPeak != null && dayConsumption != null && dayConsumption > 0) {
-                                double area1Peak = dayPeak * (area1Kwh / dayConsumption);
-                                double area2Peak = dayPeak * (area2Kwh / dayConsumption);
-                                double area3Peak = dayPeak * (area3Kwh / dayConsumption);
-
-                                // Track maximum peaks across all days
-                                area1MaxPeak = Math.max(area1MaxPeak, area1Peak);
-                                area2MaxPeak = Math.max(area2MaxPeak, area2Peak);
-                                area3MaxPeak = Math.max(area3MaxPeak, area3Peak);
-                            }
-
-                            // Process hourly data for charts
-                            processAreaDailyData(areaDailyData, "area1", area1Kwh);
-                            processAreaDailyData(areaDailyData, "area2", area2Kwh);
-                            processAreaDailyData(areaDailyData, "area3", area3Kwh);
-                        }
-
-                        // Build compact per-day record for report card
-                        Map<String, Object> reportItem = new HashMap<>();
-                        reportItem.put("date", dateKey);
-                        reportItem.put("kwh", dayConsumption != null ? dayConsumption : 0.0);
-                        reportItem.put("cost", dayCost != null ? dayCost : 0.0);
-                        reportItem.put("peak_watts", dayPeak != null ? dayPeak : 0.0);
-                        // Optional area fields (tolerant to missing data)
-                        Map<String, Object> areaBreakdownCopy = new HashMap<>();
-                        Object a1Obj = dayData.get("area1_kwh");
-                        Object a2Obj = dayData.get("area2_kwh");
-                        Object a3Obj = dayData.get("area3_kwh");
-                        if (a1Obj != null) areaBreakdownCopy.put("area1", getDoubleValue(a1Obj));
-                        if (a2Obj != null) areaBreakdownCopy.put("area2", getDoubleValue(a2Obj));
-                        if (a3Obj != null) areaBreakdownCopy.put("area3", getDoubleValue(a3Obj));
-                        reportItem.put("areas", areaBreakdownCopy);
-                        daysList.add(reportItem);
+            for (DailySummary day : summaries) {
+                String dateKey = day.date;
+
+                if (day.hasTotalKwh) {
+                    totalConsumption += day.totalKwh;
+                    dailyConsumption.add(day.totalKwh);
+                    dateLabels.add(dateKey);
+                    dayCount++;
+
+                    // Track peak day by consumption
+                    if (day.totalKwh > peakConsumption) {
+                        peakConsumption = day.totalKwh;
+                        peakDay = dateKey;
                     }
-                } catch (Exception e) {
-                    Log.w(TAG, "Error processing day data for " + daySnapshot.getKey() + ": " + e.getMessage());
                 }
+
+                totalCost += day.totalCost;
+
+                // Track highest daily peak watts
+                if (day.hasPeakWatts && day.peakWatts > maxDailyPeak) {
+                    maxDailyPeak = day.peakWatts;
+                }
+
+                // Area data comes from area_breakdown
+                if (day.hasAreaBreakdown) {
+                    area1Total += day.area1Kwh;
+                    area2Total += day.area2Kwh;
+                    area3Total += day.area3Kwh;
+
+                    // Calculate proportional peaks for this day
+                    if (day.hasPeakWatts && day.hasTotalKwh && day.totalKwh > 0) {
+                        double area1Peak = day.peakWatts * (day.area1Kwh / day.totalKwh);
+                        double area2Peak = day.peakWatts * (day.area2Kwh / day.totalKwh);
+                        double area3Peak = day.peakWatts * (day.area3Kwh / day.totalKwh);
+
+                        // Track maximum peaks across all days
+                        area1MaxPeak = Math.max(area1MaxPeak, area1Peak);
+                        area2MaxPeak = Math.max(area2MaxPeak, area2Peak);
+                        area3MaxPeak = Math.max(area3MaxPeak, area3Peak);
+                    }
+
+                    // Process daily data for charts
+                    processAreaDailyData(areaDailyData, "area1", day.area1Kwh);
+                    processAreaDailyData(areaDailyData, "area2", day.area2Kwh);
+                    processAreaDailyData(areaDailyData, "area3", day.area3Kwh);
+                }
+
+                // Build compact per-day record for report card
+                Map<String, Object> reportItem = new HashMap<>();
+                reportItem.put("date", dateKey);
+                reportItem.put("kwh", day.totalKwh);
+                reportItem.put("cost", day.totalCost);
+                reportItem.put("peak_watts", day.peakWatts);
+                // Optional area fields (tolerant to missing data)
+                Map<String, Object> areaBreakdownCopy = new HashMap<>();
+                if (day.hasAreaBreakdown) {
+                    areaBreakdownCopy.put("area1", day.area1Kwh);
+                    areaBreakdownCopy.put("area2", day.area2Kwh);
+                    areaBreakdownCopy.put("area3", day.area3Kwh);
+                }
+                reportItem.put("areas", areaBreakdownCopy);
+                daysList.add(reportItem);
             }
 
             Log.d(TAG, String.format("Processed %d days of historical data", dayCount));
@@ -525,24 +523,6 @@ public class HistoricalDataActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * FIXED: Get area consumption with correct field names
-     */
-    private double getAreaConsumption(Map<String, Object> areaBreakdown, String areaKey) {
-        try {
-            Map<String, Object> areaData = (Map<String, Object>) areaBreakdown.get(areaKey);
-            if (areaData != null) {
-                // FIXED: Use 'kwh' field (not 'total_energy_kwh')
-                Double consumption = getDoubleValue(areaData.get("kwh"));
-                if (consumption != null) {
-                    return consumption;
-                }
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "Error getting area consumption for " + areaKey + ": " + e.getMessage());
-        }
-        return 0.0;
-    }
 
     /**
      * Process area hourly data for charts
@@ -559,30 +539,32 @@ public class HistoricalDataActivity extends AppCompatActivity {
      */
     private void loadPreviousPeriodData() {
         try {
-            long daysDiff = (endDate.getTimeInMillis() - startDate.getTimeInMillis()) / (1000 * 60 * 60 * 24);
-            Calendar prevStart = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-            Calendar prevEnd = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-
-            prevStart.setTime(startDate.getTime());
-            prevEnd.setTime(endDate.getTime());
-            prevStart.add(Calendar.DAY_OF_MONTH, -(int)daysDiff - 1);
-            prevEnd.add(Calendar.DAY_OF_MONTH, -(int)daysDiff - 1);
+            int start = dayOf(startDate);
+            int end = dayOf(endDate);
+            int span = end - start + 1;
 
-            String prevStartStr = firebaseFormat.format(prevStart.getTime());
-            String prevEndStr = firebaseFormat.format(prevEnd.getTime());
+            String prevStartStr = DateKeys.dayKey(start - span);
+            String prevEndStr = DateKeys.dayKey(end - span);
 
             Log.d(TAG, "Loading previous period: " + prevStartStr + " to " + prevEndStr);
 
-            DatabaseReference summariesRef = FirebaseDatabase.getInstance().getReference("daily_summaries");
-            summariesRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            previousRange = new DateRange(prevStartStr, prevEndStr);
+            if (viewModel.previousTotals != null && previousRange.equals(viewModel.previousRange)) {
+                processPreviousPeriodData(viewModel.previousTotals);
+                return;
+            }
+            DateRange requested = previousRange;
+            rollupStore.loadDailyTotals(requested, new RollupStore.TotalsCallback() {
                 @Override
-                public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                    processPreviousPeriodData(dataSnapshot, prevStartStr, prevEndStr);
+                public void onTotalsLoaded(RangeTotals totals) {
+                    viewModel.previousRange = requested;
+                    viewModel.previousTotals = totals;
+                    processPreviousPeriodData(totals);
                 }
 
                 @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.w(TAG, "Failed to load previous period data: " + error.getMessage());
+                public void onError(String error) {
+                    Log.w(TAG, "Failed to load previous period data: " + error);
                 }
             });
 
@@ -592,34 +574,11 @@ public class HistoricalDataActivity extends AppCompatActivity {
     }
 
     /**
-     * FIXED: Process previous period data with correct field names
+     * Sum the previous period for the comparison card
      */
-    private void processPreviousPeriodData(DataSnapshot dataSnapshot, String prevStartStr, String prevEndStr) {
+    private void processPreviousPeriodData(RangeTotals totals) {
         try {
-            double prevTotalConsumption = 0.0;
-            double prevTotalCost = 0.0;
-
-            for (DataSnapshot daySnapshot : dataSnapshot.getChildren()) {
-                String dateKey = daySnapshot.getKey();
-
-                if (dateKey != null && dateKey.compareTo(prevStartStr) >= 0 && dateKey.compareTo(prevEndStr) <= 0) {
-                    Map<String, Object> dayData = (Map<String, Object>) daySnapshot.getValue();
-                    if (dayData != null) {
-                        // FIXED: Use correct field names
-                        Double dayConsumption = getDoubleValue(dayData.get("total_kwh"));
-                        Double dayCost = getDoubleValue(dayData.get("total_cost"));
-
-                        if (dayConsumption != null) {
-                            prevTotalConsumption += dayConsumption;
-                        }
-                        if (dayCost != null) {
-                            prevTotalCost += dayCost;
-                        }
-                    }
-                }
-            }
-
-            updateComparisonDisplay(prevTotalConsumption, prevTotalCost);
+            updateComparisonDisplay(totals.totalKwh, totals.totalCost);
 
         } catch (Exception e) {
             Log.e(TAG, "Error processing previous period data", e);
@@ -750,10 +709,7 @@ public class HistoricalDataActivity extends AppCompatActivity {
      */
     private void setupDailyChart(LineChart chart, List<Double> data, List<String> labels, String chartName, int color) {
         try {
-            List<Entry> entries = new ArrayList<>();
-            for (int i = 0; i < data.size(); i++) {
-                entries.add(new Entry(i, data.get(i).floatValue()));
-            }
+            List<Entry> entries = ChartEntries.downsampled(data, chart);
 
             LineDataSet dataSet = new LineDataSet(entries, chartName);
             dataSet.setColor(color);
@@ -781,11 +737,8 @@ public class HistoricalDataActivity extends AppCompatActivity {
      */
     private void setupAreaDailyChart(LineChart chart, List<Double> dailyAreaData, List<String> dateLabels, String areaName, int color) {
         try {
-            // Create entries for each DAY
-            List<Entry> entries = new ArrayList<>();
-            for (int day = 0; day < dailyAreaData.size(); day++) {
-                entries.add(new Entry(day, dailyAreaData.get(day).floatValue()));
-            }
+            // One entry per DAY, downsampled for long ranges
+            List<Entry> entries = ChartEntries.downsampled(dailyAreaData, chart);
 
             LineDataSet dataSet = new LineDataSet(entries, areaName + " Daily Usage");
             dataSet.setColor(color);
@@ -884,7 +837,7 @@ public class HistoricalDataActivity extends AppCompatActivity {
 
         // Title and range
         TextView range = new TextView(this);
-        range.setText("Report Period: " + displayFormat.format(startDate.getTime()) + " - " + displayFormat.format(endDate.getTime()));
+        range.setText("Report Period: " + DateKeys.displayDate(dayOf(startDate)) + " - " + DateKeys.displayDate(dayOf(endDate)));
         range.setTextColor(Color.parseColor("#2E7D32"));
         range.setTextSize(14);
         reportContainer.addView(range);
@@ -0,0 +1,28 @@
+package com.example.sampleiwatts;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.RangeTotals;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Selected dates and loaded report data of the historical screen, kept across rotation
+ */
+public class HistoricalViewModel extends ViewModel {
+    Calendar startDate;
+    Calendar endDate;
+
+    DateRange loadedRange;
+    List<DailySummary> summaries;
+    DateRange previousRange;
+    RangeTotals previousTotals;
+
+    void invalidate() {
+        summaries = null;
+        previousTotals = null;
+    }
+}
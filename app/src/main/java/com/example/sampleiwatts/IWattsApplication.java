@@ -2,9 +2,14 @@ package com.example.sampleiwatts;
 
 
 import android.app.Application;
+import android.os.StrictMode;
 import android.util.Log;
 
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.SyntheticWorkload;
+import com.example.sampleiwatts.data.EmulatorWorkloadWriter;
 import com.google.firebase.FirebaseApp;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
 public class IWattsApplication extends Application {
@@ -17,11 +22,30 @@ public class IWattsApplication extends Application {
 
         Log.d(TAG, "I-WATTS Application starting");
 
+        // Debug builds log any disk or network access on the main thread
+        if (BuildConfig.DEBUG) {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectAll()
+                    .penaltyLog()
+                    .build());
+            StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                    .detectLeakedClosableObjects()
+                    .detectActivityLeaks()
+                    .penaltyLog()
+                    .build());
+        }
+
         // Initialize Firebase
         if (FirebaseApp.getApps(this).isEmpty()) {
             FirebaseApp.initializeApp(this);
         }
 
+        // Load testing and macrobenchmarks against the Realtime Database emulator, only when
+        // built with -Piwatts.dbEmulator; must run before any other database call
+        if (!BuildConfig.DB_EMULATOR.isEmpty()) {
+            useDatabaseEmulator(BuildConfig.DB_EMULATOR);
+        }
+
         // Enable Firebase offline persistence
         try {
             FirebaseDatabase.getInstance().setPersistenceEnabled(true);
@@ -34,5 +58,33 @@ public class IWattsApplication extends Application {
         Log.d(TAG, "I-WATTS Application initialized successfully");
     }
 
+    /**
+     * Connect to the emulator at host:port and, if SYNTHETIC_DAYS is set, fill it with
+     * a synthetic ESP32 workload ending today
+     */
+    private void useDatabaseEmulator(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        String host = colon < 0 ? hostAndPort : hostAndPort.substring(0, colon);
+        int port = colon < 0 ? 9000 : Integer.parseInt(hostAndPort.substring(colon + 1));
+        FirebaseDatabase.getInstance().useEmulator(host, port);
+        Log.d(TAG, "Using Realtime Database emulator at " + host + ":" + port);
+
+        int days = BuildConfig.SYNTHETIC_DAYS;
+        if (days <= 0) return;
+        String startDate = DateKeys.dayKey(DateKeys.todayOrdinal() - (days - 1));
+        SyntheticWorkload workload = new SyntheticWorkload(startDate, days);
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        // Own thread: the writer blocks for minutes and must not hold a shared pool thread
+        new Thread(() -> {
+            try {
+                new EmulatorWorkloadWriter(root).write(workload);
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Synthetic workload interrupted");
+                Thread.currentThread().interrupt();
+            }
+        }, "iwatts-synthetic-workload").start();
+    }
+
 
 }
\ No newline at end of file
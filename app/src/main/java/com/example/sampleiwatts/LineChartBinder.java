@@ -0,0 +1,114 @@
+package com.example.sampleiwatts;
+
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps one 24-hour LineDataSet alive for a chart and updates it in place.
+ *
+ * The first update() builds the entries, dataset and LineData and configures the chart.
+ * Later updates only move the y of the hours whose value changed and call
+ * notifyDataSetChanged(); when nothing changed the chart is not touched and nothing is
+ * allocated. Fill scratch() with the next values before each update().
+ */
+final class LineChartBinder {
+    static final int HOURS = 24;
+
+    /**
+     * One-time axis and legend setup, run when the data is (re)attached
+     */
+    interface ChartConfigurer {
+        void configure(LineChart chart);
+    }
+
+    private final LineChart chart;
+    private final int color;
+    private final ChartConfigurer configurer;
+    private final float[] values = new float[HOURS];
+    private final float[] scratch = new float[HOURS];
+    private LineDataSet dataSet;
+    private LineData lineData;
+
+    LineChartBinder(LineChart chart, int color, ChartConfigurer configurer) {
+        this.chart = chart;
+        this.color = color;
+        this.configurer = configurer;
+    }
+
+    LineChart chart() {
+        return chart;
+    }
+
+    /**
+     * Buffer for the next hourly values, index = hour
+     */
+    float[] scratch() {
+        return scratch;
+    }
+
+    /**
+     * Apply scratch() to the chart; returns false when nothing changed
+     */
+    boolean update(String label) {
+        if (dataSet == null) {
+            create(label);
+            return true;
+        }
+
+        boolean changed = false;
+        if (chart.getData() != lineData) {
+            // Something else (the empty state) replaced the data; put ours back
+            chart.setData(lineData);
+            configurer.configure(chart);
+            changed = true;
+        }
+        if (!label.equals(dataSet.getLabel())) {
+            dataSet.setLabel(label);
+            changed = true;
+        }
+        for (int hour = 0; hour < HOURS; hour++) {
+            if (Float.compare(values[hour], scratch[hour]) != 0) {
+                values[hour] = scratch[hour];
+                dataSet.getEntryForIndex(hour).setY(scratch[hour]);
+                changed = true;
+            }
+        }
+        if (!changed) return false;
+
+        dataSet.notifyDataSetChanged();
+        lineData.notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+        return true;
+    }
+
+    private void create(String label) {
+        List<Entry> entries = new ArrayList<>(HOURS);
+        for (int hour = 0; hour < HOURS; hour++) {
+            values[hour] = scratch[hour];
+            entries.add(new Entry(hour, scratch[hour]));
+        }
+
+        // Create dataset with dashboard-style formatting
+        dataSet = new LineDataSet(entries, label);
+        dataSet.setColor(color);
+        dataSet.setCircleColor(color);
+        dataSet.setLineWidth(2f);
+        dataSet.setCircleRadius(4f);
+        dataSet.setDrawCircleHole(false);
+        dataSet.setDrawValues(false);
+        dataSet.setDrawFilled(true);
+        dataSet.setFillColor(color);
+        dataSet.setFillAlpha(50);
+        dataSet.setMode(LineDataSet.Mode.LINEAR);
+
+        lineData = new LineData(dataSet);
+        chart.setData(lineData);
+        configurer.configure(chart);
+    }
+}
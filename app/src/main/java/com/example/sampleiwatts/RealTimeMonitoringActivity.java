@@ -3,7 +3,6 @@ package com.example.sampleiwatts;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.Handler;
 import android.util.Log;
 import android.view.View;
 import android.widget.FrameLayout;
@@ -12,7 +11,6 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.components.Legend;
@@ -22,23 +20,31 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+import com.example.sampleiwatts.core.DataNode;
+import com.example.sampleiwatts.core.DataSource;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.data.FirebaseDataSource;
+import com.example.sampleiwatts.data.LogReading;
+import com.example.sampleiwatts.data.LogStream;
+import com.example.sampleiwatts.data.RefreshConflator;
+import com.example.sampleiwatts.data.RollupStore;
+import com.example.sampleiwatts.data.SubscriptionRegistry;
 import com.example.sampleiwatts.processors.RealTimeDataProcessor;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.TimeZone;
 
 public class RealTimeMonitoringActivity extends AppCompatActivity {
     private static final String TAG = "RealTimeMonitoring";
-    private static final long REFRESH_INTERVAL = 3 * 60 * 1000; // 3 minutes in milliseconds
+    // A refresh runs this long after the first change event, then at most once per interval
+    private static final long REFRESH_DEBOUNCE_MS = 1500L;
+    private static final long MIN_REFRESH_INTERVAL_MS = 15_000L;
+    private static final String SLOT_LATEST_LOGS = "realtime_latest_logs";
+    private static final String SLOT_TODAY_SUMMARIES = "realtime_today_summaries";
+    private static final String SLOT_AREA_NAMES = "realtime_area_names";
+    private static final List<String> HOUR_LABELS = hourLabels();
 
     // UI Components - Overall Summary
     private TextView todaysTotalValue;
@@ -72,10 +78,35 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
     private TextView area3PeakConsumption;
     private TextView area3SharePercentage;
 
-    // Data processor and refresh handler
+    // Charts keep their datasets between refreshes
+    private LineChartBinder area1Binder;
+    private LineChartBinder area2Binder;
+    private LineChartBinder area3Binder;
+
+    // Data processor, driven by change events on the logs and today's summaries
     private RealTimeDataProcessor dataProcessor;
-    private Handler refreshHandler;
-    private Runnable refreshRunnable;
+    private final DataSource dataSource = FirebaseDataSource.getInstance();
+    private SubscriptionRegistry subscriptions;
+    private RefreshConflator refreshConflator;
+    private String observedDate;
+    // Followed through one settings listener; the charts are redrawn when they change
+    private String area1Name = "Area 1";
+    private String area2Name = "Area 2";
+    private String area3Name = "Area 3";
+    private RealTimeDataProcessor.RealTimeData lastRealTimeData;
+
+    // The shared stream already follows the newest log bucket; each reading only schedules a refresh
+    private final LogStream.Listener logListener = new LogStream.Listener() {
+        @Override
+        public void onReading(LogReading reading) {
+            refreshConflator.signal();
+        }
+
+        @Override
+        public void onError(String error) {
+            Log.e(TAG, "Error observing logs: " + error);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -90,13 +121,12 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
         Log.d(TAG, "RealTimeMonitoringActivity created");
 
         initializeViews();
-        setupRefreshTimer();
-
-        // Initialize data processor - UPDATED: No context parameter needed
-        dataProcessor = new RealTimeDataProcessor();
 
-        // Load initial data
-        loadRealTimeData();
+        // Initialize data processor; the day's peaks are kept in the rollup database
+        dataProcessor = new RealTimeDataProcessor(dataSource, RollupStore.getInstance(this));
+        subscriptions = SubscriptionRegistry.of(this);
+        refreshConflator = new RefreshConflator(REFRESH_DEBOUNCE_MS, MIN_REFRESH_INTERVAL_MS, this::loadRealTimeData);
+        // Initial data comes from the first events of the listeners attached in onResume
     }
 
 
@@ -150,6 +180,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
                 area1Chart = new LineChart(this);
                 area1ChartContainer.removeAllViews();
                 area1ChartContainer.addView(area1Chart);
+                area1Binder = newBinder(area1Chart);
             }
 
             // Create LineChart for Area 2
@@ -157,6 +188,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
                 area2Chart = new LineChart(this);
                 area2ChartContainer.removeAllViews();
                 area2ChartContainer.addView(area2Chart);
+                area2Binder = newBinder(area2Chart);
             }
 
             // Create LineChart for Area 3
@@ -164,6 +196,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
                 area3Chart = new LineChart(this);
                 area3ChartContainer.removeAllViews();
                 area3ChartContainer.addView(area3Chart);
+                area3Binder = newBinder(area3Chart);
             }
 
             Log.d(TAG, "Chart containers setup successfully");
@@ -174,19 +207,70 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
     }
 
     /**
-     * Setup automatic refresh timer
+     * Refresh when the device writes a reading or today's hourly summaries change
      */
-    private void setupRefreshTimer() {
-        refreshHandler = new Handler();
-        refreshRunnable = new Runnable() {
-            @Override
-            public void run() {
-                Log.d(TAG, "Auto-refreshing real-time data...");
-                loadRealTimeData();
-                // Schedule next refresh
-                refreshHandler.postDelayed(this, REFRESH_INTERVAL);
-            }
-        };
+    private void startObserving() {
+        LogStream.getInstance().addListener(logListener);
+        subscriptions.replace(SLOT_LATEST_LOGS, () -> LogStream.getInstance().removeListener(logListener));
+        observeTodaySummaries(getCurrentDate());
+        observeAreaNames();
+    }
+
+    private void observeAreaNames() {
+        DataSource.Handle areaNames = dataSource.ref("system_settings")
+                .observe(new DataSource.ValueCallback() {
+                    @Override
+                    public void onValue(DataNode settings) {
+                        area1Name = nameOrDefault(settings.child("area1_name").getValue(), "Area 1");
+                        area2Name = nameOrDefault(settings.child("area2_name").getValue(), "Area 2");
+                        area3Name = nameOrDefault(settings.child("area3_name").getValue(), "Area 3");
+                        updateAreaLabels(area1Name, area2Name, area3Name);
+                        if (lastRealTimeData != null) {
+                            updateCharts(lastRealTimeData);
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.e(TAG, "Error fetching area names: " + error);
+                    }
+                });
+        SubscriptionRegistry.Subscription areaNamesSubscription = areaNames::remove;
+        subscriptions.replace(SLOT_AREA_NAMES, areaNamesSubscription);
+    }
+
+    private static String nameOrDefault(Object value, String defaultName) {
+        return value instanceof String ? (String) value : defaultName;
+    }
+
+    /**
+     * Move the summary listener to the given day; a no-op when it already observes it
+     */
+    private void observeTodaySummaries(String date) {
+        if (date.equals(observedDate)) return;
+        observedDate = date;
+        DataSource.Handle todaySummaries = dataSource.ref("hourly_summaries").child(date)
+                .observe(new DataSource.ValueCallback() {
+                    @Override
+                    public void onValue(DataNode node) {
+                        refreshConflator.signal();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.e(TAG, "Error observing hourly summaries: " + error);
+                    }
+                });
+        SubscriptionRegistry.Subscription summariesSubscription = todaySummaries::remove;
+        subscriptions.replace(SLOT_TODAY_SUMMARIES, summariesSubscription);
+    }
+
+    private void stopObserving() {
+        subscriptions.remove(SLOT_LATEST_LOGS);
+        subscriptions.remove(SLOT_TODAY_SUMMARIES);
+        subscriptions.remove(SLOT_AREA_NAMES);
+        observedDate = null;
+        refreshConflator.cancel();
     }
 
     /**
@@ -199,6 +283,8 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
 
         // UPDATED: Use new method signature with date parameter
         String todayDate = getCurrentDate();
+        // Follow the new day's summaries after midnight
+        observeTodaySummaries(todayDate);
         dataProcessor.processRealTimeData(todayDate, new RealTimeDataProcessor.DataProcessingCallback() {
             @Override
             public void onDataProcessed(RealTimeDataProcessor.RealTimeData realTimeData) {
@@ -206,6 +292,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
 
 
                 runOnUiThread(() -> {
+                    refreshConflator.finished();
                     // 🆕 VALIDATE DATA BEFORE UPDATING UI:
                     if (validateRealTimeData(realTimeData)) {
                         updateUI(realTimeData);
@@ -247,6 +334,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
             public void onError(String error) {
 
                 runOnUiThread(() -> {
+                    refreshConflator.finished();
                     Log.e(TAG, "Error loading real-time data: " + error);
                     Toast.makeText(RealTimeMonitoringActivity.this,
                             "Failed to load data: " + error, Toast.LENGTH_SHORT).show();
@@ -264,9 +352,7 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
      * Helper method to get current date in Philippine timezone
      */
     private String getCurrentDate() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        dateFormat.setTimeZone(TimeZone.getTimeZone("Asia/Manila"));
-        return dateFormat.format(new Date());
+        return DateKeys.todayKey();
     }
 
     /**
@@ -362,66 +448,28 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
     }
 
     /**
-     * Update charts with hourly data
+     * Update charts with hourly data, named from the settings listener
      */
     private void updateCharts(RealTimeDataProcessor.RealTimeData realTimeData) {
+        lastRealTimeData = realTimeData;
         try {
-            // Fetch area names from database and then update charts
-            DatabaseReference systemSettingsRef = FirebaseDatabase.getInstance()
-                    .getReference("system_settings");
-
-            systemSettingsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    // Get area names from database
-                    String area1Name = snapshot.child("area1_name").getValue(String.class);
-                    String area2Name = snapshot.child("area2_name").getValue(String.class);
-                    String area3Name = snapshot.child("area3_name").getValue(String.class);
-
-                    // Use defaults if not found
-                    if (area1Name == null) area1Name = "Area 1";
-                    if (area2Name == null) area2Name = "Area 2";
-                    if (area3Name == null) area3Name = "Area 3";
-
-                    // Create hourly labels
-                    List<String> hourLabels = new ArrayList<>();
-                    for (int i = 0; i < 24; i++) {
-                        hourLabels.add(String.format("%02d:00", i));
-                    }
-
-                    // CORRECTED: Pass realTimeData to setupAreaChart for percentage calculations
-                    if (area1Chart != null) {
-                        setupAreaChart(area1Chart, realTimeData.hourlyData, hourLabels,
-                                area1Name, getResources().getColor(R.color.brown), realTimeData);
-                    }
-
-                    if (area2Chart != null) {
-                        setupAreaChart(area2Chart, realTimeData.hourlyData, hourLabels,
-                                area2Name, getResources().getColor(R.color.brown), realTimeData);
-                    }
-
-                    if (area3Chart != null) {
-                        setupAreaChart(area3Chart, realTimeData.hourlyData, hourLabels,
-                                area3Name, getResources().getColor(R.color.brown), realTimeData);
-                    }
-
-                    // Update area labels in UI
-                    updateAreaLabels(area1Name, area2Name, area3Name);
+            // Pass realTimeData to setupAreaChart for percentage calculations
+            if (area1Binder != null) {
+                setupAreaChart(area1Binder, realTimeData.hourlyData, area1Name, 1, realTimeData);
+            }
 
-                    Log.d(TAG, "Charts updated with area distribution - Area1: " +
-                            String.format("%.1f%%", realTimeData.area1Data.sharePercentage) +
-                            ", Area2: " + String.format("%.1f%%", realTimeData.area2Data.sharePercentage) +
-                            ", Area3: " + String.format("%.1f%%", realTimeData.area3Data.sharePercentage));
-                }
+            if (area2Binder != null) {
+                setupAreaChart(area2Binder, realTimeData.hourlyData, area2Name, 2, realTimeData);
+            }
 
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.e(TAG, "Error fetching area names: " + error.getMessage());
-                    // Use defaults if database fetch fails
-                    updateChartsWithDefaults(realTimeData);
-                }
-            });
+            if (area3Binder != null) {
+                setupAreaChart(area3Binder, realTimeData.hourlyData, area3Name, 3, realTimeData);
+            }
 
+            Log.d(TAG, "Charts updated with area distribution - Area1: " +
+                    String.format("%.1f%%", realTimeData.area1Data.sharePercentage) +
+                    ", Area2: " + String.format("%.1f%%", realTimeData.area2Data.sharePercentage) +
+                    ", Area3: " + String.format("%.1f%%", realTimeData.area3Data.sharePercentage));
         } catch (Exception e) {
             Log.e(TAG, "Error updating charts: " + e.getMessage(), e);
         }
@@ -467,135 +515,65 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
         }
     }
 
-    private void updateChartsWithDefaults(RealTimeDataProcessor.RealTimeData realTimeData) {
-        List<String> hourLabels = new ArrayList<>();
-        for (int i = 0; i < 24; i++) {
-            hourLabels.add(String.format("%02d:00", i));
-        }
-
-        if (area1Chart != null) {
-            setupAreaChart(area1Chart, realTimeData.hourlyData, hourLabels,
-                    "Area 1", getResources().getColor(R.color.brown), realTimeData);
-        }
-
-        if (area2Chart != null) {
-            setupAreaChart(area2Chart, realTimeData.hourlyData, hourLabels,
-                    "Area 2", getResources().getColor(R.color.brown), realTimeData);
-        }
-
-        if (area3Chart != null) {
-            setupAreaChart(area3Chart, realTimeData.hourlyData, hourLabels,
-                    "Area 3", getResources().getColor(R.color.brown), realTimeData);
-        }
-    }
-
-
     /**
-     * Setup individual area chart
+     * Update one area chart in place from the hourly summaries
      */
-    private void setupAreaChart(LineChart chart, List<RealTimeDataProcessor.HourlyData> hourlyData,
-                                List<String> labels, String chartName, int color,
-                                RealTimeDataProcessor.RealTimeData realTimeData) {
-        if (chart == null) {
-            Log.w(TAG, "Chart is null for " + chartName);
-            return;
-        }
-
+    private void setupAreaChart(LineChartBinder binder, List<RealTimeDataProcessor.HourlyData> hourlyData,
+                                String chartName, int area, RealTimeDataProcessor.RealTimeData realTimeData) {
         try {
-            List<Entry> entries = new ArrayList<>();
-            List<String> usedLabels = new ArrayList<>();
-
-            Log.d(TAG, "Setting up " + chartName + " with " + hourlyData.size() + " hourly data points");
-
-            // FIXED: For area charts, we need to use a different approach since HourlyData only has total consumption
-            // We'll create a proportional distribution based on area data percentages
-
-            double area1Percentage = 0.0;
-            double area2Percentage = 0.0;
-            double area3Percentage = 0.0;
-
-            // Get area percentages from the real-time data
+            // HourlyData only has total consumption, so each area gets its share of it
+            double areaShare = 1.0 / 3.0;
             if (realTimeData != null) {
                 double totalAreaConsumption = realTimeData.area1Data.consumption +
                         realTimeData.area2Data.consumption +
                         realTimeData.area3Data.consumption;
-
                 if (totalAreaConsumption > 0) {
-                    area1Percentage = realTimeData.area1Data.consumption / totalAreaConsumption;
-                    area2Percentage = realTimeData.area2Data.consumption / totalAreaConsumption;
-                    area3Percentage = realTimeData.area3Data.consumption / totalAreaConsumption;
-                } else {
-                    // Default equal distribution if no data
-                    area1Percentage = area2Percentage = area3Percentage = 1.0 / 3.0;
+                    RealTimeDataProcessor.AreaData areaData = area == 1 ? realTimeData.area1Data
+                            : area == 2 ? realTimeData.area2Data : realTimeData.area3Data;
+                    areaShare = areaData.consumption / totalAreaConsumption;
                 }
             }
 
-            // Process all 24 hours
-            for (int hour = 0; hour < 24; hour++) {
-                float value = 0f;
-
-                // Find matching hourly data
-                for (RealTimeDataProcessor.HourlyData data : hourlyData) {
-                    if (data.hour.equals(String.format("%02d", hour))) {
-                        // CORRECTED: Use total consumption and distribute by area percentage
-                        if (chartName.contains("Area 1") || chartName.contains("Bedroom")) {
-                            value = (float) (data.consumption * area1Percentage);
-                        } else if (chartName.contains("Area 2") || chartName.contains("Living")) {
-                            value = (float) (data.consumption * area2Percentage);
-                        } else if (chartName.contains("Area 3") || chartName.contains("Kitchen")) {
-                            value = (float) (data.consumption * area3Percentage);
-                        } else {
-                            // For total consumption chart
-                            value = (float) data.consumption;
-                        }
-                        break;
-                    }
-                }
-
-                entries.add(new Entry(hour, Math.max(0f, value)));
-                usedLabels.add(String.format("%02d:00", hour));
-
-                if (value > 0) {
-                    Log.d(TAG, chartName + " - Hour " + hour + ": " + value + " kWh");
+            // Fill all 24 hours in place; hours without a summary stay at 0
+            float[] values = binder.scratch();
+            Arrays.fill(values, 0f);
+            for (RealTimeDataProcessor.HourlyData data : hourlyData) {
+                int hour = parseHour(data.hour);
+                if (hour >= 0 && hour < LineChartBinder.HOURS) {
+                    values[hour] = Math.max(0f, (float) (data.consumption * areaShare));
                 }
             }
 
-            if (entries.isEmpty()) {
-                Log.w(TAG, "No entries created for " + chartName + ", creating default entries");
-                for (int i = 0; i < 24; i += 4) {
-                    entries.add(new Entry(i, 0f));
-                    usedLabels.add(String.format("%02d:00", i));
-                }
+            if (binder.update(chartName)) {
+                Log.d(TAG, chartName + " chart updated");
             }
 
-            // Create dataset with dashboard-style formatting
-            LineDataSet dataSet = new LineDataSet(entries, chartName);
-            dataSet.setColor(color);
-            dataSet.setCircleColor(color);
-            dataSet.setLineWidth(2f);
-            dataSet.setCircleRadius(4f);
-            dataSet.setDrawCircleHole(false);
-            dataSet.setDrawValues(false);
-            dataSet.setDrawFilled(true);
-            dataSet.setFillColor(color);
-            dataSet.setFillAlpha(50);
-
-            // CORRECTED: Use only available methods
-            dataSet.setMode(LineDataSet.Mode.LINEAR);
-
-            LineData lineData = new LineData(dataSet);
-            chart.setData(lineData);
-
-            configureDashboardStyleChart(chart, usedLabels);
-
-            Log.d(TAG, chartName + " updated successfully with " + entries.size() + " entries");
-
         } catch (Exception e) {
             Log.e(TAG, "Error setting up area chart " + chartName + ": " + e.getMessage(), e);
-            createEmptyChart(chart, chartName, color);
+            createEmptyChart(binder.chart(), chartName, getResources().getColor(R.color.brown));
+        }
+    }
+
+    private LineChartBinder newBinder(LineChart chart) {
+        return new LineChartBinder(chart, getResources().getColor(R.color.brown),
+                configured -> configureDashboardStyleChart(configured, HOUR_LABELS));
+    }
+
+    private static int parseHour(String hour) {
+        try {
+            return Integer.parseInt(hour);
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
+    private static List<String> hourLabels() {
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            labels.add(String.format(Locale.US, "%02d:00", i));
+        }
+        return labels;
+    }
 
     // New method to apply dashboard-style formatting
     private void configureDashboardStyleChart(LineChart chart, List<String> labels) {
@@ -665,29 +643,22 @@ public class RealTimeMonitoringActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Start refresh timer
-        if (refreshHandler != null && refreshRunnable != null) {
-            refreshHandler.post(refreshRunnable);
-        }
-        // Load fresh data
-        loadRealTimeData();
+        // Listeners deliver the current data first, then every change
+        startObserving();
+        refreshConflator.signal();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        // Stop refresh timer
-        if (refreshHandler != null && refreshRunnable != null) {
-            refreshHandler.removeCallbacks(refreshRunnable);
-        }
+        // No background work while the screen is not visible
+        stopObserving();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Clean up
-        if (refreshHandler != null && refreshRunnable != null) {
-            refreshHandler.removeCallbacks(refreshRunnable);
-        }
+        // Listeners are removed by the registry
+        refreshConflator.cancel();
     }
 }
\ No newline at end of file
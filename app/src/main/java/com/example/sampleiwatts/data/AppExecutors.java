@@ -0,0 +1,94 @@
+package com.example.sampleiwatts.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executors: a small background pool for snapshot parsing and aggregation,
+ * and the main thread for handing results back to the UI.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+    private static final int BACKGROUND_THREADS = 2;
+
+    private static AppExecutors instance;
+
+    private final ExecutorService background;
+    private final Executor mainThread;
+
+    public interface Task<T> {
+        T run();
+    }
+
+    public interface ResultCallback<T> {
+        void onResult(T result);
+    }
+
+    public interface ErrorCallback {
+        void onError(String error);
+    }
+
+    private AppExecutors() {
+        AtomicInteger count = new AtomicInteger(1);
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "iwatts-background-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.background = Executors.newFixedThreadPool(BACKGROUND_THREADS, factory);
+
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        this.mainThread = mainHandler::post;
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    public Executor background() {
+        return background;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Run the task on the background pool and deliver its result on the main thread.
+     * A failing task is only logged; use the overload with an ErrorCallback when the
+     * caller has to hear about it.
+     */
+    public <T> void computeOnBackground(Task<T> task, ResultCallback<T> callback) {
+        computeOnBackground(task, callback, error -> { });
+    }
+
+    /**
+     * Run the task on the background pool and deliver either its result or its failure
+     * on the main thread, so exactly one of the two callbacks runs
+     */
+    public <T> void computeOnBackground(Task<T> task, ResultCallback<T> callback, ErrorCallback errorCallback) {
+        background.execute(() -> {
+            T result;
+            try {
+                result = task.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Background task failed", e);
+                String error = e.getMessage() != null ? e.getMessage() : e.toString();
+                mainThread.execute(() -> errorCallback.onError(error));
+                return;
+            }
+            mainThread.execute(() -> callback.onResult(result));
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.example.sampleiwatts.data;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.example.sampleiwatts.core.DashboardSnapshot;
+import com.example.sampleiwatts.core.DashboardSnapshotCodec;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The last dashboard model, stored as one DashboardSnapshotCodec file in the app's
+ * files directory.
+ *
+ * read() is synchronous so the dashboard can render the snapshot in its first frame;
+ * the file is a few KB, and once read it is answered from memory. save() encodes on
+ * the calling thread and writes on the background pool through AtomicFile, so a
+ * crash mid-write leaves the previous snapshot intact. A newer save always wins over
+ * an older one still waiting to be written, and an unreadable file is deleted on the
+ * background pool too, unless a newer snapshot was saved in the meantime.
+ */
+public class DashboardSnapshotCache {
+    private static final String TAG = "DashboardSnapshotCache";
+    private static final String FILE_NAME = "dashboard_snapshot.bin";
+
+    private static DashboardSnapshotCache instance;
+
+    private final AtomicFile file;
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    private byte[] latest = null;
+    private boolean loaded = false;
+    private long savedSeq = 0;
+    private long writtenSeq = 0;
+
+    private DashboardSnapshotCache(Context context) {
+        this.file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    public static synchronized DashboardSnapshotCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new DashboardSnapshotCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * The last saved snapshot, or null if there is none or it cannot be read
+     */
+    public synchronized DashboardSnapshot read() {
+        if (!loaded) {
+            loaded = true;
+            try {
+                latest = file.readFully();
+            } catch (FileNotFoundException e) {
+                latest = null;
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to read dashboard snapshot: " + e.getMessage());
+                latest = null;
+            }
+        }
+        if (latest == null) return null;
+        try {
+            return DashboardSnapshotCodec.decode(latest);
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable dashboard snapshot: " + e.getMessage());
+            latest = null;
+            long seq = savedSeq;
+            executors.background().execute(() -> discard(seq));
+            return null;
+        }
+    }
+
+    /**
+     * Replace the stored snapshot
+     */
+    public void save(DashboardSnapshot snapshot) {
+        byte[] bytes;
+        try {
+            bytes = DashboardSnapshotCodec.encode(snapshot);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Not saving dashboard snapshot: " + e.getMessage());
+            return;
+        }
+        long seq;
+        synchronized (this) {
+            latest = bytes;
+            loaded = true;
+            seq = ++savedSeq;
+        }
+        executors.background().execute(() -> write(seq, bytes));
+    }
+
+    // Delete the unreadable file unless a newer snapshot was saved since
+    private synchronized void discard(long seq) {
+        if (seq == savedSeq) file.delete();
+    }
+
+    private synchronized void write(long seq, byte[] bytes) {
+        if (seq <= writtenSeq) return;
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(bytes);
+            file.finishWrite(out);
+            writtenSeq = seq;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write dashboard snapshot: " + e.getMessage());
+            if (out != null) file.failWrite(out);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.sampleiwatts.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single access point for cost_filter_date, hourly_summaries and daily_summaries.
+ * Summary reads are keyed range queries (orderByKey().startAt().endAt()) so the
+ * download size follows the selected window instead of the whole history.
+ * One-shot loads are coalesced: concurrent callers for the same node and range
+ * share a single read and the same parsed (read-only) list.
+ * Snapshots are parsed on AppExecutors' background pool; callbacks run on the main thread.
+ */
+public class EnergyRepository {
+    private static final String TAG = "EnergyRepository";
+
+    private static EnergyRepository instance;
+
+    private static final String COST_FILTER_KEY = "cost_filter_date";
+
+    private final DatabaseReference databaseRef;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final RequestCoalescer<String, DateRange> rangeRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<DateRange, List<HourlySummary>> hourlyRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<DateRange, List<DailySummary>> dailyRequests = new RequestCoalescer<>();
+
+    public interface RangeCallback {
+        void onRangeLoaded(DateRange range);
+        void onError(String error);
+    }
+
+    public interface HourlySummariesCallback {
+        void onHourlySummariesLoaded(List<HourlySummary> summaries);
+        void onError(String error);
+    }
+
+    public interface DailySummariesCallback {
+        void onDailySummariesLoaded(List<DailySummary> summaries);
+        void onError(String error);
+    }
+
+    private EnergyRepository() {
+        this.databaseRef = FirebaseDatabase.getInstance().getReference();
+    }
+
+    public static synchronized EnergyRepository getInstance() {
+        if (instance == null) {
+            instance = new EnergyRepository();
+        }
+        return instance;
+    }
+
+    /**
+     * Read cost_filter_date once
+     */
+    public void loadCostFilterRange(RangeCallback callback) {
+        rangeRequests.request(COST_FILTER_KEY, new RequestCoalescer.Callback<DateRange>() {
+            @Override
+            public void onResult(DateRange range) {
+                callback.onRangeLoaded(range);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        }, (key, done) -> databaseRef.child(key).addListenerForSingleValueEvent(rangeListener(new RangeCallback() {
+            @Override
+            public void onRangeLoaded(DateRange range) {
+                done.onResult(range);
+            }
+
+            @Override
+            public void onError(String error) {
+                done.onError(error);
+            }
+        })));
+    }
+
+    /**
+     * Keep listening to cost_filter_date; remove the returned registration when done
+     */
+    public ListenerRegistration observeCostFilterRange(RangeCallback callback) {
+        Query query = databaseRef.child("cost_filter_date");
+        ValueEventListener listener = rangeListener(callback);
+        query.addValueEventListener(listener);
+        return new ListenerRegistration(query, listener);
+    }
+
+    /**
+     * Read the hourly summaries for every date in the range once
+     */
+    public void loadHourlySummaries(DateRange range, HourlySummariesCallback callback) {
+        hourlyRequests.request(range, new RequestCoalescer.Callback<List<HourlySummary>>() {
+            @Override
+            public void onResult(List<HourlySummary> summaries) {
+                callback.onHourlySummariesLoaded(summaries);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        }, (key, done) -> hourlyRangeQuery(key).addListenerForSingleValueEvent(hourlyListener(new HourlySummariesCallback() {
+            @Override
+            public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                done.onResult(summaries);
+            }
+
+            @Override
+            public void onError(String error) {
+                done.onError(error);
+            }
+        })));
+    }
+
+    /**
+     * Keep listening to the hourly summaries of the range; remove the returned registration when done
+     */
+    public ListenerRegistration observeHourlySummaries(DateRange range, HourlySummariesCallback callback) {
+        Query query = hourlyRangeQuery(range);
+        ValueEventListener listener = hourlyListener(callback);
+        query.addValueEventListener(listener);
+        return new ListenerRegistration(query, listener);
+    }
+
+    /**
+     * Read the daily summaries for every date in the range once
+     */
+    public void loadDailySummaries(DateRange range, DailySummariesCallback callback) {
+        dailyRequests.request(range, new RequestCoalescer.Callback<List<DailySummary>>() {
+            @Override
+            public void onResult(List<DailySummary> summaries) {
+                callback.onDailySummariesLoaded(summaries);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        }, (key, done) -> dailyRangeQuery(key).addListenerForSingleValueEvent(dailyListener(new DailySummariesCallback() {
+            @Override
+            public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                done.onResult(summaries);
+            }
+
+            @Override
+            public void onError(String error) {
+                done.onError(error);
+            }
+        })));
+    }
+
+    /**
+     * Keep listening to the daily summaries of the range; remove the returned registration when done
+     */
+    public ListenerRegistration observeDailySummaries(DateRange range, DailySummariesCallback callback) {
+        Query query = dailyRangeQuery(range);
+        ValueEventListener listener = dailyListener(callback);
+        query.addValueEventListener(listener);
+        return new ListenerRegistration(query, listener);
+    }
+
+    /**
+     * Keep listening to the newest hourly_summaries date only; every hour written there
+     * re-delivers that one day. Remove the returned registration when done.
+     */
+    public ListenerRegistration observeLatestHourlyDay(HourlySummariesCallback callback) {
+        Query query = databaseRef.child("hourly_summaries").orderByKey().limitToLast(1);
+        ValueEventListener listener = hourlyListener(callback);
+        query.addValueEventListener(listener);
+        return new ListenerRegistration(query, listener);
+    }
+
+    /**
+     * Read every hourly date from startKey (inclusive) to the newest one
+     */
+    public void loadHourlySummariesSince(String startKey, HourlySummariesCallback callback) {
+        databaseRef.child("hourly_summaries").orderByKey().startAt(startKey)
+                .addListenerForSingleValueEvent(hourlyListener(callback));
+    }
+
+    /**
+     * Read every daily summary from startKey (inclusive) to the newest one
+     */
+    public void loadDailySummariesSince(String startKey, DailySummariesCallback callback) {
+        databaseRef.child("daily_summaries").orderByKey().startAt(startKey)
+                .addListenerForSingleValueEvent(dailyListener(callback));
+    }
+
+    private Query hourlyRangeQuery(DateRange range) {
+        return databaseRef.child("hourly_summaries").orderByKey().startAt(range.startDate).endAt(range.endDate);
+    }
+
+    private Query dailyRangeQuery(DateRange range) {
+        return databaseRef.child("daily_summaries").orderByKey().startAt(range.startDate).endAt(range.endDate);
+    }
+
+    private ValueEventListener rangeListener(RangeCallback callback) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                String startingDate = asString(snapshot.child("starting_date").getValue());
+                String endingDate = asString(snapshot.child("ending_date").getValue());
+                DateRange range = DateRange.fromFilterDates(startingDate, endingDate);
+                if (range == null) {
+                    Log.w(TAG, "Invalid cost filter dates: " + startingDate + " - " + endingDate);
+                    callback.onError("Cost filter dates are not set");
+                    return;
+                }
+                callback.onRangeLoaded(range);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        };
+    }
+
+    private ValueEventListener hourlyListener(HourlySummariesCallback callback) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                // Parsing a long range is too heavy for the UI thread
+                executors.computeOnBackground(() -> parseHourlySummaries(snapshot),
+                        callback::onHourlySummariesLoaded, callback::onError);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        };
+    }
+
+    private ValueEventListener dailyListener(DailySummariesCallback callback) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                executors.computeOnBackground(() -> parseDailySummaries(snapshot),
+                        callback::onDailySummariesLoaded, callback::onError);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Flatten hourly_summaries/{date}/{hour} into date then hour order
+     */
+    static List<HourlySummary> parseHourlySummaries(DataSnapshot snapshot) {
+        List<HourlySummary> summaries = new ArrayList<>();
+        for (DataSnapshot dateSnapshot : snapshot.getChildren()) {
+            String dateKey = dateSnapshot.getKey();
+            for (DataSnapshot hourSnapshot : dateSnapshot.getChildren()) {
+                HourlySummary summary = new HourlySummary();
+                summary.date = dateKey;
+                summary.hour = hourSnapshot.getKey();
+                summary.totalKwh = asDouble(hourSnapshot.child("total_kwh").getValue());
+                summary.totalCost = asDouble(hourSnapshot.child("total_cost").getValue());
+                summary.area1Kwh = asDouble(hourSnapshot.child("area1_kwh").getValue());
+                summary.area2Kwh = asDouble(hourSnapshot.child("area2_kwh").getValue());
+                summary.area3Kwh = asDouble(hourSnapshot.child("area3_kwh").getValue());
+                summary.peakWatts = asDouble(hourSnapshot.child("peak_watts").getValue());
+                summary.avgWatts = asDouble(hourSnapshot.child("avg_watts").getValue());
+                summaries.add(summary);
+            }
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    static List<DailySummary> parseDailySummaries(DataSnapshot snapshot) {
+        List<DailySummary> summaries = new ArrayList<>();
+        for (DataSnapshot daySnapshot : snapshot.getChildren()) {
+            DailySummary summary = new DailySummary();
+            summary.date = daySnapshot.getKey();
+
+            Object totalKwh = daySnapshot.child("total_kwh").getValue();
+            summary.hasTotalKwh = isNumeric(totalKwh);
+            summary.totalKwh = asDouble(totalKwh);
+            summary.totalCost = asDouble(daySnapshot.child("total_cost").getValue());
+
+            Object peakWatts = daySnapshot.child("peak_watts").getValue();
+            summary.hasPeakWatts = isNumeric(peakWatts);
+            summary.peakWatts = asDouble(peakWatts);
+            summary.peakTime = asString(daySnapshot.child("peak_time").getValue());
+
+            DataSnapshot breakdown = daySnapshot.child("area_breakdown");
+            summary.hasAreaBreakdown = breakdown.exists();
+            summary.area1Kwh = asDouble(breakdown.child("area1/kwh").getValue());
+            summary.area2Kwh = asDouble(breakdown.child("area2/kwh").getValue());
+            summary.area3Kwh = asDouble(breakdown.child("area3/kwh").getValue());
+            summary.area1Cost = asDouble(breakdown.child("area1/cost").getValue());
+            summary.area2Cost = asDouble(breakdown.child("area2/cost").getValue());
+            summary.area3Cost = asDouble(breakdown.child("area3/cost").getValue());
+            summaries.add(summary);
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    static double asDouble(Object value) {
+        if (value == null) return 0.0;
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    private static boolean isNumeric(Object value) {
+        if (value == null) return false;
+        if (value instanceof Number) return true;
+        try {
+            Double.parseDouble(String.valueOf(value));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+}
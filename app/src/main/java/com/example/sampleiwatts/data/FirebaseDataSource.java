@@ -0,0 +1,147 @@
+package com.example.sampleiwatts.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.sampleiwatts.core.DataNode;
+import com.example.sampleiwatts.core.DataQuery;
+import com.example.sampleiwatts.core.DataSource;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource backed by the Realtime Database; DataQuery filters map one to one onto
+ * Query calls and callbacks arrive on the main thread as usual.
+ */
+public class FirebaseDataSource implements DataSource {
+    private static FirebaseDataSource instance;
+
+    private final DatabaseReference root;
+
+    private FirebaseDataSource(DatabaseReference root) {
+        this.root = root;
+    }
+
+    public static synchronized FirebaseDataSource getInstance() {
+        if (instance == null) {
+            instance = new FirebaseDataSource(FirebaseDatabase.getInstance().getReference());
+        }
+        return instance;
+    }
+
+    @Override
+    public void get(DataQuery query, ValueCallback callback) {
+        toQuery(query).addListenerForSingleValueEvent(valueListener(callback));
+    }
+
+    @Override
+    public Handle observe(DataQuery query, ValueCallback callback) {
+        Query firebaseQuery = toQuery(query);
+        ValueEventListener listener = firebaseQuery.addValueEventListener(valueListener(callback));
+        return () -> firebaseQuery.removeEventListener(listener);
+    }
+
+    @Override
+    public Handle observeChildren(DataQuery query, ChildCallback callback) {
+        Query firebaseQuery = toQuery(query);
+        ChildEventListener listener = firebaseQuery.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                callback.onChildAdded(new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                callback.onChildChanged(new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) { }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+        return () -> firebaseQuery.removeEventListener(listener);
+    }
+
+    private Query toQuery(DataQuery query) {
+        Query firebaseQuery = query.path.isEmpty() ? root : root.child(query.path);
+        if (query.orderByKey) firebaseQuery = firebaseQuery.orderByKey();
+        if (query.startAt != null) firebaseQuery = firebaseQuery.startAt(query.startAt);
+        if (query.endAt != null) firebaseQuery = firebaseQuery.endAt(query.endAt);
+        if (query.limitToLast > 0) firebaseQuery = firebaseQuery.limitToLast(query.limitToLast);
+        return firebaseQuery;
+    }
+
+    private static ValueEventListener valueListener(ValueCallback callback) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onValue(new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        };
+    }
+
+    /**
+     * DataNode view of a DataSnapshot
+     */
+    static final class SnapshotNode implements DataNode {
+        private final DataSnapshot snapshot;
+
+        SnapshotNode(DataSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public String getKey() {
+            return snapshot.getKey();
+        }
+
+        @Override
+        public boolean exists() {
+            return snapshot.exists();
+        }
+
+        @Override
+        public Object getValue() {
+            return snapshot.getValue();
+        }
+
+        @Override
+        public DataNode child(String path) {
+            return new SnapshotNode(snapshot.child(path));
+        }
+
+        @Override
+        public Iterable<DataNode> getChildren() {
+            List<DataNode> children = new ArrayList<>((int) snapshot.getChildrenCount());
+            for (DataSnapshot child : snapshot.getChildren()) {
+                children.add(new SnapshotNode(child));
+            }
+            return children;
+        }
+
+        @Override
+        public long getChildrenCount() {
+            return snapshot.getChildrenCount();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sampleiwatts.data;
+
+import android.util.Log;
+import android.view.Choreographer;
+
+/**
+ * Debug check that counts main-thread frames over the 60 Hz budget while a screen loads.
+ *
+ * Start it before kicking off the load and stop it once the data is on screen; the
+ * summary (frames, frames over budget, worst frame) is logged under the given label
+ * and kept readable after stop, so a test can assert the load stayed in budget.
+ * StrictMode in debug builds catches disk and network work on the main thread;
+ * this catches long parsing or aggregation loops that StrictMode does not see.
+ */
+public class FrameBudgetMonitor implements Choreographer.FrameCallback {
+    private static final String TAG = "FrameBudgetMonitor";
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private final String label;
+
+    private boolean running = false;
+    private long lastFrameNanos = 0L;
+    private int frameCount = 0;
+    private int overBudgetCount = 0;
+    private long worstFrameNanos = 0L;
+
+    public FrameBudgetMonitor(String label) {
+        this.label = label;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        lastFrameNanos = 0L;
+        frameCount = 0;
+        overBudgetCount = 0;
+        worstFrameNanos = 0L;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void stop() {
+        if (!running) return;
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+
+        String summary = String.format("%s: %d frames, %d over budget, worst %.1f ms",
+                label, frameCount, overBudgetCount, worstFrameMs());
+        if (overBudgetCount > 0) {
+            Log.w(TAG, summary);
+        } else {
+            Log.d(TAG, summary);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Frame intervals measured since start
+     */
+    public int frameCount() {
+        return frameCount;
+    }
+
+    public int overBudgetCount() {
+        return overBudgetCount;
+    }
+
+    public double worstFrameMs() {
+        return worstFrameNanos / 1_000_000.0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        recordFrame(frameTimeNanos);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    // Counts the interval since the previous frame; the first frame only sets the start
+    void recordFrame(long frameTimeNanos) {
+        if (lastFrameNanos != 0L) {
+            long elapsed = frameTimeNanos - lastFrameNanos;
+            frameCount++;
+            if (elapsed > FRAME_BUDGET_NANOS) {
+                overBudgetCount++;
+            }
+            if (elapsed > worstFrameNanos) {
+                worstFrameNanos = elapsed;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+    }
+}
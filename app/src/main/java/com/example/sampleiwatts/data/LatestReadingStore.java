@@ -0,0 +1,135 @@
+package com.example.sampleiwatts.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+
+/**
+ * Process-wide holder of the newest log reading and the device heartbeat.
+ *
+ * Battery, charging and Fluct1/2/3 come from getReading(); the "Connected" state
+ * comes from getConnected(), which turns false when no new reading has arrived
+ * for STALE_AFTER_MS. The LogStream subscription is only kept while one of the
+ * two LiveData objects has an active observer, and the last values stay in memory
+ * so a screen opened later renders them immediately.
+ */
+public class LatestReadingStore {
+    private static final long STALE_AFTER_MS = 120_000L; // 2 minutes with no updates => not connected
+    private static final long CHECK_INTERVAL_MS = 30_000L;
+
+    private static LatestReadingStore instance;
+
+    private final ReadingLiveData reading = new ReadingLiveData();
+    private final ConnectionLiveData connected = new ConnectionLiveData();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private int activeCount = 0;
+    private String baselineKey = null;   // first reading seen; only newer keys count as heartbeats
+    private long lastHeartbeatMs = 0L;
+
+    private final LogStream.Listener streamListener = new LogStream.Listener() {
+        @Override
+        public void onReading(LogReading latest) {
+            onNewReading(latest);
+        }
+
+        @Override
+        public void onError(String error) { }
+    };
+
+    private final Runnable connectionChecker = new Runnable() {
+        @Override
+        public void run() {
+            connected.refresh();
+            handler.postDelayed(this, CHECK_INTERVAL_MS);
+        }
+    };
+
+    private LatestReadingStore() { }
+
+    public static synchronized LatestReadingStore getInstance() {
+        if (instance == null) {
+            instance = new LatestReadingStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Newest parsed log entry
+     */
+    public LiveData<LogReading> getReading() {
+        return reading;
+    }
+
+    /**
+     * True while readings keep arriving from the device
+     */
+    public LiveData<Boolean> getConnected() {
+        return connected;
+    }
+
+    private void onNewReading(LogReading latest) {
+        String key = latest.bucketKey + "/" + latest.pushKey;
+        if (baselineKey == null) {
+            // Initialize without marking connected yet; wait for a newer key
+            baselineKey = key;
+        } else if (!key.equals(baselineKey)) {
+            baselineKey = key;
+            lastHeartbeatMs = System.currentTimeMillis();
+        }
+        reading.setValue(latest);
+        connected.refresh();
+    }
+
+    private void onObserverActive() {
+        if (activeCount++ == 0) {
+            LogStream.getInstance().addListener(streamListener);
+        }
+    }
+
+    private void onObserverInactive() {
+        if (--activeCount == 0) {
+            LogStream.getInstance().removeListener(streamListener);
+        }
+    }
+
+    private class ReadingLiveData extends LiveData<LogReading> {
+        @Override
+        protected void onActive() {
+            onObserverActive();
+        }
+
+        @Override
+        protected void onInactive() {
+            onObserverInactive();
+        }
+    }
+
+    private class ConnectionLiveData extends LiveData<Boolean> {
+        ConnectionLiveData() {
+            super(false);
+        }
+
+        void refresh() {
+            boolean active = System.currentTimeMillis() - lastHeartbeatMs <= STALE_AFTER_MS;
+            Boolean current = getValue();
+            if (current == null || current != active) {
+                setValue(active);
+            }
+        }
+
+        @Override
+        protected void onActive() {
+            onObserverActive();
+            handler.removeCallbacks(connectionChecker);
+            handler.post(connectionChecker);
+        }
+
+        @Override
+        protected void onInactive() {
+            handler.removeCallbacks(connectionChecker);
+            onObserverInactive();
+        }
+    }
+}
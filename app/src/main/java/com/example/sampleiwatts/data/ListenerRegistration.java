@@ -0,0 +1,37 @@
+package com.example.sampleiwatts.data;
+
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+/**
+ * Handle for a live listener returned by EnergyRepository.observe* methods
+ */
+public class ListenerRegistration implements SubscriptionRegistry.Subscription {
+    private final Query query;
+    private final ValueEventListener listener;
+    private boolean removed = false;
+
+    ListenerRegistration(Query query, ValueEventListener listener) {
+        this.query = query;
+        this.listener = listener;
+    }
+
+    /**
+     * Attach the listener to the query and return its handle
+     */
+    public static ListenerRegistration observe(Query query, ValueEventListener listener) {
+        query.addValueEventListener(listener);
+        return new ListenerRegistration(query, listener);
+    }
+
+    @Override
+    public void remove() {
+        if (removed) return;
+        removed = true;
+        query.removeEventListener(listener);
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sampleiwatts.data;
+
+import com.google.firebase.database.DataSnapshot;
+
+/**
+ * One ESP32 reading from logs/{bucket}/{pushKey}
+ */
+public class LogReading {
+    public String bucketKey;
+    public String pushKey;
+
+    public double c1A;
+    public double c2A;
+    public double c3A;
+    public boolean hasCurrents;
+
+    public int batteryPercent;
+    public boolean hasBattery;
+    public boolean charging;
+
+    public int fluct1;
+    public int fluct2;
+    public int fluct3;
+
+    /** Device timestamp (timestamp/created_at/createdAt/ts/time), or null if the reading has none */
+    public Long timestamp;
+
+    public boolean hasFluctuation() {
+        return fluct1 == 1 || fluct2 == 1 || fluct3 == 1;
+    }
+
+    static LogReading fromSnapshot(String bucketKey, DataSnapshot entry) {
+        LogReading reading = new LogReading();
+        reading.bucketKey = bucketKey;
+        reading.pushKey = entry.getKey();
+
+        Object c1 = entry.child("C1_A").getValue();
+        Object c2 = entry.child("C2_A").getValue();
+        Object c3 = entry.child("C3_A").getValue();
+        reading.hasCurrents = c1 != null && c2 != null && c3 != null;
+        reading.c1A = EnergyRepository.asDouble(c1);
+        reading.c2A = EnergyRepository.asDouble(c2);
+        reading.c3A = EnergyRepository.asDouble(c3);
+
+        Object vbat = entry.child("Vbat_percent").getValue();
+        if (vbat instanceof Number) {
+            reading.batteryPercent = ((Number) vbat).intValue();
+            reading.hasBattery = true;
+        } else if (vbat instanceof String) {
+            try {
+                reading.batteryPercent = Integer.parseInt((String) vbat);
+                reading.hasBattery = true;
+            } catch (NumberFormatException ignored) { }
+        }
+
+        Object charging = entry.child("Charging").getValue();
+        if (charging instanceof Boolean) {
+            reading.charging = (Boolean) charging;
+        } else if (charging instanceof String) {
+            reading.charging = Boolean.parseBoolean((String) charging);
+        }
+
+        reading.fluct1 = toInt(entry.child("Fluct1").getValue());
+        reading.fluct2 = toInt(entry.child("Fluct2").getValue());
+        reading.fluct3 = toInt(entry.child("Fluct3").getValue());
+        reading.timestamp = extractTimestamp(entry);
+        return reading;
+    }
+
+    private static int toInt(Object v) {
+        if (v == null) return 0;
+        if (v instanceof Number) return ((Number) v).intValue();
+        try { return Integer.parseInt(String.valueOf(v)); } catch (Exception e) { return 0; }
+    }
+
+    private static Long extractTimestamp(DataSnapshot entry) {
+        // Try common field names for timestamps and coerce to long
+        String[] keys = new String[] { "timestamp", "created_at", "createdAt", "ts", "time" };
+        for (String k : keys) {
+            Object v = entry.child(k).getValue();
+            if (v instanceof Number) return ((Number) v).longValue();
+            if (v instanceof String) {
+                try {
+                    return Long.parseLong((String) v);
+                } catch (NumberFormatException ignored) { }
+            }
+        }
+        return null;
+    }
+}
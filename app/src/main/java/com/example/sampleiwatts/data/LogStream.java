@@ -0,0 +1,236 @@
+package com.example.sampleiwatts.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * App-wide stream of new ESP32 readings from the logs node.
+ *
+ * Instead of a ValueEventListener on the whole logs tree, it keeps two small
+ * ChildEventListeners: one on logs.orderByKey().limitToLast(1) to follow the newest
+ * bucket, and one on that bucket's orderByKey().startAt(resumeKey) to receive every
+ * entry after the last one delivered. The resume key comes from the last reading seen
+ * in the bucket, or from a one-shot limitToLast(1) read when the stream starts cold;
+ * a bucket that appears while the stream is running is read from its first entry.
+ * Each reading is delivered to subscribers once, even when several pushes land in one
+ * sync batch, and the cost per reading does not grow with the history. Listeners are
+ * attached while at least one subscriber exists; a new subscriber immediately receives
+ * the latest reading already seen.
+ *
+ * Buckets are followed by key order, so a device writing "UPTIME-" buckets (no clock)
+ * sorts after dated buckets.
+ */
+public class LogStream {
+    private static final String TAG = "LogStream";
+
+    private static LogStream instance;
+
+    public interface Listener {
+        void onReading(LogReading reading);
+        void onError(String error);
+    }
+
+    private final DatabaseReference logsRef;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private Query bucketQuery;
+    private ChildEventListener bucketListener;
+    private Query entryQuery;
+    private ChildEventListener entryListener;
+    private String currentBucketKey;
+    private boolean running;
+    private LogReading latest;
+
+    private LogStream() {
+        this.logsRef = FirebaseDatabase.getInstance().getReference("logs");
+    }
+
+    public static synchronized LogStream getInstance() {
+        if (instance == null) {
+            instance = new LogStream();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        if (latest != null) {
+            listener.onReading(latest);
+        }
+        if (listeners.size() == 1) {
+            start();
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        if (!listeners.remove(listener)) return;
+        if (listeners.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Latest reading seen while the stream was running, or null
+     */
+    public LogReading getLatest() {
+        return latest;
+    }
+
+    private void start() {
+        Log.d(TAG, "Starting log stream");
+        running = true;
+        bucketQuery = logsRef.orderByKey().limitToLast(1);
+        bucketListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                followBucket(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) { }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                publishError(error.getMessage());
+            }
+        };
+        bucketQuery.addChildEventListener(bucketListener);
+    }
+
+    private void stop() {
+        Log.d(TAG, "Stopping log stream");
+        running = false;
+        if (bucketQuery != null && bucketListener != null) {
+            bucketQuery.removeEventListener(bucketListener);
+        }
+        detachEntryListener();
+        bucketQuery = null;
+        bucketListener = null;
+        // Keep the last reading so the next subscriber can render it before the first event;
+        // when the stream restarts the same reading is filtered out in publish()
+        currentBucketKey = null;
+    }
+
+    private void followBucket(String bucketKey) {
+        if (bucketKey == null) return;
+        if (currentBucketKey != null && bucketKey.compareTo(currentBucketKey) <= 0) return;
+
+        boolean firstBucket = currentBucketKey == null;
+        detachEntryListener();
+        currentBucketKey = bucketKey;
+
+        if (latest != null && bucketKey.equals(latest.bucketKey)) {
+            // Restarted on the bucket we last read from: pick up whatever arrived meanwhile
+            attachEntryListener(bucketKey, latest.pushKey);
+        } else if (firstBucket) {
+            seedBucket(bucketKey);
+        } else {
+            // The bucket was created while we were running, so every entry in it is new
+            attachEntryListener(bucketKey, null);
+        }
+    }
+
+    /**
+     * Cold start: deliver only the newest entry of the bucket, then follow from it
+     */
+    private void seedBucket(String bucketKey) {
+        logsRef.child(bucketKey).orderByKey().limitToLast(1)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        if (!running || !bucketKey.equals(currentBucketKey)) return;
+                        String resumeKey = null;
+                        for (DataSnapshot entry : snapshot.getChildren()) {
+                            resumeKey = entry.getKey();
+                            publish(LogReading.fromSnapshot(bucketKey, entry));
+                        }
+                        attachEntryListener(bucketKey, resumeKey);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        publishError(error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Follow every entry of the bucket after resumeKey (or all of them when it is null)
+     */
+    private void attachEntryListener(String bucketKey, String resumeKey) {
+        Query query = logsRef.child(bucketKey).orderByKey();
+        if (resumeKey != null) {
+            query = query.startAt(resumeKey);
+        }
+        entryQuery = query;
+        entryListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // startAt is inclusive and the resume entry was already delivered
+                if (snapshot.getKey() != null && snapshot.getKey().equals(resumeKey)) return;
+                publish(LogReading.fromSnapshot(bucketKey, snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) { }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                publishError(error.getMessage());
+            }
+        };
+        entryQuery.addChildEventListener(entryListener);
+    }
+
+    private void detachEntryListener() {
+        if (entryQuery != null && entryListener != null) {
+            entryQuery.removeEventListener(entryListener);
+        }
+        entryQuery = null;
+        entryListener = null;
+    }
+
+    private void publish(LogReading reading) {
+        if (latest != null && isSameReading(latest, reading)) return;
+        latest = reading;
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onReading(reading);
+        }
+    }
+
+    private void publishError(String error) {
+        Log.e(TAG, "Log stream error: " + error);
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onError(error);
+        }
+    }
+
+    private static boolean isSameReading(LogReading a, LogReading b) {
+        return a.bucketKey.equals(b.bucketKey) && a.pushKey != null && a.pushKey.equals(b.pushKey);
+    }
+}
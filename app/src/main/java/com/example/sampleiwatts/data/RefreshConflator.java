@@ -0,0 +1,85 @@
+package com.example.sampleiwatts.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Turns a stream of change events into as few refresh runs as possible.
+ *
+ * The first signal() schedules a run debounceMs later, so a burst of writes from the
+ * device is handled once. Signals while a run is scheduled are merged into it, and
+ * signals while it runs cause exactly one follow-up run after finished(). Runs start
+ * at least minIntervalMs apart. Everything happens on the main thread.
+ */
+public class RefreshConflator {
+    // A run that never reported finished() stops blocking new runs after this long
+    private static final long STALE_RUN_MS = 60_000L;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long debounceMs;
+    private final long minIntervalMs;
+    private final Runnable task;
+    private final Runnable runTask = this::run;
+
+    private boolean scheduled = false;
+    private boolean running = false;
+    private boolean pending = false;
+    private long lastStartMs = -1L;
+
+    public RefreshConflator(long debounceMs, long minIntervalMs, Runnable task) {
+        this.debounceMs = debounceMs;
+        this.minIntervalMs = minIntervalMs;
+        this.task = task;
+    }
+
+    /**
+     * Something changed; a run will follow
+     */
+    public void signal() {
+        pending = true;
+        if (running && SystemClock.elapsedRealtime() - lastStartMs > STALE_RUN_MS) {
+            running = false;
+        }
+        if (!scheduled && !running) {
+            schedule();
+        }
+    }
+
+    /**
+     * The task's asynchronous work is done; call it on success and on error
+     */
+    public void finished() {
+        running = false;
+        if (pending && !scheduled) {
+            schedule();
+        }
+    }
+
+    /**
+     * Drop any scheduled run, e.g. when the screen is paused
+     */
+    public void cancel() {
+        handler.removeCallbacks(runTask);
+        scheduled = false;
+        pending = false;
+    }
+
+    private void schedule() {
+        long delay = debounceMs;
+        if (lastStartMs >= 0) {
+            long sinceLast = SystemClock.elapsedRealtime() - lastStartMs;
+            delay = Math.max(delay, minIntervalMs - sinceLast);
+        }
+        scheduled = true;
+        handler.postDelayed(runTask, delay);
+    }
+
+    private void run() {
+        scheduled = false;
+        pending = false;
+        running = true;
+        lastStartMs = SystemClock.elapsedRealtime();
+        task.run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sampleiwatts.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares one in-flight fetch between every caller asking for the same key.
+ * The first caller starts the fetch; callers arriving before it completes are
+ * queued and receive the same result. Once delivered the key is cleared, so the
+ * next request goes to the source again. A fetcher that throws instead of calling
+ * back fails every waiting caller with the exception's message.
+ */
+public class RequestCoalescer<K, T> {
+
+    public interface Callback<T> {
+        void onResult(T result);
+        void onError(String error);
+    }
+
+    public interface Fetcher<K, T> {
+        void fetch(K key, Callback<T> done);
+    }
+
+    private final Map<K, List<Callback<T>>> inFlight = new HashMap<>();
+
+    public void request(K key, Callback<T> callback, Fetcher<K, T> fetcher) {
+        synchronized (inFlight) {
+            List<Callback<T>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        Callback<T> done = new Callback<T>() {
+            @Override
+            public void onResult(T result) {
+                for (Callback<T> c : drain(key)) {
+                    c.onResult(result);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                for (Callback<T> c : drain(key)) {
+                    c.onError(error);
+                }
+            }
+        };
+        try {
+            fetcher.fetch(key, done);
+        } catch (RuntimeException e) {
+            // Otherwise the key stays in flight and every later caller waits forever
+            done.onError(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /**
+     * Number of keys with a fetch still running
+     */
+    public int inFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    private List<Callback<T>> drain(K key) {
+        synchronized (inFlight) {
+            List<Callback<T>> waiting = inFlight.remove(key);
+            return waiting != null ? waiting : new ArrayList<>();
+        }
+    }
+}
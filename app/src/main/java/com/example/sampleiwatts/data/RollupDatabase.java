@@ -0,0 +1,415 @@
+package com.example.sampleiwatts.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import com.example.sampleiwatts.core.DailyPeaks;
+import com.example.sampleiwatts.core.DailyPrefixIndex;
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.core.RangeTotals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Local copy of hourly_summaries and daily_summaries as flat rows.
+ *
+ * hourly_rollup is keyed (date, hour) and daily_rollup is keyed by date, so every
+ * range query below is an index range scan. synced_days records which past days
+ * have already been downloaded in full, per node, and sync_state keeps the last key
+ * seen per node for delta sync. daily_peaks holds the DailyPeakTracker state of each
+ * day. All methods block and must be called off the main thread.
+ */
+class RollupDatabase extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "iwatts_rollup.db";
+    private static final int DATABASE_VERSION = 3;
+
+    static final String KIND_HOURLY = "hourly";
+    static final String KIND_DAILY = "daily";
+
+    private static final String HOURLY_COLUMNS =
+            "date, hour, total_kwh, total_cost, area1_kwh, area2_kwh, area3_kwh, peak_watts, avg_watts";
+    private static final String DAILY_COLUMNS =
+            "date, total_kwh, has_total_kwh, total_cost, peak_watts, has_peak_watts, peak_time, "
+                    + "area1_kwh, area2_kwh, area3_kwh, area1_cost, area2_cost, area3_cost, has_area_breakdown";
+    private static final String PEAK_COLUMNS =
+            "date, last_key, readings, area1_peak_amps, area2_peak_amps, area3_peak_amps, "
+                    + "area1_peak_time, area2_peak_time, area3_peak_time, "
+                    + "area1_fluct_count, area2_fluct_count, area3_fluct_count, "
+                    + "area1_fluct_max, area2_fluct_max, area3_fluct_max";
+
+    RollupDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE hourly_rollup ("
+                + "date TEXT NOT NULL, "
+                + "hour TEXT NOT NULL, "
+                + "total_kwh REAL NOT NULL, "
+                + "total_cost REAL NOT NULL, "
+                + "area1_kwh REAL NOT NULL, "
+                + "area2_kwh REAL NOT NULL, "
+                + "area3_kwh REAL NOT NULL, "
+                + "peak_watts REAL NOT NULL, "
+                + "avg_watts REAL NOT NULL, "
+                + "PRIMARY KEY (date, hour))");
+        db.execSQL("CREATE TABLE daily_rollup ("
+                + "date TEXT NOT NULL PRIMARY KEY, "
+                + "total_kwh REAL NOT NULL, "
+                + "has_total_kwh INTEGER NOT NULL, "
+                + "total_cost REAL NOT NULL, "
+                + "peak_watts REAL NOT NULL, "
+                + "has_peak_watts INTEGER NOT NULL, "
+                + "peak_time TEXT, "
+                + "area1_kwh REAL NOT NULL, "
+                + "area2_kwh REAL NOT NULL, "
+                + "area3_kwh REAL NOT NULL, "
+                + "area1_cost REAL NOT NULL, "
+                + "area2_cost REAL NOT NULL, "
+                + "area3_cost REAL NOT NULL, "
+                + "has_area_breakdown INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE synced_days ("
+                + "kind TEXT NOT NULL, "
+                + "date TEXT NOT NULL, "
+                + "PRIMARY KEY (kind, date))");
+        db.execSQL("CREATE TABLE sync_state ("
+                + "node TEXT NOT NULL PRIMARY KEY, "
+                + "last_key TEXT NOT NULL)");
+        db.execSQL("CREATE TABLE daily_peaks ("
+                + "date TEXT NOT NULL PRIMARY KEY, "
+                + "last_key TEXT, "
+                + "readings INTEGER NOT NULL, "
+                + "area1_peak_amps REAL NOT NULL, "
+                + "area2_peak_amps REAL NOT NULL, "
+                + "area3_peak_amps REAL NOT NULL, "
+                + "area1_peak_time INTEGER NOT NULL, "
+                + "area2_peak_time INTEGER NOT NULL, "
+                + "area3_peak_time INTEGER NOT NULL, "
+                + "area1_fluct_count INTEGER NOT NULL, "
+                + "area2_fluct_count INTEGER NOT NULL, "
+                + "area3_fluct_count INTEGER NOT NULL, "
+                + "area1_fluct_max REAL NOT NULL, "
+                + "area2_fluct_max REAL NOT NULL, "
+                + "area3_fluct_max REAL NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything here can be downloaded again, so start over
+        db.execSQL("DROP TABLE IF EXISTS hourly_rollup");
+        db.execSQL("DROP TABLE IF EXISTS daily_rollup");
+        db.execSQL("DROP TABLE IF EXISTS synced_days");
+        db.execSQL("DROP TABLE IF EXISTS sync_state");
+        db.execSQL("DROP TABLE IF EXISTS daily_peaks");
+        onCreate(db);
+    }
+
+    /**
+     * Replace every hourly row of the range with the given summaries.
+     * Returns the days whose rows differ from what was stored, in order.
+     */
+    List<String> replaceHourly(DateRange range, List<HourlySummary> summaries) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT OR REPLACE INTO hourly_rollup (" + HOURLY_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        List<String> changedDays;
+        db.beginTransaction();
+        try {
+            changedDays = changedHourlyDays(queryHourly(range), summaries);
+            // Rows removed on the server must not survive locally
+            db.delete("hourly_rollup", "date BETWEEN ? AND ?", new String[]{range.startDate, range.endDate});
+            for (HourlySummary h : summaries) {
+                insert.clearBindings();
+                insert.bindString(1, h.date);
+                insert.bindString(2, h.hour);
+                insert.bindDouble(3, h.totalKwh);
+                insert.bindDouble(4, h.totalCost);
+                insert.bindDouble(5, h.area1Kwh);
+                insert.bindDouble(6, h.area2Kwh);
+                insert.bindDouble(7, h.area3Kwh);
+                insert.bindDouble(8, h.peakWatts);
+                insert.bindDouble(9, h.avgWatts);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+        return changedDays;
+    }
+
+    /**
+     * Replace every daily row of the range with the given summaries.
+     * Returns the days whose row differs from what was stored, in order.
+     */
+    List<String> replaceDaily(DateRange range, List<DailySummary> summaries) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT OR REPLACE INTO daily_rollup (" + DAILY_COLUMNS + ") "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        List<String> changedDays;
+        db.beginTransaction();
+        try {
+            changedDays = changedDailyDays(queryDaily(range), summaries);
+            // Rows removed on the server must not survive locally
+            db.delete("daily_rollup", "date BETWEEN ? AND ?", new String[]{range.startDate, range.endDate});
+            for (DailySummary d : summaries) {
+                insert.clearBindings();
+                insert.bindString(1, d.date);
+                insert.bindDouble(2, d.totalKwh);
+                insert.bindLong(3, d.hasTotalKwh ? 1 : 0);
+                insert.bindDouble(4, d.totalCost);
+                insert.bindDouble(5, d.peakWatts);
+                insert.bindLong(6, d.hasPeakWatts ? 1 : 0);
+                if (d.peakTime != null) {
+                    insert.bindString(7, d.peakTime);
+                } else {
+                    insert.bindNull(7);
+                }
+                insert.bindDouble(8, d.area1Kwh);
+                insert.bindDouble(9, d.area2Kwh);
+                insert.bindDouble(10, d.area3Kwh);
+                insert.bindDouble(11, d.area1Cost);
+                insert.bindDouble(12, d.area2Cost);
+                insert.bindDouble(13, d.area3Cost);
+                insert.bindLong(14, d.hasAreaBreakdown ? 1 : 0);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+        return changedDays;
+    }
+
+    /**
+     * Hourly rows of the range in date then hour order, the same order EnergyRepository returns
+     */
+    List<HourlySummary> queryHourly(DateRange range) {
+        List<HourlySummary> summaries = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT " + HOURLY_COLUMNS + " FROM hourly_rollup WHERE date BETWEEN ? AND ? ORDER BY date, hour",
+                new String[]{range.startDate, range.endDate})) {
+            while (c.moveToNext()) {
+                HourlySummary h = new HourlySummary();
+                h.date = c.getString(0);
+                h.hour = c.getString(1);
+                h.totalKwh = c.getDouble(2);
+                h.totalCost = c.getDouble(3);
+                h.area1Kwh = c.getDouble(4);
+                h.area2Kwh = c.getDouble(5);
+                h.area3Kwh = c.getDouble(6);
+                h.peakWatts = c.getDouble(7);
+                h.avgWatts = c.getDouble(8);
+                summaries.add(h);
+            }
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    List<DailySummary> queryDaily(DateRange range) {
+        List<DailySummary> summaries = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT " + DAILY_COLUMNS + " FROM daily_rollup WHERE date BETWEEN ? AND ? ORDER BY date",
+                new String[]{range.startDate, range.endDate})) {
+            while (c.moveToNext()) {
+                DailySummary d = new DailySummary();
+                d.date = c.getString(0);
+                d.totalKwh = c.getDouble(1);
+                d.hasTotalKwh = c.getInt(2) != 0;
+                d.totalCost = c.getDouble(3);
+                d.peakWatts = c.getDouble(4);
+                d.hasPeakWatts = c.getInt(5) != 0;
+                d.peakTime = c.isNull(6) ? null : c.getString(6);
+                d.area1Kwh = c.getDouble(7);
+                d.area2Kwh = c.getDouble(8);
+                d.area3Kwh = c.getDouble(9);
+                d.area1Cost = c.getDouble(10);
+                d.area2Cost = c.getDouble(11);
+                d.area3Cost = c.getDouble(12);
+                d.hasAreaBreakdown = c.getInt(13) != 0;
+                summaries.add(d);
+            }
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    /**
+     * SUM of the daily rows in the range
+     */
+    RangeTotals sumDaily(DateRange range) {
+        RangeTotals totals = new RangeTotals();
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT COUNT(*), TOTAL(total_kwh), TOTAL(total_cost) FROM daily_rollup WHERE date BETWEEN ? AND ?",
+                new String[]{range.startDate, range.endDate})) {
+            if (c.moveToFirst()) {
+                totals.dayCount = c.getInt(0);
+                totals.totalKwh = c.getDouble(1);
+                totals.totalCost = c.getDouble(2);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Append the per-day totals of the hourly rows from fromDay on to the index
+     */
+    void appendDayTotals(String fromDay, DailyPrefixIndex index) {
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT date, TOTAL(total_kwh), TOTAL(total_cost), TOTAL(area1_kwh), TOTAL(area2_kwh), TOTAL(area3_kwh) "
+                        + "FROM hourly_rollup WHERE date >= ? GROUP BY date ORDER BY date",
+                new String[]{fromDay})) {
+            while (c.moveToNext()) {
+                index.append(c.getString(0), c.getDouble(1), c.getDouble(2),
+                        c.getDouble(3), c.getDouble(4), c.getDouble(5));
+            }
+        }
+    }
+
+    void markSynced(String kind, List<String> dates) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO synced_days (kind, date) VALUES (?, ?)");
+        db.beginTransaction();
+        try {
+            for (String date : dates) {
+                insert.bindString(1, kind);
+                insert.bindString(2, date);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    Set<String> syncedDates(String kind, DateRange range) {
+        Set<String> dates = new HashSet<>();
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT date FROM synced_days WHERE kind = ? AND date BETWEEN ? AND ?",
+                new String[]{kind, range.startDate, range.endDate})) {
+            while (c.moveToNext()) {
+                dates.add(c.getString(0));
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Last key stored for the node by delta sync, or null before the first sync
+     */
+    String highWaterMark(String node) {
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT last_key FROM sync_state WHERE node = ?", new String[]{node})) {
+            return c.moveToFirst() ? c.getString(0) : null;
+        }
+    }
+
+    void setHighWaterMark(String node, String lastKey) {
+        getWritableDatabase().execSQL("INSERT OR REPLACE INTO sync_state (node, last_key) VALUES (?, ?)",
+                new Object[]{node, lastKey});
+    }
+
+    /**
+     * Stored peaks of the day, or null if none were stored
+     */
+    DailyPeaks queryDailyPeaks(String date) {
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT " + PEAK_COLUMNS + " FROM daily_peaks WHERE date = ?", new String[]{date})) {
+            if (!c.moveToFirst()) return null;
+            DailyPeaks p = new DailyPeaks();
+            p.date = c.getString(0);
+            p.lastKey = c.isNull(1) ? null : c.getString(1);
+            p.readings = c.getInt(2);
+            p.area1PeakAmps = c.getDouble(3);
+            p.area2PeakAmps = c.getDouble(4);
+            p.area3PeakAmps = c.getDouble(5);
+            p.area1PeakTimeMs = c.getLong(6);
+            p.area2PeakTimeMs = c.getLong(7);
+            p.area3PeakTimeMs = c.getLong(8);
+            p.area1FluctuationCount = c.getInt(9);
+            p.area2FluctuationCount = c.getInt(10);
+            p.area3FluctuationCount = c.getInt(11);
+            p.area1MaxFluctuation = c.getDouble(12);
+            p.area2MaxFluctuation = c.getDouble(13);
+            p.area3MaxFluctuation = c.getDouble(14);
+            return p;
+        }
+    }
+
+    void saveDailyPeaks(DailyPeaks p) {
+        getWritableDatabase().execSQL(
+                "INSERT OR REPLACE INTO daily_peaks (" + PEAK_COLUMNS + ") "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new Object[]{p.date, p.lastKey, p.readings,
+                        p.area1PeakAmps, p.area2PeakAmps, p.area3PeakAmps,
+                        p.area1PeakTimeMs, p.area2PeakTimeMs, p.area3PeakTimeMs,
+                        p.area1FluctuationCount, p.area2FluctuationCount, p.area3FluctuationCount,
+                        p.area1MaxFluctuation, p.area2MaxFluctuation, p.area3MaxFluctuation});
+    }
+
+    private static List<String> changedHourlyDays(List<HourlySummary> stored, List<HourlySummary> incoming) {
+        Map<String, HourlySummary> before = new HashMap<>();
+        for (HourlySummary h : stored) {
+            before.put(h.date + "/" + h.hour, h);
+        }
+        Set<String> changed = new TreeSet<>();
+        for (HourlySummary h : incoming) {
+            HourlySummary old = before.remove(h.date + "/" + h.hour);
+            if (old == null || !sameHourly(old, h)) {
+                changed.add(h.date);
+            }
+        }
+        // Whatever is left was deleted on the server
+        for (HourlySummary old : before.values()) {
+            changed.add(old.date);
+        }
+        return new ArrayList<>(changed);
+    }
+
+    private static List<String> changedDailyDays(List<DailySummary> stored, List<DailySummary> incoming) {
+        Map<String, DailySummary> before = new HashMap<>();
+        for (DailySummary d : stored) {
+            before.put(d.date, d);
+        }
+        Set<String> changed = new TreeSet<>();
+        for (DailySummary d : incoming) {
+            DailySummary old = before.remove(d.date);
+            if (old == null || !sameDaily(old, d)) {
+                changed.add(d.date);
+            }
+        }
+        changed.addAll(before.keySet());
+        return new ArrayList<>(changed);
+    }
+
+    private static boolean sameHourly(HourlySummary a, HourlySummary b) {
+        return a.totalKwh == b.totalKwh && a.totalCost == b.totalCost
+                && a.area1Kwh == b.area1Kwh && a.area2Kwh == b.area2Kwh && a.area3Kwh == b.area3Kwh
+                && a.peakWatts == b.peakWatts && a.avgWatts == b.avgWatts;
+    }
+
+    private static boolean sameDaily(DailySummary a, DailySummary b) {
+        return a.totalKwh == b.totalKwh && a.hasTotalKwh == b.hasTotalKwh && a.totalCost == b.totalCost
+                && a.peakWatts == b.peakWatts && a.hasPeakWatts == b.hasPeakWatts
+                && (a.peakTime == null ? b.peakTime == null : a.peakTime.equals(b.peakTime))
+                && a.area1Kwh == b.area1Kwh && a.area2Kwh == b.area2Kwh && a.area3Kwh == b.area3Kwh
+                && a.area1Cost == b.area1Cost && a.area2Cost == b.area2Cost && a.area3Cost == b.area3Cost
+                && a.hasAreaBreakdown == b.hasAreaBreakdown;
+    }
+}
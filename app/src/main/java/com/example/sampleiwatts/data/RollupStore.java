@@ -0,0 +1,347 @@
+package com.example.sampleiwatts.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.sampleiwatts.core.DailyPeaks;
+import com.example.sampleiwatts.core.DailyPrefixIndex;
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.core.RangeTotals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local-first access to hourly and daily summaries backed by RollupDatabase.
+ *
+ * A load first checks which days of the range are already stored in full; only the
+ * range from the first missing day to the end is downloaded through EnergyRepository,
+ * written to SQLite, and the whole range is then answered by one indexed query.
+ * Past days are marked synced once downloaded; today is downloaded again unless it
+ * was stored within the last FRESH_FOR_MS (for example by RollupSync).
+ * When Firebase fails the stored rows are returned if there are any.
+ * Range totals come from a DailyPrefixIndex over the hourly rows, which is cut back
+ * to the oldest changed day whenever rows change and extended on the next read.
+ * Callbacks run on the main thread.
+ */
+public class RollupStore {
+    private static final String TAG = "RollupStore";
+    private static final long FRESH_FOR_MS = 60_000L;
+
+    private static RollupStore instance;
+
+    private final RollupDatabase database;
+    private final EnergyRepository repository = EnergyRepository.getInstance();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    // "kind/date" of still-changing days -> time they were last stored
+    private final Map<String, Long> storedAt = Collections.synchronizedMap(new HashMap<>());
+
+    private final Object prefixLock = new Object();
+    private final DailyPrefixIndex prefixIndex = new DailyPrefixIndex();
+    private String prefixDirtyFrom = "";  // oldest day to rebuild, null when up to date
+
+    public interface TotalsCallback {
+        void onTotalsLoaded(RangeTotals totals);
+        void onError(String error);
+    }
+
+    private RollupStore(Context context) {
+        this.database = new RollupDatabase(context);
+    }
+
+    public static synchronized RollupStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new RollupStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Hourly summaries of the range in date then hour order
+     */
+    public void loadHourlySummaries(DateRange range, EnergyRepository.HourlySummariesCallback callback) {
+        syncHourly(range, syncError -> deliverHourly(range, callback, syncError));
+    }
+
+    /**
+     * kWh, cost and per-area kWh of the range, summed from the hourly summaries
+     */
+    public void loadRangeTotals(DateRange range, TotalsCallback callback) {
+        syncHourly(range, syncError -> deliverTotals(range, callback, syncError));
+    }
+
+    /**
+     * Store summaries from a live listener, then answer the range totals from the updated index
+     */
+    public void saveHourlySummaries(DateRange range, List<HourlySummary> summaries, TotalsCallback callback) {
+        executors.background().execute(() -> {
+            storeHourly(range, summaries);
+            deliverTotals(range, callback, null);
+        });
+    }
+
+    private interface SyncDone {
+        void onSynced(String syncError);
+    }
+
+    // Download the missing part of the range, then continue on the background pool
+    private void syncHourly(DateRange range, SyncDone done) {
+        executors.background().execute(() -> {
+            String firstMissing = firstUnsyncedDay(RollupDatabase.KIND_HOURLY, range);
+            if (firstMissing == null) {
+                done.onSynced(null);
+                return;
+            }
+
+            DateRange missing = new DateRange(firstMissing, range.endDate);
+            repository.loadHourlySummaries(missing, new EnergyRepository.HourlySummariesCallback() {
+                @Override
+                public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                    executors.background().execute(() -> {
+                        storeHourly(missing, summaries);
+                        done.onSynced(null);
+                    });
+                }
+
+                @Override
+                public void onError(String error) {
+                    Log.w(TAG, "Hourly sync failed for " + missing + ": " + error);
+                    executors.background().execute(() -> done.onSynced(error));
+                }
+            });
+        });
+    }
+
+    /**
+     * Daily summaries of the range in date order
+     */
+    public void loadDailySummaries(DateRange range, EnergyRepository.DailySummariesCallback callback) {
+        executors.background().execute(() -> {
+            String firstMissing = firstUnsyncedDay(RollupDatabase.KIND_DAILY, range);
+            if (firstMissing == null) {
+                deliverDaily(range, callback, null);
+                return;
+            }
+
+            DateRange missing = new DateRange(firstMissing, range.endDate);
+            repository.loadDailySummaries(missing, new EnergyRepository.DailySummariesCallback() {
+                @Override
+                public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                    executors.background().execute(() -> {
+                        storeDaily(missing, summaries);
+                        deliverDaily(range, callback, null);
+                    });
+                }
+
+                @Override
+                public void onError(String error) {
+                    Log.w(TAG, "Daily sync failed for " + missing + ": " + error);
+                    executors.background().execute(() -> deliverDaily(range, callback, error));
+                }
+            });
+        });
+    }
+
+    /**
+     * Summed kWh and cost of the range's daily summaries
+     */
+    public void loadDailyTotals(DateRange range, TotalsCallback callback) {
+        loadDailySummaries(range, new EnergyRepository.DailySummariesCallback() {
+            @Override
+            public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                executors.computeOnBackground(() -> database.sumDaily(range),
+                        callback::onTotalsLoaded, callback::onError);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Write summaries received from a live listener so the next load can be answered locally
+     */
+    public void saveDailySummaries(DateRange range, List<DailySummary> summaries) {
+        executors.background().execute(() -> storeDaily(range, summaries));
+    }
+
+    /**
+     * Stored per-area peaks of the day, null if there are none or the read fails.
+     * Blocks; call off the main thread.
+     */
+    public DailyPeaks loadDailyPeaks(String date) {
+        try {
+            return database.queryDailyPeaks(date);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read daily peaks for " + date, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store the day's peaks, replacing what was stored. Blocks; call off the main thread.
+     */
+    public void saveDailyPeaks(DailyPeaks peaks) {
+        try {
+            database.saveDailyPeaks(peaks);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store daily peaks for " + peaks.date, e);
+        }
+    }
+
+    RollupDatabase database() {
+        return database;
+    }
+
+    /**
+     * Store the range and return the days whose rows changed. Blocks; call off the main thread.
+     */
+    List<String> storeHourly(DateRange range, List<HourlySummary> summaries) {
+        try {
+            List<String> changed = database.replaceHourly(range, summaries);
+            markStored(RollupDatabase.KIND_HOURLY, range);
+            if (!changed.isEmpty()) {
+                invalidatePrefixFrom(changed.get(0));
+            }
+            return changed;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store hourly summaries for " + range, e);
+            return Collections.emptyList();
+        }
+    }
+
+    List<String> storeDaily(DateRange range, List<DailySummary> summaries) {
+        try {
+            List<String> changed = database.replaceDaily(range, summaries);
+            markStored(RollupDatabase.KIND_DAILY, range);
+            return changed;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store daily summaries for " + range, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void invalidatePrefixFrom(String day) {
+        synchronized (prefixLock) {
+            if (prefixDirtyFrom == null || day.compareTo(prefixDirtyFrom) < 0) {
+                prefixDirtyFrom = day;
+            }
+        }
+    }
+
+    /**
+     * Range totals from the prefix index, bringing it up to date first. Blocks.
+     */
+    RangeTotals rangeTotals(DateRange range) {
+        synchronized (prefixLock) {
+            if (prefixDirtyFrom != null) {
+                prefixIndex.truncateFrom(prefixDirtyFrom);
+                database.appendDayTotals(prefixDirtyFrom, prefixIndex);
+                prefixDirtyFrom = null;
+            }
+            return prefixIndex.totals(range);
+        }
+    }
+
+    private void markStored(String kind, DateRange range) {
+        String today = todayKey();
+        List<String> completed = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String day : range.dayKeys()) {
+            if (day.compareTo(today) < 0) {
+                completed.add(day);
+            } else {
+                storedAt.put(kind + "/" + day, now);
+            }
+        }
+        database.markSynced(kind, completed);
+    }
+
+    private void deliverHourly(DateRange range, EnergyRepository.HourlySummariesCallback callback, String syncError) {
+        List<HourlySummary> summaries;
+        try {
+            summaries = database.queryHourly(range);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to query hourly summaries for " + range, e);
+            executors.mainThread().execute(() -> callback.onError(syncError != null ? syncError : e.getMessage()));
+            return;
+        }
+        if (syncError != null && summaries.isEmpty()) {
+            executors.mainThread().execute(() -> callback.onError(syncError));
+            return;
+        }
+        executors.mainThread().execute(() -> callback.onHourlySummariesLoaded(summaries));
+    }
+
+    private void deliverTotals(DateRange range, TotalsCallback callback, String syncError) {
+        RangeTotals totals;
+        try {
+            totals = rangeTotals(range);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to total " + range, e);
+            synchronized (prefixLock) {
+                // Rebuild from scratch next time
+                prefixIndex.clear();
+                prefixDirtyFrom = "";
+            }
+            executors.mainThread().execute(() -> callback.onError(syncError != null ? syncError : e.getMessage()));
+            return;
+        }
+        if (syncError != null && totals.dayCount == 0) {
+            executors.mainThread().execute(() -> callback.onError(syncError));
+            return;
+        }
+        executors.mainThread().execute(() -> callback.onTotalsLoaded(totals));
+    }
+
+    private void deliverDaily(DateRange range, EnergyRepository.DailySummariesCallback callback, String syncError) {
+        List<DailySummary> summaries;
+        try {
+            summaries = database.queryDaily(range);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to query daily summaries for " + range, e);
+            executors.mainThread().execute(() -> callback.onError(syncError != null ? syncError : e.getMessage()));
+            return;
+        }
+        if (syncError != null && summaries.isEmpty()) {
+            executors.mainThread().execute(() -> callback.onError(syncError));
+            return;
+        }
+        executors.mainThread().execute(() -> callback.onDailySummariesLoaded(summaries));
+    }
+
+    /**
+     * First day of the range that still has to be downloaded, or null if every day is stored
+     */
+    private String firstUnsyncedDay(String kind, DateRange range) {
+        Set<String> synced;
+        try {
+            synced = database.syncedDates(kind, range);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read synced days", e);
+            return range.startDate;
+        }
+        long now = System.currentTimeMillis();
+        for (String day : range.dayKeys()) {
+            if (synced.contains(day)) continue;
+            Long stored = storedAt.get(kind + "/" + day);
+            if (stored == null || now - stored > FRESH_FOR_MS) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    static String todayKey() {
+        return DateKeys.todayKey();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.sampleiwatts.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.sampleiwatts.core.DailySummary;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync of hourly_summaries and daily_summaries into the local rollup.
+ *
+ * For each node the last date key stored is kept as a high-water mark and the next
+ * sync reads only orderByKey().startAt(lastKey), so the download covers the days since
+ * the previous sync plus the still-changing last day. Before the first sync the mark
+ * starts INITIAL_SYNC_DAYS back. Listeners are told which dates actually changed so a
+ * screen only rebuilds when its own range is affected.
+ */
+public class RollupSync {
+    private static final String TAG = "RollupSync";
+    private static final long MIN_INTERVAL_MS = 60_000L;
+    private static final int INITIAL_SYNC_DAYS = 31;
+
+    private static final String NODE_HOURLY = "hourly_summaries";
+    private static final String NODE_DAILY = "daily_summaries";
+
+    private static RollupSync instance;
+
+    private final RollupStore store;
+    private final EnergyRepository repository = EnergyRepository.getInstance();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private boolean running = false;
+    private long lastSyncMs = 0L;
+
+    public interface Listener {
+        void onRollupChanged(DateRange changed);
+    }
+
+    private RollupSync(Context context) {
+        this.store = RollupStore.getInstance(context);
+    }
+
+    public static synchronized RollupSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new RollupSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sync unless a sync is running or finished less than MIN_INTERVAL_MS ago
+     */
+    public void syncIfStale() {
+        if (running || System.currentTimeMillis() - lastSyncMs < MIN_INTERVAL_MS) return;
+        sync();
+    }
+
+    public void sync() {
+        if (running) return;
+        running = true;
+        executors.background().execute(this::syncHourly);
+    }
+
+    private void syncHourly() {
+        String startKey = startKey(NODE_HOURLY);
+        repository.loadHourlySummariesSince(startKey, new EnergyRepository.HourlySummariesCallback() {
+            @Override
+            public void onHourlySummariesLoaded(List<HourlySummary> summaries) {
+                executors.background().execute(() -> {
+                    String lastKey = summaries.isEmpty() ? startKey : summaries.get(summaries.size() - 1).date;
+                    List<String> changed = store.storeHourly(coveredRange(startKey, lastKey), summaries);
+                    saveHighWaterMark(NODE_HOURLY, lastKey);
+                    Log.d(TAG, "Hourly delta from " + startKey + ": " + summaries.size() + " rows, "
+                            + changed.size() + " changed days");
+                    notifyChanged(changed);
+                    syncDaily();
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Hourly delta sync failed: " + error);
+                executors.background().execute(() -> syncDaily());
+            }
+        });
+    }
+
+    private void syncDaily() {
+        String startKey = startKey(NODE_DAILY);
+        repository.loadDailySummariesSince(startKey, new EnergyRepository.DailySummariesCallback() {
+            @Override
+            public void onDailySummariesLoaded(List<DailySummary> summaries) {
+                executors.background().execute(() -> {
+                    String lastKey = summaries.isEmpty() ? startKey : summaries.get(summaries.size() - 1).date;
+                    List<String> changed = store.storeDaily(coveredRange(startKey, lastKey), summaries);
+                    saveHighWaterMark(NODE_DAILY, lastKey);
+                    Log.d(TAG, "Daily delta from " + startKey + ": " + summaries.size() + " rows, "
+                            + changed.size() + " changed days");
+                    notifyChanged(changed);
+                    finish();
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Daily delta sync failed: " + error);
+                finish();
+            }
+        });
+    }
+
+    private void finish() {
+        executors.mainThread().execute(() -> {
+            running = false;
+            lastSyncMs = System.currentTimeMillis();
+        });
+    }
+
+    private void notifyChanged(List<String> changedDays) {
+        if (changedDays.isEmpty()) return;
+        DateRange changed = new DateRange(changedDays.get(0), changedDays.get(changedDays.size() - 1));
+        executors.mainThread().execute(() -> {
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onRollupChanged(changed);
+            }
+        });
+    }
+
+    private String startKey(String node) {
+        try {
+            String lastKey = store.database().highWaterMark(node);
+            if (lastKey != null) return lastKey;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read high-water mark for " + node, e);
+        }
+        return DateKeys.dayKey(DateKeys.todayOrdinal() - INITIAL_SYNC_DAYS);
+    }
+
+    private void saveHighWaterMark(String node, String lastKey) {
+        try {
+            store.database().setHighWaterMark(node, lastKey);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to save high-water mark for " + node, e);
+        }
+    }
+
+    /**
+     * Everything from startKey on was downloaded, up to today or the newest key if later
+     */
+    private static DateRange coveredRange(String startKey, String lastKey) {
+        String today = RollupStore.todayKey();
+        return new DateRange(startKey, lastKey.compareTo(today) > 0 ? lastKey : today);
+    }
+}
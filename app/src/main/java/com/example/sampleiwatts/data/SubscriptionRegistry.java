@@ -0,0 +1,127 @@
+package com.example.sampleiwatts.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the live Firebase listeners of one screen.
+ *
+ * add() keeps a listener until the owner is destroyed. replace(slot, ...) is for a
+ * listener that depends on an outer value (for example the cost filter range): the
+ * listener previously held in the slot is removed first, so an outer change swaps
+ * the inner listener instead of stacking another one. liveCount() and
+ * globalLiveCount() report how many listeners are attached right now.
+ */
+public class SubscriptionRegistry implements DefaultLifecycleObserver {
+    private static final String TAG = "SubscriptionRegistry";
+    private static final AtomicInteger GLOBAL_LIVE = new AtomicInteger();
+
+    /**
+     * Anything that can be detached, such as a ListenerRegistration
+     */
+    public interface Subscription {
+        void remove();
+    }
+
+    private final String ownerName;
+    private final List<Subscription> unkeyed = new ArrayList<>();
+    private final Map<String, Subscription> slots = new HashMap<>();
+    private boolean cleared = false;
+
+    SubscriptionRegistry(String ownerName) {
+        this.ownerName = ownerName;
+    }
+
+    /**
+     * Registry whose listeners are all removed when the owner is destroyed
+     */
+    public static SubscriptionRegistry of(LifecycleOwner owner) {
+        SubscriptionRegistry registry = new SubscriptionRegistry(owner.getClass().getSimpleName());
+        owner.getLifecycle().addObserver(registry);
+        return registry;
+    }
+
+    public <T extends Subscription> T add(T subscription) {
+        if (cleared) {
+            // The owner is already gone; do not let a late callback leak a listener
+            subscription.remove();
+            return subscription;
+        }
+        unkeyed.add(subscription);
+        GLOBAL_LIVE.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Put the subscription in the slot, removing whatever the slot held before
+     */
+    public <T extends Subscription> T replace(String slot, T subscription) {
+        remove(slot);
+        if (cleared) {
+            subscription.remove();
+            return subscription;
+        }
+        slots.put(slot, subscription);
+        GLOBAL_LIVE.incrementAndGet();
+        return subscription;
+    }
+
+    public void remove(String slot) {
+        Subscription previous = slots.remove(slot);
+        if (previous != null) {
+            previous.remove();
+            GLOBAL_LIVE.decrementAndGet();
+        }
+    }
+
+    /**
+     * Listeners attached through this registry right now
+     */
+    public int liveCount() {
+        return unkeyed.size() + slots.size();
+    }
+
+    /**
+     * Listeners attached through every registry in the process right now
+     */
+    public static int globalLiveCount() {
+        return GLOBAL_LIVE.get();
+    }
+
+    public void clear() {
+        int count = liveCount();
+        for (Subscription subscription : unkeyed) {
+            subscription.remove();
+        }
+        for (Subscription subscription : slots.values()) {
+            subscription.remove();
+        }
+        unkeyed.clear();
+        slots.clear();
+        GLOBAL_LIVE.addAndGet(-count);
+        Log.d(TAG, ownerName + ": removed " + count + " listeners, " + GLOBAL_LIVE.get() + " still live");
+    }
+
+    /**
+     * Remove everything and refuse later subscriptions
+     */
+    void close() {
+        clear();
+        cleared = true;
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        close();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
@@ -1,34 +1,67 @@
 package com.example.sampleiwatts.processors;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
-import androidx.annotation.NonNull;
-import com.google.firebase.database.*;
-import java.text.SimpleDateFormat;
+import com.example.sampleiwatts.core.DataNode;
+import com.example.sampleiwatts.core.DataQuery;
+import com.example.sampleiwatts.core.DataSource;
+import com.example.sampleiwatts.core.DailyPeakTracker;
+import com.example.sampleiwatts.core.DailyPeaks;
+import com.example.sampleiwatts.core.DateKeys;
+import com.example.sampleiwatts.core.HourEnergyIntegrator;
+import com.example.sampleiwatts.core.ReadingRingBuffer;
+import com.example.sampleiwatts.data.AppExecutors;
+import com.example.sampleiwatts.data.FirebaseDataSource;
+import com.example.sampleiwatts.data.RollupStore;
 import java.util.*;
 
 public class RealTimeDataProcessor {
     private static final String TAG = "RealTimeDataProcessor";
 
-    // Philippine timezone
-    private static final TimeZone PHILIPPINE_TIMEZONE = TimeZone.getTimeZone("Asia/Manila");
-
-    private DatabaseReference databaseRef;
-    private SimpleDateFormat dateFormat;
-    private SimpleDateFormat timeFormat;
-    private SimpleDateFormat dateTimeFormat;
+    // Today's readings at one per second plus the hour before midnight
+    private static final int BUFFER_HOURS = 25;
+    private static final int READINGS_PER_HOUR = 3600;
+    // Same names LogReading accepts for the device time
+    private static final String[] TIMESTAMP_FIELDS = {"timestamp", "created_at", "createdAt", "ts", "time"};
+    // Longest a refresh waits for its reads; whatever has not arrived by then is left out
+    private static final long REFRESH_DEADLINE_MS = 8_000L;
+
+    private final DataSource dataSource;
+    // Where the day's peaks are kept between screens and restarts, null to keep them in memory only
+    private final RollupStore peakStore;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final ReadingRingBuffer readings = new ReadingRingBuffer(BUFFER_HOURS * READINGS_PER_HOUR);
+    // Fed the same readings as the buffer, for exact current and previous hour energy
+    private final HourEnergyIntegrator energy = new HourEnergyIntegrator();
+    // Fed the same readings too, for the day's per-area peaks and fluctuations
+    private final DailyPeakTracker peaks = new DailyPeakTracker();
+    private boolean peaksRestored = false;
+    // Newest log entry already buffered, guarded by readings
+    private String lastBucketKey = null;
+    private String lastPushKey = null;
 
     public RealTimeDataProcessor() {
-        this.databaseRef = FirebaseDatabase.getInstance().getReference();
-
-        // Set all date formatters to Philippine timezone
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        this.dateFormat.setTimeZone(PHILIPPINE_TIMEZONE);
+        this(FirebaseDataSource.getInstance());
+    }
 
-        this.timeFormat = new SimpleDateFormat("HH", Locale.getDefault());
-        this.timeFormat.setTimeZone(PHILIPPINE_TIMEZONE);
+    /**
+     * Read through the given source. The refresh deadline and result delivery still use the
+     * Android main looper, so an InMemoryDataSource only works here on a device or emulator;
+     * plain JVM tests drive the source itself (see InMemoryDataSourceTest)
+     */
+    public RealTimeDataProcessor(DataSource dataSource) {
+        this(dataSource, null);
+    }
 
-        this.dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault());
-        this.dateTimeFormat.setTimeZone(PHILIPPINE_TIMEZONE);
+    /**
+     * Read through the given source and keep the day's peaks in the store
+     */
+    public RealTimeDataProcessor(DataSource dataSource, RollupStore peakStore) {
+        this.dataSource = dataSource;
+        this.peakStore = peakStore;
     }
 
     public interface DataProcessingCallback {
@@ -37,11 +70,6 @@ public class RealTimeDataProcessor {
         void onSettingsLoaded(double electricityRate, double voltageReference);
     }
 
-    public interface CurrentHourCallback {
-        void onCurrentHourProcessed(CurrentHourData data);
-        void onError(String error);
-    }
-
     public static class RealTimeData {
         public String date;
         public double totalConsumption;
@@ -64,6 +92,7 @@ public class RealTimeDataProcessor {
         public String peakTime = "--:--";
         public boolean hasFluctuation;
         public double fluctuationValue;
+        public int fluctuationCount;
     }
 
     public static class HourlyData {
@@ -80,6 +109,9 @@ public class RealTimeDataProcessor {
         public double avgArea3Watts;
         public double peakWatts;
         public double partialKwh;
+        public double partialArea1Kwh;
+        public double partialArea2Kwh;
+        public double partialArea3Kwh;
         public double partialCost;
         public int validReadings;
         public int batteryPercent;
@@ -90,207 +122,434 @@ public class RealTimeDataProcessor {
     }
 
     /**
-     * Load system settings and process real-time data
+     * Load system settings and report them through onSettingsLoaded, or onError
      */
     public void loadSystemSettingsAndProcess(String date, DataProcessingCallback callback) {
-        databaseRef.child("system_settings").addListenerForSingleValueEvent(new ValueEventListener() {
+        dataSource.ref("system_settings").get(new DataSource.ValueCallback() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                double electricityRate = 12.5; // Default
-                double voltageReference = 220.0; // Default
-
-                if (snapshot.exists()) {
-                    if (snapshot.child("electricity_rate_per_kwh").exists()) {
-                        electricityRate = snapshot.child("electricity_rate_per_kwh").getValue(Double.class);
-                    }
-                    if (snapshot.child("voltage_reference").exists()) {
-                        voltageReference = snapshot.child("voltage_reference").getValue(Double.class);
-                    }
-                }
-
-                Log.d(TAG, "Using settings - Rate: " + electricityRate + "/kWh, Voltage: " + voltageReference + "V");
-                callback.onSettingsLoaded(electricityRate, voltageReference);
+            public void onValue(DataNode snapshot) {
+                reportSettings(snapshot, callback);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                callback.onError(error.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
 
+    private void reportSettings(DataNode snapshot, DataProcessingCallback callback) {
+        double electricityRate = settingOr(snapshot, "electricity_rate_per_kwh", 12.5);
+        double voltageReference = settingOr(snapshot, "voltage_reference", 220.0);
+        Log.d(TAG, "Using settings - Rate: " + electricityRate + "/kWh, Voltage: " + voltageReference + "V");
+        callback.onSettingsLoaded(electricityRate, voltageReference);
+    }
+
+    private double settingOr(DataNode settings, String key, double fallback) {
+        Double value = settings.exists() ? getDoubleValue(settings.child(key).getValue()) : null;
+        return value != null ? value : fallback;
+    }
+
     /**
-     * Process hourly summaries AND current hour log data for TRUE real-time
+     * One refresh. Settings, the day's hourly summaries and the new log entries are read
+     * at the same time and joined here; the result is built once all three are in, or
+     * at the deadline from what has arrived, with default settings and only the
+     * readings already buffered. Only the hourly summaries are required. The reads are
+     * listeners, each taking its first answer only, and whatever is still outstanding is
+     * removed once the refresh resolves or fails, so late answers stop coming; log entries
+     * missed that way are fetched by the next refresh, which resumes from the newest
+     * buffered one.
      */
-    private void processHourlyDataWithCurrentHour(String date, double electricityRate, double voltageReference, DataProcessingCallback callback) {
-        DatabaseReference hourlyRef = databaseRef.child("hourly_summaries").child(date);
+    private class RefreshJoin {
+        private final String date;
+        private final DataProcessingCallback callback;
+        private final Runnable deadline = this::onDeadline;
+
+        private boolean resolved = false;
+        private boolean settingsDone = false;
+        private double electricityRate = 12.5; // Default
+        private double voltageReference = 220.0; // Default
+        private DataNode hourlySnapshot = null;
+        private boolean logsDone = false;
+        private DataNode logsSnapshot = null;
+        // Reads still waiting for their answer
+        private final List<DataSource.Handle> pending = new ArrayList<>();
+
+        RefreshJoin(String date, DataProcessingCallback callback) {
+            this.date = date;
+            this.callback = callback;
+        }
 
-        // First get hourly summaries
-        hourlyRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot hourlySnapshot) {
-                // Then get current hour log data (with fallback handling)
-                getCurrentHourLogData(databaseRef.child("logs"), date, voltageReference, new CurrentHourCallback() {
-                    @Override
-                    public void onCurrentHourProcessed(CurrentHourData currentHourData) {
-                        try {
-                            RealTimeData realTimeData = buildCompleteRealTimeData(hourlySnapshot, currentHourData, electricityRate, date);
-
-                            // Add status message if using fallback data
-                            if (currentHourData.isFallbackData && !currentHourData.fallbackMessage.isEmpty()) {
-                                Log.i(TAG, "Real-time data note: " + currentHourData.fallbackMessage);
-                                // You can show this message to the user if needed
-                                // realTimeData.statusMessage = currentHourData.fallbackMessage;
-                            }
-
-                            // Calculate real peaks from log data (async)
-                            calculateRealAreaPeaksFromLogData(realTimeData, date, voltageReference, callback);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error building real-time data: " + e.getMessage(), e);
-                            callback.onError("Failed to process real-time data");
+        void start() {
+            handler.postDelayed(deadline, REFRESH_DEADLINE_MS);
+
+            read(dataSource.ref("system_settings"), new DataSource.ValueCallback() {
+                @Override
+                public void onValue(DataNode snapshot) {
+                    onSettings(settingOr(snapshot, "electricity_rate_per_kwh", 12.5),
+                            settingOr(snapshot, "voltage_reference", 220.0));
+                }
+
+                @Override
+                public void onError(String error) {
+                    Log.w(TAG, "Error loading settings: " + error + ", using defaults");
+                    onSettings(electricityRate, voltageReference);
+                }
+            });
+
+            read(dataSource.ref("hourly_summaries").child(date), new DataSource.ValueCallback() {
+                @Override
+                public void onValue(DataNode snapshot) {
+                    onHourly(snapshot);
+                }
+
+                @Override
+                public void onError(String error) {
+                    fail(error);
+                }
+            });
+
+            syncLogs(date, this);
+        }
+
+        void readLogs(DataQuery query) {
+            read(query, new DataSource.ValueCallback() {
+                @Override
+                public void onValue(DataNode snapshot) {
+                    onLogs(snapshot);
+                }
+
+                @Override
+                public void onError(String error) {
+                    Log.w(TAG, "Error getting log data: " + error + ", using buffered readings");
+                    onLogs(null);
+                }
+            });
+        }
+
+        /**
+         * Listen on the query for its first answer only. The listener is removed after that
+         * answer, or with the rest when the refresh resolves first; an answer may arrive
+         * before observe returns, so the handle is checked once it is known.
+         */
+        private void read(DataQuery query, DataSource.ValueCallback target) {
+            DataSource.Handle[] handle = new DataSource.Handle[1];
+            boolean[] answered = new boolean[1];
+            DataSource.ValueCallback once = new DataSource.ValueCallback() {
+                @Override
+                public void onValue(DataNode snapshot) {
+                    if (take()) target.onValue(snapshot);
+                }
+
+                @Override
+                public void onError(String error) {
+                    if (take()) target.onError(error);
+                }
+
+                private boolean take() {
+                    synchronized (RefreshJoin.this) {
+                        if (answered[0]) return false;
+                        answered[0] = true;
+                        if (handle[0] != null) {
+                            pending.remove(handle[0]);
+                            handle[0].remove();
                         }
+                        return true;
                     }
+                }
+            };
+            DataSource.Handle registered = query.observe(once);
+            synchronized (this) {
+                if (answered[0] || resolved) {
+                    registered.remove();
+                } else {
+                    handle[0] = registered;
+                    pending.add(registered);
+                }
+            }
+        }
 
-                    @Override
-                    public void onError(String error) {
-                        // Even if current hour processing fails, still try to show data from hourly summaries
-                        Log.w(TAG, "Current hour processing failed: " + error + ", using hourly summaries only");
-
-                        // Create empty current hour data and continue
-                        createEmptyCurrentHourData(new CurrentHourCallback() {
-                            @Override
-                            public void onCurrentHourProcessed(CurrentHourData emptyData) {
-                                try {
-                                    RealTimeData realTimeData = buildCompleteRealTimeData(hourlySnapshot, emptyData, electricityRate, date);
-                                    calculateRealAreaPeaksFromLogData(realTimeData, date, voltageReference, callback);
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Error building real-time data with empty current hour: " + e.getMessage(), e);
-                                    callback.onError("Failed to process real-time data");
-                                }
-                            }
-
-                            @Override
-                            public void onError(String error) {
-                                callback.onError("Failed to create fallback data");
-                            }
-                        });
-                    }
-                });
+        private synchronized void onSettings(double rate, double voltage) {
+            if (resolved) return;
+            electricityRate = rate;
+            voltageReference = voltage;
+            settingsDone = true;
+            resolveIfComplete();
+        }
+
+        private synchronized void onHourly(DataNode snapshot) {
+            if (resolved) return;
+            hourlySnapshot = snapshot;
+            resolveIfComplete();
+        }
+
+        private synchronized void onLogs(DataNode snapshot) {
+            if (resolved) return;
+            logsSnapshot = snapshot;
+            logsDone = true;
+            resolveIfComplete();
+        }
+
+        private synchronized void fail(String error) {
+            if (resolved) return;
+            resolved = true;
+            handler.removeCallbacks(deadline);
+            removePending();
+            callback.onError(error);
+        }
+
+        private synchronized void onDeadline() {
+            if (resolved) return;
+            if (hourlySnapshot == null) {
+                Log.w(TAG, "Hourly summaries for " + date + " not loaded within " + REFRESH_DEADLINE_MS + " ms");
+                fail("Timed out loading real-time data");
+                return;
             }
+            Log.w(TAG, "Refresh deadline reached - settings " + (settingsDone ? "loaded" : "defaulted")
+                    + ", logs " + (logsDone ? "loaded" : "from buffer"));
+            resolve();
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                callback.onError(error.getMessage());
+        private void resolveIfComplete() {
+            if (settingsDone && hourlySnapshot != null && logsDone) {
+                resolve();
             }
-        });
+        }
+
+        private void resolve() {
+            resolved = true;
+            handler.removeCallbacks(deadline);
+            removePending();
+            callback.onSettingsLoaded(electricityRate, voltageReference);
+
+            DataNode hourly = hourlySnapshot;
+            DataNode logs = logsSnapshot;
+            double rate = electricityRate;
+            double voltage = voltageReference;
+            executors.background().execute(() -> {
+                if (logs != null) {
+                    bufferLogs(date, logs, voltage);
+                }
+                buildRealTimeData(hourly, rate, date, voltage, callback);
+            });
+        }
+
+        private void removePending() {
+            for (DataSource.Handle handle : pending) {
+                handle.remove();
+            }
+            pending.clear();
+        }
     }
 
     /**
-     * Get current hour log data for real-time updates
+     * Build the combined data from the summaries and the reading buffer; runs on the background pool
      */
-    private void getCurrentHourLogData(DatabaseReference logsRef, String date, double voltageReference, CurrentHourCallback callback) {
-        Calendar now = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        String currentHourStr = timeFormat.format(now.getTime());
-        int currentHour = now.get(Calendar.HOUR_OF_DAY);
-
-        // Create time range for current hour
-        String startTime = date + "T" + String.format("%02d:00:00", currentHour);
-        String endTime = date + "T" + String.format("%02d:59:59", currentHour);
-
-        Log.d(TAG, "Getting current hour log data for " + currentHourStr + " (" + startTime + " to " + endTime + ")");
-
-        logsRef.orderByKey()
-                .startAt(startTime)
-                .endAt(endTime)
-                .limitToLast(50) // Get recent logs for current hour
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (snapshot.exists()) {
-                            // Current hour has data, process it
-                            try {
-                                CurrentHourData currentHourData = processCurrentHourLogs(snapshot, currentHourStr, voltageReference);
-                                callback.onCurrentHourProcessed(currentHourData);
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error processing current hour logs: " + e.getMessage(), e);
-                                // Fallback to previous hour
-                                tryPreviousHourAsFallback(logsRef, date, currentHour, voltageReference, callback);
-                            }
-                        } else {
-                            Log.d(TAG, "No current hour log data found, trying fallback to previous hour");
-                            // No current hour data, try previous hour as fallback
-                            tryPreviousHourAsFallback(logsRef, date, currentHour, voltageReference, callback);
-                        }
-                    }
+    private void buildRealTimeData(DataNode hourlySnapshot, double electricityRate, String date,
+                                   double voltageReference, DataProcessingCallback callback) {
+        try {
+            CurrentHourData currentHourData = currentHourFromBuffer(voltageReference);
+            if (currentHourData.isFallbackData && !currentHourData.fallbackMessage.isEmpty()) {
+                Log.i(TAG, "Real-time data note: " + currentHourData.fallbackMessage);
+            }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error getting current hour log data: " + error.getMessage());
-                        // Try fallback even on database error
-                        tryPreviousHourAsFallback(logsRef, date, currentHour, voltageReference, callback);
-                    }
-                });
+            RealTimeData realTimeData = buildCompleteRealTimeData(hourlySnapshot, currentHourData, electricityRate, date);
+            applyDailyPeaks(realTimeData, date, voltageReference);
+            executors.mainThread().execute(() -> callback.onDataProcessed(realTimeData));
+        } catch (Exception e) {
+            Log.e(TAG, "Error building real-time data: " + e.getMessage(), e);
+            executors.mainThread().execute(() -> callback.onError("Failed to process real-time data"));
+        }
     }
 
-    private void tryPreviousHourAsFallback(DatabaseReference logsRef, String date, int currentHour,
-                                           double voltageReference, CurrentHourCallback callback) {
-        // Try previous hour (or previous day's last hour if current hour is 0)
-        Calendar previousHourCal = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        previousHourCal.add(Calendar.HOUR_OF_DAY, -1);
-
-        String fallbackDate = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(previousHourCal.getTime());
-        int fallbackHour = previousHourCal.get(Calendar.HOUR_OF_DAY);
-        String fallbackHourStr = String.format("%02d", fallbackHour);
-
-        String startTime = fallbackDate + "T" + String.format("%02d:00:00", fallbackHour);
-        String endTime = fallbackDate + "T" + String.format("%02d:59:59", fallbackHour);
-
-        Log.d(TAG, "Trying fallback to previous hour: " + fallbackHourStr + " (" + startTime + " to " + endTime + ")");
-
-        logsRef.orderByKey()
-                .startAt(startTime)
-                .endAt(endTime)
-                .limitToLast(50)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (snapshot.exists()) {
-                            try {
-                                // Process previous hour data but mark it as fallback
-                                CurrentHourData fallbackData = processCurrentHourLogs(snapshot, fallbackHourStr, voltageReference);
-                                fallbackData.isFallbackData = true; // Add this flag to CurrentHourData class
-                                fallbackData.fallbackMessage = "Using previous hour data (no current data available)";
-                                callback.onCurrentHourProcessed(fallbackData);
-                                Log.d(TAG, "Successfully using previous hour as fallback");
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error processing fallback hour data: " + e.getMessage(), e);
-                                // Create empty current hour data as final fallback
-                                createEmptyCurrentHourData(callback);
-                            }
-                        } else {
-                            Log.d(TAG, "No fallback hour data found either, using empty data");
-                            // No data in previous hour either, create empty data
-                            createEmptyCurrentHourData(callback);
-                        }
-                    }
+    /**
+     * Have the refresh read only the log entries newer than the newest buffered one.
+     * The first sync of a day starts an hour before midnight so the previous-hour
+     * fallback works right after it, unless the day's stored peaks already cover
+     * everything before the previous hour.
+     */
+    private void syncLogs(String date, RefreshJoin join) {
+        boolean restore;
+        synchronized (readings) {
+            restore = peakStore != null && !peaksRestored;
+            peaksRestored = true;
+        }
+        if (restore) {
+            executors.background().execute(() -> {
+                if (peaks.restore(peakStore.loadDailyPeaks(date))) {
+                    Log.d(TAG, "Restored stored peaks for " + date);
+                }
+                join.readLogs(logsQuery(date));
+            });
+        } else {
+            join.readLogs(logsQuery(date));
+        }
+    }
+
+    private DataQuery logsQuery(String date) {
+        int day = DateKeys.dayOrdinal(date);
+        String startKey = day == DateKeys.INVALID ? date + "T00:00:00"
+                : DateKeys.bucketKey(DateKeys.startOfDayMs(day) - DateKeys.HOUR_MS);
+        String resumeKey;
+        synchronized (readings) {
+            resumeKey = lastBucketKey;
+        }
+        if (resumeKey != null && resumeKey.compareTo(startKey) > 0) {
+            startKey = resumeKey;
+        } else if (resumeKey == null) {
+            // Nothing buffered yet: the hours the buffer needs are the current and previous one
+            DailyPeaks stored = peaks.peaksFor(date);
+            String windowKey = DateKeys.bucketKey(
+                    HourEnergyIntegrator.hourStart(System.currentTimeMillis()) - DateKeys.HOUR_MS);
+            if (stored != null && stored.lastKey != null && windowKey.compareTo(startKey) > 0
+                    && stored.lastKey.compareTo(windowKey) >= 0) {
+                startKey = windowKey;
+            }
+        }
+        String endKey = date + "T23:59:59";
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error getting fallback hour data: " + error.getMessage());
-                        createEmptyCurrentHourData(callback);
+        return dataSource.ref("logs").orderByKey()
+                .startAt(startKey)
+                .endAt(endKey);
+    }
+
+    /**
+     * Add a logs listing to the buffer and store the day's peaks if anything was new;
+     * runs on the background pool
+     */
+    private void bufferLogs(String date, DataNode logs, double voltageReference) {
+        try {
+            int added = appendLogs(logs, voltageReference);
+            Log.d(TAG, "Buffered " + added + " new log readings, " + readings.size() + " held");
+            if (added > 0 && peakStore != null) {
+                DailyPeaks dayPeaks = peaks.peaksFor(date);
+                if (dayPeaks != null) peakStore.saveDailyPeaks(dayPeaks);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Error buffering log data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add the entries of a logs/{bucket}/{pushKey} listing that are not buffered yet,
+     * to the buffer, the energy integrator and the peak tracker
+     */
+    private int appendLogs(DataNode logs, double voltageReference) {
+        int added = 0;
+        synchronized (readings) {
+            for (DataNode bucket : logs.getChildren()) {
+                String bucketKey = bucket.getKey();
+                long bucketTimeMs = DateKeys.bucketTimeMs(bucketKey);
+                if (bucketTimeMs == Long.MIN_VALUE) continue;
+                int order = lastBucketKey == null ? 1 : bucketKey.compareTo(lastBucketKey);
+                if (order < 0) continue;
+
+                for (DataNode entry : bucket.getChildren()) {
+                    String pushKey = entry.getKey();
+                    // The resumed bucket comes back whole; skip what was already added
+                    if (order == 0 && pushKey.compareTo(lastPushKey) <= 0) continue;
+                    lastBucketKey = bucketKey;
+                    lastPushKey = pushKey;
+
+                    double current1 = asDouble(entry.child("C1_A").getValue());
+                    double current2 = asDouble(entry.child("C2_A").getValue());
+                    double current3 = asDouble(entry.child("C3_A").getValue());
+                    if (Double.isNaN(current1) || Double.isNaN(current2) || Double.isNaN(current3)) continue;
+                    long timeMs = readingTimeMs(entry, bucketTimeMs);
+
+                    double battery = asDouble(field(entry, "Vbat_percent", "vbat_percent"));
+                    Boolean charging = getBooleanValue(field(entry, "Charging", "charging"));
+                    double fluct1 = asDouble(field(entry, "Fluct1", "fluct1"));
+                    double fluct2 = asDouble(field(entry, "Fluct2", "fluct2"));
+                    double fluct3 = asDouble(field(entry, "Fluct3", "fluct3"));
+                    int fluctuations = 0;
+                    if (fluct1 > 0) fluctuations |= ReadingRingBuffer.FLUCT1;
+                    if (fluct2 > 0) fluctuations |= ReadingRingBuffer.FLUCT2;
+                    if (fluct3 > 0) fluctuations |= ReadingRingBuffer.FLUCT3;
+
+                    if (readings.add(timeMs, current1, current2, current3,
+                            Double.isNaN(battery) ? -1 : (int) battery, charging, fluctuations)) {
+                        energy.add(timeMs, voltageReference * current1,
+                                voltageReference * current2, voltageReference * current3);
+                        // NaN compares false, so a missing FluctN is no fluctuation
+                        peaks.add(timeMs, bucketKey + "/" + pushKey, current1, current2, current3,
+                                fluct1, fluct2, fluct3);
+                        added++;
                     }
-                });
+                }
+            }
+        }
+        return added;
     }
 
     /**
-     * NEW METHOD: Create empty current hour data when no data is available
+     * Current hour from the buffer, falling back to the previous hour and then to empty data
      */
-    private void createEmptyCurrentHourData(CurrentHourCallback callback) {
-        Calendar now = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        String currentHourStr = timeFormat.format(now.getTime());
+    private CurrentHourData currentHourFromBuffer(double voltageReference) {
+        long now = System.currentTimeMillis();
+        long hourStart = HourEnergyIntegrator.hourStart(now);
+
+        CurrentHourData currentHourData = hourFromBuffer(hourStart, voltageReference);
+        if (currentHourData.validReadings > 0) {
+            // Integrated over every reading of the hour so far
+            currentHourData.partialKwh = energy.kwh(hourStart, 0);
+            currentHourData.partialArea1Kwh = energy.kwh(hourStart, 1);
+            currentHourData.partialArea2Kwh = energy.kwh(hourStart, 2);
+            currentHourData.partialArea3Kwh = energy.kwh(hourStart, 3);
+            currentHourData.peakWatts = energy.peakWatts(hourStart);
+            Log.d(TAG, String.format("Current hour: %d readings, %.2fW avg, %.4f kWh integrated, %d%% battery",
+                    currentHourData.validReadings, currentHourData.avgTotalWatts,
+                    currentHourData.partialKwh, currentHourData.batteryPercent));
+            return currentHourData;
+        }
+
+        Log.d(TAG, "No current hour readings buffered, trying fallback to previous hour");
+        CurrentHourData fallbackData = hourFromBuffer(hourStart - DateKeys.HOUR_MS, voltageReference);
+        if (fallbackData.validReadings > 0) {
+            // Nothing measured this hour yet: assume the previous hour's average power since the top of the hour
+            double hourProgress = (now - hourStart) / (double) DateKeys.HOUR_MS;
+            fallbackData.partialKwh = (fallbackData.avgTotalWatts / 1000.0) * hourProgress;
+            fallbackData.partialArea1Kwh = (fallbackData.avgArea1Watts / 1000.0) * hourProgress;
+            fallbackData.partialArea2Kwh = (fallbackData.avgArea2Watts / 1000.0) * hourProgress;
+            fallbackData.partialArea3Kwh = (fallbackData.avgArea3Watts / 1000.0) * hourProgress;
+            fallbackData.isFallbackData = true;
+            fallbackData.fallbackMessage = "Using previous hour data (no current data available)";
+            return fallbackData;
+        }
+
+        Log.d(TAG, "No fallback hour readings either, using empty data");
+        return createEmptyCurrentHourData();
+    }
+
+    /**
+     * Averages, peak and battery of the buffered readings of one hour
+     */
+    private CurrentHourData hourFromBuffer(long hourStart, double voltageReference) {
+        long hourEnd = hourStart + DateKeys.HOUR_MS;
+        CurrentHourData currentHourData = new CurrentHourData();
+        currentHourData.hour = DateKeys.hourKey(DateKeys.hourAt(hourStart));
+
+        int validReadings = readings.count(hourStart, hourEnd);
+        if (validReadings > 0) {
+            // Power is P = V * I, so the current statistics scale straight to watts
+            currentHourData.avgTotalWatts = voltageReference * readings.avg(ReadingRingBuffer.TOTAL, hourStart, hourEnd);
+            currentHourData.avgArea1Watts = voltageReference * readings.avg(ReadingRingBuffer.AREA1, hourStart, hourEnd);
+            currentHourData.avgArea2Watts = voltageReference * readings.avg(ReadingRingBuffer.AREA2, hourStart, hourEnd);
+            currentHourData.avgArea3Watts = voltageReference * readings.avg(ReadingRingBuffer.AREA3, hourStart, hourEnd);
+            currentHourData.peakWatts = voltageReference * readings.max(ReadingRingBuffer.TOTAL, hourStart, hourEnd);
+            currentHourData.validReadings = validReadings;
+            currentHourData.batteryPercent = Math.max(0, readings.latestBattery(hourStart, hourEnd));
+            currentHourData.isCharging = readings.latestCharging(hourStart, hourEnd);
+        }
+        return currentHourData;
+    }
 
+    /**
+     * Empty current hour data when no data is available
+     */
+    private CurrentHourData createEmptyCurrentHourData() {
         CurrentHourData emptyData = new CurrentHourData();
-        emptyData.hour = currentHourStr;
+        emptyData.hour = DateKeys.hourKey(DateKeys.currentHour());
         emptyData.avgTotalWatts = 0.0;
         emptyData.avgArea1Watts = 0.0;
         emptyData.avgArea2Watts = 0.0;
@@ -305,232 +564,46 @@ public class RealTimeDataProcessor {
         emptyData.fallbackMessage = "No data available for current period";
 
         Log.d(TAG, "Created empty current hour data for display");
-        callback.onCurrentHourProcessed(emptyData);
+        return emptyData;
     }
 
     /**
-     * Process current hour log data - Updated for new log structure
+     * Per-area peaks, peak times and fluctuations of the day from the peak tracker
      */
-    private CurrentHourData processCurrentHourLogs(DataSnapshot logs, String hour, double voltageReference) {
-        CurrentHourData currentHourData = new CurrentHourData();
-        currentHourData.hour = hour;
-
-        int validReadings = 0;
-        double totalWatts = 0.0;
-        double area1Watts = 0.0;
-        double area2Watts = 0.0;
-        double area3Watts = 0.0;
-        double maxWatts = 0.0;
-
-        // Battery status from latest reading
-        int latestBatteryPercent = 0;
-        boolean latestChargingStatus = false;
-
-        for (DataSnapshot logSnapshot : logs.getChildren()) {
-            try {
-                // Each log entry is a timestamp containing the data object
-                for (DataSnapshot timestampSnapshot : logSnapshot.getChildren()) {
-                    Map<String, Object> logData = (Map<String, Object>) timestampSnapshot.getValue();
-                    if (logData != null) {
-                        // Extract current values from new log structure
-                        Double current1 = getDoubleValue(logData.get("C1_A")); // Previously A1
-                        Double current2 = getDoubleValue(logData.get("C2_A")); // Previously A2
-                        Double current3 = getDoubleValue(logData.get("C3_A")); // Previously A3
-
-                        if (current1 != null && current2 != null && current3 != null) {
-                            // Calculate watts: P = V * I (same calculation as before)
-                            double area1Power = voltageReference * current1;
-                            double area2Power = voltageReference * current2;
-                            double area3Power = voltageReference * current3;
-                            double totalPower = area1Power + area2Power + area3Power;
-
-                            area1Watts += area1Power;
-                            area2Watts += area2Power;
-                            area3Watts += area3Power;
-                            totalWatts += totalPower;
-                            maxWatts = Math.max(maxWatts, totalPower);
-
-                            validReadings++;
-
-                            // Update battery status from latest reading
-                            Double batteryPercent = getDoubleValue(logData.get("vbat_percent"));
-                            Boolean charging = getBooleanValue(logData.get("charging"));
-
-                            if (batteryPercent != null) {
-                                latestBatteryPercent = batteryPercent.intValue();
-                            }
-                            if (charging != null) {
-                                latestChargingStatus = charging;
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                Log.w(TAG, "Error parsing log entry: " + e.getMessage());
-            }
+    private void applyDailyPeaks(RealTimeData realTimeData, String date, double voltageReference) {
+        DailyPeaks dayPeaks = peaks.peaksFor(date);
+        if (dayPeaks == null || dayPeaks.readings == 0) {
+            Log.w(TAG, "No log readings counted for " + date + ", using proportional fallback");
+            useProportionalPeakDistribution(realTimeData);
+            return;
         }
 
-        if (validReadings > 0) {
-            // Calculate averages (same logic as before)
-            currentHourData.avgTotalWatts = totalWatts / validReadings;
-            currentHourData.avgArea1Watts = area1Watts / validReadings;
-            currentHourData.avgArea2Watts = area2Watts / validReadings;
-            currentHourData.avgArea3Watts = area3Watts / validReadings;
-            currentHourData.peakWatts = maxWatts;
-            currentHourData.validReadings = validReadings;
-            currentHourData.batteryPercent = latestBatteryPercent;
-            currentHourData.isCharging = latestChargingStatus;
-
-            // Calculate partial kWh based on elapsed time in current hour
-            Calendar now = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-            int minutesElapsed = now.get(Calendar.MINUTE);
-            double hourProgress = minutesElapsed / 60.0;
-
-            // Use actual reading count instead of fixed intervals
-            currentHourData.partialKwh = (currentHourData.avgTotalWatts / 1000.0) * hourProgress;
-
-            Log.d(TAG, String.format("Current hour processed: %d readings, %.2fW avg, %.3f kWh partial, %d%% battery",
-                    validReadings, currentHourData.avgTotalWatts, currentHourData.partialKwh, latestBatteryPercent));
-        } else {
-            Log.w(TAG, "No valid log data found for current hour");
-        }
-
-        return currentHourData;
+        applyAreaPeak(realTimeData.area1Data, dayPeaks.area1PeakAmps, dayPeaks.area1PeakTimeMs,
+                dayPeaks.area1FluctuationCount, dayPeaks.area1MaxFluctuation, voltageReference);
+        applyAreaPeak(realTimeData.area2Data, dayPeaks.area2PeakAmps, dayPeaks.area2PeakTimeMs,
+                dayPeaks.area2FluctuationCount, dayPeaks.area2MaxFluctuation, voltageReference);
+        applyAreaPeak(realTimeData.area3Data, dayPeaks.area3PeakAmps, dayPeaks.area3PeakTimeMs,
+                dayPeaks.area3FluctuationCount, dayPeaks.area3MaxFluctuation, voltageReference);
+
+        Log.d(TAG, String.format("Real peaks from %d readings - A1: %.1fW@%s, A2: %.1fW@%s, A3: %.1fW@%s",
+                dayPeaks.readings, realTimeData.area1Data.peakWatts, realTimeData.area1Data.peakTime,
+                realTimeData.area2Data.peakWatts, realTimeData.area2Data.peakTime,
+                realTimeData.area3Data.peakWatts, realTimeData.area3Data.peakTime));
     }
 
-    /**
-     * Enhanced method to calculate REAL area peaks from log data
-     */
-    private void calculateRealAreaPeaksFromLogData(RealTimeData realTimeData, String date,
-                                                   double voltageReference, DataProcessingCallback callback) {
-        Log.d(TAG, "Calculating real area peaks from log data for date: " + date);
-
-        // Use logs path instead of sensor_readings
-        DatabaseReference logDataRef = databaseRef.child("logs");
-
-        // Get today's log data using timestamp-based queries
-        String startTime = date + "T00:00:00";
-        String endTime = date + "T23:59:59";
-
-        logDataRef.orderByKey()
-                .startAt(startTime)
-                .endAt(endTime)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (!snapshot.exists()) {
-                            Log.w(TAG, "No log data found, using proportional fallback");
-                            useProportionalPeakDistribution(realTimeData);
-                            callback.onDataProcessed(realTimeData);
-                            return;
-                        }
-
-                        double maxArea1 = 0, maxArea2 = 0, maxArea3 = 0;
-                        String area1PeakTime = "--:--", area2PeakTime = "--:--", area3PeakTime = "--:--";
-                        int totalReadings = 0;
-
-                        // Track fluctuations
-                        boolean area1HasFluctuation = false, area2HasFluctuation = false, area3HasFluctuation = false;
-                        double area1FluctValue = 0, area2FluctValue = 0, area3FluctValue = 0;
-
-                        for (DataSnapshot logSnapshot : snapshot.getChildren()) {
-                            try {
-                                String timestamp = logSnapshot.getKey();
-
-                                // Process each data entry within the timestamp
-                                for (DataSnapshot timestampSnapshot : logSnapshot.getChildren()) {
-                                    Map<String, Object> logData = (Map<String, Object>) timestampSnapshot.getValue();
-                                    if (logData != null) {
-                                        Double current1 = getDoubleValue(logData.get("C1_A"));
-                                        Double current2 = getDoubleValue(logData.get("C2_A"));
-                                        Double current3 = getDoubleValue(logData.get("C3_A"));
-
-                                        // Check for fluctuations
-                                        Double fluct1 = getDoubleValue(logData.get("fluct1"));
-                                        Double fluct2 = getDoubleValue(logData.get("fluct2"));
-                                        Double fluct3 = getDoubleValue(logData.get("fluct3"));
-
-                                        if (current1 != null && current2 != null && current3 != null) {
-                                            // Calculate power: P = V * I
-                                            double area1Power = voltageReference * current1;
-                                            double area2Power = voltageReference * current2;
-                                            double area3Power = voltageReference * current3;
-
-                                            String timeOnly = timestamp != null && timestamp.length() >= 16 ?
-                                                    timestamp.substring(11, 16) : "--:--";
-
-                                            // Track peak values and times
-                                            if (area1Power > maxArea1) {
-                                                maxArea1 = area1Power;
-                                                area1PeakTime = timeOnly;
-                                            }
-                                            if (area2Power > maxArea2) {
-                                                maxArea2 = area2Power;
-                                                area2PeakTime = timeOnly;
-                                            }
-                                            if (area3Power > maxArea3) {
-                                                maxArea3 = area3Power;
-                                                area3PeakTime = timeOnly;
-                                            }
-
-                                            // Track fluctuations
-                                            if (fluct1 != null && fluct1 > 0) {
-                                                area1HasFluctuation = true;
-                                                area1FluctValue = Math.max(area1FluctValue, fluct1);
-                                            }
-                                            if (fluct2 != null && fluct2 > 0) {
-                                                area2HasFluctuation = true;
-                                                area2FluctValue = Math.max(area2FluctValue, fluct2);
-                                            }
-                                            if (fluct3 != null && fluct3 > 0) {
-                                                area3HasFluctuation = true;
-                                                area3FluctValue = Math.max(area3FluctValue, fluct3);
-                                            }
-
-                                            totalReadings++;
-                                        }
-                                    }
-                                }
-                            } catch (Exception e) {
-                                Log.w(TAG, "Error processing log data: " + e.getMessage());
-                            }
-                        }
-
-                        // Update real-time data with calculated peaks and fluctuations
-                        realTimeData.area1Data.peakWatts = maxArea1;
-                        realTimeData.area1Data.peakTime = area1PeakTime;
-                        realTimeData.area1Data.hasFluctuation = area1HasFluctuation;
-                        realTimeData.area1Data.fluctuationValue = area1FluctValue;
-
-                        realTimeData.area2Data.peakWatts = maxArea2;
-                        realTimeData.area2Data.peakTime = area2PeakTime;
-                        realTimeData.area2Data.hasFluctuation = area2HasFluctuation;
-                        realTimeData.area2Data.fluctuationValue = area2FluctValue;
-
-                        realTimeData.area3Data.peakWatts = maxArea3;
-                        realTimeData.area3Data.peakTime = area3PeakTime;
-                        realTimeData.area3Data.hasFluctuation = area3HasFluctuation;
-                        realTimeData.area3Data.fluctuationValue = area3FluctValue;
-
-                        Log.d(TAG, String.format("Real peaks calculated from %d log entries - A1: %.1fW@%s, A2: %.1fW@%s, A3: %.1fW@%s",
-                                totalReadings, maxArea1, area1PeakTime, maxArea2, area2PeakTime, maxArea3, area3PeakTime));
-
-                        callback.onDataProcessed(realTimeData);
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error getting log data for peaks: " + error.getMessage());
-                        useProportionalPeakDistribution(realTimeData);
-                        callback.onDataProcessed(realTimeData);
-                    }
-                });
+    private void applyAreaPeak(AreaData areaData, double peakAmps, long peakTimeMs,
+                               int fluctuationCount, double maxFluctuation, double voltageReference) {
+        areaData.peakWatts = voltageReference * peakAmps;
+        areaData.peakTime = areaData.peakWatts > 0 ? DateKeys.timeLabel(peakTimeMs) : "--:--";
+        areaData.hasFluctuation = fluctuationCount > 0;
+        areaData.fluctuationValue = maxFluctuation;
+        areaData.fluctuationCount = fluctuationCount;
     }
 
     /**
      * Build complete real-time data combining hourly summaries and current hour
      */
-    private RealTimeData buildCompleteRealTimeData(DataSnapshot hourlySnapshot, CurrentHourData currentHourData,
+    private RealTimeData buildCompleteRealTimeData(DataNode hourlySnapshot, CurrentHourData currentHourData,
                                                    double electricityRate, String date) {
         RealTimeData realTimeData = new RealTimeData();
         realTimeData.date = date;
@@ -546,7 +619,7 @@ public class RealTimeDataProcessor {
 
         // Process completed hours from hourly summaries
         if (hourlySnapshot.exists()) {
-            for (DataSnapshot hourSnapshot : hourlySnapshot.getChildren()) {
+            for (DataNode hourSnapshot : hourlySnapshot.getChildren()) {
                 try {
                     Map<String, Object> hourData = (Map<String, Object>) hourSnapshot.getValue();
                     if (hourData != null) {
@@ -582,9 +655,9 @@ public class RealTimeDataProcessor {
 
         // Add current hour partial data
         totalDailyConsumption += currentHourData.partialKwh;
-        totalArea1Consumption += (currentHourData.avgArea1Watts / 1000.0) * getCurrentHourProgress();
-        totalArea2Consumption += (currentHourData.avgArea2Watts / 1000.0) * getCurrentHourProgress();
-        totalArea3Consumption += (currentHourData.avgArea3Watts / 1000.0) * getCurrentHourProgress();
+        totalArea1Consumption += currentHourData.partialArea1Kwh;
+        totalArea2Consumption += currentHourData.partialArea2Kwh;
+        totalArea3Consumption += currentHourData.partialArea3Kwh;
 
         if (currentHourData.peakWatts > maxPeakWatts) {
             maxPeakWatts = currentHourData.peakWatts;
@@ -637,15 +710,6 @@ public class RealTimeDataProcessor {
         }
     }
 
-    /**
-     * Helper method to get current hour progress (0.0 to 1.0)
-     */
-    private double getCurrentHourProgress() {
-        Calendar now = Calendar.getInstance(PHILIPPINE_TIMEZONE);
-        int minutes = now.get(Calendar.MINUTE);
-        return minutes / 60.0;
-    }
-
     /**
      * Helper method to safely extract Double values
      */
@@ -679,6 +743,43 @@ public class RealTimeDataProcessor {
         return null;
     }
 
+    /**
+     * Number as a primitive double, NaN when missing or not numeric
+     */
+    private static double asDouble(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Device time of an entry when it carries one close to its bucket's time, else the
+     * bucket time. Second-based values are scaled to milliseconds.
+     */
+    private static long readingTimeMs(DataNode entry, long bucketTimeMs) {
+        for (String name : TIMESTAMP_FIELDS) {
+            double value = asDouble(entry.child(name).getValue());
+            if (Double.isNaN(value)) continue;
+            long timeMs = value < 100_000_000_000.0 ? (long) (value * 1000.0) : (long) value;
+            return Math.abs(timeMs - bucketTimeMs) <= DateKeys.HOUR_MS ? timeMs : bucketTimeMs;
+        }
+        return bucketTimeMs;
+    }
+
+    /**
+     * Value of the ESP32 field name, or of the lower-case spelling older code used
+     */
+    private static Object field(DataNode entry, String name, String altName) {
+        Object value = entry.child(name).getValue();
+        return value != null ? value : entry.child(altName).getValue();
+    }
+
     /**
      * Helper method to safely parse double values (legacy)
      */
@@ -694,21 +795,6 @@ public class RealTimeDataProcessor {
      * Main entry point for processing real-time data
      */
     public void processRealTimeData(String date, DataProcessingCallback callback) {
-        loadSystemSettingsAndProcess(date, new DataProcessingCallback() {
-            @Override
-            public void onSettingsLoaded(double electricityRate, double voltageReference) {
-                processHourlyDataWithCurrentHour(date, electricityRate, voltageReference, callback);
-            }
-
-            @Override
-            public void onDataProcessed(RealTimeData data) {
-                callback.onDataProcessed(data);
-            }
-
-            @Override
-            public void onError(String error) {
-                callback.onError(error);
-            }
-        });
+        new RefreshJoin(date, callback).start();
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.sampleiwatts.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameBudgetMonitorTest {
+    private static final long MS = 1_000_000L;
+    // Choreographer frame times are monotonic nanos, never zero in practice
+    private static final long T0 = 5_000L * MS;
+
+    private FrameBudgetMonitor monitor;
+
+    @Before
+    public void setUp() {
+        monitor = new FrameBudgetMonitor("Test load");
+    }
+
+    @Test
+    public void firstFrame_onlyStartsTheClock() {
+        monitor.recordFrame(T0);
+        assertEquals(0, monitor.frameCount());
+        assertEquals(0, monitor.overBudgetCount());
+        assertEquals(0.0, monitor.worstFrameMs(), 0.0);
+    }
+
+    @Test
+    public void framesWithinBudget_notCounted() {
+        monitor.recordFrame(T0);
+        monitor.recordFrame(T0 + 16 * MS);
+        monitor.recordFrame(T0 + 32 * MS);
+        assertEquals(2, monitor.frameCount());
+        assertEquals(0, monitor.overBudgetCount());
+        assertEquals(16.0, monitor.worstFrameMs(), 1e-9);
+    }
+
+    @Test
+    public void longFrames_countedWithWorst() {
+        monitor.recordFrame(T0);
+        monitor.recordFrame(T0 + 16 * MS);
+        // A 50 ms stall, then a 20 ms frame
+        monitor.recordFrame(T0 + 66 * MS);
+        monitor.recordFrame(T0 + 86 * MS);
+        assertEquals(3, monitor.frameCount());
+        assertEquals(2, monitor.overBudgetCount());
+        assertEquals(50.0, monitor.worstFrameMs(), 1e-9);
+    }
+
+    @Test
+    public void exactlyOneBudget_isNotOver() {
+        monitor.recordFrame(T0);
+        monitor.recordFrame(T0 + 16_666_667L);
+        assertEquals(0, monitor.overBudgetCount());
+        monitor.recordFrame(T0 + 16_666_667L + 16_666_668L);
+        assertEquals(1, monitor.overBudgetCount());
+    }
+}
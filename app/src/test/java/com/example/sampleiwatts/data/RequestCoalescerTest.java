@@ -0,0 +1,159 @@
+package com.example.sampleiwatts.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+    private RequestCoalescer<String, Integer> coalescer;
+    // Completion handles of the fetches started so far, in order
+    private final List<RequestCoalescer.Callback<Integer>> pending = new ArrayList<>();
+    private final List<String> fetchedKeys = new ArrayList<>();
+    private final RequestCoalescer.Fetcher<String, Integer> fetcher = (key, done) -> {
+        fetchedKeys.add(key);
+        pending.add(done);
+    };
+
+    @Before
+    public void setUp() {
+        coalescer = new RequestCoalescer<>();
+    }
+
+    @Test
+    public void concurrentRequests_shareOneFetchAndResult() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        Recorder third = new Recorder();
+        coalescer.request("2025-03-01..2025-03-10", first, fetcher);
+        coalescer.request("2025-03-01..2025-03-10", second, fetcher);
+        coalescer.request("2025-03-01..2025-03-10", third, fetcher);
+        assertEquals(1, fetchedKeys.size());
+        assertEquals(1, coalescer.inFlightCount());
+        assertTrue(first.results.isEmpty());
+
+        pending.get(0).onResult(42);
+        assertEquals(List.of(42), first.results);
+        assertEquals(List.of(42), second.results);
+        assertEquals(List.of(42), third.results);
+        assertTrue(first.errors.isEmpty());
+    }
+
+    @Test
+    public void differentKeys_fetchSeparately() {
+        Recorder march = new Recorder();
+        Recorder april = new Recorder();
+        coalescer.request("march", march, fetcher);
+        coalescer.request("april", april, fetcher);
+        assertEquals(List.of("march", "april"), fetchedKeys);
+        assertEquals(2, coalescer.inFlightCount());
+
+        pending.get(1).onResult(4);
+        assertEquals(List.of(4), april.results);
+        assertTrue(march.results.isEmpty());
+        assertEquals(1, coalescer.inFlightCount());
+    }
+
+    @Test
+    public void error_fansOutToEveryWaiter() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        coalescer.request("range", first, fetcher);
+        coalescer.request("range", second, fetcher);
+
+        pending.get(0).onError("Permission denied");
+        assertEquals(List.of("Permission denied"), first.errors);
+        assertEquals(List.of("Permission denied"), second.errors);
+        assertTrue(first.results.isEmpty());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    public void keyCleared_afterDelivery() {
+        coalescer.request("range", new Recorder(), fetcher);
+        pending.get(0).onResult(1);
+        assertEquals(0, coalescer.inFlightCount());
+
+        // The next request goes to the source again
+        Recorder later = new Recorder();
+        coalescer.request("range", later, fetcher);
+        assertEquals(2, fetchedKeys.size());
+        pending.get(1).onResult(2);
+        assertEquals(List.of(2), later.results);
+    }
+
+    @Test
+    public void lateSecondDelivery_isIgnored() {
+        Recorder caller = new Recorder();
+        coalescer.request("range", caller, fetcher);
+        pending.get(0).onResult(1);
+        pending.get(0).onResult(2);
+        pending.get(0).onError("late");
+        assertEquals(List.of(1), caller.results);
+        assertTrue(caller.errors.isEmpty());
+    }
+
+    @Test
+    public void synchronousResult_deliveredBeforeRequestReturns() {
+        Recorder caller = new Recorder();
+        coalescer.request("range", caller, (key, done) -> done.onResult(7));
+        assertEquals(List.of(7), caller.results);
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    public void throwingFetcher_failsCallerAndClearsKey() {
+        Recorder caller = new Recorder();
+        coalescer.request("range", caller, (key, done) -> {
+            throw new IllegalStateException("Database not initialized");
+        });
+        assertEquals(List.of("Database not initialized"), caller.errors);
+        assertEquals(0, coalescer.inFlightCount());
+
+        // A later caller is answered instead of queued behind the failed fetch
+        Recorder later = new Recorder();
+        coalescer.request("range", later, fetcher);
+        assertEquals(1, fetchedKeys.size());
+        pending.get(0).onResult(3);
+        assertEquals(List.of(3), later.results);
+    }
+
+    @Test
+    public void throwingFetcher_withoutMessage_reportsException() {
+        Recorder caller = new Recorder();
+        coalescer.request("range", caller, (key, done) -> {
+            throw new NullPointerException();
+        });
+        assertEquals(List.of("java.lang.NullPointerException"), caller.errors);
+    }
+
+    @Test
+    public void fetcherThrowingAfterCallback_deliversOnce() {
+        Recorder caller = new Recorder();
+        coalescer.request("range", caller, (key, done) -> {
+            done.onResult(5);
+            throw new IllegalStateException("after");
+        });
+        assertEquals(List.of(5), caller.results);
+        assertTrue(caller.errors.isEmpty());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    private static class Recorder implements RequestCoalescer.Callback<Integer> {
+        final List<Integer> results = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onResult(Integer result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onError(String error) {
+            errors.add(error);
+        }
+    }
+}
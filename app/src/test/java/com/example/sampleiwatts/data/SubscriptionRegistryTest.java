@@ -0,0 +1,118 @@
+package com.example.sampleiwatts.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SubscriptionRegistryTest {
+    // CostEstimationActivity: filter dates, energy summary, cost settings, rate, day cost,
+    // three area names and the daily chart range listener are attached once each
+    private static final int FIXED_LISTENERS = 9;
+    // ...and each range change swaps these inner listeners
+    private static final String[] RANGE_SLOTS = {
+            "energy_summary_hourly", "daily_chart_settings", "daily_chart_summaries"
+    };
+
+    private SubscriptionRegistry registry;
+    private final List<FakeSubscription> attached = new ArrayList<>();
+    private int globalBefore;
+
+    @Before
+    public void setUp() {
+        globalBefore = SubscriptionRegistry.globalLiveCount();
+        registry = new SubscriptionRegistry("CostEstimationActivity");
+        for (int i = 0; i < FIXED_LISTENERS; i++) {
+            registry.add(subscribe());
+        }
+    }
+
+    @Test
+    public void rangeChanges_keepLiveCountFixed() {
+        int steady = FIXED_LISTENERS + RANGE_SLOTS.length;
+        for (int change = 0; change < 50; change++) {
+            changeRange();
+            assertEquals(steady, registry.liveCount());
+            assertEquals(globalBefore + steady, SubscriptionRegistry.globalLiveCount());
+        }
+        // Every listener but the current ones was detached
+        assertEquals(50 * RANGE_SLOTS.length - RANGE_SLOTS.length, removedCount());
+    }
+
+    @Test
+    public void replace_removesPreviousSubscriptionOnce() {
+        FakeSubscription first = registry.replace("energy_summary_hourly", subscribe());
+        FakeSubscription second = registry.replace("energy_summary_hourly", subscribe());
+        registry.replace("energy_summary_hourly", subscribe());
+
+        assertEquals(1, first.removeCalls);
+        assertEquals(1, second.removeCalls);
+        assertEquals(FIXED_LISTENERS + 1, registry.liveCount());
+    }
+
+    @Test
+    public void remove_emptySlot_isNoOp() {
+        registry.remove("daily_chart_summaries");
+        assertEquals(FIXED_LISTENERS, registry.liveCount());
+        assertEquals(globalBefore + FIXED_LISTENERS, SubscriptionRegistry.globalLiveCount());
+    }
+
+    @Test
+    public void close_removesEverything() {
+        changeRange();
+        changeRange();
+        registry.close();
+
+        assertEquals(0, registry.liveCount());
+        assertEquals(globalBefore, SubscriptionRegistry.globalLiveCount());
+        for (FakeSubscription subscription : attached) {
+            assertEquals(1, subscription.removeCalls);
+        }
+    }
+
+    @Test
+    public void close_thenLateCallback_doesNotLeak() {
+        registry.close();
+
+        // A range callback that arrives after the screen is gone
+        FakeSubscription late = registry.replace("energy_summary_hourly", subscribe());
+        FakeSubscription lateFixed = registry.add(subscribe());
+
+        assertEquals(1, late.removeCalls);
+        assertEquals(1, lateFixed.removeCalls);
+        assertEquals(0, registry.liveCount());
+        assertEquals(globalBefore, SubscriptionRegistry.globalLiveCount());
+    }
+
+    private void changeRange() {
+        for (String slot : RANGE_SLOTS) {
+            registry.replace(slot, subscribe());
+        }
+    }
+
+    private FakeSubscription subscribe() {
+        FakeSubscription subscription = new FakeSubscription();
+        attached.add(subscription);
+        return subscription;
+    }
+
+    private int removedCount() {
+        int removed = 0;
+        for (FakeSubscription subscription : attached) {
+            if (subscription.removeCalls > 0) removed++;
+        }
+        return removed;
+    }
+
+    private static class FakeSubscription implements SubscriptionRegistry.Subscription {
+        int removeCalls = 0;
+
+        @Override
+        public void remove() {
+            removeCalls++;
+        }
+    }
+}
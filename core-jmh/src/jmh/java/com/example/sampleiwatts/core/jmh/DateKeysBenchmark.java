@@ -0,0 +1,94 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.DateKeys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass over the day keys of a summary listing: keep the days inside a range and
+ * build their MM-dd chart labels. The *Format variants are what the loops did before
+ * DateKeys, a parse and Date comparison per child and a new SimpleDateFormat per label.
+ * Run with -prof gc to see the allocation difference as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateKeysBenchmark {
+    private static final TimeZone PHILIPPINE_TIMEZONE = TimeZone.getTimeZone("Asia/Manila");
+
+    @Param({"31", "365", "1095"})
+    public int days;
+
+    private String[] keys;
+    private String rangeStart;
+    private String rangeEnd;
+    private SimpleDateFormat dateFormatter;
+
+    @Setup
+    public void setUp() {
+        List<String> list = Workloads.dayKeys(days);
+        keys = list.toArray(new String[0]);
+        // Middle half of the listing
+        rangeStart = keys[days / 4];
+        rangeEnd = keys[days - 1 - days / 4];
+        dateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        dateFormatter.setTimeZone(PHILIPPINE_TIMEZONE);
+    }
+
+    @Benchmark
+    public int filterFormat() throws ParseException {
+        Date start = dateFormatter.parse(rangeStart);
+        Date end = dateFormatter.parse(rangeEnd);
+        int inRange = 0;
+        for (String key : keys) {
+            Date day = dateFormatter.parse(key);
+            if (!day.before(start) && !day.after(end)) inRange++;
+        }
+        return inRange;
+    }
+
+    @Benchmark
+    public int filterDateKeys() {
+        int start = DateKeys.dayOrdinal(rangeStart);
+        int end = DateKeys.dayOrdinal(rangeEnd);
+        int inRange = 0;
+        for (String key : keys) {
+            int day = DateKeys.dayOrdinal(key);
+            if (day >= start && day <= end) inRange++;
+        }
+        return inRange;
+    }
+
+    @Benchmark
+    public void labelsFormat(Blackhole bh) throws ParseException {
+        for (String key : keys) {
+            Date day = dateFormatter.parse(key);
+            SimpleDateFormat labelFormat = new SimpleDateFormat("MM-dd", Locale.getDefault());
+            labelFormat.setTimeZone(PHILIPPINE_TIMEZONE);
+            bh.consume(labelFormat.format(day));
+        }
+    }
+
+    @Benchmark
+    public void labelsDateKeys(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(DateKeys.monthDayLabel(DateKeys.dayOrdinal(key)));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.Downsampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily series of growing length prepared for a 1080 px wide chart. The chart library
+ * cannot run here, so drawing is stood in for by the per-point pixel transform and line
+ * segments it performs: with downsampling that part stays flat as the range grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DownsampleBenchmark {
+    private static final int CHART_WIDTH_PX = 1080;
+    private static final int MAX_POINTS = CHART_WIDTH_PX / 4;
+
+    @Param({"30", "365", "1095", "3650"})
+    public int days;
+
+    private double[] dailyKwh;
+    private float[] pixels;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3L);
+        dailyKwh = new double[days];
+        for (int i = 0; i < days; i++) {
+            dailyKwh[i] = 12.0 + 4.0 * Math.sin(i / 30.0) + random.nextDouble() * 3.0;
+        }
+        pixels = new float[days * 4];
+    }
+
+    @Benchmark
+    public float drawAllPoints() {
+        int[] all = new int[days];
+        for (int i = 0; i < days; i++) {
+            all[i] = i;
+        }
+        return draw(all);
+    }
+
+    @Benchmark
+    public float drawDownsampled() {
+        return draw(Downsampler.lttb(dailyKwh, MAX_POINTS));
+    }
+
+    // Value-to-pixel transform plus one line segment per pair of points
+    private float draw(int[] indices) {
+        float scaleX = CHART_WIDTH_PX / (float) days;
+        float scaleY = -20f;
+        float checksum = 0f;
+        for (int k = 0; k + 1 < indices.length; k++) {
+            int i = indices[k];
+            int j = indices[k + 1];
+            pixels[k * 4] = i * scaleX;
+            pixels[k * 4 + 1] = (float) dailyKwh[i] * scaleY + 600f;
+            pixels[k * 4 + 2] = j * scaleX;
+            pixels[k * 4 + 3] = (float) dailyKwh[j] * scaleY + 600f;
+            checksum += pixels[k * 4 + 3] - pixels[k * 4 + 1];
+        }
+        return checksum;
+    }
+}
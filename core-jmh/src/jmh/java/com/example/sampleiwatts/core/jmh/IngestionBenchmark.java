@@ -0,0 +1,58 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.HourAccumulator;
+import com.example.sampleiwatts.core.ReadingRingBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-reading cost of folding one hour of ESP32 logs (one reading per second), into
+ * running sums or into the ring buffer followed by the real-time screen's hour queries
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IngestionBenchmark {
+    private static final int READINGS_PER_HOUR = 3600;
+
+    private double[] currents;
+    private ReadingRingBuffer ring;
+
+    @Setup
+    public void setUp() {
+        currents = Workloads.currents(READINGS_PER_HOUR, 42L);
+        ring = new ReadingRingBuffer(25 * READINGS_PER_HOUR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS_PER_HOUR)
+    public double ingestHour() {
+        HourAccumulator accumulator = new HourAccumulator(220.0);
+        for (int i = 0; i < currents.length; i += 3) {
+            accumulator.add(currents[i], currents[i + 1], currents[i + 2]);
+            accumulator.setBattery(87.0, Boolean.FALSE);
+        }
+        return accumulator.partialKwh(0.5) + accumulator.getPeakWatts();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS_PER_HOUR)
+    public double ingestHourIntoRing() {
+        ring.clear();
+        long time = 0L;
+        for (int i = 0; i < currents.length; i += 3) {
+            ring.add(time, currents[i], currents[i + 1], currents[i + 2], 87, Boolean.FALSE, 0);
+            time += 1000L;
+        }
+        return 220.0 * (ring.avg(ReadingRingBuffer.TOTAL, 0L, time) + ring.max(ReadingRingBuffer.TOTAL, 0L, time));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.DailyPrefixIndex;
+import com.example.sampleiwatts.core.DateRange;
+import com.example.sampleiwatts.core.HourlySummary;
+import com.example.sampleiwatts.core.RangeTotals;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals of a whole range of days: DailyPrefixIndex lookup against summing the
+ * hourly rows, which is what the screens did before the index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RangeTotalsBenchmark {
+    @Param({"1", "90", "1095"})
+    public int days;
+
+    private List<HourlySummary> hourly;
+    private DailyPrefixIndex index;
+    private DateRange range;
+
+    @Setup
+    public void setUp() {
+        List<String> keys = Workloads.dayKeys(days);
+        hourly = Workloads.hourly(keys, 11L);
+        index = new DailyPrefixIndex();
+        for (int d = 0; d < keys.size(); d++) {
+            double kwh = 0, cost = 0, a1 = 0, a2 = 0, a3 = 0;
+            for (HourlySummary h : hourly.subList(d * 24, d * 24 + 24)) {
+                kwh += h.totalKwh;
+                cost += h.totalCost;
+                a1 += h.area1Kwh;
+                a2 += h.area2Kwh;
+                a3 += h.area3Kwh;
+            }
+            index.append(keys.get(d), kwh, cost, a1, a2, a3);
+        }
+        range = new DateRange(keys.get(0), keys.get(keys.size() - 1));
+    }
+
+    @Benchmark
+    public RangeTotals prefixIndex() {
+        return index.totals(range);
+    }
+
+    @Benchmark
+    public RangeTotals sumHourly() {
+        RangeTotals totals = new RangeTotals();
+        String lastDate = null;
+        for (HourlySummary h : hourly) {
+            if (!range.contains(h.date)) continue;
+            if (!h.date.equals(lastDate)) {
+                totals.dayCount++;
+                lastDate = h.date;
+            }
+            totals.totalKwh += h.totalKwh;
+            totals.totalCost += h.totalCost;
+            totals.area1Kwh += h.area1Kwh;
+            totals.area2Kwh += h.area2Kwh;
+            totals.area3Kwh += h.area3Kwh;
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.EnergyAggregate;
+import com.example.sampleiwatts.core.EnergyAggregator;
+import com.example.sampleiwatts.core.HourlySummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hourly-to-daily rollup: one EnergyAggregator pass over days * 24 hourly rows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RollupBenchmark {
+    @Param({"1", "90", "1095"})
+    public int days;
+
+    private List<HourlySummary> hourly;
+
+    @Setup
+    public void setUp() {
+        hourly = Workloads.hourly(Workloads.dayKeys(days), 7L);
+    }
+
+    @Benchmark
+    public EnergyAggregate aggregate() {
+        return EnergyAggregator.aggregate(hourly);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.sampleiwatts.core.jmh;
+
+import com.example.sampleiwatts.core.HourlySummary;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Deterministic synthetic inputs shared by the benchmarks
+ */
+final class Workloads {
+    static final String FIRST_DAY = "2023-01-01";
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private Workloads() { }
+
+    /**
+     * Consecutive yyyy-MM-dd keys starting at FIRST_DAY
+     */
+    static List<String> dayKeys(int days) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(UTC);
+        Calendar day = Calendar.getInstance(UTC);
+        day.clear();
+        day.set(2023, Calendar.JANUARY, 1);
+        List<String> keys = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            keys.add(format.format(day.getTime()));
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return keys;
+    }
+
+    /**
+     * 24 hourly rows per day in date then hour order, as EnergyRepository returns them
+     */
+    static List<HourlySummary> hourly(List<String> dayKeys, long seed) {
+        Random random = new Random(seed);
+        List<HourlySummary> rows = new ArrayList<>(dayKeys.size() * 24);
+        for (String date : dayKeys) {
+            for (int hour = 0; hour < 24; hour++) {
+                HourlySummary h = new HourlySummary();
+                h.date = date;
+                h.hour = String.format(Locale.US, "%02d", hour);
+                h.area1Kwh = random.nextDouble() * 0.4;
+                h.area2Kwh = random.nextDouble() * 0.3;
+                h.area3Kwh = random.nextDouble() * 0.2;
+                h.totalKwh = h.area1Kwh + h.area2Kwh + h.area3Kwh;
+                h.totalCost = h.totalKwh * 12.0;
+                h.avgWatts = h.totalKwh * 1000.0;
+                h.peakWatts = h.avgWatts * (1.2 + random.nextDouble());
+                rows.add(h);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Area currents in amps, three per reading
+     */
+    static double[] currents(int readings, long seed) {
+        Random random = new Random(seed);
+        double[] currents = new double[readings * 3];
+        for (int i = 0; i < currents.length; i++) {
+            currents[i] = random.nextDouble() * 5.0;
+        }
+        return currents;
+    }
+}
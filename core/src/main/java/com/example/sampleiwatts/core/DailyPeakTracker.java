@@ -0,0 +1,93 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Keeps DailyPeaks up to date one log reading at a time, so the day's per-area peaks
+ * and fluctuation counts are read in O(1) at any hour instead of by rescanning the
+ * day's logs.
+ *
+ * Readings are identified by their bucketKey/pushKey log key and counted at most
+ * once: a reading whose key is not after the last one counted is ignored, which lets
+ * a tracker restored from storage be fed an overlapping range of logs. The first
+ * reading of a later day starts a new day; readings of an earlier day are ignored.
+ */
+public class DailyPeakTracker {
+    private DailyPeaks peaks = null;
+    private int day = DateKeys.INVALID;
+
+    /**
+     * Count one reading: the three area currents in amps and the Fluct1..3 values,
+     * where anything above 0 is a fluctuation. Returns false if it was ignored.
+     */
+    public synchronized boolean add(long timeMs, String key, double current1, double current2, double current3,
+                                    double fluct1, double fluct2, double fluct3) {
+        int readingDay = DateKeys.dayOrdinalAt(timeMs);
+        if (peaks != null && readingDay < day) return false;
+        if (peaks == null || readingDay > day) {
+            peaks = new DailyPeaks();
+            peaks.date = DateKeys.dayKey(readingDay);
+            day = readingDay;
+        } else if (peaks.lastKey != null && key.compareTo(peaks.lastKey) <= 0) {
+            return false;
+        }
+
+        DailyPeaks p = peaks;
+        p.lastKey = key;
+        p.readings++;
+        if (p.area1PeakTimeMs == Long.MIN_VALUE || current1 > p.area1PeakAmps) {
+            p.area1PeakAmps = current1;
+            p.area1PeakTimeMs = timeMs;
+        }
+        if (p.area2PeakTimeMs == Long.MIN_VALUE || current2 > p.area2PeakAmps) {
+            p.area2PeakAmps = current2;
+            p.area2PeakTimeMs = timeMs;
+        }
+        if (p.area3PeakTimeMs == Long.MIN_VALUE || current3 > p.area3PeakAmps) {
+            p.area3PeakAmps = current3;
+            p.area3PeakTimeMs = timeMs;
+        }
+        if (fluct1 > 0) {
+            p.area1FluctuationCount++;
+            p.area1MaxFluctuation = Math.max(p.area1MaxFluctuation, fluct1);
+        }
+        if (fluct2 > 0) {
+            p.area2FluctuationCount++;
+            p.area2MaxFluctuation = Math.max(p.area2MaxFluctuation, fluct2);
+        }
+        if (fluct3 > 0) {
+            p.area3FluctuationCount++;
+            p.area3MaxFluctuation = Math.max(p.area3MaxFluctuation, fluct3);
+        }
+        return true;
+    }
+
+    /**
+     * Copy of the peaks of the given yyyy-MM-dd day, or null when the tracker holds another day
+     */
+    public synchronized DailyPeaks peaksFor(String date) {
+        return peaks != null && peaks.date.equals(date) ? peaks.copy() : null;
+    }
+
+    /**
+     * Copy of the current day's peaks, null before the first reading
+     */
+    public synchronized DailyPeaks snapshot() {
+        return peaks == null ? null : peaks.copy();
+    }
+
+    /**
+     * Continue from stored peaks. Ignored when the tracker already holds the same or
+     * a later day, or when the stored date is malformed.
+     */
+    public synchronized boolean restore(DailyPeaks saved) {
+        int savedDay = saved == null ? DateKeys.INVALID : DateKeys.dayOrdinal(saved.date);
+        if (savedDay == DateKeys.INVALID || (peaks != null && savedDay <= day)) return false;
+        peaks = saved.copy();
+        day = savedDay;
+        return true;
+    }
+
+    public synchronized void clear() {
+        peaks = null;
+        day = DateKeys.INVALID;
+    }
+}
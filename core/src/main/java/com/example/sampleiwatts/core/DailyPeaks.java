@@ -0,0 +1,46 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Running per-area peaks and Fluct1/2/3 statistics of one day, as kept by
+ * DailyPeakTracker and stored per day. Peaks are currents in amps so they do not
+ * depend on the voltage reference; peak times are epoch ms, Long.MIN_VALUE before
+ * the area has a reading.
+ */
+public class DailyPeaks {
+    public String date;
+    // bucketKey/pushKey of the last log entry counted
+    public String lastKey;
+    public int readings;
+    public double area1PeakAmps;
+    public double area2PeakAmps;
+    public double area3PeakAmps;
+    public long area1PeakTimeMs = Long.MIN_VALUE;
+    public long area2PeakTimeMs = Long.MIN_VALUE;
+    public long area3PeakTimeMs = Long.MIN_VALUE;
+    public int area1FluctuationCount;
+    public int area2FluctuationCount;
+    public int area3FluctuationCount;
+    public double area1MaxFluctuation;
+    public double area2MaxFluctuation;
+    public double area3MaxFluctuation;
+
+    public DailyPeaks copy() {
+        DailyPeaks c = new DailyPeaks();
+        c.date = date;
+        c.lastKey = lastKey;
+        c.readings = readings;
+        c.area1PeakAmps = area1PeakAmps;
+        c.area2PeakAmps = area2PeakAmps;
+        c.area3PeakAmps = area3PeakAmps;
+        c.area1PeakTimeMs = area1PeakTimeMs;
+        c.area2PeakTimeMs = area2PeakTimeMs;
+        c.area3PeakTimeMs = area3PeakTimeMs;
+        c.area1FluctuationCount = area1FluctuationCount;
+        c.area2FluctuationCount = area2FluctuationCount;
+        c.area3FluctuationCount = area3FluctuationCount;
+        c.area1MaxFluctuation = area1MaxFluctuation;
+        c.area2MaxFluctuation = area2MaxFluctuation;
+        c.area3MaxFluctuation = area3MaxFluctuation;
+        return c;
+    }
+}
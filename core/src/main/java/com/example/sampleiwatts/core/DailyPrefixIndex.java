@@ -0,0 +1,114 @@
+package com.example.sampleiwatts.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Running sums of the daily kWh, cost and per-area kWh, in date order.
+ *
+ * prefix[f][i] holds the sum of field f over the first i days, so the total of any
+ * date range is prefix[hi] - prefix[lo] once the two positions are found by binary
+ * search. New days are appended; when an older day changes the index is cut back
+ * to that day and the tail appended again.
+ */
+public final class DailyPrefixIndex {
+    static final int KWH = 0;
+    static final int COST = 1;
+    static final int AREA1_KWH = 2;
+    static final int AREA2_KWH = 3;
+    static final int AREA3_KWH = 4;
+    private static final int FIELD_COUNT = 5;
+
+    private final List<String> days = new ArrayList<>();
+    private double[][] prefix = new double[FIELD_COUNT][64];
+
+    /**
+     * Add the next day; days must arrive in increasing key order
+     */
+    public void append(String day, double kwh, double cost, double area1Kwh, double area2Kwh, double area3Kwh) {
+        if (!days.isEmpty() && day.compareTo(days.get(days.size() - 1)) <= 0) {
+            throw new IllegalArgumentException("Day " + day + " is not after " + days.get(days.size() - 1));
+        }
+        int n = days.size();
+        if (n + 1 >= prefix[0].length) {
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                prefix[f] = Arrays.copyOf(prefix[f], prefix[f].length * 2);
+            }
+        }
+        prefix[KWH][n + 1] = prefix[KWH][n] + kwh;
+        prefix[COST][n + 1] = prefix[COST][n] + cost;
+        prefix[AREA1_KWH][n + 1] = prefix[AREA1_KWH][n] + area1Kwh;
+        prefix[AREA2_KWH][n + 1] = prefix[AREA2_KWH][n] + area2Kwh;
+        prefix[AREA3_KWH][n + 1] = prefix[AREA3_KWH][n] + area3Kwh;
+        days.add(day);
+    }
+
+    /**
+     * Drop the given day and every later one
+     */
+    public void truncateFrom(String day) {
+        int from = lowerBound(day);
+        days.subList(from, days.size()).clear();
+    }
+
+    public void clear() {
+        days.clear();
+    }
+
+    public int size() {
+        return days.size();
+    }
+
+    public List<String> days() {
+        return Collections.unmodifiableList(days);
+    }
+
+    /**
+     * Totals of the days inside the range
+     */
+    public RangeTotals totals(DateRange range) {
+        int lo = lowerBound(range.startDate);
+        int hi = upperBound(range.endDate);
+        RangeTotals totals = new RangeTotals();
+        if (hi <= lo) return totals;
+        totals.dayCount = hi - lo;
+        totals.totalKwh = prefix[KWH][hi] - prefix[KWH][lo];
+        totals.totalCost = prefix[COST][hi] - prefix[COST][lo];
+        totals.area1Kwh = prefix[AREA1_KWH][hi] - prefix[AREA1_KWH][lo];
+        totals.area2Kwh = prefix[AREA2_KWH][hi] - prefix[AREA2_KWH][lo];
+        totals.area3Kwh = prefix[AREA3_KWH][hi] - prefix[AREA3_KWH][lo];
+        return totals;
+    }
+
+    // First position whose day is >= key
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = days.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days.get(mid).compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First position whose day is > key
+    private int upperBound(String key) {
+        int lo = 0;
+        int hi = days.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days.get(mid).compareTo(key) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
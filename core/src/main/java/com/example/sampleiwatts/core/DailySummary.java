@@ -0,0 +1,21 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * One day from daily_summaries/{date}, including the area_breakdown values
+ */
+public class DailySummary {
+    public String date;
+    public double totalKwh;
+    public boolean hasTotalKwh;
+    public double totalCost;
+    public double peakWatts;
+    public boolean hasPeakWatts;
+    public String peakTime;
+    public double area1Kwh;
+    public double area2Kwh;
+    public double area3Kwh;
+    public double area1Cost;
+    public double area2Cost;
+    public double area3Cost;
+    public boolean hasAreaBreakdown;
+}
@@ -0,0 +1,17 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Everything the dashboard last showed, kept so the next start can render it before
+ * any network answer. Values that were never loaded are NaN, -1 or null.
+ */
+public class DashboardSnapshot {
+    /** When the snapshot was taken, epoch ms */
+    public long savedAtMs;
+    /** Totals, area shares, peak and the per-area daily series */
+    public EnergyAggregate aggregate;
+    public double electricityRate = Double.NaN;
+    /** Today so far against yesterday, in percent */
+    public double trendPercent = Double.NaN;
+    public int batteryPercent = -1;
+    public boolean charging;
+}
@@ -0,0 +1,154 @@
+package com.example.sampleiwatts.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a DashboardSnapshot.
+ *
+ * A magic number and a version come first, so a file from another build is rejected
+ * rather than misread. Days are written as DateKeys ordinals and the per-day series
+ * as floats, which is all a chart shows; totals and the peak stay doubles. A year of
+ * days is about 8 KB.
+ */
+public final class DashboardSnapshotCodec {
+    private static final int MAGIC = 0x49574453; // "IWDS"
+    private static final int VERSION = 1;
+
+    private static final int HAS_AGGREGATE = 1;
+    private static final int HAS_RATE = 2;
+    private static final int HAS_TREND = 4;
+    private static final int HAS_BATTERY = 8;
+    private static final int CHARGING = 16;
+
+    private DashboardSnapshotCodec() { }
+
+    /**
+     * Throws IllegalArgumentException if a day key of the aggregate is not yyyy-MM-dd
+     */
+    public static byte[] encode(DashboardSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(snapshot.savedAtMs);
+
+            int flags = 0;
+            if (snapshot.aggregate != null) flags |= HAS_AGGREGATE;
+            if (!Double.isNaN(snapshot.electricityRate)) flags |= HAS_RATE;
+            if (!Double.isNaN(snapshot.trendPercent)) flags |= HAS_TREND;
+            if (snapshot.batteryPercent >= 0) flags |= HAS_BATTERY;
+            if (snapshot.charging) flags |= CHARGING;
+            out.writeByte(flags);
+
+            if ((flags & HAS_RATE) != 0) out.writeDouble(snapshot.electricityRate);
+            if ((flags & HAS_TREND) != 0) out.writeDouble(snapshot.trendPercent);
+            if ((flags & HAS_BATTERY) != 0) out.writeByte(Math.min(snapshot.batteryPercent, 100));
+            if ((flags & HAS_AGGREGATE) != 0) writeAggregate(out, snapshot.aggregate);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Throws IOException if the bytes are truncated or not a snapshot of this version
+     */
+    public static DashboardSnapshot decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) throw new IOException("Not a dashboard snapshot");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.savedAtMs = in.readLong();
+        int flags = in.readUnsignedByte();
+        if ((flags & HAS_RATE) != 0) snapshot.electricityRate = in.readDouble();
+        if ((flags & HAS_TREND) != 0) snapshot.trendPercent = in.readDouble();
+        if ((flags & HAS_BATTERY) != 0) snapshot.batteryPercent = in.readUnsignedByte();
+        snapshot.charging = (flags & CHARGING) != 0;
+        if ((flags & HAS_AGGREGATE) != 0) snapshot.aggregate = readAggregate(in);
+        return snapshot;
+    }
+
+    private static void writeAggregate(DataOutputStream out, EnergyAggregate a) throws IOException {
+        out.writeDouble(a.totalKwh);
+        out.writeDouble(a.totalCost);
+        for (int area = 1; area <= EnergyAggregate.AREA_COUNT; area++) {
+            out.writeDouble(a.areaKwh(area));
+        }
+        out.writeDouble(a.hourlyPeakWatts);
+        writeString(out, a.hourlyPeakDate);
+        writeString(out, a.hourlyPeakHour);
+        out.writeBoolean(a.hasDailyPeak);
+        out.writeDouble(a.dailyPeakWatts);
+        writeString(out, a.dailyPeakDate);
+        writeString(out, a.dailyPeakTime);
+
+        int days = a.dayCount();
+        out.writeInt(days);
+        for (int i = 0; i < days; i++) {
+            int ordinal = DateKeys.dayOrdinal(a.dayKey(i));
+            if (ordinal == DateKeys.INVALID) {
+                throw new IllegalArgumentException("Bad day key " + a.dayKey(i));
+            }
+            out.writeInt(ordinal);
+            out.writeFloat((float) a.dailyKwh(i));
+            out.writeFloat((float) a.dailyCost(i));
+            for (int area = 1; area <= EnergyAggregate.AREA_COUNT; area++) {
+                out.writeFloat((float) a.dailyAreaKwh(area, i));
+            }
+        }
+    }
+
+    private static EnergyAggregate readAggregate(DataInputStream in) throws IOException {
+        double totalKwh = in.readDouble();
+        double totalCost = in.readDouble();
+        double[] areaKwh = new double[EnergyAggregate.AREA_COUNT];
+        for (int i = 0; i < areaKwh.length; i++) {
+            areaKwh[i] = in.readDouble();
+        }
+        double hourlyPeakWatts = in.readDouble();
+        String hourlyPeakDate = readString(in);
+        String hourlyPeakHour = readString(in);
+        boolean hasDailyPeak = in.readBoolean();
+        double dailyPeakWatts = in.readDouble();
+        String dailyPeakDate = readString(in);
+        String dailyPeakTime = readString(in);
+
+        int days = in.readInt();
+        // Each day takes 24 bytes, so a count beyond what is left is a corrupt file
+        if (days < 0 || days > in.available() / 24) throw new IOException("Bad day count " + days);
+        List<String> dayKeys = new ArrayList<>(days);
+        double[] dailyKwh = new double[days];
+        double[] dailyCost = new double[days];
+        double[][] dailyAreaKwh = new double[EnergyAggregate.AREA_COUNT][days];
+        for (int i = 0; i < days; i++) {
+            dayKeys.add(DateKeys.dayKey(in.readInt()));
+            dailyKwh[i] = in.readFloat();
+            dailyCost[i] = in.readFloat();
+            for (int area = 0; area < EnergyAggregate.AREA_COUNT; area++) {
+                dailyAreaKwh[area][i] = in.readFloat();
+            }
+        }
+        return new EnergyAggregate(totalKwh, totalCost, areaKwh,
+                dayKeys, dailyKwh, dailyCost, dailyAreaKwh,
+                hourlyPeakWatts, hourlyPeakDate, hourlyPeakHour,
+                hasDailyPeak, dailyPeakWatts, dailyPeakDate, dailyPeakTime);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Read-only view of one database node, the part of a DataSnapshot the app uses
+ */
+public interface DataNode {
+    String getKey();
+
+    boolean exists();
+
+    /**
+     * Leaf value (String, Boolean, Long or Double), a Map for a branch, or null
+     */
+    Object getValue();
+
+    /**
+     * Node at the relative path; a missing node is returned with exists() == false
+     */
+    DataNode child(String path);
+
+    /** Children in key order */
+    Iterable<DataNode> getChildren();
+
+    long getChildrenCount();
+}
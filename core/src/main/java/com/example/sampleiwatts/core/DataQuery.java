@@ -0,0 +1,89 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Immutable path plus key filters, built like a Firebase Query and run by its DataSource.
+ *
+ * Only ordering by key is supported, which is all the app uses: startAt and endAt are
+ * inclusive key bounds and limitToLast keeps the last children after them.
+ */
+public final class DataQuery {
+    private final DataSource source;
+    public final String path;
+    public final boolean orderByKey;
+    public final String startAt;
+    public final String endAt;
+    /** 0 when not limited */
+    public final int limitToLast;
+
+    DataQuery(DataSource source, String path) {
+        this(source, path, false, null, null, 0);
+    }
+
+    private DataQuery(DataSource source, String path, boolean orderByKey, String startAt, String endAt, int limitToLast) {
+        this.source = source;
+        this.path = path;
+        this.orderByKey = orderByKey;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.limitToLast = limitToLast;
+    }
+
+    /**
+     * Reference to a child; only valid before any filter is set
+     */
+    public DataQuery child(String childPath) {
+        if (isFiltered()) {
+            throw new IllegalStateException("child() on a filtered query of " + path);
+        }
+        return new DataQuery(source, path.isEmpty() ? childPath : path + "/" + childPath);
+    }
+
+    public DataQuery orderByKey() {
+        return new DataQuery(source, path, true, startAt, endAt, limitToLast);
+    }
+
+    public DataQuery startAt(String key) {
+        return new DataQuery(source, path, orderByKey, key, endAt, limitToLast);
+    }
+
+    public DataQuery endAt(String key) {
+        return new DataQuery(source, path, orderByKey, startAt, key, limitToLast);
+    }
+
+    public DataQuery limitToLast(int limit) {
+        return new DataQuery(source, path, orderByKey, startAt, endAt, limit);
+    }
+
+    public boolean isFiltered() {
+        return orderByKey || startAt != null || endAt != null || limitToLast > 0;
+    }
+
+    /**
+     * Whether a child key passes startAt/endAt
+     */
+    public boolean inKeyRange(String key) {
+        return (startAt == null || key.compareTo(startAt) >= 0)
+                && (endAt == null || key.compareTo(endAt) <= 0);
+    }
+
+    /**
+     * One value event, like addListenerForSingleValueEvent
+     */
+    public void get(DataSource.ValueCallback callback) {
+        source.get(this, callback);
+    }
+
+    /**
+     * Value events until the handle is removed, like addValueEventListener
+     */
+    public DataSource.Handle observe(DataSource.ValueCallback callback) {
+        return source.observe(this, callback);
+    }
+
+    /**
+     * Child added/changed events until the handle is removed, like addChildEventListener
+     */
+    public DataSource.Handle observeChildren(DataSource.ChildCallback callback) {
+        return source.observeChildren(this, callback);
+    }
+}
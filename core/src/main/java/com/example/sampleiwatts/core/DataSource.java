@@ -0,0 +1,42 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Where processors read database nodes from. The app passes the Firebase-backed source;
+ * load tests on a device and JVM tests of the query shapes pass an InMemoryDataSource.
+ */
+public interface DataSource {
+
+    interface ValueCallback {
+        void onValue(DataNode node);
+
+        void onError(String error);
+    }
+
+    interface ChildCallback {
+        void onChildAdded(DataNode child);
+
+        void onChildChanged(DataNode child);
+
+        void onError(String error);
+    }
+
+    /**
+     * A live listener; remove() detaches it
+     */
+    interface Handle {
+        void remove();
+    }
+
+    /**
+     * Reference to the node at path, relative to the database root ("" is the root)
+     */
+    default DataQuery ref(String path) {
+        return new DataQuery(this, path);
+    }
+
+    void get(DataQuery query, ValueCallback callback);
+
+    Handle observe(DataQuery query, ValueCallback callback);
+
+    Handle observeChildren(DataQuery query, ChildCallback callback);
+}
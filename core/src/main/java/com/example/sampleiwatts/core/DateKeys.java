@@ -0,0 +1,319 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Converts yyyy-MM-dd and HH keys to and from int ordinals, and log bucket keys to
+ * and from epoch times, without SimpleDateFormat or Calendar.
+ *
+ * A day ordinal is the number of days since 1970-01-01, so ranges are compared and
+ * walked with plain int arithmetic. Asia/Manila has been UTC+8 with no DST since
+ * 1978, so "today" and the current hour are computed from the epoch with a fixed
+ * offset. Parsing allocates nothing and there is no state, so every method is safe
+ * to call from any thread.
+ */
+public final class DateKeys {
+    /** Returned by the parse methods for a missing or malformed key */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    public static final long DAY_MS = 86_400_000L;
+    public static final long HOUR_MS = 3_600_000L;
+    // Asia/Manila, UTC+8
+    public static final long MANILA_OFFSET_MS = 8 * HOUR_MS;
+
+    private DateKeys() { }
+
+    /**
+     * Day ordinal of a yyyy-MM-dd key; yyyy-M-d is accepted as well. INVALID when the
+     * key is not a real calendar date.
+     */
+    public static int dayOrdinal(CharSequence key) {
+        if (key == null) return INVALID;
+        return parseDay(key, key.length());
+    }
+
+    /**
+     * Hour 0-23 of an HH key (a single digit is accepted), INVALID otherwise
+     */
+    public static int hourOrdinal(CharSequence key) {
+        if (key == null || key.length() < 1 || key.length() > 2) return INVALID;
+        int hour = digits(key, 0, key.length());
+        return hour < 0 || hour > 23 ? INVALID : hour;
+    }
+
+    /**
+     * yyyy-MM-dd key of a day ordinal
+     */
+    public static String dayKey(int ordinal) {
+        char[] out = new char[10];
+        int ymd = toCivil(ordinal);
+        put(out, 0, ymd / 10000, 4);
+        out[4] = '-';
+        put(out, 5, ymd / 100 % 100, 2);
+        out[7] = '-';
+        put(out, 8, ymd % 100, 2);
+        return new String(out);
+    }
+
+    /**
+     * MM-dd chart label of a day ordinal
+     */
+    public static String monthDayLabel(int ordinal) {
+        char[] out = new char[5];
+        int ymd = toCivil(ordinal);
+        put(out, 0, ymd / 100 % 100, 2);
+        out[2] = '-';
+        put(out, 3, ymd % 100, 2);
+        return new String(out);
+    }
+
+    /**
+     * MM/dd/yyyy display text of a day ordinal
+     */
+    public static String displayDate(int ordinal) {
+        char[] out = new char[10];
+        int ymd = toCivil(ordinal);
+        put(out, 0, ymd / 100 % 100, 2);
+        out[2] = '/';
+        put(out, 3, ymd % 100, 2);
+        out[5] = '/';
+        put(out, 6, ymd / 10000, 4);
+        return new String(out);
+    }
+
+    /**
+     * Two-digit HH key of an hour
+     */
+    public static String hourKey(int hour) {
+        char[] out = new char[2];
+        put(out, 0, hour, 2);
+        return new String(out);
+    }
+
+    /**
+     * Epoch time of a yyyy-MM-ddTHH:mm:ss log bucket key in Manila time, or
+     * Long.MIN_VALUE when the key is malformed
+     */
+    public static long bucketTimeMs(CharSequence key) {
+        if (key == null || key.length() != 19 || key.charAt(10) != 'T'
+                || key.charAt(13) != ':' || key.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int day = parseDay(key, 10);
+        int hour = digits(key, 11, 13);
+        int minute = digits(key, 14, 16);
+        int second = digits(key, 17, 19);
+        if (day == INVALID || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        return startOfDayMs(day) + hour * HOUR_MS + minute * 60_000L + second * 1000L;
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm:ss log bucket key of an epoch time, to the second
+     */
+    public static String bucketKey(long epochMs) {
+        char[] out = new char[19];
+        int ymd = toCivil(dayOrdinalAt(epochMs));
+        long secondOfDay = Math.floorMod(epochMs + MANILA_OFFSET_MS, DAY_MS) / 1000L;
+        put(out, 0, ymd / 10000, 4);
+        out[4] = '-';
+        put(out, 5, ymd / 100 % 100, 2);
+        out[7] = '-';
+        put(out, 8, ymd % 100, 2);
+        out[10] = 'T';
+        put(out, 11, (int) (secondOfDay / 3600), 2);
+        out[13] = ':';
+        put(out, 14, (int) (secondOfDay / 60 % 60), 2);
+        out[16] = ':';
+        put(out, 17, (int) (secondOfDay % 60), 2);
+        return new String(out);
+    }
+
+    /**
+     * HH:mm text, in Manila, of an epoch time
+     */
+    public static String timeLabel(long epochMs) {
+        char[] out = new char[5];
+        long minuteOfDay = Math.floorMod(epochMs + MANILA_OFFSET_MS, DAY_MS) / 60_000L;
+        put(out, 0, (int) (minuteOfDay / 60), 2);
+        out[2] = ':';
+        put(out, 3, (int) (minuteOfDay % 60), 2);
+        return new String(out);
+    }
+
+    /**
+     * HH:mm:ss text, in Manila, of an epoch time
+     */
+    public static String timeOfDay(long epochMs) {
+        char[] out = new char[8];
+        long secondOfDay = Math.floorMod(epochMs + MANILA_OFFSET_MS, DAY_MS) / 1000L;
+        put(out, 0, (int) (secondOfDay / 3600), 2);
+        out[2] = ':';
+        put(out, 3, (int) (secondOfDay / 60 % 60), 2);
+        out[5] = ':';
+        put(out, 6, (int) (secondOfDay % 60), 2);
+        return new String(out);
+    }
+
+    /**
+     * Second of the day of an HH:mm:ss or HH:mm time (one-digit fields are accepted),
+     * INVALID otherwise
+     */
+    public static int secondOfDay(CharSequence time) {
+        if (time == null) return INVALID;
+        int n = time.length();
+        int firstColon = indexOf(time, ':', 0);
+        if (firstColon < 0) return INVALID;
+        int secondColon = indexOf(time, ':', firstColon + 1);
+        int minuteEnd = secondColon < 0 ? n : secondColon;
+
+        int hour = digits(time, 0, firstColon);
+        int minute = digits(time, firstColon + 1, minuteEnd);
+        int second = secondColon < 0 ? 0 : digits(time, secondColon + 1, n);
+        if (firstColon > 2 || minuteEnd - firstColon - 1 > 2 || (secondColon >= 0 && n - secondColon - 1 > 2)) {
+            return INVALID;
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * hh:mm AM/PM text of a second of the day
+     */
+    public static String clockLabel(int secondOfDay) {
+        char[] out = new char[8];
+        int hour = secondOfDay / 3600;
+        int hour12 = hour % 12 == 0 ? 12 : hour % 12;
+        put(out, 0, hour12, 2);
+        out[2] = ':';
+        put(out, 3, secondOfDay / 60 % 60, 2);
+        out[5] = ' ';
+        out[6] = hour < 12 ? 'A' : 'P';
+        out[7] = 'M';
+        return new String(out);
+    }
+
+    /**
+     * Day ordinal, in Manila, of an epoch time
+     */
+    public static int dayOrdinalAt(long epochMs) {
+        return (int) Math.floorDiv(epochMs + MANILA_OFFSET_MS, DAY_MS);
+    }
+
+    /**
+     * Hour of day 0-23, in Manila, of an epoch time
+     */
+    public static int hourAt(long epochMs) {
+        return (int) (Math.floorMod(epochMs + MANILA_OFFSET_MS, DAY_MS) / HOUR_MS);
+    }
+
+    /**
+     * Minute of the hour 0-59 of an epoch time
+     */
+    public static int minuteAt(long epochMs) {
+        return (int) (Math.floorMod(epochMs, HOUR_MS) / 60_000L);
+    }
+
+    /**
+     * Epoch time of midnight, Manila time, at the start of the day
+     */
+    public static long startOfDayMs(int ordinal) {
+        return ordinal * DAY_MS - MANILA_OFFSET_MS;
+    }
+
+    public static int todayOrdinal() {
+        return dayOrdinalAt(System.currentTimeMillis());
+    }
+
+    public static String todayKey() {
+        return dayKey(todayOrdinal());
+    }
+
+    public static int currentHour() {
+        return hourAt(System.currentTimeMillis());
+    }
+
+    public static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Day ordinal of the date in the first n characters of the key
+    private static int parseDay(CharSequence key, int n) {
+        if (n < 8 || n > 10) return INVALID;
+
+        int year = digits(key, 0, 4);
+        if (year < 0 || key.charAt(4) != '-') return INVALID;
+
+        int dash = 6;
+        if (key.charAt(dash) != '-') dash = 7;
+        if (dash >= n || key.charAt(dash) != '-') return INVALID;
+        int month = digits(key, 5, dash);
+        int day = digits(key, dash + 1, n);
+        if (n - dash - 1 > 2 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+        return fromCivil(year, month, day);
+    }
+
+    // Days since 1970-01-01 of a proleptic Gregorian date (Hinnant's days_from_civil)
+    private static int fromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    // Inverse of fromCivil, packed as yyyyMMdd so nothing is allocated
+    private static int toCivil(int ordinal) {
+        int z = ordinal + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    // Value of the ASCII digits in [from, to), -1 if empty or any is not a digit
+    private static int digits(CharSequence s, int from, int to) {
+        if (from >= to) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static void put(char[] out, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
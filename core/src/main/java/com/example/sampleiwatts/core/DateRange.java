@@ -0,0 +1,93 @@
+package com.example.sampleiwatts.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range of yyyy-MM-dd keys, used for orderByKey().startAt().endAt() queries
+ */
+public class DateRange {
+    public final String startDate;
+    public final String endDate;
+
+    public DateRange(String startDate, String endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Build a range from the raw cost_filter_date strings.
+     * Accepts yyyy-MM-dd and yyyy-M-d and normalizes both to yyyy-MM-dd so that
+     * key comparisons on the server match what the old client-side filter did.
+     * Returns null if either date is missing or invalid.
+     */
+    public static DateRange fromFilterDates(String startDate, String endDate) {
+        String start = normalize(startDate);
+        String end = normalize(endDate);
+        if (start == null || end == null) return null;
+        if (start.compareTo(end) > 0) {
+            String t = start;
+            start = end;
+            end = t;
+        }
+        return new DateRange(start, end);
+    }
+
+    public boolean contains(String dateKey) {
+        return dateKey != null && dateKey.compareTo(startDate) >= 0 && dateKey.compareTo(endDate) <= 0;
+    }
+
+    public boolean overlaps(DateRange other) {
+        return other != null && startDate.compareTo(other.endDate) <= 0 && other.startDate.compareTo(endDate) <= 0;
+    }
+
+    /**
+     * Number of days in the range, inclusive of both ends
+     */
+    public long dayCount() {
+        int start = DateKeys.dayOrdinal(startDate);
+        int end = DateKeys.dayOrdinal(endDate);
+        if (start == DateKeys.INVALID || end == DateKeys.INVALID) return 1;
+        long days = (long) end - start + 1;
+        return days <= 0 ? 1 : days;
+    }
+
+    /**
+     * Every yyyy-MM-dd key in the range, in order
+     */
+    public List<String> dayKeys() {
+        List<String> keys = new ArrayList<>();
+        int start = DateKeys.dayOrdinal(startDate);
+        int end = DateKeys.dayOrdinal(endDate);
+        if (start == DateKeys.INVALID || end == DateKeys.INVALID) return keys;
+
+        for (int day = start; day <= end; day++) {
+            keys.add(DateKeys.dayKey(day));
+        }
+        return keys;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DateRange)) return false;
+        DateRange other = (DateRange) o;
+        return startDate.equals(other.startDate) && endDate.equals(other.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return startDate.hashCode() * 31 + endDate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return startDate + ".." + endDate;
+    }
+
+    private static String normalize(String s) {
+        if (s == null) return null;
+        int day = DateKeys.dayOrdinal(s.trim());
+        return day == DateKeys.INVALID ? null : DateKeys.dayKey(day);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Shape-preserving downsampling of a chart series whose x is the point index.
+ *
+ * Largest-Triangle-Three-Buckets: the first and last points are kept and every bucket
+ * in between keeps the point that forms the largest triangle with the point kept before
+ * it and the average of the next bucket, so spikes survive where plain averaging would
+ * flatten them. The highest and lowest points of the series are always kept; when both
+ * fall in one bucket the earlier one takes that bucket's slot and the later one the next
+ * (or, in the last bucket, the earlier one takes the previous slot). Only with
+ * maxPoints == 3 can that leave the lowest point out.
+ */
+public final class Downsampler {
+    private Downsampler() { }
+
+    /**
+     * Indices, in increasing order, of at most maxPoints points to draw; every index
+     * when the series already fits
+     */
+    public static int[] lttb(double[] y, int maxPoints) {
+        int n = y.length;
+        if (maxPoints >= n || maxPoints < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int peak = 0;
+        int trough = 0;
+        for (int i = 1; i < n; i++) {
+            if (y[i] > y[peak]) peak = i;
+            if (y[i] < y[trough]) trough = i;
+        }
+
+        int[] kept = new int[maxPoints];
+        double bucketSize = (double) (n - 2) / (maxPoints - 2);
+        int a = 0;
+        int carry = -1; // extreme point moved over from the previous bucket
+        kept[0] = 0;
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // Average of the next bucket, the third corner of the triangle
+            int avgStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int avgEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0.0;
+            double avgY = 0.0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += j;
+                avgY += y[j];
+            }
+            int avgCount = avgEnd - avgStart;
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            int rangeStart = (int) (bucket * bucketSize) + 1;
+            int rangeEnd = (int) ((bucket + 1) * bucketSize) + 1;
+            boolean hasPeak = peak >= rangeStart && peak < rangeEnd;
+            boolean hasTrough = trough >= rangeStart && trough < rangeEnd && trough != peak;
+            int next = rangeStart;
+            if (carry >= 0) {
+                next = carry;
+                carry = -1;
+            } else if (hasPeak && hasTrough) {
+                int first = Math.min(peak, trough);
+                int second = Math.max(peak, trough);
+                if (bucket < maxPoints - 3) {
+                    next = first;
+                    carry = second;
+                } else if (bucket > 0) {
+                    kept[bucket] = first;
+                    next = second;
+                } else {
+                    next = peak;
+                }
+            } else if (hasPeak) {
+                next = peak;
+            } else if (hasTrough) {
+                next = trough;
+            } else {
+                double maxArea = -1.0;
+                for (int j = rangeStart; j < rangeEnd; j++) {
+                    double area = Math.abs((a - avgX) * (y[j] - y[a]) - (a - j) * (avgY - y[a]));
+                    if (area > maxArea) {
+                        maxArea = area;
+                        next = j;
+                    }
+                }
+            }
+            kept[bucket + 1] = next;
+            a = next;
+        }
+        kept[maxPoints - 1] = n - 1;
+        return kept;
+    }
+}
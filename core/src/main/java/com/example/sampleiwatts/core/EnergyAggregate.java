@@ -0,0 +1,103 @@
+package com.example.sampleiwatts.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of one EnergyAggregator pass over a summary range
+ */
+public class EnergyAggregate {
+    public static final int AREA_COUNT = 3;
+
+    public final double totalKwh;
+    public final double totalCost;
+
+    /** Highest hourly peak_watts in the range and where it happened */
+    public final double hourlyPeakWatts;
+    public final String hourlyPeakDate;
+    public final String hourlyPeakHour;
+
+    /** Highest daily_summaries peak_watts that has a peak_time, if daily summaries were given */
+    public final boolean hasDailyPeak;
+    public final double dailyPeakWatts;
+    public final String dailyPeakDate;
+    public final String dailyPeakTime;
+
+    private final double[] areaKwh;
+    private final List<String> dayKeys;
+    private final double[] dailyKwh;
+    private final double[] dailyCost;
+    private final double[][] dailyAreaKwh;
+
+    EnergyAggregate(double totalKwh, double totalCost, double[] areaKwh,
+                    List<String> dayKeys, double[] dailyKwh, double[] dailyCost, double[][] dailyAreaKwh,
+                    double hourlyPeakWatts, String hourlyPeakDate, String hourlyPeakHour,
+                    boolean hasDailyPeak, double dailyPeakWatts, String dailyPeakDate, String dailyPeakTime) {
+        this.totalKwh = totalKwh;
+        this.totalCost = totalCost;
+        this.areaKwh = areaKwh;
+        this.dayKeys = Collections.unmodifiableList(dayKeys);
+        this.dailyKwh = dailyKwh;
+        this.dailyCost = dailyCost;
+        this.dailyAreaKwh = dailyAreaKwh;
+        this.hourlyPeakWatts = hourlyPeakWatts;
+        this.hourlyPeakDate = hourlyPeakDate;
+        this.hourlyPeakHour = hourlyPeakHour;
+        this.hasDailyPeak = hasDailyPeak;
+        this.dailyPeakWatts = dailyPeakWatts;
+        this.dailyPeakDate = dailyPeakDate;
+        this.dailyPeakTime = dailyPeakTime;
+    }
+
+    /**
+     * Total kWh for area 1, 2 or 3
+     */
+    public double areaKwh(int area) {
+        return area >= 1 && area <= AREA_COUNT ? areaKwh[area - 1] : 0.0;
+    }
+
+    /**
+     * Sum of the three area totals
+     */
+    public double areaTotalKwh() {
+        return areaKwh[0] + areaKwh[1] + areaKwh[2];
+    }
+
+    /**
+     * Share of the area in the combined area kWh, in percent (0 when nothing was used)
+     */
+    public double areaPercent(int area) {
+        double total = areaTotalKwh();
+        return total == 0 ? 0.0 : (areaKwh(area) / total) * 100;
+    }
+
+    /**
+     * Number of dates that had at least one hourly summary
+     */
+    public int dayCount() {
+        return dayKeys.size();
+    }
+
+    /**
+     * yyyy-MM-dd key of the i-th day, in ascending order
+     */
+    public String dayKey(int index) {
+        return dayKeys.get(index);
+    }
+
+    public List<String> dayKeys() {
+        return dayKeys;
+    }
+
+    public double dailyKwh(int index) {
+        return dailyKwh[index];
+    }
+
+    public double dailyCost(int index) {
+        return dailyCost[index];
+    }
+
+    public double dailyAreaKwh(int area, int index) {
+        return area >= 1 && area <= AREA_COUNT ? dailyAreaKwh[area - 1][index] : 0.0;
+    }
+}
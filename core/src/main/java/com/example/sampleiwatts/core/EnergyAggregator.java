@@ -0,0 +1,93 @@
+package com.example.sampleiwatts.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks a summary range once and produces every dashboard metric in one EnergyAggregate
+ */
+public final class EnergyAggregator {
+
+    private EnergyAggregator() { }
+
+    public static EnergyAggregate aggregate(List<HourlySummary> hourly) {
+        return aggregate(hourly, null);
+    }
+
+    /**
+     * Hourly summaries must be in date then hour order (as EnergyRepository returns them);
+     * each date is one contiguous run. Daily summaries are optional and only feed the daily peak.
+     */
+    public static EnergyAggregate aggregate(List<HourlySummary> hourly, List<DailySummary> daily) {
+        int n = hourly.size();
+        double totalKwh = 0;
+        double totalCost = 0;
+        double[] areaKwh = new double[EnergyAggregate.AREA_COUNT];
+
+        // Sized for the worst case (one hour per day) and trimmed at the end
+        List<String> dayKeys = new ArrayList<>();
+        double[] dailyKwh = new double[n];
+        double[] dailyCost = new double[n];
+        double[][] dailyAreaKwh = new double[EnergyAggregate.AREA_COUNT][n];
+
+        double hourlyPeakWatts = 0;
+        String hourlyPeakDate = null;
+        String hourlyPeakHour = null;
+
+        String currentDate = null;
+        int day = -1;
+        for (int i = 0; i < n; i++) {
+            HourlySummary h = hourly.get(i);
+            if (!h.date.equals(currentDate)) {
+                currentDate = h.date;
+                dayKeys.add(currentDate);
+                day++;
+            }
+
+            totalKwh += h.totalKwh;
+            totalCost += h.totalCost;
+            areaKwh[0] += h.area1Kwh;
+            areaKwh[1] += h.area2Kwh;
+            areaKwh[2] += h.area3Kwh;
+
+            dailyKwh[day] += h.totalKwh;
+            dailyCost[day] += h.totalCost;
+            dailyAreaKwh[0][day] += h.area1Kwh;
+            dailyAreaKwh[1][day] += h.area2Kwh;
+            dailyAreaKwh[2][day] += h.area3Kwh;
+
+            if (h.peakWatts > hourlyPeakWatts) {
+                hourlyPeakWatts = h.peakWatts;
+                hourlyPeakDate = h.date;
+                hourlyPeakHour = h.hour;
+            }
+        }
+
+        int days = dayKeys.size();
+        double[][] trimmedAreaKwh = new double[EnergyAggregate.AREA_COUNT][];
+        for (int a = 0; a < EnergyAggregate.AREA_COUNT; a++) {
+            trimmedAreaKwh[a] = Arrays.copyOf(dailyAreaKwh[a], days);
+        }
+
+        boolean hasDailyPeak = false;
+        double dailyPeakWatts = 0;
+        String dailyPeakDate = null;
+        String dailyPeakTime = null;
+        if (daily != null) {
+            for (DailySummary d : daily) {
+                if (d.hasPeakWatts && d.peakTime != null && d.peakWatts > dailyPeakWatts) {
+                    hasDailyPeak = true;
+                    dailyPeakWatts = d.peakWatts;
+                    dailyPeakDate = d.date;
+                    dailyPeakTime = d.peakTime;
+                }
+            }
+        }
+
+        return new EnergyAggregate(totalKwh, totalCost, areaKwh,
+                dayKeys, Arrays.copyOf(dailyKwh, days), Arrays.copyOf(dailyCost, days), trimmedAreaKwh,
+                hourlyPeakWatts, hourlyPeakDate, hourlyPeakHour,
+                hasDailyPeak, dailyPeakWatts, dailyPeakDate, dailyPeakTime);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Folds the log readings of one hour into per-area average watts, the peak total
+ * and the latest battery state, one reading at a time.
+ *
+ * Power is P = V * I with the system_settings voltage reference. Only running sums
+ * are kept, so ingesting a reading is O(1) and allocates nothing.
+ */
+public class HourAccumulator {
+    private final double voltageReference;
+
+    private int validReadings = 0;
+    private double totalWatts = 0.0;
+    private double area1Watts = 0.0;
+    private double area2Watts = 0.0;
+    private double area3Watts = 0.0;
+    private double maxWatts = 0.0;
+
+    // Battery status from the latest reading that carried it
+    private int latestBatteryPercent = 0;
+    private boolean latestChargingStatus = false;
+
+    public HourAccumulator(double voltageReference) {
+        this.voltageReference = voltageReference;
+    }
+
+    /**
+     * Add one reading of the three area currents in amps
+     */
+    public void add(double current1, double current2, double current3) {
+        double area1Power = voltageReference * current1;
+        double area2Power = voltageReference * current2;
+        double area3Power = voltageReference * current3;
+        double totalPower = area1Power + area2Power + area3Power;
+
+        area1Watts += area1Power;
+        area2Watts += area2Power;
+        area3Watts += area3Power;
+        totalWatts += totalPower;
+        maxWatts = Math.max(maxWatts, totalPower);
+        validReadings++;
+    }
+
+    /**
+     * Battery values of the reading just added; either may be null when not reported
+     */
+    public void setBattery(Double batteryPercent, Boolean charging) {
+        if (batteryPercent != null) {
+            latestBatteryPercent = batteryPercent.intValue();
+        }
+        if (charging != null) {
+            latestChargingStatus = charging;
+        }
+    }
+
+    public int getValidReadings() {
+        return validReadings;
+    }
+
+    public double avgTotalWatts() {
+        return validReadings == 0 ? 0.0 : totalWatts / validReadings;
+    }
+
+    /**
+     * Average watts of area 1, 2 or 3 (0 for anything else)
+     */
+    public double avgAreaWatts(int area) {
+        if (validReadings == 0) return 0.0;
+        switch (area) {
+            case 1:
+                return area1Watts / validReadings;
+            case 2:
+                return area2Watts / validReadings;
+            case 3:
+                return area3Watts / validReadings;
+            default:
+                return 0.0;
+        }
+    }
+
+    public double getPeakWatts() {
+        return maxWatts;
+    }
+
+    public int getBatteryPercent() {
+        return latestBatteryPercent;
+    }
+
+    public boolean isCharging() {
+        return latestChargingStatus;
+    }
+
+    /**
+     * kWh used so far, taking the average as constant over the elapsed part of the hour
+     */
+    public double partialKwh(double hourProgress) {
+        return (avgTotalWatts() / 1000.0) * hourProgress;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Integrates per-area power into energy hour by hour as readings stream in.
+ *
+ * Every reading is consumed once, in time order. The energy between two readings is
+ * the trapezoid of their powers over the exact time between them; a segment that
+ * crosses an hour boundary is split there with the power interpolated at the
+ * boundary. Gaps longer than MAX_GAP_MS (device offline) add no energy. Only the
+ * current and the previous hour are kept, so the state is constant in size and
+ * every query is O(1).
+ */
+public class HourEnergyIntegrator {
+    /** Longest time between two readings that is still integrated */
+    public static final long MAX_GAP_MS = 60_000L;
+
+    // kWh in one watt over one millisecond
+    private static final double KWH_PER_WATT_MS = 1.0 / 3_600_000_000.0;
+
+    private static final class Hour {
+        long startMs = Long.MIN_VALUE;
+        double area1WattMs;
+        double area2WattMs;
+        double area3WattMs;
+        double peakWatts;
+        long peakTimeMs;
+        int readings;
+        long coveredMs;
+
+        void reset(long startMs) {
+            this.startMs = startMs;
+            area1WattMs = 0.0;
+            area2WattMs = 0.0;
+            area3WattMs = 0.0;
+            peakWatts = 0.0;
+            peakTimeMs = Long.MIN_VALUE;
+            readings = 0;
+            coveredMs = 0L;
+        }
+
+        void addSegment(long durationMs, double w1a, double w2a, double w3a, double w1b, double w2b, double w3b) {
+            area1WattMs += (w1a + w1b) * 0.5 * durationMs;
+            area2WattMs += (w2a + w2b) * 0.5 * durationMs;
+            area3WattMs += (w3a + w3b) * 0.5 * durationMs;
+            coveredMs += durationMs;
+        }
+    }
+
+    private Hour current = new Hour();
+    private Hour previous = new Hour();
+
+    private boolean hasLast = false;
+    private long lastTimeMs;
+    private double last1;
+    private double last2;
+    private double last3;
+
+    /**
+     * Add a reading of the three area powers in watts. Returns false, and ignores
+     * the reading, when it is older than the last one added.
+     */
+    public synchronized boolean add(long timeMs, double watts1, double watts2, double watts3) {
+        if (hasLast && timeMs < lastTimeMs) return false;
+
+        long hourStart = hourStart(timeMs);
+        if (current.startMs == Long.MIN_VALUE) {
+            current.reset(hourStart);
+        }
+
+        if (hasLast && timeMs - lastTimeMs <= MAX_GAP_MS) {
+            long duration = timeMs - lastTimeMs;
+            if (hourStart == current.startMs) {
+                current.addSegment(duration, last1, last2, last3, watts1, watts2, watts3);
+            } else {
+                // Split at the boundary, with the power there interpolated
+                double f = (hourStart - lastTimeMs) / (double) duration;
+                double b1 = last1 + (watts1 - last1) * f;
+                double b2 = last2 + (watts2 - last2) * f;
+                double b3 = last3 + (watts3 - last3) * f;
+                current.addSegment(hourStart - lastTimeMs, last1, last2, last3, b1, b2, b3);
+                rollTo(hourStart);
+                current.addSegment(timeMs - hourStart, b1, b2, b3, watts1, watts2, watts3);
+            }
+        } else if (hourStart != current.startMs) {
+            rollTo(hourStart);
+        }
+
+        double total = watts1 + watts2 + watts3;
+        if (current.readings == 0 || total > current.peakWatts) {
+            current.peakWatts = total;
+            current.peakTimeMs = timeMs;
+        }
+        current.readings++;
+
+        hasLast = true;
+        lastTimeMs = timeMs;
+        last1 = watts1;
+        last2 = watts2;
+        last3 = watts3;
+        return true;
+    }
+
+    /**
+     * Energy of the hour starting at hourStartMs: area 1, 2 or 3, or 0 for the total.
+     * 0 for an hour that is no longer (or not yet) held.
+     */
+    public synchronized double kwh(long hourStartMs, int area) {
+        Hour hour = find(hourStartMs);
+        if (hour == null) return 0.0;
+        switch (area) {
+            case 1:
+                return hour.area1WattMs * KWH_PER_WATT_MS;
+            case 2:
+                return hour.area2WattMs * KWH_PER_WATT_MS;
+            case 3:
+                return hour.area3WattMs * KWH_PER_WATT_MS;
+            default:
+                return (hour.area1WattMs + hour.area2WattMs + hour.area3WattMs) * KWH_PER_WATT_MS;
+        }
+    }
+
+    public synchronized double peakWatts(long hourStartMs) {
+        Hour hour = find(hourStartMs);
+        return hour == null ? 0.0 : hour.peakWatts;
+    }
+
+    /**
+     * Time of the hour's peak reading, Long.MIN_VALUE when the hour has none
+     */
+    public synchronized long peakTimeMs(long hourStartMs) {
+        Hour hour = find(hourStartMs);
+        return hour == null ? Long.MIN_VALUE : hour.peakTimeMs;
+    }
+
+    public synchronized int readings(long hourStartMs) {
+        Hour hour = find(hourStartMs);
+        return hour == null ? 0 : hour.readings;
+    }
+
+    /**
+     * Milliseconds of the hour that lie between integrated readings
+     */
+    public synchronized long coveredMs(long hourStartMs) {
+        Hour hour = find(hourStartMs);
+        return hour == null ? 0L : hour.coveredMs;
+    }
+
+    public synchronized void clear() {
+        current.reset(Long.MIN_VALUE);
+        previous.reset(Long.MIN_VALUE);
+        hasLast = false;
+    }
+
+    /**
+     * Start of the hour holding the time; Manila is a whole number of hours from UTC,
+     * so UTC hour boundaries are its hour boundaries too
+     */
+    public static long hourStart(long timeMs) {
+        return timeMs - Math.floorMod(timeMs, DateKeys.HOUR_MS);
+    }
+
+    private void rollTo(long hourStart) {
+        Hour done = current;
+        current = previous;
+        previous = done;
+        current.reset(hourStart);
+    }
+
+    private Hour find(long hourStartMs) {
+        if (current.startMs == hourStartMs && current.readings > 0) return current;
+        if (previous.startMs == hourStartMs && previous.readings > 0) return previous;
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * One hour bucket from hourly_summaries/{date}/{hour}
+ */
+public class HourlySummary {
+    public String date;
+    public String hour;
+    public double totalKwh;
+    public double totalCost;
+    public double area1Kwh;
+    public double area2Kwh;
+    public double area3Kwh;
+    public double peakWatts;
+    public double avgWatts;
+
+    /**
+     * kWh for area 1, 2 or 3 (0 for anything else)
+     */
+    public double areaKwh(int area) {
+        switch (area) {
+            case 1:
+                return area1Kwh;
+            case 2:
+                return area2Kwh;
+            case 3:
+                return area3Kwh;
+            default:
+                return 0.0;
+        }
+    }
+}
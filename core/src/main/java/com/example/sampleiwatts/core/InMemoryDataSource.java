@@ -0,0 +1,313 @@
+package com.example.sampleiwatts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource over an InMemoryTree, for JVM benchmarks and load tests with no
+ * Android runtime or network.
+ *
+ * Every event carries a deep copy of the node taken under the tree lock, and the
+ * nodes in it (branches and leaves) are added to deliveredNodes(), so a test can
+ * assert how much data a screen pulls. Writes made through put() fire value and
+ * child events on the observers whose path they touch. Callbacks run on the given
+ * executor, or on the calling thread by default, which keeps runs deterministic.
+ * Keys are compared as plain strings.
+ */
+public class InMemoryDataSource implements DataSource, SyntheticWorkload.Sink {
+    private final InMemoryTree tree;
+    private final Executor callbackExecutor;
+    private final AtomicLong deliveredNodes = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final List<ValueObserver> valueObservers = new CopyOnWriteArrayList<>();
+    private final List<ChildObserver> childObservers = new CopyOnWriteArrayList<>();
+
+    public InMemoryDataSource(InMemoryTree tree) {
+        this(tree, Runnable::run);
+    }
+
+    public InMemoryDataSource(InMemoryTree tree, Executor callbackExecutor) {
+        this.tree = tree;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public InMemoryTree tree() {
+        return tree;
+    }
+
+    /**
+     * Nodes delivered in all events since the last resetCounters()
+     */
+    public long deliveredNodes() {
+        return deliveredNodes.get();
+    }
+
+    /**
+     * Value and child events delivered since the last resetCounters()
+     */
+    public long deliveries() {
+        return deliveries.get();
+    }
+
+    public void resetCounters() {
+        deliveredNodes.set(0);
+        deliveries.set(0);
+    }
+
+    public int liveObserverCount() {
+        return valueObservers.size() + childObservers.size();
+    }
+
+    @Override
+    public void get(DataQuery query, ValueCallback callback) {
+        MemoryNode node = snapshot(query);
+        callbackExecutor.execute(() -> callback.onValue(node));
+    }
+
+    @Override
+    public Handle observe(DataQuery query, ValueCallback callback) {
+        ValueObserver observer = new ValueObserver(query, callback);
+        valueObservers.add(observer);
+        observer.deliver();
+        return () -> {
+            observer.removed = true;
+            valueObservers.remove(observer);
+        };
+    }
+
+    @Override
+    public Handle observeChildren(DataQuery query, ChildCallback callback) {
+        ChildObserver observer = new ChildObserver(query, callback);
+        childObservers.add(observer);
+        observer.deliver(null);
+        return () -> {
+            observer.removed = true;
+            childObservers.remove(observer);
+        };
+    }
+
+    /**
+     * Write the node and notify the observers whose path it touches
+     */
+    @Override
+    public void put(String path, Map<String, Object> value) {
+        tree.put(path, value);
+        for (ValueObserver observer : valueObservers) {
+            if (isSameOrAncestor(path, observer.query.path) || isSameOrAncestor(observer.query.path, path)) {
+                observer.deliver();
+            }
+        }
+        for (ChildObserver observer : childObservers) {
+            String queryPath = observer.query.path;
+            if (isSameOrAncestor(queryPath, path) && !queryPath.equals(path)) {
+                // Written below the query: only the child on that path changed
+                String rest = queryPath.isEmpty() ? path : path.substring(queryPath.length() + 1);
+                int slash = rest.indexOf('/');
+                observer.deliver(slash < 0 ? rest : rest.substring(0, slash));
+            } else if (isSameOrAncestor(path, queryPath)) {
+                observer.deliver(null);
+            }
+        }
+    }
+
+    @Override
+    public void endOfDay(String date) {
+        // Writes are applied immediately
+    }
+
+    // One value event: the read plus its node count
+    private MemoryNode snapshot(DataQuery query) {
+        MemoryNode node = read(query);
+        deliveredNodes.addAndGet(countNodes(node.value));
+        deliveries.incrementAndGet();
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MemoryNode read(DataQuery query) {
+        Object value;
+        synchronized (tree) {
+            Object raw = tree.get(query.path);
+            value = raw instanceof NavigableMap && query.isFiltered()
+                    ? filter((NavigableMap<String, Object>) raw, query)
+                    : copy(raw);
+        }
+        if (value instanceof Map && castMap(value).isEmpty()) {
+            value = null; // like Firebase, a query that matched nothing does not exist
+        }
+        return new MemoryNode(lastSegment(query.path), value);
+    }
+
+    // Children of the query path that pass the key filters, deep-copied
+    private static TreeMap<String, Object> filter(NavigableMap<String, Object> children, DataQuery query) {
+        TreeMap<String, Object> result = new TreeMap<>();
+        if (query.startAt != null && query.endAt != null && query.startAt.compareTo(query.endAt) > 0) {
+            return result;
+        }
+        NavigableMap<String, Object> view = children;
+        if (query.startAt != null) view = view.tailMap(query.startAt, true);
+        if (query.endAt != null) view = view.headMap(query.endAt, true);
+        if (query.limitToLast > 0) {
+            for (Map.Entry<String, Object> entry : view.descendingMap().entrySet()) {
+                if (result.size() == query.limitToLast) break;
+                result.put(entry.getKey(), copy(entry.getValue()));
+            }
+        } else {
+            for (Map.Entry<String, Object> entry : view.entrySet()) {
+                result.put(entry.getKey(), copy(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private static Object copy(Object value) {
+        if (!(value instanceof Map)) return value;
+        TreeMap<String, Object> node = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : castMap(value).entrySet()) {
+            node.put(entry.getKey(), copy(entry.getValue()));
+        }
+        return node;
+    }
+
+    private static long countNodes(Object value) {
+        if (value == null) return 0;
+        long count = 1;
+        if (value instanceof Map) {
+            for (Object child : castMap(value).values()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static boolean isSameOrAncestor(String ancestor, String path) {
+        return ancestor.isEmpty() || path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    private static String lastSegment(String path) {
+        if (path.isEmpty()) return null;
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private final class ValueObserver {
+        final DataQuery query;
+        final ValueCallback callback;
+        volatile boolean removed = false;
+
+        ValueObserver(DataQuery query, ValueCallback callback) {
+            this.query = query;
+            this.callback = callback;
+        }
+
+        void deliver() {
+            MemoryNode node = snapshot(query);
+            callbackExecutor.execute(() -> {
+                if (!removed) callback.onValue(node);
+            });
+        }
+    }
+
+    private final class ChildObserver {
+        final DataQuery query;
+        final ChildCallback callback;
+        final Set<String> seen = Collections.synchronizedSet(new HashSet<>());
+        volatile boolean removed = false;
+
+        ChildObserver(DataQuery query, ChildCallback callback) {
+            this.query = query;
+            this.callback = callback;
+        }
+
+        // One event per child in the filtered result, or only for changedKey when given
+        void deliver(String changedKey) {
+            if (changedKey != null && !query.inKeyRange(changedKey)) return;
+            // Child events count only the children they carry
+            MemoryNode parent = read(query);
+            List<DataNode> children = new ArrayList<>();
+            for (DataNode child : parent.getChildren()) {
+                if (changedKey == null || changedKey.equals(child.getKey())) {
+                    children.add(child);
+                }
+            }
+            for (DataNode child : children) {
+                boolean added = seen.add(child.getKey());
+                deliveredNodes.addAndGet(countNodes(child.getValue()));
+                deliveries.incrementAndGet();
+                callbackExecutor.execute(() -> {
+                    if (removed) return;
+                    if (added) {
+                        callback.onChildAdded(child);
+                    } else {
+                        callback.onChildChanged(child);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot node
+     */
+    private static final class MemoryNode implements DataNode {
+        private final String key;
+        private final Object value;
+
+        MemoryNode(String key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean exists() {
+            return value != null;
+        }
+
+        @Override
+        public Object getValue() {
+            return value instanceof Map ? Collections.unmodifiableMap(castMap(value)) : value;
+        }
+
+        @Override
+        public DataNode child(String path) {
+            Object node = value;
+            for (String segment : path.split("/")) {
+                node = node instanceof Map ? castMap(node).get(segment) : null;
+            }
+            return new MemoryNode(lastSegment(path), node);
+        }
+
+        @Override
+        public Iterable<DataNode> getChildren() {
+            if (!(value instanceof Map)) return Collections.emptyList();
+            List<DataNode> children = new ArrayList<>();
+            for (Map.Entry<String, Object> entry : castMap(value).entrySet()) {
+                children.add(new MemoryNode(entry.getKey(), entry.getValue()));
+            }
+            return children;
+        }
+
+        @Override
+        public long getChildrenCount() {
+            return value instanceof Map ? castMap(value).size() : 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sampleiwatts.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-process stand-in for the Realtime Database tree: nested maps with children
+ * kept in key order, so orderByKey() style reads can be served from it.
+ *
+ * It is a SyntheticWorkload.Sink, so a generated workload can be loaded into it and
+ * read back with no emulator or network.
+ */
+public class InMemoryTree implements SyntheticWorkload.Sink {
+    private final TreeMap<String, Object> root = new TreeMap<>();
+    private long nodeCount = 0;
+
+    @Override
+    public synchronized void put(String path, Map<String, Object> value) {
+        String[] segments = path.split("/");
+        TreeMap<String, Object> parent = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            parent = childMap(parent, segments[i]);
+        }
+        if (parent.put(segments[segments.length - 1], copy(value)) == null) {
+            nodeCount++;
+        }
+    }
+
+    @Override
+    public void endOfDay(String date) {
+        // Nothing is buffered
+    }
+
+    /**
+     * Node at the path: a map, a leaf value or null when nothing is there
+     */
+    public synchronized Object get(String path) {
+        Object node = root;
+        if (path.isEmpty()) return node;
+        for (String segment : path.split("/")) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<?, ?>) node).get(segment);
+        }
+        return node;
+    }
+
+    /**
+     * Children of the node in key order, empty when the node is missing or a leaf
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized SortedMap<String, Object> children(String path) {
+        Object node = get(path);
+        if (!(node instanceof TreeMap)) return Collections.emptySortedMap();
+        return Collections.unmodifiableSortedMap((TreeMap<String, Object>) node);
+    }
+
+    /**
+     * Nodes written through put(), overwrites not counted twice
+     */
+    public synchronized long nodeCount() {
+        return nodeCount;
+    }
+
+    public synchronized void clear() {
+        root.clear();
+        nodeCount = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<String, Object> childMap(TreeMap<String, Object> parent, String key) {
+        Object child = parent.get(key);
+        if (!(child instanceof TreeMap)) {
+            child = new TreeMap<String, Object>();
+            parent.put(key, child);
+        }
+        return (TreeMap<String, Object>) child;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<String, Object> copy(Map<String, Object> value) {
+        TreeMap<String, Object> node = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : value.entrySet()) {
+            Object v = entry.getValue();
+            node.put(entry.getKey(), v instanceof Map ? copy((Map<String, Object>) v) : v);
+        }
+        return node;
+    }
+}
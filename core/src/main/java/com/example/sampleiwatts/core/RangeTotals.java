@@ -0,0 +1,37 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Summed kWh and cost of one date range
+ */
+public class RangeTotals {
+    public int dayCount;
+    public double totalKwh;
+    public double totalCost;
+    public double area1Kwh;
+    public double area2Kwh;
+    public double area3Kwh;
+
+    /**
+     * kWh for area 1, 2 or 3 (0 for anything else)
+     */
+    public double areaKwh(int area) {
+        switch (area) {
+            case 1:
+                return area1Kwh;
+            case 2:
+                return area2Kwh;
+            case 3:
+                return area3Kwh;
+            default:
+                return 0.0;
+        }
+    }
+
+    /**
+     * Share of the area in the combined area kWh, in percent (0 when nothing was used)
+     */
+    public double areaPercent(int area) {
+        double total = area1Kwh + area2Kwh + area3Kwh;
+        return total == 0 ? 0.0 : (areaKwh(area) / total) * 100;
+    }
+}
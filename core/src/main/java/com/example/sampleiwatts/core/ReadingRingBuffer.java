@@ -0,0 +1,238 @@
+package com.example.sampleiwatts.core;
+
+/**
+ * Fixed-capacity buffer of the latest raw ESP32 readings, one primitive array per
+ * field: time, the three area currents in amps, battery percent and a flag byte with
+ * charging and Fluct1..3.
+ *
+ * Readings must be added in time order; once full, each new reading overwrites the
+ * oldest. Window queries take [fromMs, toMs), find the first reading by binary
+ * search and then scan the arrays, so they allocate nothing. Currents are stored as
+ * float: the device reports three decimals, and a day at one reading per second
+ * then fits in about 2 MB.
+ */
+public class ReadingRingBuffer {
+    /** Columns for the current queries; TOTAL is the sum of the three areas */
+    public static final int AREA1 = 1;
+    public static final int AREA2 = 2;
+    public static final int AREA3 = 3;
+    public static final int TOTAL = 0;
+
+    /** Fluctuation bits returned by fluctuations() */
+    public static final int FLUCT1 = 1;
+    public static final int FLUCT2 = 2;
+    public static final int FLUCT3 = 4;
+    private static final int FLUCT_MASK = FLUCT1 | FLUCT2 | FLUCT3;
+    private static final int CHARGING = 8;
+    private static final int HAS_CHARGING = 16;
+
+    private static final byte NO_BATTERY = -1;
+
+    private final long[] times;
+    private final float[] area1;
+    private final float[] area2;
+    private final float[] area3;
+    private final byte[] battery;
+    private final byte[] flags;
+
+    // Slot of the oldest reading and number of readings held
+    private int head = 0;
+    private int size = 0;
+
+    public ReadingRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity " + capacity);
+        times = new long[capacity];
+        area1 = new float[capacity];
+        area2 = new float[capacity];
+        area3 = new float[capacity];
+        battery = new byte[capacity];
+        flags = new byte[capacity];
+    }
+
+    /**
+     * Add a reading. batteryPercent is -1 and charging null when the reading did not
+     * report them; fluctuations is a mix of FLUCT1..3. Returns false, and keeps
+     * nothing, when the reading is older than the newest one held. A reading at the
+     * same time as the newest is kept: readings without a device timestamp share
+     * their bucket's time, so callers drop re-delivered readings by key.
+     */
+    public synchronized boolean add(long timeMs, double current1, double current2, double current3,
+                                    int batteryPercent, Boolean charging, int fluctuations) {
+        if (size > 0 && timeMs < times[slot(size - 1)]) return false;
+
+        int slot;
+        if (size < times.length) {
+            slot = slot(size);
+            size++;
+        } else {
+            slot = head;
+            head = slot(1);
+        }
+        times[slot] = timeMs;
+        area1[slot] = (float) current1;
+        area2[slot] = (float) current2;
+        area3[slot] = (float) current3;
+        battery[slot] = batteryPercent < 0 ? NO_BATTERY : (byte) Math.min(batteryPercent, 100);
+        int f = fluctuations & FLUCT_MASK;
+        if (charging != null) {
+            f |= HAS_CHARGING | (charging ? CHARGING : 0);
+        }
+        flags[slot] = (byte) f;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * Time of the newest reading, Long.MIN_VALUE when empty
+     */
+    public synchronized long newestTimeMs() {
+        return size == 0 ? Long.MIN_VALUE : times[slot(size - 1)];
+    }
+
+    /**
+     * Time of the oldest reading still held, Long.MIN_VALUE when empty
+     */
+    public synchronized long oldestTimeMs() {
+        return size == 0 ? Long.MIN_VALUE : times[head];
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Readings in the window
+     */
+    public synchronized int count(long fromMs, long toMs) {
+        return lowerBound(toMs) - lowerBound(fromMs);
+    }
+
+    /**
+     * Sum of a current column over the window, in amps
+     */
+    public synchronized double sum(int column, long fromMs, long toMs) {
+        double sum = 0.0;
+        for (int i = lowerBound(fromMs), end = lowerBound(toMs); i < end; i++) {
+            sum += value(column, slot(i));
+        }
+        return sum;
+    }
+
+    /**
+     * Average of a current column over the window, 0 when it holds no readings
+     */
+    public synchronized double avg(int column, long fromMs, long toMs) {
+        int from = lowerBound(fromMs);
+        int end = lowerBound(toMs);
+        if (from == end) return 0.0;
+        double sum = 0.0;
+        for (int i = from; i < end; i++) {
+            sum += value(column, slot(i));
+        }
+        return sum / (end - from);
+    }
+
+    /**
+     * Highest value of a current column over the window, 0 when it holds no readings
+     */
+    public synchronized double max(int column, long fromMs, long toMs) {
+        int at = indexOfMax(column, fromMs, toMs);
+        return at < 0 ? 0.0 : value(column, slot(at));
+    }
+
+    /**
+     * Time of the first reading with the highest value of the column, Long.MIN_VALUE
+     * when the window holds no readings
+     */
+    public synchronized long timeOfMax(int column, long fromMs, long toMs) {
+        int at = indexOfMax(column, fromMs, toMs);
+        return at < 0 ? Long.MIN_VALUE : times[slot(at)];
+    }
+
+    /**
+     * FLUCT1..3 bits of every area that reported a fluctuation in the window
+     */
+    public synchronized int fluctuations(long fromMs, long toMs) {
+        int bits = 0;
+        for (int i = lowerBound(fromMs), end = lowerBound(toMs); i < end && bits != FLUCT_MASK; i++) {
+            bits |= flags[slot(i)] & FLUCT_MASK;
+        }
+        return bits;
+    }
+
+    /**
+     * Battery percent of the newest reading in the window that reported one, -1 if none did
+     */
+    public synchronized int latestBattery(long fromMs, long toMs) {
+        for (int i = lowerBound(toMs) - 1, start = lowerBound(fromMs); i >= start; i--) {
+            byte b = battery[slot(i)];
+            if (b != NO_BATTERY) return b;
+        }
+        return -1;
+    }
+
+    /**
+     * Charging state of the newest reading in the window that reported one, false if none did
+     */
+    public synchronized boolean latestCharging(long fromMs, long toMs) {
+        for (int i = lowerBound(toMs) - 1, start = lowerBound(fromMs); i >= start; i--) {
+            int f = flags[slot(i)];
+            if ((f & HAS_CHARGING) != 0) return (f & CHARGING) != 0;
+        }
+        return false;
+    }
+
+    private int indexOfMax(int column, long fromMs, long toMs) {
+        int best = -1;
+        double bestValue = 0.0;
+        for (int i = lowerBound(fromMs), end = lowerBound(toMs); i < end; i++) {
+            double v = value(column, slot(i));
+            if (best < 0 || v > bestValue) {
+                best = i;
+                bestValue = v;
+            }
+        }
+        return best;
+    }
+
+    private double value(int column, int slot) {
+        switch (column) {
+            case AREA1:
+                return area1[slot];
+            case AREA2:
+                return area2[slot];
+            case AREA3:
+                return area3[slot];
+            default:
+                return (double) area1[slot] + area2[slot] + area3[slot];
+        }
+    }
+
+    // Position, counted from the oldest reading, of the first reading at or after timeMs
+    private int lowerBound(long timeMs) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[slot(mid)] < timeMs) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int slot(int position) {
+        int slot = head + position;
+        return slot >= times.length ? slot - times.length : slot;
+    }
+}
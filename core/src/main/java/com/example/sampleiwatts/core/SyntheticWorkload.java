@@ -0,0 +1,187 @@
+package com.example.sampleiwatts.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates ESP32-like data for load testing without a device: log readings under
+ * logs/{yyyy-MM-ddTHH:mm:ss}/{pushKey} with C1_A/C2_A/C3_A, Vbat_percent, Charging and
+ * Fluct1..3, plus the hourly_summaries and daily_summaries rows that match them.
+ *
+ * Log buckets are keyed like the ones the app queries (date + "T" + time), one bucket
+ * per bucketSeconds. Only the last logDays days get log entries; older days only get
+ * their summaries, simulated at one reading per minute, so years of history stay cheap.
+ * The same seed always writes the same paths and values.
+ */
+public class SyntheticWorkload {
+    private static final String PUSH_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long SUMMARY_ONLY_INTERVAL_MS = 60_000L;
+
+    // Typical current of each area in amps at full daytime load
+    private static final double[] AREA_BASE_AMPS = {2.4, 1.6, 0.9};
+
+    /**
+     * Receives every generated node; path is relative to the database root
+     */
+    public interface Sink {
+        void put(String path, Map<String, Object> value);
+
+        /** Called after the last node of a day, a good point to flush a batch */
+        void endOfDay(String date);
+    }
+
+    /** First day, yyyy-MM-dd in Philippine time */
+    public String startDate;
+    public int days;
+    /** How many of the last days also get log entries */
+    public int logDays = 1;
+    /** Time between two readings of the device; 1000 is the real 1 Hz rate */
+    public long readingIntervalMs = 1000L;
+    public int bucketSeconds = 60;
+    public double voltageReference = 220.0;
+    public double costPerKwh = 12.0;
+    /** Chance per reading that an area reports a fluctuation */
+    public double fluctuationChance = 0.0005;
+    public long seed = 1L;
+
+    public SyntheticWorkload(String startDate, int days) {
+        this.startDate = startDate;
+        this.days = days;
+    }
+
+    /**
+     * Number of log entries generate() will write
+     */
+    public long logReadingCount() {
+        return Math.min(logDays, days) * 24L * (HOUR_MS / readingIntervalMs);
+    }
+
+    public void generate(Sink sink) {
+        Random random = new Random(seed);
+        int firstDay = DateKeys.dayOrdinal(startDate);
+        if (firstDay == DateKeys.INVALID) {
+            throw new IllegalArgumentException("Bad start date " + startDate);
+        }
+        long bucketMs = bucketSeconds * 1000L;
+        double battery = 80.0;
+
+        for (int d = 0; d < days; d++) {
+            String date = DateKeys.dayKey(firstDay + d);
+            long dayStart = DateKeys.startOfDayMs(firstDay + d);
+            boolean withLogs = d >= days - logDays;
+            long interval = withLogs ? readingIntervalMs : Math.max(readingIntervalMs, SUMMARY_ONLY_INTERVAL_MS);
+            double intervalHours = interval / (double) HOUR_MS;
+
+            double[] dayKwh = new double[3];
+            double dayPeakWatts = 0.0;
+            long dayPeakAt = dayStart;
+
+            for (int hour = 0; hour < 24; hour++) {
+                double[] hourKwh = new double[3];
+                double hourWattsSum = 0.0;
+                double hourPeakWatts = 0.0;
+                int readings = 0;
+                boolean charging = hour >= 8 && hour < 16;
+                long hourStart = dayStart + hour * HOUR_MS;
+
+                for (long at = hourStart; at < hourStart + HOUR_MS; at += interval) {
+                    double load = loadFactor(hour) * (0.8 + 0.4 * random.nextDouble());
+                    double c1 = AREA_BASE_AMPS[0] * load;
+                    double c2 = AREA_BASE_AMPS[1] * load * (0.7 + 0.6 * random.nextDouble());
+                    double c3 = AREA_BASE_AMPS[2] * load * (0.5 + random.nextDouble());
+                    double watts = voltageReference * (c1 + c2 + c3);
+
+                    hourKwh[0] += voltageReference * c1 / 1000.0 * intervalHours;
+                    hourKwh[1] += voltageReference * c2 / 1000.0 * intervalHours;
+                    hourKwh[2] += voltageReference * c3 / 1000.0 * intervalHours;
+                    hourWattsSum += watts;
+                    readings++;
+                    hourPeakWatts = Math.max(hourPeakWatts, watts);
+                    if (watts > dayPeakWatts) {
+                        dayPeakWatts = watts;
+                        dayPeakAt = at;
+                    }
+                    battery = Math.max(5.0, Math.min(100.0, battery + (charging ? 0.002 : -0.0008) * interval / 1000.0));
+
+                    if (withLogs) {
+                        Map<String, Object> entry = new LinkedHashMap<>();
+                        entry.put("C1_A", round(c1, 3));
+                        entry.put("C2_A", round(c2, 3));
+                        entry.put("C3_A", round(c3, 3));
+                        entry.put("Vbat_percent", Math.round(battery));
+                        entry.put("Charging", charging);
+                        entry.put("Fluct1", random.nextDouble() < fluctuationChance ? 1L : 0L);
+                        entry.put("Fluct2", random.nextDouble() < fluctuationChance ? 1L : 0L);
+                        entry.put("Fluct3", random.nextDouble() < fluctuationChance ? 1L : 0L);
+                        entry.put("timestamp", at);
+                        String bucket = DateKeys.bucketKey(at - (at - dayStart) % bucketMs);
+                        sink.put("logs/" + bucket + "/" + pushKey(at, random), entry);
+                    }
+                }
+
+                double hourTotalKwh = hourKwh[0] + hourKwh[1] + hourKwh[2];
+                Map<String, Object> hourly = new LinkedHashMap<>();
+                hourly.put("total_kwh", round(hourTotalKwh, 4));
+                hourly.put("total_cost", round(hourTotalKwh * costPerKwh, 2));
+                hourly.put("area1_kwh", round(hourKwh[0], 4));
+                hourly.put("area2_kwh", round(hourKwh[1], 4));
+                hourly.put("area3_kwh", round(hourKwh[2], 4));
+                hourly.put("peak_watts", round(hourPeakWatts, 1));
+                hourly.put("avg_watts", round(hourWattsSum / readings, 1));
+                sink.put("hourly_summaries/" + date + "/" + DateKeys.hourKey(hour), hourly);
+
+                for (int a = 0; a < 3; a++) {
+                    dayKwh[a] += hourKwh[a];
+                }
+            }
+
+            double dayTotalKwh = dayKwh[0] + dayKwh[1] + dayKwh[2];
+            Map<String, Object> breakdown = new LinkedHashMap<>();
+            for (int a = 0; a < 3; a++) {
+                Map<String, Object> area = new LinkedHashMap<>();
+                area.put("kwh", round(dayKwh[a], 4));
+                area.put("cost", round(dayKwh[a] * costPerKwh, 2));
+                breakdown.put("area" + (a + 1), area);
+            }
+            Map<String, Object> daily = new LinkedHashMap<>();
+            daily.put("total_kwh", round(dayTotalKwh, 4));
+            daily.put("total_cost", round(dayTotalKwh * costPerKwh, 2));
+            daily.put("peak_watts", round(dayPeakWatts, 1));
+            daily.put("peak_time", DateKeys.timeOfDay(dayPeakAt));
+            daily.put("area_breakdown", breakdown);
+            sink.put("daily_summaries/" + date, daily);
+            sink.endOfDay(date);
+        }
+    }
+
+    // Night base load, daytime use and the evening peak
+    private static double loadFactor(int hour) {
+        if (hour < 6) return 0.25;
+        if (hour < 18) return 0.7;
+        if (hour < 22) return 1.0;
+        return 0.4;
+    }
+
+    /**
+     * Firebase-style push key: 8 time characters then 12 random ones, so keys sort by time
+     */
+    static String pushKey(long timeMs, Random random) {
+        char[] key = new char[20];
+        long time = timeMs;
+        for (int i = 7; i >= 0; i--) {
+            key[i] = PUSH_CHARS.charAt((int) (time % 64));
+            time /= 64;
+        }
+        for (int i = 8; i < 20; i++) {
+            key[i] = PUSH_CHARS.charAt(random.nextInt(64));
+        }
+        return new String(key);
+    }
+
+    private static double round(double value, int places) {
+        double scale = Math.pow(10, places);
+        return Math.round(value * scale) / scale;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.sampleiwatts.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Running kWh and cost of the cost filter range, checked against the threshold node.
+ *
+ * The totals are seeded once per range from the local rollup together with the stored
+ * rows of the days that can still change. After that every hourly row only moves the
+ * totals by its difference from the last value seen for that hour, so an update and
+ * the threshold check are O(1) instead of re-summing the range.
+ *
+ * Alert rules, per kWh and cost: a stepped "near" alert from START_PERCENT in
+ * STEP_PERCENT steps, one "reached" alert at 100%, and one final alert at 103%
+ * after which nothing else is sent.
+ */
+public class ThresholdEvaluator {
+    public static final double STEP_PERCENT = 3.0; // notify each +3%
+    public static final double START_PERCENT = 85.0; // start notifying at 85% (e.g., 6.0/7.0)
+    private static final double EXCEEDED_PERCENT = 103.0;
+
+    /**
+     * One notification to send
+     */
+    public static class Alert {
+        public final String title;
+        public final String message;
+        public final boolean isFinal;
+
+        Alert(String title, String message, boolean isFinal) {
+            this.title = title;
+            this.message = message;
+            this.isFinal = isFinal;
+        }
+    }
+
+    private Double kwhLimit;
+    private Double costLimit;
+
+    private DateRange range;
+    private boolean seeded = false;
+    private double totalKwh;
+    private double totalCost;
+    // "date/hour" -> {kwh, cost} already counted in the totals
+    private final Map<String, double[]> countedHours = new HashMap<>();
+
+    private int lastKwhStepSent = -1; // step index from START_PERCENT in STEP_PERCENT increments
+    private int lastCostStepSent = -1;
+    private boolean reachedKwhSent = false; // for 100% but < 103%
+    private boolean reachedCostSent = false;
+    private boolean finalAlertSent = false;
+
+    public void setLimits(Double kwhLimit, Double costLimit, boolean finalNotified) {
+        this.kwhLimit = kwhLimit;
+        this.costLimit = costLimit;
+        this.finalAlertSent = finalNotified;
+    }
+
+    public boolean hasLimits() {
+        return kwhLimit != null || costLimit != null;
+    }
+
+    /**
+     * Start over for a new range: totals of the whole range plus the stored rows of
+     * the days whose hours may still be updated
+     */
+    public void seed(DateRange range, RangeTotals totals, List<HourlySummary> changingHours) {
+        this.range = range;
+        this.totalKwh = totals.totalKwh;
+        this.totalCost = totals.totalCost;
+        countedHours.clear();
+        for (HourlySummary h : changingHours) {
+            if (range.contains(h.date)) {
+                countedHours.put(h.date + "/" + h.hour, new double[]{h.totalKwh, h.totalCost});
+            }
+        }
+        seeded = true;
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Fold one new or updated hourly row into the totals
+     */
+    public void applyHour(HourlySummary h) {
+        if (!seeded || !range.contains(h.date)) return;
+        String key = h.date + "/" + h.hour;
+        double[] counted = countedHours.get(key);
+        if (counted == null) {
+            countedHours.put(key, new double[]{h.totalKwh, h.totalCost});
+            totalKwh += h.totalKwh;
+            totalCost += h.totalCost;
+        } else {
+            totalKwh += h.totalKwh - counted[0];
+            totalCost += h.totalCost - counted[1];
+            counted[0] = h.totalKwh;
+            counted[1] = h.totalCost;
+        }
+    }
+
+    public double getTotalKwh() {
+        return totalKwh;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Alerts due for the current totals; each is returned only once
+     */
+    public List<Alert> evaluate() {
+        List<Alert> alerts = new ArrayList<>();
+        if (!seeded || finalAlertSent) return alerts;
+
+        boolean hasKwhLimit = (kwhLimit != null && kwhLimit > 0);
+        boolean hasCostLimit = (costLimit != null && costLimit > 0);
+        double kwhPercent = hasKwhLimit ? (totalKwh / kwhLimit) * 100.0 : 0.0;
+        double costPercent = hasCostLimit ? (totalCost / costLimit) * 100.0 : 0.0;
+
+        boolean kwhNear = hasKwhLimit && kwhPercent >= START_PERCENT && kwhPercent < 100.0;
+        boolean costNear = hasCostLimit && costPercent >= START_PERCENT && costPercent < 100.0;
+        boolean kwhReached = hasKwhLimit && kwhPercent >= 100.0;
+        boolean costReached = hasCostLimit && costPercent >= 100.0;
+        boolean kwhExceeded = hasKwhLimit && kwhPercent >= EXCEEDED_PERCENT;
+        boolean costExceeded = hasCostLimit && costPercent >= EXCEEDED_PERCENT;
+
+        // Final one-time notification when exceeded
+        if (kwhExceeded || costExceeded) {
+            finalAlertSent = true;
+            String finalMsg = String.format(Locale.getDefault(), "Exceeded: kWh %.3f / %.3f, Cost ₱%.2f / ₱%.2f",
+                    totalKwh,
+                    kwhLimit != null ? kwhLimit : 0.0,
+                    totalCost,
+                    costLimit != null ? costLimit : 0.0);
+            alerts.add(new Alert("Threshold Exceeded", finalMsg, true));
+            return alerts; // stop further near alerts after final
+        }
+
+        // One-time 100% reached alert (before 103%)
+        if (kwhReached || costReached) {
+            boolean send = false;
+            if (kwhReached && !reachedKwhSent) { reachedKwhSent = true; send = true; }
+            if (costReached && !reachedCostSent) { reachedCostSent = true; send = true; }
+            if (send) {
+                String reachedMsg = String.format(Locale.getDefault(), "Reached: kWh %.3f / %.3f, Cost ₱%.2f / ₱%.2f",
+                        totalKwh,
+                        hasKwhLimit ? kwhLimit : 0.0,
+                        totalCost,
+                        hasCostLimit ? costLimit : 0.0);
+                alerts.add(new Alert("Threshold Reached", reachedMsg, false));
+            }
+        }
+
+        if (kwhNear || costNear) {
+            boolean shouldNotify = false;
+            if (kwhNear) {
+                int stepIdx = (int) Math.floor((kwhPercent - START_PERCENT) / STEP_PERCENT);
+                if (stepIdx > lastKwhStepSent) {
+                    lastKwhStepSent = stepIdx;
+                    shouldNotify = true;
+                }
+            }
+            if (costNear) {
+                int stepIdx = (int) Math.floor((costPercent - START_PERCENT) / STEP_PERCENT);
+                if (stepIdx > lastCostStepSent) {
+                    lastCostStepSent = stepIdx;
+                    shouldNotify = true;
+                }
+            }
+
+            if (shouldNotify) {
+                StringBuilder msg = new StringBuilder();
+                msg.append(String.format(Locale.getDefault(), "kWh %.3f / %.3f (%.0f%%)", totalKwh, hasKwhLimit ? kwhLimit : 0.0, kwhPercent));
+                msg.append(", ");
+                msg.append(String.format(Locale.getDefault(), "Cost ₱%.2f / ₱%.2f (%.0f%%)", totalCost, hasCostLimit ? costLimit : 0.0, costPercent));
+                alerts.add(new Alert("Threshold Alert", msg.toString(), false));
+            }
+        }
+        return alerts;
+    }
+}
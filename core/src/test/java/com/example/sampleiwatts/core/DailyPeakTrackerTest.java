@@ -0,0 +1,177 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DailyPeakTrackerTest {
+    private static final double NONE = Double.NaN;
+    private static final int DAY = DateKeys.dayOrdinal("2025-03-10");
+    // Midnight of 2025-03-10 and 2025-03-11, Manila time
+    private static final long D0 = DateKeys.startOfDayMs(DAY);
+    private static final long D1 = DateKeys.startOfDayMs(DAY + 1);
+
+    private DailyPeakTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new DailyPeakTracker();
+    }
+
+    @Test
+    public void empty_hasNoPeaks() {
+        assertNull(tracker.snapshot());
+        assertNull(tracker.peaksFor("2025-03-10"));
+    }
+
+    @Test
+    public void add_keepsPerAreaPeaksAndTimes() {
+        tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1.0, 5.0, 0.5, NONE, NONE, NONE);
+        tracker.add(D0 + 2000, key(D0 + 2000, "a"), 4.0, 2.0, 0.5, NONE, NONE, NONE);
+        tracker.add(D0 + 3000, key(D0 + 3000, "a"), 3.0, 5.0, 0.25, NONE, NONE, NONE);
+
+        DailyPeaks p = tracker.peaksFor("2025-03-10");
+        assertEquals("2025-03-10", p.date);
+        assertEquals(3, p.readings);
+        assertEquals(4.0, p.area1PeakAmps, 0.0);
+        assertEquals(D0 + 2000, p.area1PeakTimeMs);
+        // Ties keep the first time
+        assertEquals(5.0, p.area2PeakAmps, 0.0);
+        assertEquals(D0 + 1000, p.area2PeakTimeMs);
+        assertEquals(0.5, p.area3PeakAmps, 0.0);
+        assertEquals(D0 + 1000, p.area3PeakTimeMs);
+        assertEquals(key(D0 + 3000, "a"), p.lastKey);
+    }
+
+    @Test
+    public void fluctuations_countedOnlyAboveZero() {
+        tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1, 1, 1, 2.5, 0.0, NONE);
+        tracker.add(D0 + 2000, key(D0 + 2000, "a"), 1, 1, 1, 1.5, -1.0, NONE);
+        tracker.add(D0 + 3000, key(D0 + 3000, "a"), 1, 1, 1, 0.0, 0.0, 7.0);
+        tracker.add(D0 + 4000, key(D0 + 4000, "a"), 1, 1, 1, 4.0, NONE, 0.5);
+
+        DailyPeaks p = tracker.snapshot();
+        assertEquals(3, p.area1FluctuationCount);
+        assertEquals(4.0, p.area1MaxFluctuation, 0.0);
+        assertEquals(0, p.area2FluctuationCount);
+        assertEquals(0.0, p.area2MaxFluctuation, 0.0);
+        assertEquals(2, p.area3FluctuationCount);
+        assertEquals(7.0, p.area3MaxFluctuation, 0.0);
+    }
+
+    @Test
+    public void add_keyNotAfterLast_isIgnored() {
+        assertTrue(tracker.add(D0 + 2000, key(D0 + 2000, "b"), 1, 1, 1, 1, NONE, NONE));
+        assertFalse(tracker.add(D0 + 2000, key(D0 + 2000, "b"), 9, 9, 9, 1, NONE, NONE));
+        assertFalse(tracker.add(D0 + 2000, key(D0 + 2000, "a"), 9, 9, 9, 1, NONE, NONE));
+        assertTrue(tracker.add(D0 + 2000, key(D0 + 2000, "c"), 2, 2, 2, NONE, NONE, NONE));
+
+        DailyPeaks p = tracker.snapshot();
+        assertEquals(2, p.readings);
+        assertEquals(1, p.area1FluctuationCount);
+        assertEquals(2.0, p.area1PeakAmps, 0.0);
+    }
+
+    @Test
+    public void dayRollover_startsNewDayAndIgnoresEarlierDay() {
+        tracker.add(D1 - 1000, key(D1 - 1000, "a"), 8.0, 8.0, 8.0, 3.0, 3.0, 3.0);
+        assertEquals("2025-03-10", tracker.snapshot().date);
+
+        // Midnight, Manila time, belongs to the next day
+        assertTrue(tracker.add(D1, key(D1, "a"), 1.0, 2.0, 3.0, NONE, NONE, NONE));
+        assertNull(tracker.peaksFor("2025-03-10"));
+        DailyPeaks p = tracker.peaksFor("2025-03-11");
+        assertEquals(1, p.readings);
+        assertEquals(1.0, p.area1PeakAmps, 0.0);
+        assertEquals(0, p.area1FluctuationCount);
+        assertEquals(D1, p.area1PeakTimeMs);
+
+        // A late reading of the previous day is dropped, even with a later key
+        assertFalse(tracker.add(D1 - 500, key(D1, "z"), 20.0, 20.0, 20.0, NONE, NONE, NONE));
+        assertEquals(1, tracker.snapshot().readings);
+        assertEquals("2025-03-11", tracker.snapshot().date);
+    }
+
+    @Test
+    public void restore_thenAddOverlappingLogs_countsOnlyNewKeys() {
+        DailyPeaks saved = new DailyPeaks();
+        saved.date = "2025-03-10";
+        saved.lastKey = key(D0 + 5000, "m");
+        saved.readings = 10;
+        saved.area1PeakAmps = 6.0;
+        saved.area1PeakTimeMs = D0 + 4000;
+        saved.area1FluctuationCount = 2;
+        saved.area1MaxFluctuation = 1.0;
+        assertTrue(tracker.restore(saved));
+
+        // Replayed from the start of the stored bucket: already counted
+        assertFalse(tracker.add(D0 + 5000, key(D0 + 5000, "a"), 50.0, 0, 0, 9.0, NONE, NONE));
+        assertFalse(tracker.add(D0 + 5000, key(D0 + 5000, "m"), 50.0, 0, 0, 9.0, NONE, NONE));
+        DailyPeaks p = tracker.snapshot();
+        assertEquals(10, p.readings);
+        assertEquals(6.0, p.area1PeakAmps, 0.0);
+        assertEquals(2, p.area1FluctuationCount);
+
+        assertTrue(tracker.add(D0 + 5000, key(D0 + 5000, "n"), 7.0, 0, 0, 3.0, NONE, NONE));
+        p = tracker.snapshot();
+        assertEquals(11, p.readings);
+        assertEquals(7.0, p.area1PeakAmps, 0.0);
+        assertEquals(D0 + 5000, p.area1PeakTimeMs);
+        assertEquals(3, p.area1FluctuationCount);
+        assertEquals(3.0, p.area1MaxFluctuation, 0.0);
+
+        // The tracker holds a copy
+        assertEquals(10, saved.readings);
+    }
+
+    @Test
+    public void restore_ignoredForSameOrEarlierDayOrBadDate() {
+        tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1, 1, 1, NONE, NONE, NONE);
+
+        assertFalse(tracker.restore(peaks("2025-03-10", 99)));
+        assertFalse(tracker.restore(peaks("2025-03-09", 99)));
+        assertFalse(tracker.restore(peaks("2025-02-30", 99)));
+        assertFalse(tracker.restore(peaks(null, 99)));
+        assertFalse(tracker.restore(null));
+        assertEquals(1, tracker.snapshot().readings);
+
+        assertTrue(tracker.restore(peaks("2025-03-11", 99)));
+        assertEquals(99, tracker.peaksFor("2025-03-11").readings);
+    }
+
+    @Test
+    public void restore_withoutLastKey_acceptsFirstReading() {
+        assertTrue(tracker.restore(peaks("2025-03-10", 0)));
+        assertTrue(tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1, 1, 1, NONE, NONE, NONE));
+        assertEquals(1, tracker.snapshot().readings);
+    }
+
+    @Test
+    public void snapshot_isACopy() {
+        tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1, 1, 1, NONE, NONE, NONE);
+        tracker.snapshot().readings = 50;
+        assertEquals(1, tracker.snapshot().readings);
+    }
+
+    @Test
+    public void clear_acceptsEarlierDayAgain() {
+        tracker.add(D1 + 1000, key(D1 + 1000, "a"), 1, 1, 1, NONE, NONE, NONE);
+        tracker.clear();
+        assertNull(tracker.snapshot());
+        assertTrue(tracker.add(D0 + 1000, key(D0 + 1000, "a"), 1, 1, 1, NONE, NONE, NONE));
+        assertEquals("2025-03-10", tracker.snapshot().date);
+    }
+
+    // bucketKey/pushKey log key of a reading
+    private static String key(long timeMs, String pushKey) {
+        return DateKeys.bucketKey(timeMs) + "/" + pushKey;
+    }
+
+    private static DailyPeaks peaks(String date, int readings) {
+        DailyPeaks p = new DailyPeaks();
+        p.date = date;
+        p.readings = readings;
+        return p;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DailyPrefixIndexTest {
+    private static final double EPS = 1e-9;
+
+    private DailyPrefixIndex index;
+
+    @Before
+    public void setUp() {
+        index = new DailyPrefixIndex();
+        // kWh 1..5, cost 10x, areas split 50/30/20
+        index.append("2025-01-30", 1.0, 10.0, 0.5, 0.3, 0.2);
+        index.append("2025-01-31", 2.0, 20.0, 1.0, 0.6, 0.4);
+        index.append("2025-02-01", 3.0, 30.0, 1.5, 0.9, 0.6);
+        index.append("2025-02-03", 4.0, 40.0, 2.0, 1.2, 0.8);
+        index.append("2025-02-04", 5.0, 50.0, 2.5, 1.5, 1.0);
+    }
+
+    @Test
+    public void wholeRange_sumsEveryDay() {
+        RangeTotals totals = index.totals(new DateRange("2025-01-30", "2025-02-04"));
+        assertEquals(5, totals.dayCount);
+        assertEquals(15.0, totals.totalKwh, EPS);
+        assertEquals(150.0, totals.totalCost, EPS);
+        assertEquals(7.5, totals.area1Kwh, EPS);
+        assertEquals(4.5, totals.area2Kwh, EPS);
+        assertEquals(3.0, totals.area3Kwh, EPS);
+    }
+
+    @Test
+    public void rangeWiderThanIndex_sumsEveryDay() {
+        RangeTotals totals = index.totals(new DateRange("2024-12-01", "2025-03-01"));
+        assertEquals(5, totals.dayCount);
+        assertEquals(15.0, totals.totalKwh, EPS);
+    }
+
+    @Test
+    public void subRange_sumsOnlyInnerDays() {
+        RangeTotals totals = index.totals(new DateRange("2025-01-31", "2025-02-03"));
+        assertEquals(3, totals.dayCount);
+        assertEquals(9.0, totals.totalKwh, EPS);
+        assertEquals(90.0, totals.totalCost, EPS);
+    }
+
+    @Test
+    public void subRange_boundsOnMissingDays() {
+        // 2025-02-02 has no summary, so both ends fall between stored days
+        RangeTotals totals = index.totals(new DateRange("2025-02-02", "2025-02-02"));
+        assertEquals(0, totals.dayCount);
+        assertEquals(0.0, totals.totalKwh, EPS);
+
+        totals = index.totals(new DateRange("2025-02-02", "2025-02-10"));
+        assertEquals(2, totals.dayCount);
+        assertEquals(9.0, totals.totalKwh, EPS);
+    }
+
+    @Test
+    public void singleDay_returnsThatDay() {
+        RangeTotals totals = index.totals(new DateRange("2025-02-01", "2025-02-01"));
+        assertEquals(1, totals.dayCount);
+        assertEquals(3.0, totals.totalKwh, EPS);
+        assertEquals(30.0, totals.totalCost, EPS);
+        assertEquals(1.5, totals.areaKwh(1), EPS);
+        assertEquals(50.0, totals.areaPercent(1), EPS);
+    }
+
+    @Test
+    public void rangeOutsideIndex_isEmpty() {
+        RangeTotals before = index.totals(new DateRange("2024-01-01", "2025-01-29"));
+        RangeTotals after = index.totals(new DateRange("2025-02-05", "2025-12-31"));
+        assertEquals(0, before.dayCount);
+        assertEquals(0.0, before.totalKwh, EPS);
+        assertEquals(0, after.dayCount);
+        assertEquals(0.0, after.areaPercent(1), EPS);
+    }
+
+    @Test
+    public void emptyIndex_isEmpty() {
+        RangeTotals totals = new DailyPrefixIndex().totals(new DateRange("2025-01-01", "2025-12-31"));
+        assertEquals(0, totals.dayCount);
+        assertEquals(0.0, totals.totalCost, EPS);
+    }
+
+    @Test
+    public void truncateFrom_dropsDayAndLater() {
+        index.truncateFrom("2025-02-01");
+        assertEquals(2, index.size());
+        RangeTotals totals = index.totals(new DateRange("2025-01-30", "2025-02-04"));
+        assertEquals(2, totals.dayCount);
+        assertEquals(3.0, totals.totalKwh, EPS);
+    }
+
+    @Test
+    public void truncateFrom_thenAppend_replacesChangedDays() {
+        index.truncateFrom("2025-02-01");
+        index.append("2025-02-01", 6.0, 60.0, 3.0, 2.0, 1.0);
+        index.append("2025-02-03", 4.0, 40.0, 2.0, 1.2, 0.8);
+
+        RangeTotals totals = index.totals(new DateRange("2025-01-30", "2025-02-04"));
+        assertEquals(4, totals.dayCount);
+        assertEquals(13.0, totals.totalKwh, EPS);
+        assertEquals(130.0, totals.totalCost, EPS);
+        assertEquals(6.0, index.totals(new DateRange("2025-02-01", "2025-02-01")).totalKwh, EPS);
+    }
+
+    @Test
+    public void truncateFrom_missingDay_cutsAtNextDay() {
+        index.truncateFrom("2025-02-02");
+        assertEquals(3, index.size());
+        assertEquals("2025-02-01", index.days().get(2));
+    }
+
+    @Test
+    public void append_growsPastInitialCapacity() {
+        DailyPrefixIndex large = new DailyPrefixIndex();
+        int first = DateKeys.dayOrdinal("2024-01-01");
+        for (int day = 0; day < 400; day++) {
+            large.append(DateKeys.dayKey(first + day), 1.0, 2.0, 0.0, 0.0, 0.0);
+        }
+        RangeTotals totals = large.totals(new DateRange("2024-01-01", "2024-12-31"));
+        assertEquals(366, totals.dayCount);
+        assertEquals(366.0, totals.totalKwh, EPS);
+        assertEquals(732.0, totals.totalCost, EPS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_rejectsOutOfOrderDay() {
+        index.append("2025-02-04", 1.0, 1.0, 0.0, 0.0, 0.0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class DashboardSnapshotCodecTest {
+
+    @Test
+    public void populatedSnapshot_roundTrips() throws IOException {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.savedAtMs = 1_741_564_800_123L;
+        snapshot.electricityRate = 11.8092;
+        snapshot.trendPercent = -12.5;
+        snapshot.batteryPercent = 87;
+        snapshot.charging = true;
+        snapshot.aggregate = new EnergyAggregate(12.345678, 145.79, new double[]{4.1, 5.2, 3.045678},
+                Arrays.asList("2024-02-28", "2024-02-29", "2024-03-01"),
+                new double[]{1.5, 2.25, 8.595678},
+                new double[]{17.75, 26.5, 101.54},
+                new double[][]{{0.5, 1.0, 2.6}, {0.75, 0.75, 3.7}, {0.25, 0.5, 2.295678}},
+                1234.5, "2024-02-29", "14", true, 987.25, "2024-03-01", "19:45:00");
+
+        DashboardSnapshot decoded = DashboardSnapshotCodec.decode(DashboardSnapshotCodec.encode(snapshot));
+
+        assertEquals(snapshot.savedAtMs, decoded.savedAtMs);
+        assertEquals(11.8092, decoded.electricityRate, 0.0);
+        assertEquals(-12.5, decoded.trendPercent, 0.0);
+        assertEquals(87, decoded.batteryPercent);
+        assertTrue(decoded.charging);
+
+        EnergyAggregate a = decoded.aggregate;
+        // Totals and peaks are doubles
+        assertEquals(12.345678, a.totalKwh, 0.0);
+        assertEquals(145.79, a.totalCost, 0.0);
+        assertEquals(4.1, a.areaKwh(1), 0.0);
+        assertEquals(5.2, a.areaKwh(2), 0.0);
+        assertEquals(3.045678, a.areaKwh(3), 0.0);
+        assertEquals(1234.5, a.hourlyPeakWatts, 0.0);
+        assertEquals("2024-02-29", a.hourlyPeakDate);
+        assertEquals("14", a.hourlyPeakHour);
+        assertTrue(a.hasDailyPeak);
+        assertEquals(987.25, a.dailyPeakWatts, 0.0);
+        assertEquals("2024-03-01", a.dailyPeakDate);
+        assertEquals("19:45:00", a.dailyPeakTime);
+
+        // The daily series are floats
+        assertEquals(Arrays.asList("2024-02-28", "2024-02-29", "2024-03-01"), a.dayKeys());
+        assertEquals(1.5, a.dailyKwh(0), 0.0);
+        assertEquals(2.25, a.dailyKwh(1), 0.0);
+        assertEquals((float) 8.595678, a.dailyKwh(2), 0.0);
+        assertEquals((float) 101.54, a.dailyCost(2), 0.0);
+        assertEquals(0.75, a.dailyAreaKwh(2, 1), 0.0);
+        assertEquals((float) 2.295678, a.dailyAreaKwh(3, 2), 0.0);
+    }
+
+    @Test
+    public void emptySnapshot_roundTrips() throws IOException {
+        DashboardSnapshot decoded = DashboardSnapshotCodec.decode(DashboardSnapshotCodec.encode(new DashboardSnapshot()));
+        assertEquals(0L, decoded.savedAtMs);
+        assertNull(decoded.aggregate);
+        assertTrue(Double.isNaN(decoded.electricityRate));
+        assertTrue(Double.isNaN(decoded.trendPercent));
+        assertEquals(-1, decoded.batteryPercent);
+        assertFalse(decoded.charging);
+    }
+
+    @Test
+    public void aggregateWithoutDaysOrPeaks_roundTrips() throws IOException {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.aggregate = new EnergyAggregate(0.0, 0.0, new double[3],
+                Collections.<String>emptyList(), new double[0], new double[0], new double[3][0],
+                0.0, null, null, false, 0.0, null, null);
+
+        EnergyAggregate a = DashboardSnapshotCodec.decode(DashboardSnapshotCodec.encode(snapshot)).aggregate;
+        assertNotNull(a);
+        assertEquals(0, a.dayCount());
+        assertNull(a.hourlyPeakDate);
+        assertNull(a.dailyPeakTime);
+        assertFalse(a.hasDailyPeak);
+    }
+
+    @Test
+    public void batteryPercent_clampedToHundred() throws IOException {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.batteryPercent = 180;
+        assertEquals(100, DashboardSnapshotCodec.decode(DashboardSnapshotCodec.encode(snapshot)).batteryPercent);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_badDayKey_throws() {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.aggregate = new EnergyAggregate(0.0, 0.0, new double[3],
+                Collections.singletonList("2024-02-30"), new double[1], new double[1], new double[3][1],
+                0.0, null, null, false, 0.0, null, null);
+        DashboardSnapshotCodec.encode(snapshot);
+    }
+
+    @Test
+    public void truncatedBytes_throwIOException() {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.electricityRate = 11.8;
+        snapshot.batteryPercent = 50;
+        snapshot.aggregate = new EnergyAggregate(3.0, 30.0, new double[]{1.0, 1.0, 1.0},
+                Arrays.asList("2025-03-09", "2025-03-10"), new double[]{1.0, 2.0}, new double[]{10.0, 20.0},
+                new double[][]{{0.5, 0.5}, {0.25, 0.75}, {0.25, 0.75}},
+                500.0, "2025-03-10", "08", true, 400.0, "2025-03-10", "08:15:00");
+        byte[] whole = DashboardSnapshotCodec.encode(snapshot);
+
+        // Every strict prefix, down to nothing
+        for (int length = 0; length < whole.length; length++) {
+            byte[] cut = Arrays.copyOf(whole, length);
+            try {
+                DashboardSnapshotCodec.decode(cut);
+                fail("Decoded " + length + " of " + whole.length + " bytes");
+            } catch (IOException expected) {
+                // Truncated
+            }
+        }
+    }
+
+    @Test
+    public void badMagic_throwsIOException() {
+        byte[] data = DashboardSnapshotCodec.encode(new DashboardSnapshot());
+        data[0] = 'X';
+        try {
+            DashboardSnapshotCodec.decode(data);
+            fail("Decoded a snapshot with a bad magic number");
+        } catch (IOException e) {
+            assertEquals("Not a dashboard snapshot", e.getMessage());
+        }
+    }
+
+    @Test
+    public void badVersion_throwsIOException() {
+        byte[] data = DashboardSnapshotCodec.encode(new DashboardSnapshot());
+        // The version byte follows the four-byte magic
+        assertEquals(1, data[4]);
+        data[4] = 2;
+        try {
+            DashboardSnapshotCodec.decode(data);
+            fail("Decoded a snapshot of another version");
+        } catch (IOException e) {
+            assertEquals("Unsupported snapshot version 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void corruptDayCount_throwsIOException() {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.aggregate = new EnergyAggregate(0.0, 0.0, new double[3],
+                Collections.singletonList("2025-03-10"), new double[1], new double[1], new double[3][1],
+                0.0, null, null, false, 0.0, null, null);
+        byte[] data = DashboardSnapshotCodec.encode(snapshot);
+        // The day count sits just before the single 24-byte day
+        int countAt = data.length - 24 - 4;
+        assertEquals(1, data[countAt + 3]);
+        data[countAt] = 0x7f;
+        try {
+            DashboardSnapshotCodec.decode(data);
+            fail("Decoded a day count beyond the data");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Bad day count"));
+        }
+    }
+}
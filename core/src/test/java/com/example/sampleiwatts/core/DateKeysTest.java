@@ -0,0 +1,155 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.*;
+
+public class DateKeysTest {
+    private static final ZoneId MANILA = ZoneId.of("Asia/Manila");
+
+    @Test
+    public void dayOrdinal_epochIsZero() {
+        assertEquals(0, DateKeys.dayOrdinal("1970-01-01"));
+        assertEquals(-1, DateKeys.dayOrdinal("1969-12-31"));
+        assertEquals("1970-01-01", DateKeys.dayKey(0));
+    }
+
+    @Test
+    public void dayKey_roundTripsEveryDayAgainstJavaTime() {
+        // 1999-01-01 .. 2101-12-31 covers the 2000 (leap) and 2100 (not leap) centuries
+        int from = DateKeys.dayOrdinal("1999-01-01");
+        int to = DateKeys.dayOrdinal("2101-12-31");
+        for (int day = from; day <= to; day++) {
+            String key = DateKeys.dayKey(day);
+            assertEquals(LocalDate.ofEpochDay(day).toString(), key);
+            assertEquals(day, DateKeys.dayOrdinal(key));
+        }
+    }
+
+    @Test
+    public void leapDays() {
+        assertEquals(DateKeys.dayOrdinal("2024-03-01") - 1, DateKeys.dayOrdinal("2024-02-29"));
+        assertEquals(DateKeys.dayOrdinal("2000-03-01") - 1, DateKeys.dayOrdinal("2000-02-29"));
+        assertEquals(DateKeys.INVALID, DateKeys.dayOrdinal("2023-02-29"));
+        assertEquals(DateKeys.INVALID, DateKeys.dayOrdinal("2100-02-29"));
+        assertEquals(29, DateKeys.daysInMonth(2024, 2));
+        assertEquals(28, DateKeys.daysInMonth(1900, 2));
+    }
+
+    @Test
+    public void monthEnds_rollOverToNextMonth() {
+        assertEquals("2025-02-01", DateKeys.dayKey(DateKeys.dayOrdinal("2025-01-31") + 1));
+        assertEquals("2025-05-01", DateKeys.dayKey(DateKeys.dayOrdinal("2025-04-30") + 1));
+        assertEquals("2026-01-01", DateKeys.dayKey(DateKeys.dayOrdinal("2025-12-31") + 1));
+        assertEquals(DateKeys.INVALID, DateKeys.dayOrdinal("2025-04-31"));
+        assertEquals(DateKeys.INVALID, DateKeys.dayOrdinal("2025-06-31"));
+    }
+
+    @Test
+    public void dayOrdinal_acceptsSingleDigitMonthAndDay() {
+        int expected = DateKeys.dayOrdinal("2025-03-07");
+        assertEquals(expected, DateKeys.dayOrdinal("2025-3-7"));
+        assertEquals(expected, DateKeys.dayOrdinal("2025-03-7"));
+        assertEquals(expected, DateKeys.dayOrdinal("2025-3-07"));
+    }
+
+    @Test
+    public void dayOrdinal_rejectsMalformedKeys() {
+        String[] bad = {
+                null, "", "2025", "2025-03", "2025/03/07", "25-03-07", "2025-13-01", "2025-00-10",
+                "2025-03-00", "2025-03-32", "2025-03-07 ", "2025-3-", "2025--07", "2025-03-007",
+                "2025-0a-07", "abcd-03-07", "2025-03-07T08:00:00"
+        };
+        for (String key : bad) {
+            assertEquals("Accepted " + key, DateKeys.INVALID, DateKeys.dayOrdinal(key));
+        }
+    }
+
+    @Test
+    public void hourOrdinal() {
+        assertEquals(0, DateKeys.hourOrdinal("00"));
+        assertEquals(7, DateKeys.hourOrdinal("7"));
+        assertEquals(23, DateKeys.hourOrdinal("23"));
+        assertEquals(DateKeys.INVALID, DateKeys.hourOrdinal("24"));
+        assertEquals(DateKeys.INVALID, DateKeys.hourOrdinal("007"));
+        assertEquals(DateKeys.INVALID, DateKeys.hourOrdinal(""));
+        assertEquals(DateKeys.INVALID, DateKeys.hourOrdinal(null));
+        assertEquals("05", DateKeys.hourKey(5));
+    }
+
+    @Test
+    public void manilaDayStartsAtSixteenUtc() {
+        // 2025-03-09T16:00:00Z is midnight of 2025-03-10 in Manila
+        long midnight = LocalDateTime.of(2025, 3, 10, 0, 0).atZone(MANILA).toInstant().toEpochMilli();
+        int day = DateKeys.dayOrdinal("2025-03-10");
+        assertEquals(midnight, DateKeys.startOfDayMs(day));
+
+        assertEquals(day, DateKeys.dayOrdinalAt(midnight));
+        assertEquals(0, DateKeys.hourAt(midnight));
+        assertEquals(day - 1, DateKeys.dayOrdinalAt(midnight - 1));
+        assertEquals(23, DateKeys.hourAt(midnight - 1));
+        assertEquals("2025-03-09T23:59:59", DateKeys.bucketKey(midnight - 1));
+        assertEquals("2025-03-10T00:00:00", DateKeys.bucketKey(midnight));
+    }
+
+    @Test
+    public void hourBoundaries_matchJavaTime() {
+        DateTimeFormatter bucket = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+        long start = LocalDateTime.of(2024, 2, 28, 0, 0).atZone(MANILA).toInstant().toEpochMilli();
+        for (long t = start; t < start + 3 * DateKeys.DAY_MS; t += DateKeys.HOUR_MS / 2 - 1) {
+            LocalDateTime local = LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(t), MANILA);
+            String key = bucket.format(local);
+            assertEquals(key, DateKeys.bucketKey(t));
+            assertEquals(local.getHour(), DateKeys.hourAt(t));
+            assertEquals(local.toLocalDate().toEpochDay(), DateKeys.dayOrdinalAt(t));
+            assertEquals(t - t % 1000, DateKeys.bucketTimeMs(key));
+            assertEquals(key.substring(11, 16), DateKeys.timeLabel(t));
+            assertEquals(key.substring(11), DateKeys.timeOfDay(t));
+        }
+    }
+
+    @Test
+    public void bucketTimeMs_rejectsMalformedKeys() {
+        String[] bad = {
+                null, "2025-03-10", "2025-03-10 08:00:00", "2025-03-10T24:00:00", "2025-03-10T08:60:00",
+                "2025-03-10T08:00:60", "2025-02-30T08:00:00", "UPTIME-000123", "2025-03-10T8:00:00"
+        };
+        for (String key : bad) {
+            assertEquals("Accepted " + key, Long.MIN_VALUE, DateKeys.bucketTimeMs(key));
+        }
+    }
+
+    @Test
+    public void labels() {
+        int day = DateKeys.dayOrdinal("2025-03-07");
+        assertEquals("03-07", DateKeys.monthDayLabel(day));
+        assertEquals("03/07/2025", DateKeys.displayDate(day));
+    }
+
+    @Test
+    public void secondOfDay_parsesClockTimes() {
+        assertEquals(0, DateKeys.secondOfDay("00:00:00"));
+        assertEquals(8 * 3600 + 5 * 60 + 3, DateKeys.secondOfDay("08:05:03"));
+        assertEquals(8 * 3600 + 5 * 60 + 3, DateKeys.secondOfDay("8:5:3"));
+        assertEquals(23 * 3600 + 59 * 60, DateKeys.secondOfDay("23:59"));
+        String[] bad = {null, "", "08", "24:00:00", "08:60:00", "08:00:60", "008:00:00", "08:00:", "a8:00:00", "08:00:00:00"};
+        for (String time : bad) {
+            assertEquals("Accepted " + time, DateKeys.INVALID, DateKeys.secondOfDay(time));
+        }
+    }
+
+    @Test
+    public void clockLabel_usesTwelveHourClock() {
+        assertEquals("12:00 AM", DateKeys.clockLabel(0));
+        assertEquals("12:59 AM", DateKeys.clockLabel(59 * 60 + 59));
+        assertEquals("09:30 AM", DateKeys.clockLabel(DateKeys.secondOfDay("09:30:15")));
+        assertEquals("12:00 PM", DateKeys.clockLabel(12 * 3600));
+        assertEquals("07:45 PM", DateKeys.clockLabel(DateKeys.secondOfDay("19:45:00")));
+        assertEquals("11:59 PM", DateKeys.clockLabel(DateKeys.secondOfDay("23:59:59")));
+    }
+}
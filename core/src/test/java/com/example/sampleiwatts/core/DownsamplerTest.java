@@ -0,0 +1,145 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DownsamplerTest {
+
+    @Test
+    public void seriesThatFits_isReturnedWhole() {
+        double[] y = {3, 1, 4, 1, 5};
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(y, 5));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(y, 500));
+    }
+
+    @Test
+    public void tooFewPoints_returnsWholeSeries() {
+        double[] y = {3, 1, 4, 1, 5};
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(y, 2));
+    }
+
+    @Test
+    public void emptySeries_returnsNothing() {
+        assertEquals(0, Downsampler.lttb(new double[0], 10).length);
+    }
+
+    @Test
+    public void keepsFirstAndLastInIncreasingOrder() {
+        double[] y = series(1000, 7L);
+        int[] kept = Downsampler.lttb(y, 50);
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(999, kept[49]);
+        assertIncreasing(kept);
+    }
+
+    @Test
+    public void keepsSingleSpike() {
+        double[] y = new double[365];
+        Arrays.fill(y, 1.0);
+        y[200] = 40.0;
+        y[201] = 0.5;
+        int[] kept = Downsampler.lttb(y, 30);
+        assertContains(kept, 200);
+        assertContains(kept, 201);
+    }
+
+    @Test
+    public void peakAndTroughInSameBucket_bothKept() {
+        double[] y = new double[100];
+        Arrays.fill(y, 10.0);
+        y[40] = 0.0;
+        y[41] = 20.0;
+        int[] kept = Downsampler.lttb(y, 10);
+        assertEquals(10, kept.length);
+        assertContains(kept, 40);
+        assertContains(kept, 41);
+        assertIncreasing(kept);
+    }
+
+    @Test
+    public void peakAndTroughInLastBucket_bothKept() {
+        double[] y = new double[100];
+        Arrays.fill(y, 10.0);
+        y[97] = 20.0;
+        y[98] = 0.0;
+        int[] kept = Downsampler.lttb(y, 10);
+        assertContains(kept, 97);
+        assertContains(kept, 98);
+        assertIncreasing(kept);
+    }
+
+    @Test
+    public void peakAndTroughInFirstBucket_bothKept() {
+        double[] y = new double[100];
+        Arrays.fill(y, 10.0);
+        y[2] = 20.0;
+        y[1] = 0.0;
+        int[] kept = Downsampler.lttb(y, 4);
+        assertContains(kept, 1);
+        assertContains(kept, 2);
+        assertIncreasing(kept);
+    }
+
+    @Test
+    public void randomSeries_alwaysKeepGlobalExtremes() {
+        Random random = new Random(42L);
+        for (int run = 0; run < 300; run++) {
+            int n = 10 + random.nextInt(3000);
+            int maxPoints = 4 + random.nextInt(Math.min(n, 400));
+            double[] y = series(n, random.nextLong());
+            int[] kept = Downsampler.lttb(y, maxPoints);
+
+            assertEquals(Math.min(n, maxPoints), kept.length);
+            assertEquals(0, kept[0]);
+            assertEquals(n - 1, kept[kept.length - 1]);
+            assertIncreasing(kept);
+            assertContains(kept, argMax(y));
+            assertContains(kept, argMin(y));
+        }
+    }
+
+    private static double[] series(int n, long seed) {
+        Random random = new Random(seed);
+        double[] y = new double[n];
+        double level = 5.0;
+        for (int i = 0; i < n; i++) {
+            level = Math.max(0.0, level + random.nextGaussian());
+            y[i] = level + (random.nextDouble() < 0.01 ? 30.0 * random.nextDouble() : 0.0);
+        }
+        return y;
+    }
+
+    private static int argMax(double[] y) {
+        int best = 0;
+        for (int i = 1; i < y.length; i++) {
+            if (y[i] > y[best]) best = i;
+        }
+        return best;
+    }
+
+    private static int argMin(double[] y) {
+        int best = 0;
+        for (int i = 1; i < y.length; i++) {
+            if (y[i] < y[best]) best = i;
+        }
+        return best;
+    }
+
+    private static void assertIncreasing(int[] kept) {
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue("Index " + kept[i] + " after " + kept[i - 1], kept[i] > kept[i - 1]);
+        }
+    }
+
+    private static void assertContains(int[] kept, int index) {
+        for (int k : kept) {
+            if (k == index) return;
+        }
+        fail("Index " + index + " was dropped");
+    }
+}
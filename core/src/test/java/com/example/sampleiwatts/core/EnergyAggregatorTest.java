@@ -0,0 +1,198 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EnergyAggregatorTest {
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void totalsAndAreaSums() {
+        EnergyAggregate a = EnergyAggregator.aggregate(hours());
+
+        // 1.5 + 2.0 + 0.5 + 4.0 kWh and 18 + 24 + 6 + 48 pesos
+        assertEquals(8.0, a.totalKwh, EPS);
+        assertEquals(96.0, a.totalCost, EPS);
+        assertEquals(0.5 + 1.0 + 0.25 + 2.0, a.areaKwh(1), EPS);
+        assertEquals(0.75 + 0.5 + 0.25 + 1.0, a.areaKwh(2), EPS);
+        assertEquals(0.25 + 0.5 + 0.0 + 1.0, a.areaKwh(3), EPS);
+        assertEquals(8.0, a.areaTotalKwh(), EPS);
+        assertEquals(0.0, a.areaKwh(0), 0.0);
+        assertEquals(0.0, a.areaKwh(4), 0.0);
+    }
+
+    @Test
+    public void areaShares_ofCombinedAreaKwh() {
+        EnergyAggregate a = EnergyAggregator.aggregate(hours());
+        // 3.75, 2.5 and 1.75 of 8 kWh
+        assertEquals(46.875, a.areaPercent(1), EPS);
+        assertEquals(31.25, a.areaPercent(2), EPS);
+        assertEquals(21.875, a.areaPercent(3), EPS);
+        assertEquals(100.0, a.areaPercent(1) + a.areaPercent(2) + a.areaPercent(3), EPS);
+    }
+
+    @Test
+    public void areaShares_useAreaTotalNotMeterTotal() {
+        // The meter total includes load outside the three areas
+        EnergyAggregate a = EnergyAggregator.aggregate(Collections.singletonList(
+                hour("2025-03-01", "10", 10.0, 120.0, 1.0, 1.0, 2.0, 500.0)));
+        assertEquals(10.0, a.totalKwh, EPS);
+        assertEquals(4.0, a.areaTotalKwh(), EPS);
+        assertEquals(25.0, a.areaPercent(1), EPS);
+        assertEquals(50.0, a.areaPercent(3), EPS);
+    }
+
+    @Test
+    public void dailySeries_oneEntryPerDate() {
+        EnergyAggregate a = EnergyAggregator.aggregate(hours());
+        assertEquals(3, a.dayCount());
+        assertEquals(Arrays.asList("2025-03-01", "2025-03-02", "2025-03-03"), a.dayKeys());
+        assertEquals("2025-03-02", a.dayKey(1));
+
+        assertEquals(3.5, a.dailyKwh(0), EPS);
+        assertEquals(0.5, a.dailyKwh(1), EPS);
+        assertEquals(4.0, a.dailyKwh(2), EPS);
+        assertEquals(42.0, a.dailyCost(0), EPS);
+        assertEquals(6.0, a.dailyCost(1), EPS);
+        assertEquals(48.0, a.dailyCost(2), EPS);
+
+        assertEquals(1.5, a.dailyAreaKwh(1, 0), EPS);
+        assertEquals(1.25, a.dailyAreaKwh(2, 0), EPS);
+        assertEquals(0.75, a.dailyAreaKwh(3, 0), EPS);
+        assertEquals(0.25, a.dailyAreaKwh(1, 1), EPS);
+        assertEquals(0.0, a.dailyAreaKwh(3, 1), EPS);
+        assertEquals(2.0, a.dailyAreaKwh(1, 2), EPS);
+    }
+
+    @Test
+    public void hourlyPeak_highestWithFirstOfTies() {
+        List<HourlySummary> hourly = new ArrayList<>(hours());
+        EnergyAggregate a = EnergyAggregator.aggregate(hourly);
+        assertEquals(2500.0, a.hourlyPeakWatts, 0.0);
+        assertEquals("2025-03-03", a.hourlyPeakDate);
+        assertEquals("00", a.hourlyPeakHour);
+
+        // Without the 2500 W hour, 03-01 09:00 and 03-02 20:00 tie at 1200 W
+        hourly.remove(3);
+        a = EnergyAggregator.aggregate(hourly);
+        assertEquals(1200.0, a.hourlyPeakWatts, 0.0);
+        assertEquals("2025-03-01", a.hourlyPeakDate);
+        assertEquals("09", a.hourlyPeakHour);
+    }
+
+    @Test
+    public void dailyPeak_skipsDaysWithoutPeakOrTime() {
+        List<DailySummary> daily = Arrays.asList(
+                day("2025-03-01", 3000.0, true, "14:05:00"),
+                // Higher, but no time of day
+                day("2025-03-02", 5000.0, true, null),
+                // Higher, but the peak was never written
+                day("2025-03-03", 9000.0, false, "09:00:00"),
+                day("2025-03-04", 2000.0, true, "18:30:00"));
+        EnergyAggregate a = EnergyAggregator.aggregate(hours(), daily);
+
+        assertTrue(a.hasDailyPeak);
+        assertEquals(3000.0, a.dailyPeakWatts, 0.0);
+        assertEquals("2025-03-01", a.dailyPeakDate);
+        assertEquals("14:05:00", a.dailyPeakTime);
+        // Daily summaries do not change the hourly totals
+        assertEquals(8.0, a.totalKwh, EPS);
+        assertEquals(3, a.dayCount());
+    }
+
+    @Test
+    public void dailyPeak_noneUsable() {
+        EnergyAggregate a = EnergyAggregator.aggregate(hours(),
+                Collections.singletonList(day("2025-03-01", 3000.0, false, null)));
+        assertFalse(a.hasDailyPeak);
+        assertNull(a.dailyPeakDate);
+        assertNull(a.dailyPeakTime);
+    }
+
+    @Test
+    public void hourlyOnly_matchesWithoutDailyPeak() {
+        EnergyAggregate hourlyOnly = EnergyAggregator.aggregate(hours());
+        EnergyAggregate withDaily = EnergyAggregator.aggregate(hours(),
+                Collections.singletonList(day("2025-03-01", 3000.0, true, "14:05:00")));
+
+        assertFalse(hourlyOnly.hasDailyPeak);
+        assertEquals(0.0, hourlyOnly.dailyPeakWatts, 0.0);
+        assertNull(hourlyOnly.dailyPeakDate);
+        assertNull(hourlyOnly.dailyPeakTime);
+
+        assertEquals(withDaily.totalKwh, hourlyOnly.totalKwh, 0.0);
+        assertEquals(withDaily.totalCost, hourlyOnly.totalCost, 0.0);
+        assertEquals(withDaily.hourlyPeakWatts, hourlyOnly.hourlyPeakWatts, 0.0);
+        assertEquals(withDaily.dayKeys(), hourlyOnly.dayKeys());
+        for (int area = 1; area <= EnergyAggregate.AREA_COUNT; area++) {
+            assertEquals(withDaily.areaKwh(area), hourlyOnly.areaKwh(area), 0.0);
+        }
+    }
+
+    @Test
+    public void emptyInput_isAllZero() {
+        EnergyAggregate a = EnergyAggregator.aggregate(Collections.emptyList(), Collections.emptyList());
+        assertEquals(0.0, a.totalKwh, 0.0);
+        assertEquals(0.0, a.totalCost, 0.0);
+        assertEquals(0.0, a.areaTotalKwh(), 0.0);
+        assertEquals(0.0, a.areaPercent(1), 0.0);
+        assertEquals(0, a.dayCount());
+        assertTrue(a.dayKeys().isEmpty());
+        assertEquals(0.0, a.hourlyPeakWatts, 0.0);
+        assertNull(a.hourlyPeakDate);
+        assertNull(a.hourlyPeakHour);
+        assertFalse(a.hasDailyPeak);
+    }
+
+    @Test
+    public void zeroPeaks_leavePeakUnset() {
+        EnergyAggregate a = EnergyAggregator.aggregate(Collections.singletonList(
+                hour("2025-03-01", "03", 0.0, 0.0, 0.0, 0.0, 0.0, 0.0)));
+        assertEquals(1, a.dayCount());
+        assertEquals(0.0, a.hourlyPeakWatts, 0.0);
+        assertNull(a.hourlyPeakDate);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void dayKeys_areReadOnly() {
+        EnergyAggregator.aggregate(hours()).dayKeys().add("2025-03-04");
+    }
+
+    // Two hours on 03-01 and one each on 03-02 and 03-03
+    private static List<HourlySummary> hours() {
+        return Arrays.asList(
+                hour("2025-03-01", "08", 1.5, 18.0, 0.5, 0.75, 0.25, 900.0),
+                hour("2025-03-01", "09", 2.0, 24.0, 1.0, 0.5, 0.5, 1200.0),
+                hour("2025-03-02", "20", 0.5, 6.0, 0.25, 0.25, 0.0, 1200.0),
+                hour("2025-03-03", "00", 4.0, 48.0, 2.0, 1.0, 1.0, 2500.0));
+    }
+
+    private static HourlySummary hour(String date, String hour, double kwh, double cost,
+                                      double area1, double area2, double area3, double peakWatts) {
+        HourlySummary h = new HourlySummary();
+        h.date = date;
+        h.hour = hour;
+        h.totalKwh = kwh;
+        h.totalCost = cost;
+        h.area1Kwh = area1;
+        h.area2Kwh = area2;
+        h.area3Kwh = area3;
+        h.peakWatts = peakWatts;
+        return h;
+    }
+
+    private static DailySummary day(String date, double peakWatts, boolean hasPeak, String peakTime) {
+        DailySummary d = new DailySummary();
+        d.date = date;
+        d.peakWatts = peakWatts;
+        d.hasPeakWatts = hasPeak;
+        d.peakTime = peakTime;
+        return d;
+    }
+}
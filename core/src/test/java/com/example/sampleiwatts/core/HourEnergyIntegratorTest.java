@@ -0,0 +1,176 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HourEnergyIntegratorTest {
+    private static final double EPS = 1e-12;
+    private static final long HOUR = DateKeys.HOUR_MS;
+    // 2025-03-10 08:00 Manila
+    private static final long H0 = DateKeys.startOfDayMs(DateKeys.dayOrdinal("2025-03-10")) + 8 * HOUR;
+    private static final long H1 = H0 + HOUR;
+    private static final long H2 = H1 + HOUR;
+
+    private HourEnergyIntegrator integrator;
+
+    @Before
+    public void setUp() {
+        integrator = new HourEnergyIntegrator();
+    }
+
+    @Test
+    public void hourStart_floorsToTheHour() {
+        assertEquals(H0, HourEnergyIntegrator.hourStart(H0));
+        assertEquals(H0, HourEnergyIntegrator.hourStart(H1 - 1));
+        assertEquals(H1, HourEnergyIntegrator.hourStart(H1 + 30 * 60_000L));
+        assertEquals(8, DateKeys.hourAt(HourEnergyIntegrator.hourStart(H0 + 59 * 60_000L)));
+    }
+
+    @Test
+    public void constantKilowatt_forAnHour_isOneKwh() {
+        // 1000 W on area 1 and 500 W on area 3, a reading every 30 s from 08:00 to 08:59:30
+        for (long t = H0; t < H1; t += 30_000L) {
+            assertTrue(integrator.add(t, 1000.0, 0.0, 500.0));
+        }
+        // The 09:00 reading closes the last 30 s of the hour
+        integrator.add(H1, 1000.0, 0.0, 500.0);
+
+        assertEquals(1.0, integrator.kwh(H0, 1), EPS);
+        assertEquals(0.0, integrator.kwh(H0, 2), EPS);
+        assertEquals(0.5, integrator.kwh(H0, 3), EPS);
+        assertEquals(1.5, integrator.kwh(H0, 0), EPS);
+        assertEquals(HOUR, integrator.coveredMs(H0));
+        assertEquals(120, integrator.readings(H0));
+
+        // The 09:00 reading starts the next hour with nothing integrated yet
+        assertEquals(1, integrator.readings(H1));
+        assertEquals(0.0, integrator.kwh(H1, 0), 0.0);
+        assertEquals(0L, integrator.coveredMs(H1));
+    }
+
+    @Test
+    public void trapezoid_betweenTwoReadings() {
+        // 0 W to 600 W over 10 s: 300 W * 10 s = 3000 J = 3000 / 3.6e6 kWh
+        integrator.add(H0 + 1000L, 0.0, 0.0, 0.0);
+        integrator.add(H0 + 11_000L, 600.0, 0.0, 0.0);
+        assertEquals(3000.0 / 3_600_000.0, integrator.kwh(H0, 1), EPS);
+        assertEquals(10_000L, integrator.coveredMs(H0));
+    }
+
+    @Test
+    public void segmentAcrossHour_isSplitAtTheBoundary() {
+        // 08:59:50 at 0 W, 09:00:10 at 2000 W: 1000 W interpolated at 09:00
+        integrator.add(H1 - 10_000L, 0.0, 0.0, 0.0);
+        integrator.add(H1 + 10_000L, 2000.0, 0.0, 0.0);
+
+        // 08:59:50-09:00: (0 + 1000) / 2 W for 10 s = 5000 J
+        assertEquals(5000.0 / 3_600_000.0, integrator.kwh(H0, 1), EPS);
+        assertEquals(10_000L, integrator.coveredMs(H0));
+        // 09:00-09:00:10: (1000 + 2000) / 2 W for 10 s = 15000 J
+        assertEquals(15_000.0 / 3_600_000.0, integrator.kwh(H1, 1), EPS);
+        assertEquals(10_000L, integrator.coveredMs(H1));
+        assertEquals(1, integrator.readings(H0));
+        assertEquals(1, integrator.readings(H1));
+    }
+
+    @Test
+    public void splitAtBoundary_perArea() {
+        // Area 2 falls from 3600 W to 0 W, area 3 holds 360 W, over 08:59:45 .. 09:00:15
+        integrator.add(H1 - 15_000L, 0.0, 3600.0, 360.0);
+        integrator.add(H1 + 15_000L, 0.0, 0.0, 360.0);
+
+        // Area 2 is 1800 W at 09:00: (3600 + 1800) / 2 * 15 s = 40500 J before, (1800 + 0) / 2 * 15 s = 13500 J after
+        assertEquals(40_500.0 / 3_600_000.0, integrator.kwh(H0, 2), EPS);
+        assertEquals(13_500.0 / 3_600_000.0, integrator.kwh(H1, 2), EPS);
+        // Area 3: 360 W * 15 s = 5400 J on each side
+        assertEquals(5400.0 / 3_600_000.0, integrator.kwh(H0, 3), EPS);
+        assertEquals(5400.0 / 3_600_000.0, integrator.kwh(H1, 3), EPS);
+        assertEquals((40_500.0 + 5400.0) / 3_600_000.0, integrator.kwh(H0, 0), EPS);
+    }
+
+    @Test
+    public void gapLongerThanMax_addsNoEnergy() {
+        integrator.add(H0, 1000.0, 0.0, 0.0);
+        integrator.add(H0 + HourEnergyIntegrator.MAX_GAP_MS + 1, 1000.0, 0.0, 0.0);
+        assertEquals(0.0, integrator.kwh(H0, 0), 0.0);
+        assertEquals(0L, integrator.coveredMs(H0));
+        assertEquals(2, integrator.readings(H0));
+
+        // Integration resumes from the reading after the gap: 1000 W * 30 s = 30000 J
+        integrator.add(H0 + HourEnergyIntegrator.MAX_GAP_MS + 1 + 30_000L, 1000.0, 0.0, 0.0);
+        assertEquals(30_000.0 / 3_600_000.0, integrator.kwh(H0, 0), EPS);
+    }
+
+    @Test
+    public void gapOfExactlyMax_isIntegrated() {
+        integrator.add(H0, 1000.0, 0.0, 0.0);
+        integrator.add(H0 + HourEnergyIntegrator.MAX_GAP_MS, 1000.0, 0.0, 0.0);
+        assertEquals(60_000.0 / 3_600_000.0, integrator.kwh(H0, 0), EPS);
+    }
+
+    @Test
+    public void gapAcrossHour_rollsWithoutEnergy() {
+        integrator.add(H1 - 40_000L, 1000.0, 0.0, 0.0);
+        integrator.add(H1 + 40_000L, 1000.0, 0.0, 0.0);
+        assertEquals(0.0, integrator.kwh(H0, 0), 0.0);
+        assertEquals(0.0, integrator.kwh(H1, 0), 0.0);
+        assertEquals(1, integrator.readings(H0));
+        assertEquals(1, integrator.readings(H1));
+    }
+
+    @Test
+    public void onlyCurrentAndPreviousHour_areKept() {
+        integrator.add(H0 + 1000L, 100.0, 0.0, 0.0);
+        integrator.add(H1 + 1000L, 200.0, 0.0, 0.0);
+        assertEquals(1, integrator.readings(H0));
+        assertEquals(1, integrator.readings(H1));
+
+        integrator.add(H2 + 1000L, 300.0, 0.0, 0.0);
+        assertEquals(0, integrator.readings(H0));
+        assertEquals(0.0, integrator.peakWatts(H0), 0.0);
+        assertEquals(Long.MIN_VALUE, integrator.peakTimeMs(H0));
+        assertEquals(200.0, integrator.peakWatts(H1), 0.0);
+        assertEquals(300.0, integrator.peakWatts(H2), 0.0);
+
+        // An hour not reached yet holds nothing
+        assertEquals(0, integrator.readings(H2 + HOUR));
+    }
+
+    @Test
+    public void olderReading_isRejected() {
+        integrator.add(H0 + 20_000L, 1000.0, 0.0, 0.0);
+        assertFalse(integrator.add(H0 + 10_000L, 5000.0, 0.0, 0.0));
+        assertEquals(1, integrator.readings(H0));
+        assertEquals(1000.0, integrator.peakWatts(H0), 0.0);
+
+        // Same time is accepted and adds a zero-length segment
+        assertTrue(integrator.add(H0 + 20_000L, 1000.0, 0.0, 0.0));
+        assertEquals(0.0, integrator.kwh(H0, 0), 0.0);
+    }
+
+    @Test
+    public void peak_isHighestTotalAndFirstOfTies() {
+        integrator.add(H0 + 1000L, 100.0, 100.0, 100.0);
+        integrator.add(H0 + 2000L, 500.0, 0.0, 0.0);
+        integrator.add(H0 + 3000L, 0.0, 500.0, 0.0);
+        integrator.add(H0 + 4000L, 10.0, 10.0, 10.0);
+        assertEquals(500.0, integrator.peakWatts(H0), 0.0);
+        assertEquals(H0 + 2000L, integrator.peakTimeMs(H0));
+    }
+
+    @Test
+    public void clear_forgetsEverything() {
+        integrator.add(H1 + 1000L, 1000.0, 0.0, 0.0);
+        integrator.add(H1 + 2000L, 1000.0, 0.0, 0.0);
+        integrator.clear();
+        assertEquals(0, integrator.readings(H1));
+        assertEquals(0.0, integrator.kwh(H1, 0), 0.0);
+
+        // An older time is accepted after clear, with no segment back to the old reading
+        assertTrue(integrator.add(H0 + 1000L, 1000.0, 0.0, 0.0));
+        assertEquals(1, integrator.readings(H0));
+        assertEquals(0.0, integrator.kwh(H0, 0), 0.0);
+    }
+}
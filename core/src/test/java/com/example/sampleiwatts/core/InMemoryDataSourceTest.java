@@ -0,0 +1,234 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InMemoryDataSourceTest {
+    private InMemoryDataSource source;
+
+    @Before
+    public void setUp() {
+        source = new InMemoryDataSource(new InMemoryTree());
+        // Five buckets with two readings each
+        for (int minute = 0; minute < 5; minute++) {
+            String bucket = "logs/2025-03-10T08:0" + minute + ":00";
+            source.put(bucket + "/a", reading(1.0 + minute));
+            source.put(bucket + "/b", reading(2.0 + minute));
+        }
+    }
+
+    @Test
+    public void get_wholeNode_countsBranchesAndLeaves() {
+        DataNode node = getValue(source.ref("logs"));
+        assertTrue(node.exists());
+        assertEquals("logs", node.getKey());
+        assertEquals(5, node.getChildrenCount());
+        // logs + 5 buckets + 10 readings with 2 leaves each
+        assertEquals(1 + 5 + 10 * 3, source.deliveredNodes());
+        assertEquals(1, source.deliveries());
+    }
+
+    @Test
+    public void get_childPath_readsLeaves() {
+        DataNode node = getValue(source.ref("logs").child("2025-03-10T08:02:00").child("b"));
+        assertEquals(4.0, ((Number) node.child("C1_A").getValue()).doubleValue(), 0.0);
+        assertFalse(node.child("missing").exists());
+        assertEquals(3, source.deliveredNodes());
+    }
+
+    @Test
+    public void get_missingPath_doesNotExist() {
+        DataNode node = getValue(source.ref("hourly_summaries").child("2025-03-10"));
+        assertFalse(node.exists());
+        assertEquals(0, node.getChildrenCount());
+        assertEquals(0, source.deliveredNodes());
+        assertEquals(1, source.deliveries());
+    }
+
+    @Test
+    public void startAtEndAt_areInclusiveKeyBounds() {
+        DataNode node = getValue(source.ref("logs").orderByKey()
+                .startAt("2025-03-10T08:01:00").endAt("2025-03-10T08:03:00"));
+        assertEquals(Arrays.asList("2025-03-10T08:01:00", "2025-03-10T08:02:00", "2025-03-10T08:03:00"), childKeys(node));
+        assertEquals(1 + 3 + 6 * 3, source.deliveredNodes());
+    }
+
+    @Test
+    public void startAt_betweenKeys_startsAtNextKey() {
+        DataNode node = getValue(source.ref("logs").orderByKey().startAt("2025-03-10T08:02:30"));
+        assertEquals(Arrays.asList("2025-03-10T08:03:00", "2025-03-10T08:04:00"), childKeys(node));
+    }
+
+    @Test
+    public void startAfterEnd_matchesNothing() {
+        DataNode node = getValue(source.ref("logs").orderByKey()
+                .startAt("2025-03-10T08:04:00").endAt("2025-03-10T08:01:00"));
+        assertFalse(node.exists());
+        assertEquals(0, source.deliveredNodes());
+    }
+
+    @Test
+    public void limitToLast_keepsNewestChildrenInKeyOrder() {
+        DataNode node = getValue(source.ref("logs").orderByKey().limitToLast(2));
+        assertEquals(Arrays.asList("2025-03-10T08:03:00", "2025-03-10T08:04:00"), childKeys(node));
+
+        node = getValue(source.ref("logs").orderByKey().endAt("2025-03-10T08:02:00").limitToLast(1));
+        assertEquals(Arrays.asList("2025-03-10T08:02:00"), childKeys(node));
+    }
+
+    @Test
+    public void get_returnsCopy() {
+        DataNode before = getValue(source.ref("logs").child("2025-03-10T08:00:00"));
+        source.put("logs/2025-03-10T08:00:00/c", reading(9.0));
+        assertEquals(2, before.getChildrenCount());
+    }
+
+    @Test
+    public void observe_deliversNowAndOnWritesBelowPath() {
+        List<DataNode> events = new ArrayList<>();
+        DataSource.Handle handle = source.ref("logs").child("2025-03-10T08:04:00").observe(collect(events));
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getChildrenCount());
+
+        source.put("logs/2025-03-10T08:04:00/c", reading(7.0));
+        assertEquals(2, events.size());
+        assertEquals(3, events.get(1).getChildrenCount());
+
+        // A sibling bucket does not touch the observed path
+        source.put("logs/2025-03-10T08:05:00/a", reading(7.0));
+        assertEquals(2, events.size());
+
+        handle.remove();
+        source.put("logs/2025-03-10T08:04:00/d", reading(7.0));
+        assertEquals(2, events.size());
+        assertEquals(0, source.liveObserverCount());
+    }
+
+    @Test
+    public void observeChildren_addedThenOnlyTheWrittenChild() {
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        DataSource.Handle handle = source.ref("logs").orderByKey().startAt("2025-03-10T08:03:00")
+                .observeChildren(collect(added, changed));
+        assertEquals(Arrays.asList("2025-03-10T08:03:00", "2025-03-10T08:04:00"), added);
+        assertEquals(1 + 2 * 3 + 1 + 2 * 3, source.deliveredNodes());
+
+        source.resetCounters();
+        source.put("logs/2025-03-10T08:05:00/a", reading(5.0));
+        assertEquals(Arrays.asList("2025-03-10T08:03:00", "2025-03-10T08:04:00", "2025-03-10T08:05:00"), added);
+        // Only the new bucket travels, not the whole range again
+        assertEquals(1 + 3, source.deliveredNodes());
+        assertEquals(1, source.deliveries());
+
+        source.put("logs/2025-03-10T08:04:00/c", reading(5.0));
+        assertEquals(Arrays.asList("2025-03-10T08:04:00"), changed);
+
+        // Below startAt: no event
+        source.put("logs/2025-03-10T08:00:00/c", reading(5.0));
+        assertEquals(3, added.size());
+        assertEquals(1, changed.size());
+
+        handle.remove();
+        source.put("logs/2025-03-10T08:06:00/a", reading(5.0));
+        assertEquals(3, added.size());
+    }
+
+    @Test
+    public void resumedLogQuery_pullsOnlyNewReadings() {
+        // One synthetic day at one reading per 10 s, the shape the real-time screen reads
+        InMemoryDataSource day = new InMemoryDataSource(new InMemoryTree());
+        SyntheticWorkload workload = new SyntheticWorkload("2025-03-10", 1);
+        workload.readingIntervalMs = 10_000L;
+        workload.generate(day);
+
+        DataNode full = getValue(day.ref("logs").orderByKey()
+                .startAt("2025-03-10T00:00:00").endAt("2025-03-10T23:59:59"));
+        long fullNodes = day.deliveredNodes();
+        assertEquals(24 * 60, full.getChildrenCount());
+        int readings = 0;
+        for (DataNode bucket : full.getChildren()) {
+            readings += (int) bucket.getChildrenCount();
+        }
+        assertEquals(workload.logReadingCount(), readings);
+
+        // Resuming from the last hour's first bucket pulls about 1/24 of the day
+        day.resetCounters();
+        DataNode lastHour = getValue(day.ref("logs").orderByKey()
+                .startAt("2025-03-10T23:00:00").endAt("2025-03-10T23:59:59"));
+        assertEquals(60, lastHour.getChildrenCount());
+        assertTrue(day.deliveredNodes() * 20 < fullNodes);
+    }
+
+    private DataNode getValue(DataQuery query) {
+        DataNode[] result = new DataNode[1];
+        query.get(new DataSource.ValueCallback() {
+            @Override
+            public void onValue(DataNode node) {
+                result[0] = node;
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        });
+        assertNotNull("Callbacks run on the calling thread", result[0]);
+        return result[0];
+    }
+
+    private static DataSource.ValueCallback collect(List<DataNode> events) {
+        return new DataSource.ValueCallback() {
+            @Override
+            public void onValue(DataNode node) {
+                events.add(node);
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        };
+    }
+
+    private static DataSource.ChildCallback collect(List<String> added, List<String> changed) {
+        return new DataSource.ChildCallback() {
+            @Override
+            public void onChildAdded(DataNode child) {
+                added.add(child.getKey());
+            }
+
+            @Override
+            public void onChildChanged(DataNode child) {
+                changed.add(child.getKey());
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        };
+    }
+
+    private static List<String> childKeys(DataNode node) {
+        List<String> keys = new ArrayList<>();
+        for (DataNode child : node.getChildren()) {
+            keys.add(child.getKey());
+        }
+        return keys;
+    }
+
+    private static Map<String, Object> reading(double current) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("C1_A", current);
+        entry.put("Vbat_percent", 80L);
+        return entry;
+    }
+}
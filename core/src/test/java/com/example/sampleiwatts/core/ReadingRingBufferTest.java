@@ -0,0 +1,184 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReadingRingBufferTest {
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void empty_queriesReturnDefaults() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(4);
+        assertEquals(0, buffer.size());
+        assertEquals(Long.MIN_VALUE, buffer.newestTimeMs());
+        assertEquals(Long.MIN_VALUE, buffer.oldestTimeMs());
+        assertEquals(0, buffer.count(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0.0, buffer.avg(ReadingRingBuffer.TOTAL, Long.MIN_VALUE, Long.MAX_VALUE), 0.0);
+        assertEquals(0.0, buffer.max(ReadingRingBuffer.TOTAL, Long.MIN_VALUE, Long.MAX_VALUE), 0.0);
+        assertEquals(Long.MIN_VALUE, buffer.timeOfMax(ReadingRingBuffer.TOTAL, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(-1, buffer.latestBattery(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(buffer.latestCharging(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity_throws() {
+        new ReadingRingBuffer(0);
+    }
+
+    @Test
+    public void add_olderReading_isRejectedAndNothingChanges() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(4);
+        assertTrue(buffer.add(1000, 1.0, 0, 0, 50, null, 0));
+        assertTrue(buffer.add(2000, 2.0, 0, 0, 60, null, 0));
+
+        assertFalse(buffer.add(1999, 9.0, 9.0, 9.0, 99, true, ReadingRingBuffer.FLUCT1));
+        assertEquals(2, buffer.size());
+        assertEquals(2000, buffer.newestTimeMs());
+        assertEquals(3.0, buffer.sum(ReadingRingBuffer.AREA1, 0, 3000), EPS);
+        assertEquals(60, buffer.latestBattery(0, 3000));
+        assertEquals(0, buffer.fluctuations(0, 3000));
+    }
+
+    @Test
+    public void add_sameTime_isKept() {
+        // Readings without a device timestamp all carry their bucket's time
+        ReadingRingBuffer buffer = new ReadingRingBuffer(4);
+        assertTrue(buffer.add(1000, 1.0, 0, 0, -1, null, 0));
+        assertTrue(buffer.add(1000, 2.0, 0, 0, -1, null, 0));
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.count(1000, 1001));
+        assertEquals(0, buffer.count(0, 1000));
+        assertEquals(3.0, buffer.sum(ReadingRingBuffer.AREA1, 1000, 1001), EPS);
+    }
+
+    @Test
+    public void wrapAround_overwritesOldestAndKeepsOrder() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(3);
+        for (int i = 1; i <= 7; i++) {
+            assertTrue(buffer.add(i * 1000L, i, 0, 0, i, null, 0));
+        }
+        assertEquals(3, buffer.size());
+        assertEquals(3, buffer.capacity());
+        assertEquals(5000, buffer.oldestTimeMs());
+        assertEquals(7000, buffer.newestTimeMs());
+
+        // Only 5, 6 and 7 are left
+        assertEquals(3, buffer.count(0, Long.MAX_VALUE));
+        assertEquals(0, buffer.count(0, 5000));
+        assertEquals(5.0 + 6.0 + 7.0, buffer.sum(ReadingRingBuffer.AREA1, 0, Long.MAX_VALUE), EPS);
+        assertEquals(6.0, buffer.avg(ReadingRingBuffer.AREA1, 0, Long.MAX_VALUE), EPS);
+        assertEquals(7.0, buffer.max(ReadingRingBuffer.AREA1, 0, Long.MAX_VALUE), EPS);
+        // Window across the physical end of the arrays
+        assertEquals(6.0 + 7.0, buffer.sum(ReadingRingBuffer.AREA1, 6000, 8000), EPS);
+        assertEquals(6, buffer.latestBattery(0, 7000));
+
+        // Rejection still compares against the newest reading after wrapping
+        assertFalse(buffer.add(6500, 1.0, 0, 0, -1, null, 0));
+        assertEquals(7000, buffer.newestTimeMs());
+    }
+
+    @Test
+    public void clear_emptiesAndAcceptsOlderTimes() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(2);
+        buffer.add(5000, 1.0, 0, 0, 10, null, 0);
+        buffer.add(6000, 1.0, 0, 0, 10, null, 0);
+        buffer.add(7000, 1.0, 0, 0, 10, null, 0);
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.add(1000, 4.0, 0, 0, 10, null, 0));
+        assertEquals(1000, buffer.oldestTimeMs());
+        assertEquals(4.0, buffer.sum(ReadingRingBuffer.AREA1, 0, 2000), EPS);
+    }
+
+    @Test
+    public void window_includesFromAndExcludesTo() {
+        ReadingRingBuffer buffer = filled();
+
+        assertEquals(2, buffer.count(2000, 4000));
+        assertEquals(0, buffer.count(2000, 2000));
+        assertEquals(1, buffer.count(1999, 2001));
+        assertEquals(0, buffer.count(4001, 5000));
+        assertEquals(4, buffer.count(Long.MIN_VALUE, Long.MAX_VALUE));
+
+        // Readings at 2000 and 3000
+        assertEquals(1.5 + 3.0, buffer.sum(ReadingRingBuffer.AREA1, 2000, 4000), EPS);
+        assertEquals((1.5 + 3.0) / 2, buffer.avg(ReadingRingBuffer.AREA1, 2000, 4000), EPS);
+        assertEquals(3.0, buffer.max(ReadingRingBuffer.AREA1, 2000, 4000), EPS);
+        assertEquals(3000, buffer.timeOfMax(ReadingRingBuffer.AREA1, 2000, 4000));
+
+        // The 4000 reading holds the largest total but lies on the open end
+        assertEquals(3.0 + 0.5 + 0.25, buffer.max(ReadingRingBuffer.TOTAL, 1000, 4000), EPS);
+        assertEquals(12.0, buffer.max(ReadingRingBuffer.TOTAL, 1000, 4001), EPS);
+        assertEquals(4000, buffer.timeOfMax(ReadingRingBuffer.TOTAL, 1000, 4001));
+
+        assertEquals(0.0, buffer.avg(ReadingRingBuffer.AREA1, 2001, 3000), 0.0);
+        assertEquals(0.0, buffer.max(ReadingRingBuffer.AREA1, 2001, 3000), 0.0);
+    }
+
+    @Test
+    public void columns_sumAreasForTotal() {
+        ReadingRingBuffer buffer = filled();
+        assertEquals(1.0 + 1.5 + 3.0 + 2.0, buffer.sum(ReadingRingBuffer.AREA1, 0, 5000), EPS);
+        assertEquals(0.5 * 4, buffer.sum(ReadingRingBuffer.AREA2, 0, 5000), EPS);
+        assertEquals(0.25 * 2 + 9.5, buffer.sum(ReadingRingBuffer.AREA3, 0, 5000), EPS);
+        assertEquals(7.5 + 2.0 + 0.5 + 9.5, buffer.sum(ReadingRingBuffer.TOTAL, 0, 5000), EPS);
+    }
+
+    @Test
+    public void timeOfMax_firstOfEqualValues() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(4);
+        buffer.add(1000, 2.0, 0, 0, -1, null, 0);
+        buffer.add(2000, 2.0, 0, 0, -1, null, 0);
+        assertEquals(1000, buffer.timeOfMax(ReadingRingBuffer.AREA1, 0, 3000));
+    }
+
+    @Test
+    public void latestBattery_newestReportingReadingBeforeTo() {
+        ReadingRingBuffer buffer = filled();
+        // 4000 did not report a battery
+        assertEquals(70, buffer.latestBattery(0, 5000));
+        assertEquals(70, buffer.latestBattery(3000, 5000));
+        assertEquals(40, buffer.latestBattery(0, 3000));
+        // Only 4000 in the window
+        assertEquals(-1, buffer.latestBattery(3001, 5000));
+        // 1000 is on the open end
+        assertEquals(-1, buffer.latestBattery(0, 1000));
+        assertEquals(40, buffer.latestBattery(1000, 1001));
+    }
+
+    @Test
+    public void batteryPercent_clampedToHundred() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(1);
+        buffer.add(1000, 0, 0, 0, 250, null, 0);
+        assertEquals(100, buffer.latestBattery(0, 2000));
+    }
+
+    @Test
+    public void latestCharging_skipsReadingsWithoutIt() {
+        ReadingRingBuffer buffer = filled();
+        // 4000 did not report charging; 3000 reported false, 2000 true
+        assertFalse(buffer.latestCharging(0, 5000));
+        assertTrue(buffer.latestCharging(0, 3000));
+        assertFalse(buffer.latestCharging(4000, 5000));
+    }
+
+    @Test
+    public void fluctuations_orOfWindow() {
+        ReadingRingBuffer buffer = filled();
+        assertEquals(ReadingRingBuffer.FLUCT1 | ReadingRingBuffer.FLUCT3, buffer.fluctuations(0, 5000));
+        assertEquals(ReadingRingBuffer.FLUCT1, buffer.fluctuations(0, 3000));
+        assertEquals(ReadingRingBuffer.FLUCT3, buffer.fluctuations(3000, 5000));
+        assertEquals(0, buffer.fluctuations(0, 2000));
+    }
+
+    // 1000..4000 at one reading per second
+    private static ReadingRingBuffer filled() {
+        ReadingRingBuffer buffer = new ReadingRingBuffer(8);
+        buffer.add(1000, 1.0, 0.5, 0.25, 40, null, 0);
+        buffer.add(2000, 1.5, 0.5, 0.0, -1, true, ReadingRingBuffer.FLUCT1);
+        buffer.add(3000, 3.0, 0.5, 0.25, 70, false, 0);
+        buffer.add(4000, 2.0, 0.5, 9.5, -1, null, ReadingRingBuffer.FLUCT3);
+        return buffer;
+    }
+}
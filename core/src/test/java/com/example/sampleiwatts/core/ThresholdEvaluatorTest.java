@@ -0,0 +1,199 @@
+package com.example.sampleiwatts.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ThresholdEvaluatorTest {
+    private static final double EPS = 1e-9;
+    private static final DateRange RANGE = new DateRange("2025-03-01", "2025-03-31");
+
+    private ThresholdEvaluator evaluator;
+
+    @Before
+    public void setUp() {
+        evaluator = new ThresholdEvaluator();
+        evaluator.setLimits(100.0, null, false);
+    }
+
+    @Test
+    public void seed_takesRangeTotals() {
+        evaluator.seed(RANGE, totals(40.0, 400.0), Collections.emptyList());
+        assertTrue(evaluator.isSeeded());
+        assertEquals(40.0, evaluator.getTotalKwh(), EPS);
+        assertEquals(400.0, evaluator.getTotalCost(), EPS);
+    }
+
+    @Test
+    public void applyHour_beforeSeed_isIgnored() {
+        evaluator.applyHour(hour("2025-03-10", "08", 5.0, 50.0));
+        assertFalse(evaluator.isSeeded());
+        assertEquals(0.0, evaluator.getTotalKwh(), EPS);
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void applyHour_newHour_addsToTotals() {
+        evaluator.seed(RANGE, totals(40.0, 400.0), Collections.emptyList());
+        evaluator.applyHour(hour("2025-03-10", "08", 2.5, 25.0));
+        assertEquals(42.5, evaluator.getTotalKwh(), EPS);
+        assertEquals(425.0, evaluator.getTotalCost(), EPS);
+    }
+
+    @Test
+    public void applyHour_seededHour_onlyAddsDifference() {
+        // 2025-03-10 08:00 is already part of the seeded totals with 1.0 kWh
+        List<HourlySummary> changing = Arrays.asList(hour("2025-03-10", "08", 1.0, 10.0));
+        evaluator.seed(RANGE, totals(40.0, 400.0), changing);
+
+        evaluator.applyHour(hour("2025-03-10", "08", 1.5, 15.0));
+        assertEquals(40.5, evaluator.getTotalKwh(), EPS);
+        assertEquals(405.0, evaluator.getTotalCost(), EPS);
+    }
+
+    @Test
+    public void applyHour_redeliveredHour_isNotCountedTwice() {
+        evaluator.seed(RANGE, totals(40.0, 400.0), Collections.emptyList());
+        HourlySummary h = hour("2025-03-10", "09", 3.0, 30.0);
+        evaluator.applyHour(h);
+        evaluator.applyHour(h);
+        assertEquals(43.0, evaluator.getTotalKwh(), EPS);
+
+        // A later, smaller value replaces the counted one
+        evaluator.applyHour(hour("2025-03-10", "09", 2.0, 20.0));
+        assertEquals(42.0, evaluator.getTotalKwh(), EPS);
+        assertEquals(420.0, evaluator.getTotalCost(), EPS);
+    }
+
+    @Test
+    public void applyHour_outsideRange_isIgnored() {
+        evaluator.seed(RANGE, totals(40.0, 400.0), Arrays.asList(hour("2025-02-28", "23", 9.0, 90.0)));
+        evaluator.applyHour(hour("2025-04-01", "00", 5.0, 50.0));
+        evaluator.applyHour(hour("2025-02-28", "23", 1.0, 10.0));
+        assertEquals(40.0, evaluator.getTotalKwh(), EPS);
+    }
+
+    @Test
+    public void seed_again_forgetsCountedHours() {
+        evaluator.seed(RANGE, totals(40.0, 400.0), Collections.emptyList());
+        evaluator.applyHour(hour("2025-03-10", "08", 2.0, 20.0));
+
+        evaluator.seed(RANGE, totals(50.0, 500.0), Collections.emptyList());
+        evaluator.applyHour(hour("2025-03-10", "08", 2.0, 20.0));
+        assertEquals(52.0, evaluator.getTotalKwh(), EPS);
+    }
+
+    @Test
+    public void evaluate_belowStart_sendsNothing() {
+        evaluator.seed(RANGE, totals(84.9, 0.0), Collections.emptyList());
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_nearAlerts_onceAtStartAndEachStep() {
+        evaluator.seed(RANGE, totals(ThresholdEvaluator.START_PERCENT, 0.0), Collections.emptyList());
+        List<ThresholdEvaluator.Alert> alerts = evaluator.evaluate();
+        assertEquals(1, alerts.size());
+        assertEquals("Threshold Alert", alerts.get(0).title);
+        assertFalse(alerts.get(0).isFinal);
+
+        // Same step (85% up to 88%) stays quiet, even when evaluated again
+        assertTrue(evaluator.evaluate().isEmpty());
+        evaluator.applyHour(hour("2025-03-10", "08", 2.9, 0.0));
+        assertTrue(evaluator.evaluate().isEmpty());
+
+        // 88% is the next step
+        evaluator.applyHour(hour("2025-03-10", "08", ThresholdEvaluator.STEP_PERCENT, 0.0));
+        assertEquals(1, evaluator.evaluate().size());
+
+        // Jumping two steps at once still sends a single alert
+        evaluator.applyHour(hour("2025-03-10", "09", 2 * ThresholdEvaluator.STEP_PERCENT, 0.0));
+        assertEquals(1, evaluator.evaluate().size());
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_nearStep_isNotRepeatedAfterDrop() {
+        evaluator.seed(RANGE, totals(89.0, 0.0), Collections.emptyList());
+        assertEquals(1, evaluator.evaluate().size());
+
+        // Hour corrected downwards then back up into the same step
+        evaluator.applyHour(hour("2025-03-10", "08", 0.0, 0.0));
+        evaluator.applyHour(hour("2025-03-10", "10", -3.0, 0.0));
+        assertTrue(evaluator.evaluate().isEmpty());
+        evaluator.applyHour(hour("2025-03-10", "10", 0.0, 0.0));
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_reached_sentOnceBelowExceeded() {
+        evaluator.seed(RANGE, totals(100.0, 0.0), Collections.emptyList());
+        List<ThresholdEvaluator.Alert> alerts = evaluator.evaluate();
+        assertEquals(1, alerts.size());
+        assertEquals("Threshold Reached", alerts.get(0).title);
+        assertFalse(alerts.get(0).isFinal);
+
+        evaluator.applyHour(hour("2025-03-10", "08", 2.9, 0.0));
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_exceeded_sendsFinalThenNothing() {
+        evaluator.seed(RANGE, totals(99.0, 0.0), Collections.emptyList());
+        evaluator.evaluate();
+
+        evaluator.applyHour(hour("2025-03-10", "08", 4.0, 0.0));
+        List<ThresholdEvaluator.Alert> alerts = evaluator.evaluate();
+        assertEquals(1, alerts.size());
+        assertEquals("Threshold Exceeded", alerts.get(0).title);
+        assertTrue(alerts.get(0).isFinal);
+
+        evaluator.applyHour(hour("2025-03-10", "09", 10.0, 0.0));
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_costLimit_triggersOnItsOwn() {
+        evaluator.setLimits(null, 1000.0, false);
+        evaluator.seed(RANGE, totals(0.0, 1030.0), Collections.emptyList());
+        List<ThresholdEvaluator.Alert> alerts = evaluator.evaluate();
+        assertEquals(1, alerts.size());
+        assertTrue(alerts.get(0).isFinal);
+    }
+
+    @Test
+    public void evaluate_finalAlreadyNotified_sendsNothing() {
+        evaluator.setLimits(100.0, null, true);
+        evaluator.seed(RANGE, totals(150.0, 0.0), Collections.emptyList());
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    @Test
+    public void evaluate_withoutLimits_sendsNothing() {
+        evaluator.setLimits(null, null, false);
+        assertFalse(evaluator.hasLimits());
+        evaluator.seed(RANGE, totals(1e6, 1e6), Collections.emptyList());
+        assertTrue(evaluator.evaluate().isEmpty());
+    }
+
+    private static RangeTotals totals(double kwh, double cost) {
+        RangeTotals totals = new RangeTotals();
+        totals.totalKwh = kwh;
+        totals.totalCost = cost;
+        return totals;
+    }
+
+    private static HourlySummary hour(String date, String hour, double kwh, double cost) {
+        HourlySummary h = new HourlySummary();
+        h.date = date;
+        h.hour = hour;
+        h.totalKwh = kwh;
+        h.totalCost = cost;
+        return h;
+    }
+}
@@ -0,0 +1,44 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.sampleiwatts.macrobenchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        // Baseline Profile generation needs API 28+ (rooted) or 33+
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+    experimentalProperties["android.experimental.self-instrumenting"] = true
+}
+
+// Generate on the connected emulator or device
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
+
+// The journeys read the synthetic workload from the Realtime Database emulator. Fill it
+// once with a debug build, then point the benchmark build at it without refilling:
+//   ./gradlew :app:installDebug -Piwatts.dbEmulator=10.0.2.2:9000 -Piwatts.syntheticDays=365
+//   ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest -Piwatts.dbEmulator=10.0.2.2:9000
+//   ./gradlew :app:generateBaselineProfile -Piwatts.dbEmulator=10.0.2.2:9000
+// Results are in build/outputs/connected_android_test_additional_output; the profile is
+// written to app/src/release/generated/baselineProfiles.
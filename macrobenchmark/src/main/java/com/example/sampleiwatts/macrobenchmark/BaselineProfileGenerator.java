@@ -0,0 +1,46 @@
+package com.example.sampleiwatts.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the classes and methods used by cold start, the first dashboard charts, the
+ * tab switches and a historical range change into the app's Baseline Profile. The
+ * startup part also goes into the startup profile, which orders the dex for startup.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(
+                Journeys.TARGET_PACKAGE,
+                15,
+                3,
+                null,
+                true,
+                false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    Journeys.startLoggedIn(scope);
+
+                    UiDevice device = scope.getDevice();
+                    Journeys.openRealTime(device);
+                    Journeys.openHistorical(device);
+                    Journeys.pickHistoricalStartDay(device, 1);
+                    Journeys.openCostEstimation(device);
+                    Journeys.openDashboard(device);
+                    return Unit.INSTANCE;
+                });
+    }
+}
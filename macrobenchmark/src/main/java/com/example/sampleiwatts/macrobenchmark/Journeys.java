@@ -0,0 +1,113 @@
+package com.example.sampleiwatts.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.regex.Pattern;
+
+/**
+ * UI steps shared by the benchmarks and the Baseline Profile generator. Each step
+ * waits for a view, or view text, that only the next screen has once it is filled
+ * in, so a measurement ends when that screen is drawn.
+ */
+final class Journeys {
+    static final String TARGET_PACKAGE = "com.example.sampleiwatts";
+
+    // Hardware AP credentials LoginActivity accepts
+    private static final String USERNAME = "PowerLogger";
+    private static final String PASSWORD = "admin123";
+
+    private static final long SCREEN_TIMEOUT_MS = 10_000L;
+    // Summaries come from the emulator, so allow for a slow first load
+    private static final long DATA_TIMEOUT_MS = 30_000L;
+
+    // What DashboardActivity.showTotalKwh writes, e.g. "12.345 kwh"
+    private static final Pattern TOTAL_KWH = Pattern.compile("\\S+ kwh");
+
+    private Journeys() { }
+
+    /**
+     * Grant what LoginActivity asks for, so no permission dialog covers the screens
+     */
+    static void grantPermissions(MacrobenchmarkScope scope) {
+        scope.getDevice().executeShellCommand(
+                "pm grant " + TARGET_PACKAGE + " android.permission.ACCESS_FINE_LOCATION");
+        scope.getDevice().executeShellCommand(
+                "pm grant " + TARGET_PACKAGE + " android.permission.POST_NOTIFICATIONS");
+    }
+
+    /**
+     * Start the app and log in if LoginActivity is showing; the login is kept in
+     * SharedPreferences, so later cold starts go straight to the dashboard
+     */
+    static void startLoggedIn(MacrobenchmarkScope scope) {
+        grantPermissions(scope);
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        UiObject2 username = device.findObject(res("usernameEditText"));
+        if (username != null) {
+            username.setText(USERNAME);
+            device.findObject(res("passwordEditText")).setText(PASSWORD);
+            device.findObject(res("loginButton")).click();
+        }
+        waitForDashboard(device);
+    }
+
+    /**
+     * Until the dashboard shows its energy summary. The charts are in the layout from
+     * the start, but the total reads "0" until renderEnergySummary sets it, from the
+     * cached snapshot or a fresh load, just before reportFullyDrawn.
+     */
+    static void waitForDashboard(UiDevice device) {
+        waitFor(device, res("tvTotalConsumption").text(TOTAL_KWH), DATA_TIMEOUT_MS);
+    }
+
+    static void openRealTime(UiDevice device) {
+        device.findObject(res("img_realtime_monitoring")).click();
+        waitFor(device, res("todays_total_value"), SCREEN_TIMEOUT_MS);
+    }
+
+    static void openHistorical(UiDevice device) {
+        device.findObject(res("img_historical_analysis")).click();
+        waitFor(device, res("startdate"), SCREEN_TIMEOUT_MS);
+    }
+
+    static void openCostEstimation(UiDevice device) {
+        device.findObject(res("img_cost_estimation")).click();
+        waitFor(device, res("etStartingDate"), SCREEN_TIMEOUT_MS);
+    }
+
+    static void openDashboard(UiDevice device) {
+        device.findObject(res("img_homepage")).click();
+        waitForDashboard(device);
+    }
+
+    /**
+     * Move the historical range start to the given day of the month shown in the
+     * picker, then wait for the reload to settle
+     */
+    static void pickHistoricalStartDay(UiDevice device, int dayOfMonth) {
+        device.findObject(res("startdate")).click();
+        // Day cells are described as e.g. "05 October 2026"
+        BySelector day = By.desc(Pattern.compile(String.format("0?%d \\D+ \\d{4}", dayOfMonth)));
+        waitFor(device, day, SCREEN_TIMEOUT_MS);
+        device.findObject(day).click();
+        device.findObject(By.res("android", "button1")).click();
+        device.wait(Until.gone(By.res("android", "button1")), SCREEN_TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    private static BySelector res(String id) {
+        return By.res(TARGET_PACKAGE, id);
+    }
+
+    private static void waitFor(UiDevice device, BySelector selector, long timeoutMs) {
+        if (!device.wait(Until.hasObject(selector), timeoutMs)) {
+            throw new AssertionError("Timed out waiting for " + selector);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.sampleiwatts.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+/**
+ * Frame timing of the bottom bar tabs (ButtonNavigator) and of historical range
+ * changes. frameOverrunMs above 0 is a janky frame.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NavigationBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void switchTabs() {
+        measure(scope -> {
+            UiDevice device = scope.getDevice();
+            Journeys.openRealTime(device);
+            Journeys.openHistorical(device);
+            Journeys.openCostEstimation(device);
+            Journeys.openDashboard(device);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @Test
+    public void changeHistoricalRange() {
+        measure(scope -> {
+            UiDevice device = scope.getDevice();
+            Journeys.openHistorical(device);
+            Journeys.pickHistoricalStartDay(device, 2);
+            Journeys.pickHistoricalStartDay(device, 1);
+            return Unit.INSTANCE;
+        });
+    }
+
+    // Each iteration starts from a fresh process on the dashboard, so earlier iterations'
+    // screens are not already in the back stack
+    private void measure(Function1<MacrobenchmarkScope, Unit> journey) {
+        rule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.getDevice().executeShellCommand("am force-stop " + Journeys.TARGET_PACKAGE);
+                    Journeys.startLoggedIn(scope);
+                    return Unit.INSTANCE;
+                },
+                journey);
+    }
+}
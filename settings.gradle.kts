@@ -22,4 +22,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "SampleIWATTS"
 include(":app")
+include(":core")
+include(":core-jmh")
+include(":macrobenchmark")
  
\ No newline at end of file